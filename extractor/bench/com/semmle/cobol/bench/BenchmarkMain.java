@@ -0,0 +1,55 @@
+package com.semmle.cobol.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the extractor benchmarks with one of two profiles:
+ * <ul>
+ * <li><code>throughput</code> (the default) reports operations per second.
+ * </li>
+ * <li><code>alloc</code> reports the average time per operation, along with
+ * the bytes allocated per operation and GC activity.</li>
+ * </ul>
+ * Any further arguments are taken as regular expressions selecting the
+ * benchmarks to run, e.g. <code>alloc RuleEngine</code>.
+ */
+public class BenchmarkMain {
+
+	public static void main(String[] args) throws RunnerException {
+		final String profile = args.length > 0 ? args[0] : "throughput";
+
+		final ChainedOptionsBuilder options = new OptionsBuilder() //
+				.forks(1) //
+				.warmupIterations(5) //
+				.measurementIterations(10);
+
+		if ("throughput".equals(profile)) {
+			options.mode(Mode.Throughput).timeUnit(TimeUnit.SECONDS);
+
+		} else if ("alloc".equals(profile)) {
+			options.mode(Mode.AverageTime).timeUnit(TimeUnit.MILLISECONDS)
+					.addProfiler(GCProfiler.class);
+
+		} else {
+			System.err.println("Unknown profile: " + profile
+					+ ". Use 'throughput' or 'alloc'.");
+			System.exit(1);
+			return;
+		}
+
+		if (args.length > 1)
+			for (int i = 1; i < args.length; i++)
+				options.include(args[i]);
+		else
+			options.include("com\\.semmle\\.cobol\\..*Benchmark");
+
+		new Runner(options.build()).run();
+	}
+}
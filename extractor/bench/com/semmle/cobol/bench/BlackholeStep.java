@@ -0,0 +1,29 @@
+package com.semmle.cobol.bench;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.semmle.cobol.extractor.StreamProcessingStep;
+
+import koopa.core.data.Data;
+
+/**
+ * A final step which hands everything to a {@link Blackhole}, so the JIT can't
+ * optimize away the work done by the steps before it.
+ */
+public class BlackholeStep extends StreamProcessingStep {
+
+	private final Blackhole blackhole;
+
+	public BlackholeStep(Blackhole blackhole) {
+		this.blackhole = blackhole;
+	}
+
+	@Override
+	public void push(Data d) {
+		blackhole.consume(d);
+	}
+
+	@Override
+	public void done() {
+	}
+}
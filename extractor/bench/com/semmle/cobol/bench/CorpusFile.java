@@ -0,0 +1,46 @@
+package com.semmle.cobol.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.semmle.cobol.extractor.SemmleCobolProject;
+import com.semmle.cobol.generator.test.SyntheticCorpus;
+import com.semmle.cobol.generator.test.SyntheticCorpus.Size;
+
+/**
+ * Benchmark state holding one program from the {@link SyntheticCorpus},
+ * written out to a temporary file. Every benchmark runs for each size.
+ */
+@State(Scope.Benchmark)
+public class CorpusFile {
+
+	@Param({ "SMALL", "MEDIUM", "LARGE" })
+	public Size size;
+
+	public File file;
+
+	public SemmleCobolProject project;
+
+	private File directory;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		directory = Files.createTempDirectory("cobol-bench").toFile();
+		file = SyntheticCorpus.write(size, directory);
+		project = Pipeline.newProject();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		file.delete();
+		directory.delete();
+	}
+}
@@ -0,0 +1,25 @@
+package com.semmle.cobol.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.infra.Blackhole;
+
+import koopa.core.parsers.Parse;
+import koopa.core.targets.Target;
+
+/**
+ * The raw Koopa parse, streaming its data into nothing but a
+ * {@link Blackhole}. Everything else in the pipeline builds on this.
+ */
+public class ParseBenchmark {
+
+	@Benchmark
+	public Object parse(CorpusFile corpus, final Blackhole blackhole) {
+		return Pipeline.parse(corpus.file, corpus.project,
+				new Pipeline.Stages() {
+					@Override
+					public Target create(Parse parse) {
+						return new BlackholeStep(blackhole);
+					}
+				});
+	}
+}
@@ -0,0 +1,215 @@
+package com.semmle.cobol.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.semmle.cobol.extractor.SemmleCobolProject;
+import com.semmle.cobol.extractor.StreamPipeline;
+import com.semmle.cobol.extractor.StreamProcessingStep;
+import com.semmle.cobol.halstead.CalculateHalstead;
+import com.semmle.cobol.normalization.AddControlFlowExitNodes;
+import com.semmle.cobol.normalization.AddDirectives;
+import com.semmle.cobol.normalization.AddImplicitContinueToEmptySentences;
+import com.semmle.cobol.normalization.AddImplicitSentenceToEmptyDeclarativeSections;
+import com.semmle.cobol.normalization.AddImplicitSentenceToEmptyParagraphs;
+import com.semmle.cobol.normalization.AddImplicitSentenceToEmptySections;
+import com.semmle.cobol.normalization.NormalizeRelationOperators;
+import com.semmle.cobol.normalization.NormalizeText;
+import com.semmle.cobol.normalization.UnpackTrees;
+import com.semmle.util.exception.CatastrophicError;
+import com.semmle.util.exception.ResourceError;
+
+import koopa.cobol.parser.CobolParser;
+import koopa.cobol.parser.ParseResults;
+import koopa.cobol.sources.SourceFormat;
+import koopa.core.data.Data;
+import koopa.core.parsers.Parse;
+import koopa.core.targets.Target;
+import koopa.core.util.Files;
+
+/**
+ * The extraction pipeline as set up by
+ * {@linkplain com.semmle.cobol.extractor.CommonBuild}, taken apart so that
+ * each stage can be benchmarked on its own.
+ */
+public class Pipeline {
+
+	/**
+	 * The {@link StreamProcessingStep}s which run between the parser and the
+	 * generation of the trap file, in order.
+	 */
+	public static enum Step {
+		NormalizeText {
+			@Override
+			StreamProcessingStep create(Parse parse) {
+				return new NormalizeText();
+			}
+		},
+		NormalizeRelationOperators {
+			@Override
+			StreamProcessingStep create(Parse parse) {
+				return new NormalizeRelationOperators();
+			}
+		},
+		AddImplicitSentenceToEmptyDeclarativeSections {
+			@Override
+			StreamProcessingStep create(Parse parse) {
+				return new AddImplicitSentenceToEmptyDeclarativeSections();
+			}
+		},
+		AddImplicitSentenceToEmptySections {
+			@Override
+			StreamProcessingStep create(Parse parse) {
+				return new AddImplicitSentenceToEmptySections();
+			}
+		},
+		AddImplicitSentenceToEmptyParagraphs {
+			@Override
+			StreamProcessingStep create(Parse parse) {
+				return new AddImplicitSentenceToEmptyParagraphs();
+			}
+		},
+		AddImplicitContinueToEmptySentences {
+			@Override
+			StreamProcessingStep create(Parse parse) {
+				return new AddImplicitContinueToEmptySentences();
+			}
+		},
+		AddControlFlowExitNodes {
+			@Override
+			StreamProcessingStep create(Parse parse) {
+				return new AddControlFlowExitNodes();
+			}
+		},
+		AddDirectives {
+			@Override
+			StreamProcessingStep create(Parse parse) {
+				return new AddDirectives(parse);
+			}
+		},
+		CalculateHalstead {
+			@Override
+			StreamProcessingStep create(Parse parse) {
+				return new CalculateHalstead();
+			}
+		},
+		UnpackTrees {
+			@Override
+			StreamProcessingStep create(Parse parse) {
+				return new UnpackTrees();
+			}
+		};
+
+		abstract StreamProcessingStep create(Parse parse);
+	}
+
+	/**
+	 * A final step which holds on to everything it receives.
+	 */
+	public static class Recorder extends StreamProcessingStep {
+		public final List<Data> data = new ArrayList<>();
+
+		@Override
+		public void push(Data d) {
+			data.add(d);
+		}
+
+		@Override
+		public void done() {
+		}
+	}
+
+	/**
+	 * The result of recording a parse: the {@link Parse} itself, which some
+	 * steps need, and the data stream as it came out of the last step.
+	 */
+	public static class Recording {
+		public final Parse parse;
+		public final List<Data> data;
+
+		Recording(Parse parse, List<Data> data) {
+			this.parse = parse;
+			this.data = data;
+		}
+	}
+
+	public static SemmleCobolProject newProject() {
+		final SemmleCobolProject project = new SemmleCobolProject();
+		project.setDefaultFormat(SourceFormat.FIXED);
+		project.setDefaultPreprocessing(false);
+		return project;
+	}
+
+	/**
+	 * Sets up the stages to which a {@link Parse} will feed its data stream.
+	 */
+	public static interface Stages {
+		Target create(Parse parse);
+	}
+
+	/**
+	 * Parse the file, feeding the data stream into the given stages, the way
+	 * the extractor does.
+	 */
+	public static ParseResults parse(File file, SemmleCobolProject project,
+			Stages stages) {
+		try (Reader reader = Files.getReader(file)) {
+			final CobolParser parser = new CobolParser();
+			parser.setProject(project);
+			parser.setBuildTrees(false);
+			parser.setKeepingTrackOfTokens(false);
+
+			final Parse parse = parser.getParseSetup(file, reader);
+			parse.to(stages.create(parse));
+
+			final ParseResults results = parser.parse(file, parse);
+			if (!results.isValidInput())
+				throw new CatastrophicError("Failed to parse " + file);
+
+			return results;
+
+		} catch (IOException e) {
+			throw new ResourceError("IOException while parsing " + file, e);
+		}
+	}
+
+	/**
+	 * Parse the file, and record the data stream as it comes out of all steps
+	 * up to, but not including, the given one. Passing <code>null</code>
+	 * records the output of all steps.
+	 */
+	public static Recording recordUpTo(final Step step, File file,
+			SemmleCobolProject project) {
+		final Recorder recorder = new Recorder();
+
+		final ParseResults results = parse(file, project, new Stages() {
+			@Override
+			public Target create(Parse parse) {
+				return chainUpTo(step, parse, recorder);
+			}
+		});
+
+		return new Recording(results.getParse(), recorder.data);
+	}
+
+	/**
+	 * Chain together the steps up to, but not including, the given one, and
+	 * end with the given final step.
+	 */
+	public static Target chainUpTo(Step step, Parse parse,
+			StreamProcessingStep last) {
+		final StreamPipeline pipeline = new StreamPipeline();
+
+		for (Step s : Step.values()) {
+			if (s == step)
+				break;
+
+			pipeline.then(s.create(parse));
+		}
+
+		return pipeline.then(last);
+	}
+}
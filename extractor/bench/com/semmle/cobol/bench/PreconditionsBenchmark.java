@@ -0,0 +1,88 @@
+package com.semmle.cobol.bench;
+
+import static koopa.core.data.Position.ZERO;
+import static koopa.core.data.tags.AreaTag.PROGRAM_TEXT_AREA;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.semmle.cobol.generator.preconditions.IsLast;
+import com.semmle.cobol.generator.preconditions.IsLastChild;
+import com.semmle.cobol.generator.preconditions.Preconditions;
+
+import koopa.core.data.Data;
+import koopa.core.data.Token;
+import koopa.core.data.markers.End;
+import koopa.core.data.markers.Start;
+import koopa.core.targets.Target;
+
+/**
+ * The {@link Preconditions} stage on its own, for a paragraph with a long
+ * list of sentences. Like the rule engine does, a downstream target adds
+ * lookahead preconditions as sentences and statements come through, while
+ * the data after them is still being held back.
+ * <p>
+ * The time per sentence should stay flat as the paragraph grows.
+ */
+@State(Scope.Benchmark)
+public class PreconditionsBenchmark {
+
+	private static final Start PARAGRAPH = Start.on("cobol", "paragraph");
+	private static final Start SENTENCE = Start.on("cobol", "sentence");
+	private static final Start STATEMENT = Start.on("cobol", "statement");
+
+	@Param({ "100", "1000", "10000" })
+	public int sentences;
+
+	private List<Data> stream;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		stream = new ArrayList<>();
+		stream.add(PARAGRAPH);
+		for (int i = 0; i < sentences; i++) {
+			stream.add(SENTENCE);
+			for (int j = 0; j < 3; j++) {
+				stream.add(STATEMENT);
+				stream.add(new Token("MOVE", ZERO, ZERO, PROGRAM_TEXT_AREA));
+				stream.add(STATEMENT.matchingEnd());
+			}
+			stream.add(new Token(".", ZERO, ZERO, PROGRAM_TEXT_AREA));
+			stream.add(SENTENCE.matchingEnd());
+		}
+		stream.add(PARAGRAPH.matchingEnd());
+	}
+
+	@Benchmark
+	public void resolve(final Blackhole blackhole) {
+		final Preconditions[] preconditions = new Preconditions[1];
+		preconditions[0] = new Preconditions(new Target() {
+			@Override
+			public void push(Data d) {
+				if (d == PARAGRAPH)
+					preconditions[0].add(new IsLast(SENTENCE));
+				else if (d == SENTENCE)
+					preconditions[0].add(new IsLastChild(STATEMENT));
+
+				blackhole.consume(d);
+			}
+
+			@Override
+			public void done() {
+			}
+		});
+
+		for (int i = 0; i < stream.size(); i++)
+			preconditions[0].push(stream.get(i));
+
+		preconditions[0].done();
+	}
+}
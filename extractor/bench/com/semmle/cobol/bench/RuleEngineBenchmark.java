@@ -0,0 +1,55 @@
+package com.semmle.cobol.bench;
+
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.semmle.cobol.bench.Pipeline.Recording;
+import com.semmle.cobol.generator.GenerateTrapFile;
+import com.semmle.cobol.generator.engine.RuleEngine;
+import com.semmle.cobol.mapping.runtime.TrapFile;
+import com.semmle.cobol.population.CobolRulesFromSpec;
+import com.semmle.cobol.population.CompiledCobolRulesFromSpec;
+
+import koopa.core.data.Data;
+
+/**
+ * The {@link RuleEngine}, set up with the full rule set (including
+ * {@link CobolRulesFromSpec} or {@link CompiledCobolRulesFromSpec}),
+ * dispatching the fully normalized data stream. This covers trigger evaluation
+ * and the effects which generate the tuples, but not writing them out.
+ */
+@State(Scope.Benchmark)
+public class RuleEngineBenchmark {
+
+	@Param({ "false", "true" })
+	public boolean compiledRules;
+
+	private CorpusFile corpus;
+	private Recording input;
+
+	@Setup(Level.Trial)
+	public void setup(CorpusFile corpus) {
+		this.corpus = corpus;
+		input = Pipeline.recordUpTo(null, corpus.file, corpus.project);
+	}
+
+	@Benchmark
+	public TrapFile dispatch() {
+		final TrapFile trapFile = new TrapFile(corpus.file);
+		final RuleEngine engine = GenerateTrapFile.newRuleEngine(trapFile,
+				compiledRules);
+
+		final List<Data> data = input.data;
+		for (int i = 0; i < data.size(); i++)
+			engine.push(data.get(i));
+
+		engine.done();
+		return trapFile;
+	}
+}
@@ -0,0 +1,54 @@
+package com.semmle.cobol.bench;
+
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.semmle.cobol.bench.Pipeline.Recording;
+import com.semmle.cobol.generator.GenerateTrapFile;
+import com.semmle.cobol.generator.engine.RuleEngine;
+import com.semmle.cobol.mapping.runtime.TrapFile;
+import com.semmle.util.language.LegacyLanguage;
+import com.semmle.util.trap.DefaultTrapWriterFactory;
+
+import koopa.core.data.Data;
+
+/**
+ * {@link TrapFile#storeTuples(DefaultTrapWriterFactory)} on its own. The tuples
+ * are generated once, and then written out again on every invocation. The
+ * trap file goes wherever the {@link DefaultTrapWriterFactory} is configured to
+ * put it, same as when extracting.
+ */
+@State(Scope.Benchmark)
+public class StoreTuplesBenchmark {
+
+	private final DefaultTrapWriterFactory trapWriterFactory = new DefaultTrapWriterFactory(
+			LegacyLanguage.COBOL);
+
+	private TrapFile trapFile;
+
+	@Setup(Level.Trial)
+	public void setup(CorpusFile corpus) {
+		final Recording input = Pipeline.recordUpTo(null, corpus.file,
+				corpus.project);
+
+		trapFile = new TrapFile(corpus.file);
+		final RuleEngine engine = GenerateTrapFile.newRuleEngine(trapFile);
+
+		final List<Data> data = input.data;
+		for (int i = 0; i < data.size(); i++)
+			engine.push(data.get(i));
+
+		engine.done();
+		trapFile.clearNonTrappableTuples();
+	}
+
+	@Benchmark
+	public void storeTuples() {
+		trapFile.storeTuples(trapWriterFactory);
+	}
+}
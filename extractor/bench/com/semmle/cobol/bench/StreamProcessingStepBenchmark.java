@@ -0,0 +1,53 @@
+package com.semmle.cobol.bench;
+
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.semmle.cobol.bench.Pipeline.Recording;
+import com.semmle.cobol.bench.Pipeline.Step;
+import com.semmle.cobol.extractor.StreamProcessingStep;
+
+import koopa.core.data.Data;
+
+/**
+ * Each {@link StreamProcessingStep} on its own. The input for a step is
+ * recorded once, by running the parser and all steps which come before it,
+ * and is then replayed into a fresh instance of the step.
+ */
+@State(Scope.Benchmark)
+public class StreamProcessingStepBenchmark {
+
+	@Param({ "NormalizeText", "NormalizeRelationOperators",
+			"AddImplicitSentenceToEmptyDeclarativeSections",
+			"AddImplicitSentenceToEmptySections",
+			"AddImplicitSentenceToEmptyParagraphs",
+			"AddImplicitContinueToEmptySentences", "AddControlFlowExitNodes",
+			"AddDirectives", "CalculateHalstead", "UnpackTrees" })
+	public Step step;
+
+	private Recording input;
+
+	@Setup(Level.Trial)
+	public void setup(CorpusFile corpus) {
+		input = Pipeline.recordUpTo(step, corpus.file, corpus.project);
+	}
+
+	@Benchmark
+	public void step(Blackhole blackhole) {
+		final StreamProcessingStep s = step.create(input.parse);
+		s.then(new BlackholeStep(blackhole));
+
+		final List<Data> data = input.data;
+		for (int i = 0; i < data.size(); i++)
+			s.push(data.get(i));
+
+		s.done();
+	}
+}
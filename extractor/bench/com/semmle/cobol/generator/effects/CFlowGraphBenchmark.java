@@ -0,0 +1,92 @@
+package com.semmle.cobol.generator.effects;
+
+import static com.semmle.cobol.generator.effects.Effects.all;
+import static com.semmle.cobol.generator.effects.Effects.andFinally;
+import static com.semmle.cobol.generator.effects.Effects.on;
+import static com.semmle.cobol.generator.triggers.Triggers.or;
+import static com.semmle.cobol.generator.triggers.Triggers.path;
+import static com.semmle.cobol.generator.triggers.Triggers.start;
+import static com.semmle.cobol.util.Common.PROCEDURE_DIVISION;
+
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.semmle.cobol.bench.CorpusFile;
+import com.semmle.cobol.bench.Pipeline;
+import com.semmle.cobol.bench.Pipeline.Recording;
+import com.semmle.cobol.generator.GenerateTrapFile;
+import com.semmle.cobol.generator.engine.RuleEngine;
+import com.semmle.cobol.mapping.runtime.TrapFile;
+
+import koopa.core.data.Data;
+
+/**
+ * The work done by {@link CFlowGraph#finish()}: working out the successors of
+ * all nodes in a completed graph, and trapping them. The graph is built once,
+ * alongside the regular rules, and then trapped again on every invocation
+ * into a fresh {@link TrapFile}.
+ * <p>
+ * This lives in the same package as {@link CFlowGraph} so it can get at the
+ * completed graph, which is otherwise internal to it.
+ */
+@State(Scope.Benchmark)
+public class CFlowGraphBenchmark {
+
+	private CorpusFile corpus;
+
+	private CFlowNode root;
+
+	@Setup(Level.Trial)
+	public void setup(CorpusFile corpus) {
+		this.corpus = corpus;
+
+		final Recording input = Pipeline.recordUpTo(null, corpus.file,
+				corpus.project);
+
+		final RuleEngine engine = GenerateTrapFile
+				.newRuleEngine(new TrapFile(corpus.file));
+
+		// Same wiring as the CFlowEffect, but holding on to the graph rather
+		// than trapping it.
+		final CFlowGraph graph = new CFlowGraph() {
+			@Override
+			void trapSuccessors(CFlowNode root, RuleEngine engine) {
+				CFlowGraphBenchmark.this.root = root;
+			}
+		};
+
+		engine.add(start(PROCEDURE_DIVISION), all( //
+				graph.start(), //
+				on(or(path("**/<statement>/<>"),
+						path("**/<compilerStatement>/<>"),
+						CFlowGraph.CFLOW_NODE),
+						all( //
+								graph.pushNode(), //
+								andFinally(graph.popNode()) //
+						)), //
+				andFinally(graph.finish()) //
+		));
+
+		final List<Data> data = input.data;
+		for (int i = 0; i < data.size(); i++)
+			engine.push(data.get(i));
+
+		engine.done();
+
+		if (root == null)
+			throw new IllegalStateException(
+					"No control flow graph for " + corpus.file);
+	}
+
+	@Benchmark
+	public TrapFile finish() {
+		final TrapFile trapFile = new TrapFile(corpus.file);
+		new CFlowGraph().trapSuccessors(root, new RuleEngine(trapFile));
+		return trapFile;
+	}
+}
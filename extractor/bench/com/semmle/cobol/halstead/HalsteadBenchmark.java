@@ -0,0 +1,156 @@
+package com.semmle.cobol.halstead;
+
+import static koopa.core.data.tags.AreaTag.PROGRAM_TEXT_AREA;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.semmle.cobol.bench.CorpusFile;
+import com.semmle.cobol.bench.Pipeline;
+import com.semmle.cobol.bench.Pipeline.Step;
+
+import koopa.core.data.Data;
+import koopa.core.data.Token;
+
+/**
+ * The Halstead bookkeeping in {@link Tokens}, compared against the way it
+ * used to be done: sets of upper cased strings, copied into the parent scope
+ * whenever a nested one ends. The sketched variant shows what estimating
+ * the distinct counts costs, or saves.
+ * <p>
+ * Both are fed the program text of the corpus, as it reaches
+ * {@link CalculateHalstead}. Words count as operands, anything else as
+ * operators. Every so many tokens a nested scope gets closed and included
+ * into the outer one, the way divisions are included into their program.
+ */
+@State(Scope.Benchmark)
+public class HalsteadBenchmark {
+
+	/**
+	 * How many tokens go into each nested scope.
+	 */
+	private static final int SCOPE_SIZE = 5000;
+
+	private String[] texts;
+	private boolean[] operand;
+
+	@Setup(Level.Trial)
+	public void setup(CorpusFile corpus) {
+		final List<Data> data = Pipeline.recordUpTo(Step.CalculateHalstead,
+				corpus.file, corpus.project).data;
+
+		final List<String> t = new ArrayList<>();
+		for (Data d : data)
+			if (d instanceof Token && ((Token) d).hasTag(PROGRAM_TEXT_AREA)) {
+				final String text = ((Token) d).getText();
+				if (!text.trim().isEmpty())
+					t.add(text);
+			}
+
+		texts = t.toArray(new String[t.size()]);
+		operand = new boolean[texts.length];
+		for (int i = 0; i < texts.length; i++)
+			operand[i] = Character.isLetterOrDigit(texts[i].charAt(0));
+	}
+
+	@Benchmark
+	public int interned() {
+		final Vocabulary vocabulary = new Vocabulary();
+		final Tokens outer = Tokens.exact(vocabulary);
+		Tokens inner = Tokens.exact(vocabulary);
+
+		for (int i = 0; i < texts.length; i++) {
+			if (operand[i])
+				inner.addOperand(texts[i]);
+			else
+				inner.addOperator(texts[i]);
+
+			if (i % SCOPE_SIZE == SCOPE_SIZE - 1) {
+				outer.include(inner);
+				inner = Tokens.exact(vocabulary);
+			}
+		}
+
+		outer.include(inner);
+		return outer.distinctOperands() + outer.distinctOperators();
+	}
+
+	@Benchmark
+	public int sketched() {
+		final Tokens outer = Tokens.sketched();
+		Tokens inner = Tokens.sketched();
+
+		for (int i = 0; i < texts.length; i++) {
+			if (operand[i])
+				inner.addOperand(texts[i]);
+			else
+				inner.addOperator(texts[i]);
+
+			if (i % SCOPE_SIZE == SCOPE_SIZE - 1) {
+				outer.include(inner);
+				inner = Tokens.sketched();
+			}
+		}
+
+		outer.include(inner);
+		return outer.distinctOperands() + outer.distinctOperators();
+	}
+
+	@Benchmark
+	public int strings() {
+		final StringTokens outer = new StringTokens();
+		StringTokens inner = new StringTokens();
+
+		for (int i = 0; i < texts.length; i++) {
+			if (operand[i])
+				inner.addOperand(texts[i]);
+			else
+				inner.addOperator(texts[i]);
+
+			if (i % SCOPE_SIZE == SCOPE_SIZE - 1) {
+				outer.include(inner);
+				inner = new StringTokens();
+			}
+		}
+
+		outer.include(inner);
+		return outer.operands.size() + outer.operators.size();
+	}
+
+	/**
+	 * The bookkeeping as {@link Tokens} used to do it.
+	 */
+	private static class StringTokens {
+		final Set<String> operands = new LinkedHashSet<String>();
+		int operandCount = 0;
+
+		final Set<String> operators = new LinkedHashSet<String>();
+		int operatorCount = 0;
+
+		void addOperand(String text) {
+			operands.add(text.toUpperCase());
+			operandCount += 1;
+		}
+
+		void addOperator(String text) {
+			operators.add(text.toUpperCase());
+			operatorCount += 1;
+		}
+
+		void include(StringTokens sub) {
+			operands.addAll(sub.operands);
+			operandCount += sub.operandCount;
+
+			operators.addAll(sub.operators);
+			operatorCount += sub.operatorCount;
+		}
+	}
+}
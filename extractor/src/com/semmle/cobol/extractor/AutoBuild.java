@@ -4,13 +4,20 @@ import static com.semmle.cobol.extractor.LgtmYmlConfig.ACCEPT_FAILING_PROJECT;
 import static com.semmle.cobol.extractor.LgtmYmlConfig.EXCLUDES;
 import static com.semmle.cobol.extractor.LgtmYmlConfig.FILTERS;
 import static com.semmle.cobol.extractor.LgtmYmlConfig.FORMAT;
+import static com.semmle.cobol.extractor.LgtmYmlConfig.HALSTEAD_SKETCHES;
 import static com.semmle.cobol.extractor.LgtmYmlConfig.INCLUDES;
+import static com.semmle.cobol.extractor.LgtmYmlConfig.INCREMENTAL;
+import static com.semmle.cobol.extractor.LgtmYmlConfig.COMPILED_RULES;
 import static com.semmle.cobol.extractor.LgtmYmlConfig.LIBRARY_GLOBS;
+import static com.semmle.cobol.extractor.LgtmYmlConfig.PIPELINED;
 import static com.semmle.cobol.extractor.LgtmYmlConfig.PREPROCESSING;
 import static com.semmle.cobol.extractor.LgtmYmlConfig.SOURCE_GLOBS;
+import static com.semmle.cobol.extractor.LgtmYmlConfig.STREAMING;
 import static com.semmle.cobol.extractor.LgtmYmlConfig.TAB_LENGTH;
+import static com.semmle.cobol.extractor.LgtmYmlConfig.THREADS;
 import static java.nio.file.FileVisitResult.SKIP_SUBTREE;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.file.FileVisitResult;
 import java.nio.file.FileVisitor;
@@ -18,9 +25,12 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.slf4j.LoggerFactory;
 
+import com.semmle.cobol.generator.engine.RuleProfiler;
 import com.semmle.util.exception.ResourceError;
 import com.semmle.util.process.CliCommand;
 
@@ -39,6 +49,23 @@ public class AutoBuild extends CommonBuild {
 		project.setDefaultPreprocessing(PREPROCESSING);
 		project.setPredicateForSourceText(new Glob(SOURCE_GLOBS));
 		project.setPredicateForLibraryText(new Glob(LIBRARY_GLOBS));
+
+		setIncremental(INCREMENTAL);
+		setStreaming(STREAMING);
+		setPipelined(PIPELINED);
+		setHalsteadSketches(HALSTEAD_SKETCHES);
+		setCompiledRules(COMPILED_RULES);
+	}
+
+	@Override
+	protected String getProjectSettings() {
+		final StringBuilder b = new StringBuilder();
+		b.append("format=").append(FORMAT);
+		b.append("\ntab-length=").append(TAB_LENGTH);
+		b.append("\npreprocessing=").append(PREPROCESSING);
+		b.append("\nsource-globs=").append(SOURCE_GLOBS);
+		b.append("\nlibrary-globs=").append(LIBRARY_GLOBS);
+		return b.toString();
 	}
 
 	/**
@@ -61,6 +88,8 @@ public class AutoBuild extends CommonBuild {
 		// This is to aid troubleshooting.
 		LgtmYmlConfig.logConfig();
 
+		RuleProfiler.reset();
+
 		final Path[] currentRoot = new Path[1];
 		FileVisitor<? super Path> visitor = new SimpleFileVisitor<Path>() {
 			@Override
@@ -103,11 +132,18 @@ public class AutoBuild extends CommonBuild {
 			Files.walkFileTree(currentRoot[0], visitor);
 		}
 
+		final List<File> files = new ArrayList<>(project.getFiles().size());
+		for (Path p : project.getFiles())
+			files.add(p.toFile());
+
+		final List<Info> infos = process(files, project, THREADS);
+		RuleProfiler.report();
+
 		int successfulParses = 0;
-		for (Path p : project.getFiles()) {
-			final Info info = process(p.toFile(), project);
+		for (int i = 0; i < files.size(); i++) {
+			final Info info = infos.get(i);
 			if (info.seenParseError)
-				logger.error("Failed to parse " + p + ". Ignoring.");
+				logger.error("Failed to parse " + files.get(i) + ". Ignoring.");
 			else
 				successfulParses += 1;
 			if (info.seenTrapError)
@@ -3,6 +3,7 @@ package com.semmle.cobol.extractor;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
+import com.semmle.cobol.generator.tables.Column;
 import com.semmle.cobol.generator.tables.DatabaseScheme;
 import com.semmle.cobol.generator.tables.Relation;
 import com.semmle.cobol.generator.tuples.Tuple;
@@ -12,12 +13,15 @@ import com.semmle.cobol.generator.types.CaseType;
 import com.semmle.cobol.generator.types.DatabaseType;
 import com.semmle.cobol.generator.types.ListType;
 import com.semmle.cobol.generator.types.Partition;
+import com.semmle.cobol.generator.types.TrappableType;
+import com.semmle.cobol.generator.types.TypeMatrix;
 import com.semmle.cobol.generator.types.Type;
 import com.semmle.cobol.generator.types.TypeSystem;
 import com.semmle.cobol.generator.types.TypeWithAttributes;
 import com.semmle.cobol.population.CobolPopulator;
 import com.semmle.cobol.population.CobolTypesFromSpec;
 import com.semmle.cobol.population.CommonPopulator;
+import com.semmle.util.exception.CatastrophicError;
 
 import koopa.core.data.Data;
 import koopa.core.data.markers.Start;
@@ -41,6 +45,26 @@ public class CobolExtractor {
 	 */
 	private static final Map<Start, String> DEFAULT_TYPES = new LinkedHashMap<>();
 
+	/**
+	 * Which types are assignable from which, for all pairs of types.
+	 */
+	private static final TypeMatrix ASSIGNABLE = new TypeMatrix() {
+		@Override
+		protected boolean compute(Type type, Type other) {
+			return type.isAssignableFrom(other);
+		}
+	};
+
+	/**
+	 * Which types can be recast to which, for all pairs of types.
+	 */
+	private static final TypeMatrix RECASTABLE = new TypeMatrix() {
+		@Override
+		protected boolean compute(Type oldType, Type newType) {
+			return typeCanBeRecast_(oldType, newType);
+		}
+	};
+
 	static {
 		CommonPopulator.populateTypeSystem(TYPE_SYSTEM);
 		CommonPopulator.populateDatabaseScheme(DATABASE_SCHEME);
@@ -49,6 +73,11 @@ public class CobolExtractor {
 		// Generated data:
 		CobolPopulator.populate(DATABASE_SCHEME, TYPE_SYSTEM);
 		CobolTypesFromSpec.populateDefaultTypes(DEFAULT_TYPES);
+
+		// The type system is complete now, so these can be worked out once
+		// and for all.
+		ASSIGNABLE.fill(TYPE_SYSTEM);
+		RECASTABLE.fill(TYPE_SYSTEM);
 	}
 
 	public static TypeSystem getTypeSystem() {
@@ -59,16 +88,57 @@ public class CobolExtractor {
 		return DATABASE_SCHEME;
 	}
 
+	/**
+	 * Identifies the version of the database scheme, by listing all relations
+	 * and their columns.
+	 */
+	public static String getDatabaseSchemeVersion() {
+		final StringBuilder b = new StringBuilder();
+		for (Relation relation : DATABASE_SCHEME.getRelations()) {
+			b.append('\n').append(relation.getName());
+			for (Column column : relation.getColumns())
+				b.append(' ').append(column);
+		}
+		return b.toString();
+	}
+
 	public static Type getType(String typeName) {
 		return TYPE_SYSTEM.getType(typeName);
 	}
 
 	public static Type getType(Tuple tuple) {
-		return getType(tuple.getName());
+		return tuple.getType();
 	}
 
 	public static Type getType(Attribute attribute) {
-		return getType(attribute.getTypeName());
+		return attribute.getType();
+	}
+
+	/**
+	 * Returns the type with the given name, making sure it is one which can
+	 * actually be trapped.
+	 */
+	public static TrappableType getTrappableType(String typeName) {
+		final Type type = getType(typeName);
+
+		if (type == null)
+			throw new IllegalArgumentException(
+					"Type system does not know type: " + typeName);
+
+		return getTrappableType(type);
+	}
+
+	/**
+	 * Returns the given type, making sure it is one which can actually be
+	 * trapped.
+	 */
+	public static TrappableType getTrappableType(Type type) {
+		if (!(type instanceof TrappableType))
+			throw new CatastrophicError(
+					"Can only trap types which are actually trappable. "
+							+ "Type " + type.getName() + " is not.");
+
+		return (TrappableType) type;
 	}
 
 	public static Relation getRelation(String name) {
@@ -94,7 +164,24 @@ public class CobolExtractor {
 			return null;
 	}
 
+	/**
+	 * Whether a tuple of the other type may go where one of the given type is
+	 * expected. Same as {@linkplain Type#isAssignableFrom(Type)}, but worked
+	 * out up front for all pairs of types.
+	 */
+	public static boolean isAssignableFrom(Type type, Type other) {
+		return ASSIGNABLE.test(type, other);
+	}
+
+	/**
+	 * Whether a tuple of the old type may be recast to the new type. This is
+	 * worked out up front for all pairs of types.
+	 */
 	public static boolean typeCanBeRecast(Type oldType, Type newType) {
+		return RECASTABLE.test(oldType, newType);
+	}
+
+	private static boolean typeCanBeRecast_(Type oldType, Type newType) {
 		// Partitions can be recast if they partition the same DB type.
 		if (oldType instanceof Partition && newType instanceof Partition) {
 			final Partition oldPartitionType = (Partition) oldType;
@@ -2,12 +2,16 @@ package com.semmle.cobol.extractor;
 
 import static koopa.core.data.Position.ZERO;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
 import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import com.semmle.cobol.generator.GenerateTrapFile;
 import com.semmle.cobol.generator.Tally;
@@ -26,13 +30,11 @@ import com.semmle.cobol.normalization.NormalizeText;
 import com.semmle.cobol.normalization.UnpackTrees;
 import com.semmle.cobol.population.CommonPopulator.ErrorContext;
 import com.semmle.cobol.processing.Done;
+import com.semmle.cobol.replay.RecordDataLog;
 import com.semmle.cobol.timing.Timing;
 import com.semmle.cobol.util.Common;
 import com.semmle.util.exception.CatastrophicError;
-import com.semmle.util.exception.Exceptions;
 import com.semmle.util.exception.ResourceError;
-import com.semmle.util.files.FileUtil;
-import com.semmle.util.io.WholeIO;
 import com.semmle.util.language.LegacyLanguage;
 import com.semmle.util.process.CliCommand;
 import com.semmle.util.srcarchive.DefaultSourceArchive;
@@ -47,13 +49,160 @@ import koopa.core.data.Token;
 import koopa.core.parsers.Messages;
 import koopa.core.parsers.Parse;
 import koopa.core.trees.Tree;
-import koopa.core.util.Files;
 
 public abstract class CommonBuild extends CliCommand {
 
 	private final ISourceArchive sourceArchive = new DefaultSourceArchive(LegacyLanguage.COBOL);
 	private final DefaultTrapWriterFactory trapWriterFactory = new DefaultTrapWriterFactory(LegacyLanguage.COBOL);
 
+	/**
+	 * When set, files whose inputs have not changed since the last run are not
+	 * extracted again. See {@linkplain IncrementalManifest}.
+	 */
+	private boolean incremental = false;
+
+	/**
+	 * The manifest for incremental extraction. This gets set up on first use,
+	 * once all settings are known.
+	 */
+	private IncrementalManifest manifest = null;
+
+	protected void setIncremental(boolean incremental) {
+		this.incremental = incremental;
+		this.manifest = null;
+	}
+
+	/**
+	 * When set, tuples are written out as soon as they are complete, rather
+	 * than at the end of each file. See {@linkplain TrapFile}.
+	 */
+	private boolean streaming = false;
+
+	protected void setStreaming(boolean streaming) {
+		this.streaming = streaming;
+	}
+
+	/**
+	 * When set, the parser hands its data over to a second thread, which does
+	 * the normalization and trapping. See {@linkplain ConcurrentPipeline}.
+	 */
+	private boolean pipelined = false;
+
+	protected void setPipelined(boolean pipelined) {
+		this.pipelined = pipelined;
+	}
+
+	/**
+	 * When set, distinct operators and operands in Halstead counts get
+	 * estimated rather than counted. See {@linkplain CalculateHalstead}.
+	 */
+	private boolean halsteadSketches = false;
+
+	protected void setHalsteadSketches(boolean halsteadSketches) {
+		this.halsteadSketches = halsteadSketches;
+	}
+
+	/**
+	 * When set, trap generation uses the compiled rules rather than the
+	 * interpreted ones. See {@linkplain GenerateTrapFile}.
+	 */
+	private boolean compiledRules = false;
+
+	protected void setCompiledRules(boolean compiledRules) {
+		this.compiledRules = compiledRules;
+	}
+
+	/**
+	 * When set, the data stream which goes into trap generation also gets
+	 * written to a log in this directory, for later use by
+	 * {@linkplain com.semmle.cobol.replay.Replay}.
+	 */
+	private File recordDirectory = null;
+
+	protected void setRecordDirectory(File recordDirectory) {
+		this.recordDirectory = recordDirectory;
+	}
+
+	/**
+	 * Describes the settings of the Cobol project which affect the contents of
+	 * the trap files: source format, tabs, preprocessing, where copybooks are
+	 * looked for, and so on.
+	 */
+	protected abstract String getProjectSettings();
+
+	/**
+	 * Describes all settings which affect the contents of the trap files, for
+	 * use by the {@linkplain IncrementalManifest}.
+	 */
+	private String getSettings() {
+		return getProjectSettings() //
+				+ "\nhalstead-sketches=" + halsteadSketches //
+				+ "\ncompiled-rules=" + compiledRules;
+	}
+
+	private synchronized IncrementalManifest getManifest() {
+		if (incremental && manifest == null)
+			manifest = new IncrementalManifest(trapWriterFactory,
+					getSettings());
+
+		return manifest;
+	}
+
+	/**
+	 * Parse and trap all given files in the context of the given Cobol
+	 * project, and return info on the results. The info is listed in the same
+	 * order as the files.
+	 * <p>
+	 * If more than one thread is requested, the files are processed
+	 * concurrently on a pool of that size. Each file still goes through the
+	 * whole pipeline on a single thread. Any exception raised while processing
+	 * a file is rethrown here, just as it would be when processing the files
+	 * one by one.
+	 */
+	public List<Info> process(List<File> files, CobolProject project,
+			int threads) {
+		final List<Info> infos = new ArrayList<>(files.size());
+
+		if (threads <= 1 || files.size() <= 1) {
+			for (File file : files)
+				infos.add(process(file, project));
+			return infos;
+		}
+
+		final ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			final List<Future<Info>> futures = new ArrayList<>(files.size());
+			for (File file : files)
+				futures.add(pool.submit(new Callable<Info>() {
+					@Override
+					public Info call() {
+						return process(file, project);
+					}
+				}));
+
+			for (Future<Info> future : futures)
+				infos.add(future.get());
+
+			return infos;
+
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CatastrophicError("Interrupted while extracting.", e);
+
+		} catch (ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			else if (cause instanceof Error)
+				throw (Error) cause;
+			else
+				throw new CatastrophicError(cause);
+
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
 	public Info process(File file, CobolProject project) {
 		Timing.start(file.getPath());
 		try {
@@ -69,15 +218,51 @@ public abstract class CommonBuild extends CliCommand {
 	 * and return info on the results.
 	 */
 	private Info processStreamed(File file, CobolProject project) {
-		logger.info("Processing " + file.getAbsolutePath());
-
+		logger.debug("Reading source ...");
+		Timing.start("reading source");
+		final SourceBuffer source = SourceBuffer.load(file);
+		Timing.end("reading source");
+
+		// The archive gets a strict decoding of the file, rather than the
+		// parser's lenient one, so that bad input gets reported rather than
+		// replaced. It gets copied even when the trap file is up to date, as
+		// the archive may be a fresh one which does not have the file yet.
 		logger.debug("Copying to source archive ...");
 		Timing.start("copying to source archive");
-		sourceArchive.add(file, new WholeIO().strictread(file));
+		sourceArchive.add(file, source.getStrictText());
 		Timing.end("copying to source archive");
 
+		final IncrementalManifest manifest = getManifest();
+		if (manifest == null)
+			return processStreamed_(source, project);
+
+		if (manifest.isUpToDate(source)) {
+			logger.info("Skipping unchanged " + file.getAbsolutePath());
+			return Info.nominal();
+		}
+
+		manifest.start(file);
+		boolean completed = false;
+		try {
+			final Info info = processStreamed_(source, project);
+			if (!info.seenParseError && !info.seenTrapError) {
+				manifest.complete(source);
+				completed = true;
+			}
+			return info;
+
+		} finally {
+			if (!completed)
+				manifest.abandon();
+		}
+	}
+
+	private Info processStreamed_(SourceBuffer source, CobolProject project) {
+		final File file = source.getFile();
+		logger.info("Processing " + file.getAbsolutePath());
+
 		logger.debug("Parsing Cobol text ...");
-		final ParseResults results = parseStreamed(file, project);
+		final ParseResults results = parseStreamed(source, project);
 
 		if (results.isValidInput()) {
 			logger.debug("Processing complete.");
@@ -85,15 +270,16 @@ public abstract class CommonBuild extends CliCommand {
 
 		} else {
 			logger.error("Failed to parse " + file.getAbsolutePath());
-			trapParseErrors(file, results);
+			trapParseErrors(source, results);
 			return Info.notParsed();
 		}
 	}
 
-	private ParseResults parseStreamed(File file, CobolProject project) {
-		Reader reader = null;
+	private ParseResults parseStreamed(SourceBuffer source,
+			CobolProject project) {
+		final File file = source.getFile();
 		try {
-			reader = Files.getReader(file);
+			final Reader reader = source.newReader();
 
 			// We prepare a COBOL parser.
 			final CobolParser parser = new CobolParser();
@@ -113,51 +299,81 @@ public abstract class CommonBuild extends CliCommand {
 
 			// And here are the steps. Each will take the data stream as input,
 			// and pass it on to the next step.
-			final NormalizeText normalizeText = new NormalizeText();
-			normalizeText.then(new NormalizeRelationOperators()) //
-					.then(new AddImplicitSentenceToEmptyDeclarativeSections()) //
-					.then(new AddImplicitSentenceToEmptySections()) //
-					.then(new AddImplicitSentenceToEmptyParagraphs()) //
-					.then(new AddImplicitContinueToEmptySentences()) //
-					.then(new AddControlFlowExitNodes()) //
-					.then(new AddDirectives(parse)) //
-					.then(new CalculateHalstead()) //
-					.then(new UnpackTrees()) //
-					.then(new GenerateTrapFile(file)) //
-					.then(new Done());
+			final StreamPipeline pipeline = new StreamPipeline();
+			addNormalizationSteps(pipeline, parse, halsteadSketches);
 
-			parse.to(normalizeText);
+			if (recordDirectory != null)
+				pipeline.then(new RecordDataLog(recordDirectory, file));
 
-			Timing.start("parse + generation");
-			return parser.parse(file, parse);
+			pipeline.then(new GenerateTrapFile(file, streaming, compiledRules)) //
+					.then(new Done());
 
-		} catch (IOException e) {
-			throw new ResourceError("IOException while parsing " + file, e);
+			if (!pipelined) {
+				parse.to(pipeline);
+
+				Timing.start("parse + generation");
+				boolean parsed = false;
+				try {
+					final ParseResults results = parser.parse(file, parse);
+					parsed = results.isValidInput();
+					return results;
+
+				} finally {
+					// Does nothing if the pipeline was told it's done.
+					if (!parsed)
+						pipeline.abandon();
+				}
+			}
 
-		} finally {
+			// Normalization and trapping happen on a thread of their own,
+			// which starts its own timing.
+			final ConcurrentPipeline concurrent = new ConcurrentPipeline(
+					pipeline, "Trapping " + file.getName());
+			parse.to(concurrent);
 			try {
-				if (reader != null)
-					reader.close();
+				return parser.parse(file, parse);
 
-			} catch (IOException e) {
-				Exceptions.ignore(e, "Failed to close: " + file);
+			} finally {
+				// Does nothing if the parse got to the end.
+				concurrent.abandon();
 			}
+
+		} catch (IOException e) {
+			throw new ResourceError("IOException while parsing " + file, e);
 		}
 	}
 
+	/**
+	 * Add the steps which normalize and annotate the data stream coming out of
+	 * the given parse, up to where trap generation takes over.
+	 */
+	public static StreamPipeline addNormalizationSteps(StreamPipeline pipeline,
+			Parse parse, boolean halsteadSketches) {
+		return pipeline.then(new NormalizeText()) //
+				.then(new NormalizeRelationOperators()) //
+				.then(new AddImplicitSentenceToEmptyDeclarativeSections()) //
+				.then(new AddImplicitSentenceToEmptySections()) //
+				.then(new AddImplicitSentenceToEmptyParagraphs()) //
+				.then(new AddImplicitContinueToEmptySentences()) //
+				.then(new AddControlFlowExitNodes()) //
+				.then(new AddDirectives(parse)) //
+				.then(new CalculateHalstead(halsteadSketches)) //
+				.then(new UnpackTrees());
+	}
+
 	/**
 	 * To be called when something went really wrong with the parse. This will
 	 * set the appropriate error information on the file. It will also trap the
 	 * number of lines so that the file can be shown in the dashboard.
 	 */
-	private void trapParseError(File sourceFile, String message) {
-		final TrapFile trapFile = new TrapFile(sourceFile);
+	private void trapParseError(SourceBuffer source, String message) {
+		final TrapFile trapFile = new TrapFile(source.getFile());
 		final RuleEngine engine = new RuleEngine(trapFile);
 
 		final Token token = new Token("", ZERO, ZERO);
 		Trap.trapError(ErrorContext.PARSE, engine, token, message);
 
-		final Tally tally = getNumLines(sourceFile);
+		final Tally tally = getNumLines(source);
 		Trap.trapNumLines(null, token, tally, engine);
 
 		trapFile.clearNonTrappableTuples();
@@ -175,15 +391,15 @@ public abstract class CommonBuild extends CliCommand {
 	 * set the appropriate error information on the file. It will also trap the
 	 * number of lines so that the file can be shown in the dashboard.
 	 */
-	private void trapParseErrors(File sourceFile, ParseResults results) {
+	private void trapParseErrors(SourceBuffer source, ParseResults results) {
 		final Parse parse = results.getParse();
 		final Messages messages = parse.getMessages();
 		if (messages.getErrorCount() == 0) {
-			trapParseError(sourceFile, "Failed to parse.");
+			trapParseError(source, "Failed to parse.");
 			return;
 		}
 
-		final TrapFile trapFile = new TrapFile(sourceFile);
+		final TrapFile trapFile = new TrapFile(source.getFile());
 		final RuleEngine engine = new RuleEngine(trapFile);
 
 		for (int i = 0; i < messages.getErrorCount(); i++) {
@@ -202,7 +418,7 @@ public abstract class CommonBuild extends CliCommand {
 			Trap.trapError(ErrorContext.PARSE, engine, t, error.getSecond());
 		}
 
-		final Tally tally = getNumLines(sourceFile);
+		final Tally tally = getNumLines(source);
 		Trap.trapNumLines(null, new Tree(Common.TEXT), tally, engine);
 
 		trapFile.clearNonTrappableTuples();
@@ -215,28 +431,13 @@ public abstract class CommonBuild extends CliCommand {
 							+ " Check the logs for details.");
 	}
 
-	private Tally getNumLines(File sourceFile) {
-		BufferedReader reader = null;
-		try {
-			Tally num = new Tally();
-
-			reader = new BufferedReader(new FileReader(sourceFile));
-			while (reader.readLine() != null)
-				num.lines++;
-
-			// When failing to parse, everything is in the water...
-			num.water = num.lines;
-			return num;
+	private Tally getNumLines(SourceBuffer source) {
+		final Tally num = new Tally();
+		num.lines = source.countLines();
 
-		} catch (FileNotFoundException e) {
-			throw new CatastrophicError(e);
-
-		} catch (IOException e) {
-			throw new CatastrophicError(e);
-
-		} finally {
-			FileUtil.close(reader);
-		}
+		// When failing to parse, everything is in the water...
+		num.water = num.lines;
+		return num;
 	}
 
 	public static class Info {
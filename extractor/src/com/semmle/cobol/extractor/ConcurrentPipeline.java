@@ -0,0 +1,137 @@
+package com.semmle.cobol.extractor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.semmle.cobol.timing.Timing;
+import com.semmle.util.exception.CatastrophicError;
+
+import koopa.core.data.Data;
+import koopa.core.targets.Target;
+
+/**
+ * Hands the data stream over to a {@link StreamPipeline}, which processes it
+ * on a thread of its own. The two are connected through a bounded
+ * {@link DataRing}. This lets the parser carry on while the data it already
+ * produced gets normalized and trapped, which pays off for large files.
+ * <p>
+ * Anything going wrong on the processing thread gets rethrown on the
+ * parsing thread, at the next push or at the end. If parsing fails, call
+ * {@link #abandon()} so the processing thread does not wait forever. Either
+ * way the pipeline gets {@linkplain StreamPipeline#abandon() abandoned} as
+ * well, so that it can clean up after itself.
+ */
+public class ConcurrentPipeline implements Target {
+
+	/**
+	 * Enough to smooth out the bursts on either side, while keeping the data
+	 * in flight small.
+	 */
+	static final int CAPACITY = 1 << 14;
+
+	private static final Logger LOGGER = LoggerFactory
+			.getLogger(ConcurrentPipeline.class);
+
+	private final StreamPipeline target;
+	private final DataRing ring = new DataRing(CAPACITY);
+	private final Thread thread;
+
+	private volatile Throwable failure = null;
+	private boolean finished = false;
+
+	public ConcurrentPipeline(StreamPipeline target, String name) {
+		this.target = target;
+		this.thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				drain();
+			}
+		}, name);
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	private void drain() {
+		Timing.start("parse + generation");
+		try {
+			Data d;
+			while ((d = ring.take()) != null)
+				target.push(d);
+
+			if (ring.isAbandoned())
+				target.abandon();
+			else
+				target.done();
+
+		} catch (Throwable t) {
+			failure = t;
+			ring.abandon();
+			abandonTarget();
+		}
+	}
+
+	/**
+	 * Abandon the pipeline after something went wrong. The original failure
+	 * is the one worth reporting, so anything failing here is just logged.
+	 */
+	private void abandonTarget() {
+		try {
+			target.abandon();
+
+		} catch (Throwable t) {
+			LOGGER.warn("Failed to abandon " + thread.getName(), t);
+		}
+	}
+
+	@Override
+	public void push(Data d) {
+		if (!ring.put(d))
+			rethrow();
+	}
+
+	@Override
+	public void done() {
+		if (finished)
+			return;
+
+		ring.put(null);
+		join();
+		rethrow();
+	}
+
+	/**
+	 * Stop processing, if it has not finished yet. Anything processed so far
+	 * is dropped, and this waits until the pipeline has been abandoned.
+	 */
+	public void abandon() {
+		if (finished)
+			return;
+
+		ring.abandon();
+		join();
+	}
+
+	private void join() {
+		finished = true;
+		try {
+			thread.join();
+
+		} catch (InterruptedException e) {
+			ring.abandon();
+			Thread.currentThread().interrupt();
+			throw new CatastrophicError("Interrupted while extracting.", e);
+		}
+	}
+
+	private void rethrow() {
+		final Throwable cause = failure;
+		if (cause == null)
+			return;
+		else if (cause instanceof RuntimeException)
+			throw (RuntimeException) cause;
+		else if (cause instanceof Error)
+			throw (Error) cause;
+		else
+			throw new CatastrophicError(cause);
+	}
+}
@@ -0,0 +1,169 @@
+package com.semmle.cobol.extractor;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Remembers where copybooks were found, so that a copybook which gets included
+ * by many programs doesn't need to be searched for on disk every time. This is
+ * shared by all files processed in the context of a single project, possibly
+ * on several threads at once.
+ * <p>
+ * Entries are keyed on the text name, the library name, and the directory of
+ * the including file, as all of these affect where a copybook is looked for. A
+ * cached copybook is only used if its timestamp still matches the one it had
+ * when it was found. Copybooks which could not be found are remembered as
+ * well.
+ * <p>
+ * The number of entries is bounded. When full, the least recently used entry
+ * gets evicted.
+ */
+public class CopybookCache {
+
+	private static final Logger LOGGER = LoggerFactory
+			.getLogger(CopybookCache.class);
+
+	public static final int DEFAULT_CAPACITY = 16384;
+
+	/**
+	 * Does the actual search for a copybook, on a cache miss.
+	 */
+	public static interface Locator {
+		File locate(String textName, String libraryName, File sourceFile);
+	}
+
+	private static final class Key {
+		private final String textName;
+		private final String libraryName;
+		private final File directory;
+		private final int hashCode;
+
+		private Key(String textName, String libraryName, File directory) {
+			this.textName = textName;
+			this.libraryName = libraryName;
+			this.directory = directory;
+			this.hashCode = Objects.hash(textName, libraryName, directory);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key))
+				return false;
+
+			final Key other = (Key) obj;
+			return Objects.equals(textName, other.textName)
+					&& Objects.equals(libraryName, other.libraryName)
+					&& Objects.equals(directory, other.directory);
+		}
+	}
+
+	private static final class Entry {
+		private final File copybook;
+		private final long lastModified;
+
+		private Entry(File copybook) {
+			this.copybook = copybook;
+			this.lastModified = copybook == null ? 0L
+					: copybook.lastModified();
+		}
+
+		private boolean isStale() {
+			return copybook != null
+					&& copybook.lastModified() != lastModified;
+		}
+	}
+
+	private final Map<Key, Entry> entries;
+
+	private long hits = 0;
+	private long misses = 0;
+	private long evictions = 0;
+
+	public CopybookCache() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	public CopybookCache(final int capacity) {
+		// Access order, so that the eldest entry is the least recently used.
+		this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+				if (size() <= capacity)
+					return false;
+
+				evictions += 1;
+				return true;
+			}
+		};
+	}
+
+	/**
+	 * Return the copybook for the given names, as seen from the given source
+	 * file. This will be the cached one if possible. If not, the locator gets
+	 * asked to find it, and the result is cached.
+	 */
+	public File locate(String textName, String libraryName, File sourceFile,
+			Locator locator) {
+		final Key key = new Key(textName, libraryName,
+				sourceFile == null ? null
+						: sourceFile.getAbsoluteFile().getParentFile());
+
+		synchronized (this) {
+			final Entry entry = entries.get(key);
+			if (entry != null && !entry.isStale()) {
+				hits += 1;
+				return entry.copybook;
+			}
+			misses += 1;
+		}
+
+		// The search is done without holding the lock, so other threads need
+		// not wait for it. At worst two threads search for the same copybook.
+		final File copybook = locator.locate(textName, libraryName,
+				sourceFile);
+
+		synchronized (this) {
+			entries.put(key, new Entry(copybook));
+		}
+
+		return copybook;
+	}
+
+	/**
+	 * Forget everything. To be called whenever something changes which
+	 * affects where copybooks are found.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	public synchronized void logStatistics() {
+		LOGGER.info("Copybook cache: " + hits + " hits, " + misses
+				+ " misses, " + evictions + " evictions, " + entries.size()
+				+ " entries.");
+	}
+}
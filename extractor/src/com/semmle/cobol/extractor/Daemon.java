@@ -0,0 +1,112 @@
+package com.semmle.cobol.extractor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.semmle.cobol.generator.GenerateTrapFile;
+import com.semmle.cobol.generator.engine.RuleProfiler;
+import com.semmle.util.exception.ResourceError;
+
+/**
+ * Keeps a JVM around for running many extractions, so that JVM startup and
+ * the setup of the type system, database scheme and rule set only happen
+ * once.
+ * <p>
+ * Jobs are read from standard input, one per line. Each line lists the
+ * arguments exactly as they would be given to {@linkplain Main}, separated by
+ * tabs (so that paths may contain spaces). Jobs are run one after the other.
+ * When a job is done, a line <code>exit &lt;code&gt;</code> is written to
+ * standard output, with the same exit code as {@linkplain Main} would have
+ * returned. Anything else the extractor would print to standard output goes
+ * to standard error instead, so it can't be confused with these replies.
+ * <p>
+ * Empty lines are ignored. The daemon stops at the end of its input, or on a
+ * line reading <code>quit</code>.
+ */
+public class Daemon {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(Daemon.class);
+
+	private static final String QUIT = "quit";
+
+	public static void main(String[] args) {
+		final PrintStream replies = System.out;
+		System.setOut(System.err);
+
+		warmUp();
+
+		try {
+			serve(new BufferedReader(
+					new InputStreamReader(System.in, StandardCharsets.UTF_8)),
+					replies);
+
+		} catch (IOException e) {
+			throw new ResourceError("Failed to read extraction jobs.", e);
+		}
+
+		System.exit(0);
+	}
+
+	/**
+	 * Make sure all static state shared between extractions is set up before
+	 * the first job comes in. Jobs may ask for either the compiled or the
+	 * interpreted rules, so both get set up.
+	 * <p>
+	 * State which only applies to a single run (e.g. the totals of the
+	 * {@linkplain RuleProfiler}) is reset by {@linkplain Main} at the start of
+	 * every job.
+	 */
+	private static void warmUp() {
+		final long start = System.currentTimeMillis();
+
+		CobolExtractor.getDatabaseScheme();
+		GenerateTrapFile.newRuleEngine(null, false);
+		GenerateTrapFile.newRuleEngine(null, true);
+
+		LOGGER.info("Ready after " + (System.currentTimeMillis() - start)
+				+ "ms.");
+	}
+
+	private static void serve(BufferedReader jobs, PrintStream replies)
+			throws IOException {
+		String line;
+		while ((line = jobs.readLine()) != null) {
+			if (line.trim().isEmpty())
+				continue;
+
+			if (QUIT.equals(line.trim()))
+				break;
+
+			final int exitCode = run(line.split("\t"));
+
+			replies.println("exit " + exitCode);
+			replies.flush();
+		}
+	}
+
+	/**
+	 * Runs a single job. Unexpected failures are reported the same way as
+	 * {@linkplain Main} would report them, and leave the daemon running. The
+	 * exception is a {@linkplain VirtualMachineError}, after which the JVM
+	 * can't be trusted to run further jobs.
+	 */
+	private static int run(String[] args) {
+		try {
+			return Main.extract(args);
+
+		} catch (VirtualMachineError e) {
+			throw e;
+
+		} catch (Throwable e) {
+			System.err.println("[FATAL]");
+			e.printStackTrace(System.err);
+			return 2;
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package com.semmle.cobol.extractor;
+
+import koopa.core.data.Data;
+
+/**
+ * A first in, first out queue of {@link Data}, backed by a circular array
+ * which doubles in size when full. Unlike a {@link java.util.LinkedList}, this
+ * does not allocate anything per element, which matters for steps which delay
+ * large parts of the stream.
+ */
+final class DataQueue {
+
+	private Data[] elements = new Data[16];
+
+	/**
+	 * Index of the first element. Always less than the array length, which is
+	 * always a power of two.
+	 */
+	private int head = 0;
+
+	private int size = 0;
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void addLast(Data d) {
+		if (size == elements.length)
+			grow();
+
+		elements[(head + size) & (elements.length - 1)] = d;
+		size += 1;
+	}
+
+	public Data removeFirst() {
+		final Data d = elements[head];
+		elements[head] = null;
+		head = (head + 1) & (elements.length - 1);
+		size -= 1;
+		return d;
+	}
+
+	private void grow() {
+		final Data[] larger = new Data[elements.length * 2];
+		for (int i = 0; i < size; i++)
+			larger[i] = elements[(head + i) & (elements.length - 1)];
+
+		elements = larger;
+		head = 0;
+	}
+}
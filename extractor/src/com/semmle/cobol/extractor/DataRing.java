@@ -0,0 +1,136 @@
+package com.semmle.cobol.extractor;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import koopa.core.data.Data;
+
+/**
+ * A bounded queue of {@link Data}, handing the data stream from exactly one
+ * producer thread to exactly one consumer thread. Neither side takes a lock:
+ * each only writes its own counter, and publishes it with an ordered write.
+ * Each side also caches the other side's counter, so that it only has to read
+ * it (and pay for the cache miss) when the ring looks full or empty.
+ * <p>
+ * A <code>null</code> element marks the end of the stream.
+ * <p>
+ * When either side fails it should {@linkplain #abandon()} the ring, so that
+ * the other side does not wait for it forever.
+ */
+final class DataRing {
+
+	/**
+	 * How often we busy-spin on a full or empty ring before we start yielding,
+	 * and then parking.
+	 */
+	private static final int SPINS = 100;
+	private static final int YIELDS = 100;
+	private static final long PARK_NANOS = 50000;
+
+	private final Data[] elements;
+	private final int mask;
+
+	/**
+	 * The index of the next element to take. Only written by the consumer.
+	 */
+	private final AtomicLong head = new AtomicLong();
+
+	/**
+	 * The index of the next element to put. Only written by the producer.
+	 */
+	private final AtomicLong tail = new AtomicLong();
+
+	/**
+	 * The producer's last view of {@link #head}.
+	 */
+	private long cachedHead = 0;
+
+	/**
+	 * The consumer's last view of {@link #tail}.
+	 */
+	private long cachedTail = 0;
+
+	private volatile boolean abandoned = false;
+
+	/**
+	 * @param capacity
+	 *            Must be a power of two.
+	 */
+	DataRing(int capacity) {
+		if (capacity < 1 || Integer.bitCount(capacity) != 1)
+			throw new IllegalArgumentException(
+					"Capacity must be a power of two: " + capacity);
+
+		elements = new Data[capacity];
+		mask = capacity - 1;
+	}
+
+	/**
+	 * Add an element, waiting for room if the ring is full. Returns
+	 * <code>false</code> if the ring got abandoned instead, so the producer
+	 * can stop as soon as the consumer fails.
+	 */
+	public boolean put(Data d) {
+		if (abandoned)
+			return false;
+
+		final long t = tail.get();
+
+		int idle = 0;
+		while (t - cachedHead == elements.length) {
+			cachedHead = head.get();
+			if (t - cachedHead < elements.length)
+				break;
+			if (abandoned)
+				return false;
+			idle = idle(idle);
+		}
+
+		elements[(int) t & mask] = d;
+		tail.lazySet(t + 1);
+		return true;
+	}
+
+	/**
+	 * Take the next element, waiting for one if the ring is empty. Returns
+	 * <code>null</code> at the end of the stream, or if the ring got
+	 * abandoned.
+	 */
+	public Data take() {
+		final long h = head.get();
+
+		int idle = 0;
+		while (h == cachedTail) {
+			cachedTail = tail.get();
+			if (h != cachedTail)
+				break;
+			if (abandoned)
+				return null;
+			idle = idle(idle);
+		}
+
+		final int index = (int) h & mask;
+		final Data d = elements[index];
+		elements[index] = null;
+		head.lazySet(h + 1);
+		return d;
+	}
+
+	public void abandon() {
+		abandoned = true;
+	}
+
+	public boolean isAbandoned() {
+		return abandoned;
+	}
+
+	private static int idle(int idle) {
+		// For the first few times we just try again.
+		if (idle >= SPINS + YIELDS)
+			LockSupport.parkNanos(PARK_NANOS);
+		else if (idle >= SPINS)
+			Thread.yield();
+
+		return idle + 1;
+	}
+}
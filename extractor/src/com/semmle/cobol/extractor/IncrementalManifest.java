@@ -0,0 +1,199 @@
+package com.semmle.cobol.extractor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.semmle.util.exception.CatastrophicError;
+import com.semmle.util.exception.Exceptions;
+import com.semmle.util.trap.DefaultTrapWriterFactory;
+
+/**
+ * This tracks, for every source file, a hash of everything which went into its
+ * trap file: the bytes of the file itself, the bytes of every copybook which
+ * was resolved for it, the version of the extractor and database scheme, and
+ * the settings of the run (source format, tabs, copybook paths, ...). If none
+ * of that changed since the last run, and the trap file is still there, the
+ * file need not be extracted again.
+ * <p>
+ * The manifest entry for a source file is stored right next to its trap file,
+ * in the trap output directory. It lists the hash on the first line, followed
+ * by the paths of the copybooks which were resolved, one per line. Entries are
+ * only written for files which were parsed and trapped without problems, so
+ * files with errors always get extracted again.
+ * <p>
+ * Note that the copybooks are those which were resolved on the previous run.
+ * A new copybook which would now shadow one of those is not noticed.
+ */
+public class IncrementalManifest {
+
+	private static final Logger LOGGER = LoggerFactory
+			.getLogger(IncrementalManifest.class);
+
+	/**
+	 * Bump this whenever a change to the extractor changes its output, without
+	 * changing the database scheme.
+	 */
+	private static final String EXTRACTOR_VERSION = "2";
+
+	private static final String SUFFIX = ".manifest";
+
+	/**
+	 * Copybooks are resolved by the parser, deep inside Koopa. So we track
+	 * them for whatever file is being processed on the current thread.
+	 */
+	private static final ThreadLocal<Set<File>> COPYBOOKS = new ThreadLocal<>();
+
+	/**
+	 * Identifies the version of the extractor and the database scheme. This
+	 * class gets loaded whenever a copybook is resolved, so this is only
+	 * worked out when first needed.
+	 */
+	private static class Version {
+		private static final String VERSION = EXTRACTOR_VERSION + "\n"
+				+ CobolExtractor.getDatabaseSchemeVersion();
+	}
+
+	private final DefaultTrapWriterFactory trapWriterFactory;
+
+	/**
+	 * Describes all settings of the current run which affect the contents of
+	 * the trap files. Changing any of them invalidates all entries.
+	 */
+	private final String settings;
+
+	public IncrementalManifest(DefaultTrapWriterFactory trapWriterFactory,
+			String settings) {
+		this.trapWriterFactory = trapWriterFactory;
+		this.settings = settings;
+	}
+
+	/**
+	 * To be called by {@linkplain koopa.cobol.CobolProject}s whenever they
+	 * resolve a copybook.
+	 */
+	public static void copybookResolved(File copybook) {
+		final Set<File> copybooks = COPYBOOKS.get();
+		if (copybooks != null && copybook != null)
+			copybooks.add(copybook.getAbsoluteFile());
+	}
+
+	/**
+	 * Returns whether the trap file for the given source file exists, and was
+	 * generated from the exact same inputs as we would use now.
+	 */
+	public boolean isUpToDate(SourceBuffer source) {
+		final File trapFile = trapWriterFactory
+				.getTrapFileFor(source.getFile());
+		final File manifestFile = getManifestFile(source.getFile());
+
+		if (!trapFile.isFile() || !manifestFile.isFile())
+			return false;
+
+		try {
+			final List<String> lines = Files.readAllLines(
+					manifestFile.toPath(), StandardCharsets.UTF_8);
+
+			if (lines.isEmpty())
+				return false;
+
+			final List<File> copybooks = new ArrayList<>(lines.size() - 1);
+			for (String line : lines.subList(1, lines.size())) {
+				final File copybook = new File(line);
+				if (!copybook.isFile())
+					return false;
+				copybooks.add(copybook);
+			}
+
+			return lines.get(0).equals(hash(source, copybooks));
+
+		} catch (IOException e) {
+			Exceptions.ignore(e, "Unreadable manifest. Extracting again.");
+			return false;
+		}
+	}
+
+	/**
+	 * Start tracking the inputs for the given source file. This also removes
+	 * any existing manifest entry, so that nothing stale is left behind if the
+	 * extraction fails.
+	 */
+	public void start(File source) {
+		COPYBOOKS.set(new LinkedHashSet<>());
+
+		final File manifestFile = getManifestFile(source);
+		if (manifestFile.exists() && !manifestFile.delete())
+			LOGGER.warn("Failed to delete " + manifestFile);
+	}
+
+	/**
+	 * Stop tracking the inputs for the given source file, without recording
+	 * anything.
+	 */
+	public void abandon() {
+		COPYBOOKS.remove();
+	}
+
+	/**
+	 * Stop tracking the inputs for the given source file, and record them in
+	 * its manifest entry.
+	 */
+	public void complete(SourceBuffer source) {
+		final List<File> copybooks = new ArrayList<>(COPYBOOKS.get());
+		COPYBOOKS.remove();
+
+		final List<String> lines = new ArrayList<>(copybooks.size() + 1);
+		try {
+			lines.add(hash(source, copybooks));
+			for (File copybook : copybooks)
+				lines.add(copybook.getPath());
+
+			Files.write(getManifestFile(source.getFile()).toPath(), lines,
+					StandardCharsets.UTF_8);
+
+		} catch (IOException e) {
+			Exceptions.ignore(e, "No manifest means we extract again.");
+			LOGGER.warn("Failed to write manifest for " + source.getFile());
+		}
+	}
+
+	private File getManifestFile(File source) {
+		final File trapFile = trapWriterFactory.getTrapFileFor(source);
+		return new File(trapFile.getPath() + SUFFIX);
+	}
+
+	private String hash(SourceBuffer source, List<File> copybooks)
+			throws IOException {
+		final MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new CatastrophicError(e);
+		}
+
+		digest.update(Version.VERSION.getBytes(StandardCharsets.UTF_8));
+		digest.update(settings.getBytes(StandardCharsets.UTF_8));
+		digest.update(source.getBytes());
+
+		for (File copybook : copybooks) {
+			digest.update(copybook.getPath().getBytes(StandardCharsets.UTF_8));
+			digest.update(Files.readAllBytes(copybook.toPath()));
+		}
+
+		final StringBuilder hex = new StringBuilder();
+		for (byte b : digest.digest())
+			hex.append(String.format("%02x", b));
+
+		return hex.toString();
+	}
+}
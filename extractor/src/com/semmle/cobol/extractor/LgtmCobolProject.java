@@ -5,10 +5,15 @@ import static com.semmle.util.files.FileUtil.basename;
 
 import java.io.File;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 
 import koopa.cobol.CobolProject;
@@ -48,8 +53,43 @@ public final class LgtmCobolProject extends BasicCobolProject {
 				new Choice(grammar.compilationGroup(), grammar.copybook()));
 	}
 
+	/**
+	 * All copybooks which were added, with the same text name, in the order in
+	 * which they were added. These are also indexed on library name, which is
+	 * the name of the directory holding them.
+	 */
+	private static final class Libraries {
+		private final List<Path> all;
+		private final Map<String, List<Path>> byLibraryName;
+
+		private Libraries() {
+			this.all = new ArrayList<>();
+			this.byLibraryName = new HashMap<>();
+		}
+
+		private Libraries(Libraries other) {
+			this.all = new ArrayList<>(other.all);
+			this.byLibraryName = new HashMap<>();
+			for (Map.Entry<String, List<Path>> entry : other.byLibraryName
+					.entrySet())
+				this.byLibraryName.put(entry.getKey(),
+						new ArrayList<>(entry.getValue()));
+		}
+	}
+
 	private final Path root;
-	private final Map<String, List<Path>> libraryMap = new LinkedHashMap<>();
+
+	/**
+	 * Copybooks by upper-cased text name.
+	 */
+	private final Map<String, Libraries> libraries = new LinkedHashMap<>();
+
+	/**
+	 * Copybook candidates by text name and library name, as given to
+	 * {@link #locateCopybook(String, String, File)}. Files may be processed on
+	 * several threads, so this needs to be safe for concurrent use.
+	 */
+	private final Map<List<String>, List<Path>> resolved = new ConcurrentHashMap<>();
 
 	private Predicate<Path> sourcePredicate;
 	private Predicate<Path> libraryPredicate;
@@ -66,48 +106,65 @@ public final class LgtmCobolProject extends BasicCobolProject {
 				new Glob("**.cpy", "**.CPY", "**.copy", "**.COPY"));
 	}
 
+	/**
+	 * Looks up the copybook in the {@link #libraries}. Of all copybooks with
+	 * the given text name (and in a directory with the given library name, if
+	 * any), the first one which was added and isn't the source file itself
+	 * gets returned.
+	 */
 	public File locateCopybook(String textName, String libraryName,
 			File source) {
-		final Path sourcePath = source.toPath();
-
-		textName = uc(textName);
-
-		if (!libraryMap.containsKey(textName))
+		final List<Path> candidates = getCandidates(textName, libraryName);
+		if (candidates.isEmpty())
 			return null;
 
-		Predicate<Path> pred = new Predicate<Path>() {
-			@Override
-			public boolean test(Path p) {
-				return !p.equals(sourcePath);
+		final Path sourcePath = source.toPath();
+		for (int i = 0; i < candidates.size(); i++) {
+			final Path libraryPath = candidates.get(i);
+			if (!libraryPath.equals(sourcePath)) {
+				final File copybook = libraryPath.toFile();
+				IncrementalManifest.copybookResolved(copybook);
+				return copybook;
 			}
-		};
-
-		if (libraryName != null) {
-			final String ln = uc(libraryName);
-			pred = pred.and(new Predicate<Path>() {
-				@Override
-				public boolean test(Path p) {
-					final Path parent = p.getParent();
-					return !root.equals(p) && uc(basename(parent)).equals(ln);
-				}
-			});
 		}
 
-		final List<Path> libraryList = libraryMap.get(textName);
-		for (Path libraryPath : libraryList)
-			if (pred.test(libraryPath))
-				return libraryPath.toFile();
-
 		return null;
 	}
 
+	/**
+	 * Returns all copybooks matching the given names, in the order in which
+	 * they were added. The same COPY statements get resolved over and over, so
+	 * we remember the answer for the names as given.
+	 */
+	private List<Path> getCandidates(String textName, String libraryName) {
+		final List<String> key = Arrays.asList(textName, libraryName);
+
+		List<Path> candidates = resolved.get(key);
+		if (candidates != null)
+			return candidates;
+
+		final Libraries libraries = this.libraries.get(uc(textName));
+		if (libraries == null)
+			candidates = Collections.emptyList();
+		else if (libraryName == null)
+			candidates = libraries.all;
+		else {
+			candidates = libraries.byLibraryName.get(uc(libraryName));
+			if (candidates == null)
+				candidates = Collections.emptyList();
+		}
+
+		resolved.put(key, candidates);
+		return candidates;
+	}
+
 	@Override
 	public CobolProject duplicate() {
 		final LgtmCobolProject project = new LgtmCobolProject(root);
 		copyBasicSettingsInto(project);
-		for (String libraryName : libraryMap.keySet())
-			project.libraryMap.put(libraryName,
-					new LinkedList<Path>(libraryMap.get(libraryName)));
+		for (Map.Entry<String, Libraries> entry : libraries.entrySet())
+			project.libraries.put(entry.getKey(),
+					new Libraries(entry.getValue()));
 		return project;
 	}
 
@@ -170,15 +227,26 @@ public final class LgtmCobolProject extends BasicCobolProject {
 
 	private void addLibrary(Path path) {
 		final String textName = uc(basename(path));
-		final List<Path> libraryList;
-		if (libraryMap.containsKey(textName))
-			libraryList = libraryMap.get(textName);
-		else {
-			libraryList = new LinkedList<>();
-			libraryMap.put(textName, libraryList);
+		Libraries l = libraries.get(textName);
+		if (l == null) {
+			l = new Libraries();
+			libraries.put(textName, l);
+		}
+
+		l.all.add(path);
+
+		final Path parent = path.getParent();
+		if (parent != null && !root.equals(path)) {
+			final String libraryName = uc(basename(parent));
+			List<Path> paths = l.byLibraryName.get(libraryName);
+			if (paths == null) {
+				paths = new ArrayList<>();
+				l.byLibraryName.put(libraryName, paths);
+			}
+			paths.add(path);
 		}
 
-		libraryList.add(path);
+		resolved.clear();
 	}
 
 	@Override
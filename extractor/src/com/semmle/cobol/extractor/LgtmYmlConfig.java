@@ -51,6 +51,12 @@ public class LgtmYmlConfig {
 	private static final String ENV_LIBRARY_GLOBS = "LGTM_INDEX_LIBRARY_GLOBS";
 	private static final String ENV_PREPROCESSING = "LGTM_INDEX_PREPROCESSING";
 	private static final String ENV_ACCEPT_FAILING_PROJECT = "LGTM_INDEX_ACCEPT_FAILING_PROJECT";
+	private static final String ENV_THREADS = "LGTM_INDEX_THREADS";
+	private static final String ENV_INCREMENTAL = "LGTM_INDEX_INCREMENTAL";
+	private static final String ENV_STREAMING = "LGTM_INDEX_STREAMING";
+	private static final String ENV_PIPELINED = "LGTM_INDEX_PIPELINED";
+	private static final String ENV_HALSTEAD_SKETCHES = "LGTM_INDEX_HALSTEAD_SKETCHES";
+	private static final String ENV_COMPILED_RULES = "LGTM_INDEX_COMPILED_RULES";
 
 	private static final Pattern NEWLINE = Pattern.compile("\n");
 
@@ -252,6 +258,134 @@ public class LgtmYmlConfig {
 
 	// ------------------------------------------------------------------------
 
+	/**
+	 * The environment variable <code>LGTM_INDEX_THREADS</code> sets the number
+	 * of files which may be extracted in parallel. It defaults to 1. A value of
+	 * 0 means one thread for every available processor.
+	 */
+	public static final int THREADS;
+	static {
+		final String rawThreads = getEnvVar(ENV_THREADS, "");
+
+		int threads = 1;
+		try {
+			if (rawThreads != null && !rawThreads.isEmpty())
+				threads = Integer.parseInt(rawThreads.trim());
+
+			if (threads == 0)
+				threads = Runtime.getRuntime().availableProcessors();
+
+			if (threads < 1) {
+				LOGGER.warn("Illegal number of threads \"" + rawThreads
+						+ "\". Unsetting, and using default of 1.");
+				threads = 1;
+			}
+
+		} catch (NumberFormatException e) {
+			LOGGER.warn("Illegal number of threads \"" + rawThreads
+					+ "\". Unsetting, and using default of 1.");
+			threads = 1;
+		}
+
+		THREADS = threads;
+	}
+
+	// ------------------------------------------------------------------------
+
+	/**
+	 * The environment variable <code>LGTM_INDEX_INCREMENTAL</code> enables
+	 * skipping files whose inputs have not changed since their trap file was
+	 * generated. It defaults to <code>false</code>.
+	 */
+	public static final boolean INCREMENTAL;
+	static {
+		boolean incremental = false;
+		final String rawIncremental = getEnvVar(ENV_INCREMENTAL, "false");
+
+		if (rawIncremental != null && !rawIncremental.isEmpty())
+			incremental = Boolean.parseBoolean(rawIncremental);
+
+		INCREMENTAL = incremental;
+	}
+
+	// ------------------------------------------------------------------------
+
+	/**
+	 * The environment variable <code>LGTM_INDEX_STREAMING</code> enables
+	 * writing out tuples as soon as they are complete, rather than holding on
+	 * to all of them until the end of the file. It defaults to
+	 * <code>false</code>.
+	 */
+	public static final boolean STREAMING;
+	static {
+		boolean streaming = false;
+		final String rawStreaming = getEnvVar(ENV_STREAMING, "false");
+
+		if (rawStreaming != null && !rawStreaming.isEmpty())
+			streaming = Boolean.parseBoolean(rawStreaming);
+
+		STREAMING = streaming;
+	}
+
+	// ------------------------------------------------------------------------
+
+	/**
+	 * The environment variable <code>LGTM_INDEX_PIPELINED</code> enables
+	 * parsing each file on one thread while normalizing and trapping it on
+	 * another. It defaults to <code>false</code>.
+	 */
+	public static final boolean PIPELINED;
+	static {
+		boolean pipelined = false;
+		final String rawPipelined = getEnvVar(ENV_PIPELINED, "false");
+
+		if (rawPipelined != null && !rawPipelined.isEmpty())
+			pipelined = Boolean.parseBoolean(rawPipelined);
+
+		PIPELINED = pipelined;
+	}
+
+	// ------------------------------------------------------------------------
+
+	/**
+	 * The environment variable <code>LGTM_INDEX_HALSTEAD_SKETCHES</code>
+	 * enables estimating the distinct operators and operands in Halstead
+	 * counts, rather than counting them exactly. It defaults to
+	 * <code>false</code>.
+	 */
+	public static final boolean HALSTEAD_SKETCHES;
+	static {
+		boolean halsteadSketches = false;
+		final String rawHalsteadSketches = getEnvVar(ENV_HALSTEAD_SKETCHES,
+				"false");
+
+		if (rawHalsteadSketches != null && !rawHalsteadSketches.isEmpty())
+			halsteadSketches = Boolean.parseBoolean(rawHalsteadSketches);
+
+		HALSTEAD_SKETCHES = halsteadSketches;
+	}
+
+	// ------------------------------------------------------------------------
+
+	/**
+	 * The environment variable <code>LGTM_INDEX_COMPILED_RULES</code> makes
+	 * trap generation use the compiled rules rather than the interpreted
+	 * ones. It defaults to <code>false</code>.
+	 */
+	public static final boolean COMPILED_RULES;
+	static {
+		boolean compiledRules = false;
+		final String rawCompiledRules = getEnvVar(ENV_COMPILED_RULES,
+				"false");
+
+		if (rawCompiledRules != null && !rawCompiledRules.isEmpty())
+			compiledRules = Boolean.parseBoolean(rawCompiledRules);
+
+		COMPILED_RULES = compiledRules;
+	}
+
+	// ------------------------------------------------------------------------
+
 	private static String getEnvVar(String envVarName) {
 		return getEnvVar(envVarName, null);
 	}
@@ -351,5 +485,11 @@ public class LgtmYmlConfig {
 			LOGGER.info(glob);
 
 		LOGGER.info("Preprocessing: " + PREPROCESSING);
+		LOGGER.info("Threads: " + THREADS);
+		LOGGER.info("Incremental: " + INCREMENTAL);
+		LOGGER.info("Streaming: " + STREAMING);
+		LOGGER.info("Pipelined: " + PIPELINED);
+		LOGGER.info("Halstead sketches: " + HALSTEAD_SKETCHES);
+		LOGGER.info("Compiled rules: " + COMPILED_RULES);
 	}
 }
@@ -5,6 +5,7 @@ import java.io.FileFilter;
 import java.util.LinkedList;
 import java.util.List;
 
+import com.semmle.cobol.generator.engine.RuleProfiler;
 import com.semmle.util.exception.ResourceError;
 import com.semmle.util.exception.UserError;
 import com.semmle.util.files.FileUtil;
@@ -24,14 +25,21 @@ import koopa.core.util.TabStops;
 public class Main extends CommonBuild {
 
 	public static void main(String[] args) {
-		int ret;
+		System.exit(extract(args));
+	}
+
+	/**
+	 * Run a single extraction, and return the exit code for it. This is what
+	 * {@linkplain #main(String[])} does, without exiting, so that a
+	 * {@linkplain Daemon} can run many of them.
+	 */
+	public static int extract(String[] args) {
 		try (CliCommand cmd = new Main()) {
-			ret = cmd.run(args);
+			return cmd.run(args);
 		} catch (UserError | ResourceError e) {
 			System.err.println(e.getMessage());
-			ret = 1;
+			return 1;
 		}
-		System.exit(ret);
 	}
 
 	private boolean preprocessing = false;
@@ -42,6 +50,14 @@ public class Main extends CommonBuild {
 	private boolean tolerateTrapErrors = false;
 	private int tabLength = 1;
 	private TabStops tabStops = new TabStops();
+	private String rawTabStops = "";
+	private int threads = 1;
+	private boolean incremental = false;
+	private boolean streaming = false;
+	private boolean pipelined = false;
+	private boolean halsteadSketches = false;
+	private boolean compiledRules = false;
+	private File recordDirectory = null;
 
 	@Override
 	protected void parseArgs(ArgsParser parser) {
@@ -70,16 +86,35 @@ public class Main extends CommonBuild {
 		
 		if (parser.has("--tab-stops"))
 			try {
-				tabStops.fromString(parser.getString("--tab-stops"));
+				rawTabStops = parser.getString("--tab-stops");
+				tabStops.fromString(rawTabStops);
 			} catch (IllegalArgumentException e) {
 				throw new UserError(
 						"Tab stops must be a comma separated list of numbers, in ascending order.",
 						e);
 			}
+
+		incremental = parser.has("--incremental");
+		streaming = parser.has("--streaming");
+		pipelined = parser.has("--pipelined");
+		halsteadSketches = parser.has("--halstead-sketches");
+		compiledRules = parser.has("--compiled-rules");
+
+		if (parser.has("--record"))
+			recordDirectory = new File(parser.getString("--record"))
+					.getAbsoluteFile();
+
+		if (parser.has("--threads")) {
+			threads = parser.getInt("--threads");
+			if (threads < 1)
+				throw new UserError("Number of threads must be at least 1.");
+		}
 	}
 	
 	@Override
 	protected int runApi() {
+		RuleProfiler.reset();
+
 		final FileFilter cobolFilter = CobolFiles.getFileFilter(true);
 		boolean seenParseError = false;
 		boolean seenTrapError = false;
@@ -92,34 +127,42 @@ public class Main extends CommonBuild {
 		for (String path : copybooks)
 			project.addCopybookPath(new File(path).getAbsoluteFile());
 		
-		for (File root : files) {
-			try {
+		setIncremental(incremental);
+		setStreaming(streaming);
+		setPipelined(pipelined);
+		setHalsteadSketches(halsteadSketches);
+		setCompiledRules(compiledRules);
+		setRecordDirectory(recordDirectory);
+
+		final List<File> sources = new LinkedList<>();
+		final List<Info> infos;
+		try {
+			for (File root : files) {
 				File canonical = root.getCanonicalFile();
 				if (canonical.isDirectory()) {
 					for (File file : FileUtil.recursiveFind(canonical,
-							cobolFilter)) {
-						Info info = process(file, project);
-
-						if (info.seenParseError)
-							seenParseError = true;
-						else if (info.seenTrapError)
-							seenTrapError = true;
-					}
-
-				} else {
-					Info info = process(canonical, project);
-
-					if (info.seenParseError)
-						seenParseError = true;
-					else if (info.seenTrapError)
-						seenTrapError = true;
-				}
-
-			} catch (Exception e) {
-				System.err.println("[FATAL]");
-				e.printStackTrace(System.err);
-				System.exit(2);
+							cobolFilter))
+						sources.add(file);
+
+				} else
+					sources.add(canonical);
 			}
+
+			infos = process(sources, project, threads);
+			project.getCopybookCache().logStatistics();
+			RuleProfiler.report();
+
+		} catch (Exception e) {
+			System.err.println("[FATAL]");
+			e.printStackTrace(System.err);
+			return 2;
+		}
+
+		for (Info info : infos) {
+			if (info.seenParseError)
+				seenParseError = true;
+			else if (info.seenTrapError)
+				seenTrapError = true;
 		}
 
 		if (seenParseError && !tolerateParseErrors)
@@ -131,6 +174,18 @@ public class Main extends CommonBuild {
 		return 0;
 	}
 
+	@Override
+	protected String getProjectSettings() {
+		final StringBuilder b = new StringBuilder();
+		b.append("format=").append(format);
+		b.append("\ntab-length=").append(tabLength);
+		b.append("\ntab-stops=").append(rawTabStops);
+		b.append("\npreprocessing=").append(preprocessing);
+		for (String path : copybooks)
+			b.append("\ncopybooks=").append(new File(path).getAbsolutePath());
+		return b.toString();
+	}
+
 	protected void addArgs(ArgsParser argsParser) {
 		super.addArgs(argsParser);
 		argsParser.addFlag("--quiet", 0, "Produce less output.");
@@ -148,6 +203,20 @@ public class Main extends CommonBuild {
 				"Tab length expressed in number of spaces (integer, defaults to 1).");
 		argsParser.addFlag("--tab-stops", 1,
 				"Tab stops (comma separated list of integers, defaults to empty).");
+		argsParser.addFlag("--incremental", 0,
+				"Skip files which have not changed since they were last extracted.");
+		argsParser.addFlag("--streaming", 0,
+				"Write out tuples as soon as they are complete, to limit memory use.");
+		argsParser.addFlag("--pipelined", 0,
+				"Parse and trap each file on separate threads.");
+		argsParser.addFlag("--halstead-sketches", 0,
+				"Estimate distinct operators and operands in Halstead counts, to limit memory use.");
+		argsParser.addFlag("--compiled-rules", 0,
+				"Use the compiled rather than the interpreted mapping rules.");
+		argsParser.addFlag("--record", 1,
+				"Directory in which to log the data stream for each file, for replaying later.");
+		argsParser.addFlag("--threads", 1,
+				"Number of files to extract in parallel (integer, defaults to 1).");
 		argsParser.addTrailingParam("files",
 				"Files and directories to extract.");
 	}
@@ -32,6 +32,20 @@ public class SemmleCobolProject extends StandardCobolProject {
 				new MatchEndOfFile(grammar) }));
 	}
 
+	/**
+	 * Shared by all files processed in the context of this project.
+	 */
+	private final CopybookCache copybooks = new CopybookCache();
+
+	private final CopybookCache.Locator locator = new CopybookCache.Locator() {
+		@Override
+		public File locate(String textName, String libraryName,
+				File sourceFile) {
+			return SemmleCobolProject.super.locateCopybook(textName,
+					libraryName, sourceFile);
+		}
+	};
+
 	/**
 	 * If the file is a copybook (based on
 	 * {@linkplain CobolFiles#isCopybook(File)}) we return a copybook parser.
@@ -45,6 +59,30 @@ public class SemmleCobolProject extends StandardCobolProject {
 			return SOURCE_TEXT;
 	}
 
+	/**
+	 * Looks for copybooks in the {@link #copybooks} cache first, and only
+	 * searches the copybook paths if it's not there. Also lets the
+	 * {@linkplain IncrementalManifest} know about any copybook we resolve.
+	 */
+	@Override
+	public File locateCopybook(String textName, String libraryName,
+			File sourceFile) {
+		final File copybook = copybooks.locate(textName, libraryName,
+				sourceFile, locator);
+		IncrementalManifest.copybookResolved(copybook);
+		return copybook;
+	}
+
+	@Override
+	public void addCopybookPath(File path) {
+		super.addCopybookPath(path);
+		copybooks.clear();
+	}
+
+	public CopybookCache getCopybookCache() {
+		return copybooks;
+	}
+
 	@Override
 	public String toString() {
 		return "ODASA COBOL Project";
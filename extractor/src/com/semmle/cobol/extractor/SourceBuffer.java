@@ -0,0 +1,182 @@
+package com.semmle.cobol.extractor;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+import com.semmle.util.exception.ResourceError;
+
+/**
+ * The contents of a single source file, read from disk only once. Everything
+ * which needs those contents (the source archive, the parser, the line count
+ * for files which fail to parse, the {@linkplain IncrementalManifest}) takes
+ * them from here.
+ * <p>
+ * Small files are read onto the heap. Larger ones are memory-mapped, which
+ * saves copying their bytes around before decoding them. The text is never
+ * kept around in full; readers decode it as they go. Note that a mapping is
+ * only released once the buffer gets garbage collected, so don't hold on to
+ * these any longer than needed.
+ */
+public final class SourceBuffer {
+
+	/**
+	 * Files of at least this many bytes get memory-mapped.
+	 */
+	static final long MAPPING_THRESHOLD = 1 << 20;
+
+	private final File file;
+	private final ByteBuffer bytes;
+
+	private SourceBuffer(File file, ByteBuffer bytes) {
+		this.file = file;
+		this.bytes = bytes;
+	}
+
+	public static SourceBuffer load(File file) {
+		try (FileChannel channel = FileChannel.open(file.toPath(),
+				StandardOpenOption.READ)) {
+			final long size = channel.size();
+
+			if (size >= MAPPING_THRESHOLD)
+				return new SourceBuffer(file,
+						channel.map(MapMode.READ_ONLY, 0, size));
+
+			final ByteBuffer bytes = ByteBuffer.allocate((int) size);
+			while (bytes.hasRemaining())
+				if (channel.read(bytes) < 0)
+					break;
+			bytes.flip();
+			return new SourceBuffer(file, bytes.asReadOnlyBuffer());
+
+		} catch (IOException e) {
+			throw new ResourceError("Failed to read " + file, e);
+		}
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * The raw contents. Each call returns a fresh view, so callers are free to
+	 * consume it.
+	 */
+	public ByteBuffer getBytes() {
+		return bytes.duplicate();
+	}
+
+	/**
+	 * The contents, strictly decoded as UTF-8. This is what goes into the
+	 * source archive, where bad input should get reported rather than
+	 * replaced.
+	 */
+	public String getStrictText() {
+		try {
+			return StandardCharsets.UTF_8.newDecoder()
+					.onMalformedInput(CodingErrorAction.REPORT)
+					.onUnmappableCharacter(CodingErrorAction.REPORT)
+					.decode(getBytes()).toString();
+
+		} catch (CharacterCodingException e) {
+			throw new ResourceError("Failed to decode " + file, e);
+		}
+	}
+
+	/**
+	 * A reader over the contents, decoded in the platform's default encoding.
+	 * That is what the parser has always read source files in. There is
+	 * nothing to close.
+	 */
+	public Reader newReader() {
+		return new InputStreamReader(new BufferInputStream(getBytes()),
+				Charset.defaultCharset());
+	}
+
+	/**
+	 * Count the lines in the text, the same way
+	 * {@linkplain java.io.BufferedReader#readLine()} would see them.
+	 */
+	public int countLines() {
+		final Reader reader = newReader();
+		final char[] chunk = new char[8192];
+
+		int lines = 0;
+		boolean inLine = false;
+		boolean afterCarriageReturn = false;
+		try {
+			int n;
+			while ((n = reader.read(chunk)) >= 0) {
+				for (int i = 0; i < n; i++) {
+					final char c = chunk[i];
+					if (c == '\n' && afterCarriageReturn) {
+						// Second half of a "\r\n" line terminator.
+						afterCarriageReturn = false;
+					} else if (c == '\n' || c == '\r') {
+						lines++;
+						inLine = false;
+						afterCarriageReturn = c == '\r';
+					} else {
+						inLine = true;
+						afterCarriageReturn = false;
+					}
+				}
+			}
+
+		} catch (IOException e) {
+			throw new ResourceError("Failed to read " + file, e);
+		}
+
+		// Last line, without a line terminator.
+		if (inLine)
+			lines++;
+
+		return lines;
+	}
+
+	/**
+	 * An {@linkplain InputStream} over a {@linkplain ByteBuffer}, so the
+	 * contents can be decoded as they get read.
+	 */
+	private static final class BufferInputStream extends InputStream {
+		private final ByteBuffer bytes;
+
+		BufferInputStream(ByteBuffer bytes) {
+			this.bytes = bytes;
+		}
+
+		@Override
+		public int read() {
+			if (!bytes.hasRemaining())
+				return -1;
+			return bytes.get() & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (len == 0)
+				return 0;
+			if (!bytes.hasRemaining())
+				return -1;
+
+			final int n = Math.min(len, bytes.remaining());
+			bytes.get(b, off, n);
+			return n;
+		}
+
+		@Override
+		public int available() {
+			return bytes.remaining();
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package com.semmle.cobol.extractor;
+
+import koopa.core.data.Data;
+import koopa.core.targets.Target;
+
+/**
+ * Chains a number of {@link StreamProcessingStep}s together, and feeds them
+ * the data it is given as a {@link Target}.
+ * <p>
+ * Steps which have nothing left to do can take themselves out of the pipeline
+ * (see {@link StreamProcessingStep#bypass()}). This includes the first step,
+ * which is why the parser should be given the pipeline, rather than that step.
+ */
+public class StreamPipeline implements Target {
+
+	private StreamProcessingStep first = null;
+	private StreamProcessingStep last = null;
+
+	/**
+	 * Add a step to the end of the pipeline.
+	 */
+	public StreamPipeline then(StreamProcessingStep step) {
+		if (first == null)
+			setFirst(step);
+		else
+			last.then(step);
+
+		last = step;
+		return this;
+	}
+
+	/**
+	 * Makes the given step the first one, which also means it is no longer
+	 * preceded by any other step.
+	 */
+	void setFirst(StreamProcessingStep step) {
+		first = step;
+		step.pipeline = this;
+		step.previous = null;
+	}
+
+	@Override
+	public void push(Data d) {
+		first.push(d);
+	}
+
+	@Override
+	public void done() {
+		first.done();
+	}
+
+	/**
+	 * See {@link StreamProcessingStep#abandon()}.
+	 */
+	public void abandon() {
+		if (first != null)
+			first.abandon();
+	}
+}
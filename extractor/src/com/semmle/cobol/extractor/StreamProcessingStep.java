@@ -1,6 +1,6 @@
 package com.semmle.cobol.extractor;
 
-import java.util.LinkedList;
+import com.semmle.util.exception.CatastrophicError;
 
 import koopa.core.data.Data;
 import koopa.core.targets.Target;
@@ -13,10 +13,26 @@ public abstract class StreamProcessingStep implements Target {
 
 	private StreamProcessingStep next = null;
 
-	private LinkedList<Data> delayed = new LinkedList<>();
+	/**
+	 * The step passing data to this one, if any.
+	 */
+	StreamProcessingStep previous = null;
+
+	/**
+	 * The {@link StreamPipeline} passing data to this one, if this is its
+	 * first step.
+	 */
+	StreamPipeline pipeline = null;
+
+	/**
+	 * Only allocated once something actually gets delayed, which most steps
+	 * never do.
+	 */
+	private DataQueue delayed = null;
 
 	public StreamProcessingStep then(StreamProcessingStep next) {
 		this.next = next;
+		next.previous = this;
 		return next;
 	}
 
@@ -30,12 +46,57 @@ public abstract class StreamProcessingStep implements Target {
 		next.done();
 	}
 
+	/**
+	 * To be called instead of {@link #done()} when the data stream got cut
+	 * off, e.g. because the parse failed. Steps which hold on to resources
+	 * should release them here.
+	 */
+	public void abandon() {
+		if (next != null)
+			next.abandon();
+	}
+
 	protected void delay(Data d) {
+		if (delayed == null)
+			delayed = new DataQueue();
 		delayed.addLast(d);
 	}
 
 	protected void passAllDelayed() {
+		if (delayed == null)
+			return;
+
 		while (!delayed.isEmpty())
 			pass(delayed.removeFirst());
 	}
+
+	/**
+	 * To be called by a step which, from now on, will pass all data on as is,
+	 * and has nothing left to do when done. It gets taken out of the chain, so
+	 * that data goes straight from the step before it to the step after it.
+	 * <p>
+	 * A step which is not preceded by anything (because it is being fed data
+	 * directly), or which is not followed by anything, just stays where it is.
+	 * <p>
+	 * Note that once bypassed, a step receives neither data nor a call to
+	 * {@link #done()}.
+	 */
+	protected void bypass() {
+		if (delayed != null && !delayed.isEmpty())
+			throw new CatastrophicError(
+					"Can't bypass a step which is still delaying data.");
+
+		if (next == null)
+			return;
+
+		if (previous != null) {
+			previous.next = next;
+			next.previous = previous;
+			previous = null;
+
+		} else if (pipeline != null) {
+			pipeline.setFirst(next);
+			pipeline = null;
+		}
+	}
 }
@@ -23,6 +23,7 @@ import com.semmle.cobol.generator.triggers.Trigger;
 import com.semmle.cobol.generator.tuples.Tuple;
 import com.semmle.cobol.mapping.runtime.TrapFile;
 import com.semmle.cobol.population.CobolRulesFromSpec;
+import com.semmle.cobol.population.CompiledCobolRulesFromSpec;
 import com.semmle.cobol.timing.Timing;
 import com.semmle.util.exception.CatastrophicError;
 import com.semmle.util.language.LegacyLanguage;
@@ -43,12 +44,28 @@ public class GenerateTrapFile extends StreamProcessingStep {
 			.getLogger(GenerateTrapFile.class);
 
 	/**
-	 * The rule set, configured with mappings for trapping COBOL files.
+	 * The rule set, configured with mappings for trapping COBOL files, using
+	 * {@link CobolRulesFromSpec}. This is only set up when first asked for.
 	 */
-	private static final RuleSet RULES = new RuleSet();
-	static {
-		CobolRules.initialize(RULES);
-		CobolRulesFromSpec.initialize(RULES);
+	private static class Interpreted {
+		private static final RuleSet RULES = new RuleSet();
+		static {
+			CobolRules.initialize(RULES);
+			CobolRulesFromSpec.initialize(RULES);
+		}
+	}
+
+	/**
+	 * The rule set, configured with mappings for trapping COBOL files, using
+	 * {@link CompiledCobolRulesFromSpec}. This is only set up when first asked
+	 * for.
+	 */
+	private static class Compiled {
+		private static final RuleSet RULES = new RuleSet();
+		static {
+			CobolRules.initialize(RULES);
+			CompiledCobolRulesFromSpec.initialize(RULES);
+		}
 	}
 
 	/**
@@ -62,15 +79,87 @@ public class GenerateTrapFile extends StreamProcessingStep {
 	 */
 	private final RuleEngine engine;
 
+	/**
+	 * Where the trap file gets written.
+	 */
+	private final File output;
+
+	/**
+	 * Once {@linkplain #done()} is called, the trap file is taken care of by
+	 * that, and there is nothing left to {@linkplain #abandon()}.
+	 */
+	private boolean done = false;
+
 	public GenerateTrapFile(File sourceFile) {
+		this(sourceFile, false);
+	}
+
+	/**
+	 * When streaming, tuples get written out as soon as the {@link TrapFile}
+	 * considers them closed, rather than all at once at the end.
+	 */
+	public GenerateTrapFile(File sourceFile, boolean streaming) {
+		this(sourceFile, streaming, false);
+	}
+
+	/**
+	 * The compiled rules are meant to do the same as the interpreted ones,
+	 * only faster. Until they are known to, the interpreted ones remain the
+	 * default.
+	 */
+	public GenerateTrapFile(File sourceFile, boolean streaming,
+			boolean compiledRules) {
+		this(sourceFile,
+				new DefaultTrapWriterFactory(LegacyLanguage.COBOL)
+						.getTrapFileFor(sourceFile),
+				streaming, compiledRules);
+	}
+
+	/**
+	 * Same as {@linkplain #GenerateTrapFile(File, boolean, boolean)}, but
+	 * writing to the given trap file rather than the one the extractor's
+	 * environment asks for.
+	 */
+	public GenerateTrapFile(File sourceFile, File output, boolean streaming,
+			boolean compiledRules) {
+		this.output = output;
 		trapFile = new TrapFile(sourceFile);
-		engine = new RuleEngine(trapFile);
+		engine = newRuleEngine(trapFile, compiledRules);
+
+		if (streaming)
+			trapFile.startStreaming(output);
+	}
+
+	/**
+	 * The rule set for trapping COBOL files, either with the interpreted or
+	 * with the compiled rules from the spec.
+	 */
+	public static RuleSet getRules(boolean compiledRules) {
+		return compiledRules ? Compiled.RULES : Interpreted.RULES;
+	}
+
+	/**
+	 * Create a {@link RuleEngine} for the given {@link TrapFile}, set up with
+	 * all rules for trapping COBOL files.
+	 */
+	public static RuleEngine newRuleEngine(TrapFile trapFile) {
+		return newRuleEngine(trapFile, false);
+	}
+
+	/**
+	 * Create a {@link RuleEngine} for the given {@link TrapFile}, set up with
+	 * all rules for trapping COBOL files, either interpreted or compiled.
+	 */
+	public static RuleEngine newRuleEngine(TrapFile trapFile,
+			boolean compiledRules) {
+		final RuleSet rules = getRules(compiledRules);
+		final RuleEngine engine = new RuleEngine(trapFile);
 
 		// text : map $. ; [CFLOW]
 		engine.add( //
 				first(start(TEXT)), //
 				closure(all( //
-						RULES.applyMatchingRule(), //
+						rules.applyMatchingRule(), //
 						CFLOW //
 				)) //
 		);
@@ -80,6 +169,8 @@ public class GenerateTrapFile extends StreamProcessingStep {
 
 		// [NUMLINES]
 		engine.atStart(closure(NUMLINES));
+
+		return engine;
 	}
 
 	/**
@@ -87,7 +178,14 @@ public class GenerateTrapFile extends StreamProcessingStep {
 	 */
 	@Override
 	public void push(Data d) {
-		engine.push(d);
+		try {
+			engine.push(d);
+
+		} catch (RuntimeException e) {
+			// Don't leave a partially streamed trap file behind.
+			trapFile.discard();
+			throw e;
+		}
 	}
 
 	/**
@@ -100,7 +198,16 @@ public class GenerateTrapFile extends StreamProcessingStep {
 	 */
 	@Override
 	public void done() {
-		engine.done();
+		done = true;
+
+		try {
+			engine.done();
+
+		} catch (RuntimeException e) {
+			trapFile.discard();
+			throw e;
+		}
+
 		super.done();
 
 		Timing.end("parse + generation");
@@ -110,11 +217,24 @@ public class GenerateTrapFile extends StreamProcessingStep {
 		final boolean valid = trapFile.validateTuplesAgainstDatabaseScheme();
 
 		if (valid) {
-			trapFile.storeTuples(new DefaultTrapWriterFactory(LegacyLanguage.COBOL));
+			trapFile.storeTuples(output);
 
 		} else {
+			trapFile.discard();
 			LOGGER.error("Failed to trap: " + trapFile);
 			throw new CatastrophicError("Failed to trap: " + trapFile);
 		}
 	}
+
+	/**
+	 * When the stream gets cut off, we don't leave a partially streamed trap
+	 * file behind, nor keep it open.
+	 */
+	@Override
+	public void abandon() {
+		if (!done)
+			trapFile.discard();
+
+		super.abandon();
+	}
 }
@@ -1,5 +1,6 @@
 package com.semmle.cobol.generator;
 
+import static com.semmle.cobol.extractor.CobolExtractor.getTrappableType;
 import static com.semmle.cobol.extractor.CobolExtractor.getType;
 
 import java.util.LinkedList;
@@ -14,6 +15,7 @@ import com.semmle.cobol.generator.tuples.Tuple;
 import com.semmle.cobol.generator.types.Attribute;
 import com.semmle.cobol.generator.types.ListType;
 import com.semmle.cobol.generator.types.Partition;
+import com.semmle.cobol.generator.types.TrappableType;
 import com.semmle.cobol.generator.types.Type;
 import com.semmle.cobol.mapping.runtime.TrapFile;
 import com.semmle.cobol.mapping.values.PartitionedValue;
@@ -35,6 +37,14 @@ public class Trap {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(Trap.class);
 
+	// The types we trap for every tuple, or close to it.
+	private static final TrappableType LOCATIONS_DEFAULT = getTrappableType(
+			"locations_default");
+	private static final TrappableType COMPGENERATED = getTrappableType(
+			"compgenerated");
+	private static final TrappableType NUMLINES = getTrappableType(
+			"numlines");
+
 	/**
 	 * Find the matching {@link Tuple} in the {@link TrapFile} and return it if
 	 * it exists.
@@ -63,14 +73,43 @@ public class Trap {
 		return trapTuple_(typeName, token, topic, engine);
 	}
 
+	/**
+	 * Trap a {@link Tuple} of an already resolved type for the given
+	 * {@link Node}, or return the existing one.
+	 */
+	public static Tuple trapTuple(TrappableType type, Node node, String topic,
+			RuleEngine engine) {
+		return trapTuple_(type, node, topic, engine);
+	}
+
+	/**
+	 * Trap a {@link Tuple} of an already resolved type for the given
+	 * {@link Token}, or return the existing one.
+	 */
+	public static Tuple trapTuple(TrappableType type, Token token,
+			String topic, RuleEngine engine) {
+		return trapTuple_(type, token, topic, engine);
+	}
+
 	private static Tuple trapTuple_(String typeName, Object subject,
 			String topic, RuleEngine engine) {
+		return trapTuple_(getTrappableType(typeName), subject, topic, engine);
+	}
+
+	private static Tuple trapTuple_(TrappableType type, Object subject,
+			String topic, RuleEngine engine) {
+		final TrapFile trapFile = engine.getTrapFile();
+		return trapTuple_(type, subject, trapFile.getTopic(topic), engine);
+	}
+
+	private static Tuple trapTuple_(TrappableType type, Object subject,
+			int topic, RuleEngine engine) {
 		// We ask the runtime for a tuple:
 		final TrapFile trapFile = engine.getTrapFile();
-		final Tuple tuple = trapFile.getTuple(typeName, subject, topic);
+		final Tuple tuple = trapFile.getTuple(type, subject, topic);
 
 		// If we're trapping a tuple for a Partition, then we're done.
-		if (getType(typeName) instanceof Partition)
+		if (type instanceof Partition)
 			return tuple;
 
 		// For other types, however, we do some extra work. We add "id"
@@ -104,7 +143,7 @@ public class Trap {
 			RuleEngine engine) {
 
 		final Type attributeType = getType(attribute);
-		return trapTuple_(attributeType.getName(), subject,
+		return trapTuple_(getTrappableType(attributeType), subject,
 				"." + attribute.getName(), engine);
 	}
 
@@ -124,8 +163,8 @@ public class Trap {
 			String attributeName, final Type attributeType, int index,
 			Tuple tuple) {
 
-		final Type parentType = CobolExtractor.getType(parent);
-		final Type tupleType = CobolExtractor.getType(tuple);
+		final Type parentType = parent.getType();
+		final Type tupleType = tuple.getType();
 
 		if (LOGGER.isTraceEnabled())
 			LOGGER.trace(". (assign '" + attributeName + " ...) - parent "
@@ -146,7 +185,7 @@ public class Trap {
 		}
 
 		if (!"_".equals(attributeName)) {
-			if (!attributeType.isAssignableFrom(tupleType))
+			if (!CobolExtractor.isAssignableFrom(attributeType, tupleType))
 				throw new CatastrophicError(
 						"Type mismatch. Can not assign tuple " + tuple
 								+ " to attribute '" + parentType + "."
@@ -171,15 +210,19 @@ public class Trap {
 
 		final Type attributeType = getType(attribute);
 
-		final Tuple listTuple = Trap.trapTuple(attributeType.getName(), node,
-				topic, engine);
+		final Tuple listTuple = Trap.trapTuple(
+				getTrappableType(attributeType), node, topic, engine);
 
 		if (LOGGER.isTraceEnabled())
 			LOGGER.trace("List starts at {}", node.start);
 
 		// The initial location of a list matches the starting location
 		// of the first element to be added.
-		Trap.trapLocation(listTuple, node.start, node.start, engine);
+		final Tuple locationsDefault = Trap.trapLocation(listTuple, node.start,
+				node.start, engine);
+
+		// The end of that location gets updated as elements are added.
+		engine.getTrapFile().closeWith(locationsDefault, listTuple);
 
 		return listTuple;
 	}
@@ -194,7 +237,7 @@ public class Trap {
 			Tuple item, Node node, RuleEngine engine) {
 
 		final int index = list.getChildCount();
-		final Type attributeType = CobolExtractor.getType(list);
+		final Type attributeType = list.getType();
 		final Type listItemType = ((ListType) attributeType).getItemType();
 
 		parentTupleToAttribute(list, attribute.getName() + "[" + index + "]",
@@ -248,7 +291,7 @@ public class Trap {
 				engine);
 
 		final Object subject = tuple.getKey().subject;
-		final String topic = tuple.getName() + ":" + tuple.getKey().topic;
+		final int topic = getLocationTopic(tuple, engine);
 
 		final Tuple hasLocation = Trap.trapTuple_("hasLocation", subject, topic,
 				engine);
@@ -267,9 +310,9 @@ public class Trap {
 			Position end, RuleEngine engine) {
 
 		final Object subject = tuple.getKey().subject;
-		final String topic = tuple.getName() + ":" + tuple.getKey().topic;
+		final int topic = getLocationTopic(tuple, engine);
 
-		final Tuple locationsDefault = Trap.trapTuple_("locations_default",
+		final Tuple locationsDefault = Trap.trapTuple_(LOCATIONS_DEFAULT,
 				subject, topic, engine);
 
 		final String path = start.getResourceName();
@@ -302,10 +345,10 @@ public class Trap {
 			RuleEngine engine) {
 
 		final Object subject = tuple.getKey().subject;
-		final String topic = tuple.getName() + ":" + tuple.getKey().topic;
+		final int topic = getLocationTopic(tuple, engine);
 
-		final Tuple locationsDefault = Trap
-				.getExistingTuple("locations_default", subject, topic, engine);
+		final Tuple locationsDefault = engine.getTrapFile()
+				.getExistingTuple(LOCATIONS_DEFAULT, subject, topic);
 
 		final int endLine = end.getLinenumber();
 		final int endColumn = end.getPositionInLine();
@@ -314,10 +357,19 @@ public class Trap {
 		locationsDefault.addConstantValue("endColumn", endColumn);
 	}
 
+	/**
+	 * The location info for a {@link Tuple} is trapped for the same subject,
+	 * with a topic combining the tuple's name and its own topic.
+	 */
+	private static int getLocationTopic(Tuple tuple, RuleEngine engine) {
+		return engine.getTrapFile().getTopic(tuple.getName(),
+				tuple.getKey().topicId);
+	}
+
 	private static void addCompilerGeneratedTuple(Tuple tuple, Node node,
 			RuleEngine engine) {
 
-		final Tuple locationsDefault = Trap.trapTuple_("compgenerated", node,
+		final Tuple locationsDefault = Trap.trapTuple_(COMPGENERATED, node,
 				tuple.getName(), engine);
 
 		locationsDefault.addValue(tuple.getValue("id"));
@@ -382,7 +434,7 @@ public class Trap {
 
 	public static void trapNumLines(final Tuple tuple, final Object subject,
 			Tally tally, RuleEngine engine) {
-		final Tuple numlines = Trap.trapTuple_("numlines", subject, null,
+		final Tuple numlines = Trap.trapTuple_(NUMLINES, subject, null,
 				engine);
 
 		if (tuple == null)
@@ -2,6 +2,7 @@ package com.semmle.cobol.generator.effects;
 
 import static com.semmle.cobol.extractor.CobolExtractor.getAttribute;
 import static com.semmle.cobol.extractor.CobolExtractor.getDatabaseType;
+import static com.semmle.cobol.extractor.CobolExtractor.getTrappableType;
 import static com.semmle.cobol.extractor.CobolExtractor.getType;
 
 import java.util.List;
@@ -45,10 +46,45 @@ class AssignToEffect implements Effect {
 	 */
 	private final String attributeName;
 
+	/**
+	 * The attribute, and what we need to know about its type, as looked up
+	 * for a given owner type.
+	 */
+	private static final class Binding {
+		final Type ownerType;
+		final Attribute attribute;
+		final Type attributeType;
+		final DatabaseType attributeDatabaseType;
+
+		Binding(Type ownerType, String attributeName) {
+			this.ownerType = ownerType;
+			this.attribute = getAttribute(ownerType, attributeName);
+			this.attributeType = getType(attribute);
+			this.attributeDatabaseType = getDatabaseType(attributeType);
+		}
+	}
+
+	/**
+	 * The binding for the owner type we saw last. Any given rule nearly
+	 * always assigns to the same type of owner, so this saves us looking
+	 * things up again. Effects are shared between threads, which is fine as
+	 * bindings never change.
+	 */
+	private volatile Binding binding = null;
+
 	AssignToEffect(String attributeName) {
 		this.attributeName = attributeName;
 	}
 
+	private Binding bind(Type ownerType) {
+		Binding b = binding;
+		if (b == null || b.ownerType != ownerType) {
+			b = new Binding(ownerType, attributeName);
+			binding = b;
+		}
+		return b;
+	}
+
 	@Override
 	public void apply(Event event, Frame frame, RuleEngine engine) {
 		// We expect to find a Tuple to assign, unless the mayBeOmitted flag has
@@ -62,11 +98,10 @@ class AssignToEffect implements Effect {
 		final Node node = event.getNode();
 		final Frame current = frame;
 		final Frame parent = current.findAncestorWithTuple();
-		final Type ownerType = getType(parent.tuple.getName());
-		final Attribute attribute = getAttribute(ownerType, attributeName);
-		final Type attributeType = getType(attribute);
-		final DatabaseType attributeDatabaseType = getDatabaseType(
-				attributeType);
+		final Binding b = bind(parent.tuple.getType());
+		final Attribute attribute = b.attribute;
+		final Type attributeType = b.attributeType;
+		final DatabaseType attributeDatabaseType = b.attributeDatabaseType;
 
 		Tuple tuple = null;
 		if (attributeDatabaseType != null) {
@@ -87,12 +122,12 @@ class AssignToEffect implements Effect {
 					LOGGER.trace("^ and stored in a partition ...");
 
 				final Partition p = (Partition) attributeDatabaseType;
-				tuple = Trap.trapTuple(attributeDatabaseType.getName(), node,
-						p.getValueColumn(), engine);
+				tuple = Trap.trapTuple(p, node, p.getValueColumn(), engine);
 				tuple.addConstantValue(p.getValueColumn(), value);
 
 			} else {
-				tuple = Trap.trapTuple(attributeDatabaseType.getName(), node,
+				tuple = Trap.trapTuple(
+						getTrappableType(attributeDatabaseType), node,
 						"value", engine);
 				tuple.addConstantValue("value", value);
 			}
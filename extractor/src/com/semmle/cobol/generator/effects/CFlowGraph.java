@@ -22,6 +22,7 @@ import com.semmle.cobol.generator.engine.RuleEngine;
 import com.semmle.cobol.generator.events.Event;
 import com.semmle.cobol.generator.events.TreePath.Node;
 import com.semmle.cobol.generator.triggers.BasicTrigger;
+import com.semmle.cobol.generator.triggers.Interest;
 import com.semmle.cobol.generator.triggers.Trigger;
 import com.semmle.cobol.generator.triggers.TriggerState;
 import com.semmle.cobol.generator.tuples.Tuple;
@@ -65,6 +66,11 @@ class CFlowGraph {
 					CFLOW_NODES.contains(event.data));
 		}
 
+		@Override
+		public Interest getInterest() {
+			return Interest.in(CFLOW_NODES);
+		}
+
 		@Override
 		public String toString() {
 			return "cflow node";
@@ -155,38 +161,7 @@ class CFlowGraph {
 				if (TRACE_ENABLED)
 					LOGGER.trace("finished with {} ~ {}", root, root.tuple);
 
-				for (CFlowNode n : root.depthFirst()) {
-					if (!WIRING.participatesInCFlow(n.data)) {
-						if (TRACE_ENABLED)
-							LOGGER.trace("- {} ~ {}", n, n.tuple);
-						continue;
-					}
-
-					if (TRACE_ENABLED)
-						LOGGER.trace("+ {} ~ {}", n, n.tuple);
-
-					final Logic logic = WIRING.getLogic(n.data);
-					final List<CFlowNode> successors = logic.getSuccessors(n);
-					for (CFlowNode succ : successors) {
-						if (TRACE_ENABLED)
-							LOGGER.trace("=> {}", succ);
-
-						final Tuple tuple = Trap.trapTuple("successor", n.node,
-								"successor-" + succ.node.hashCode(), engine);
-
-						if (LOGGER.isDebugEnabled())
-							LOGGER.debug("{} == {} --> {}", tuple, n.tuple,
-									succ.tuple);
-
-						if (succ.tuple == null)
-							throw new CatastrophicError(n + " --> " + succ);
-
-						tuple.addValue(
-								new ReferenceValue("predecessor", n.tuple));
-						tuple.addValue(
-								new ReferenceValue("successor", succ.tuple));
-					}
-				}
+				trapSuccessors(root, engine);
 			}
 
 			@Override
@@ -196,10 +171,46 @@ class CFlowGraph {
 		};
 	}
 
+	/**
+	 * Trap the successor relationships for all nodes in the completed graph
+	 * under the given root.
+	 */
+	void trapSuccessors(CFlowNode root, RuleEngine engine) {
+		for (CFlowNode n : root.depthFirst()) {
+			if (!WIRING.participatesInCFlow(n.data)) {
+				if (TRACE_ENABLED)
+					LOGGER.trace("- {} ~ {}", n, n.tuple);
+				continue;
+			}
+
+			if (TRACE_ENABLED)
+				LOGGER.trace("+ {} ~ {}", n, n.tuple);
+
+			final Logic logic = WIRING.getLogic(n.data);
+			final List<CFlowNode> successors = logic.getSuccessors(n);
+			for (CFlowNode succ : successors) {
+				if (TRACE_ENABLED)
+					LOGGER.trace("=> {}", succ);
+
+				final Tuple tuple = Trap.trapTuple("successor", n.node,
+						"successor-" + succ.node.hashCode(), engine);
+
+				if (LOGGER.isDebugEnabled())
+					LOGGER.debug("{} == {} --> {}", tuple, n.tuple, succ.tuple);
+
+				if (succ.tuple == null)
+					throw new CatastrophicError(n + " --> " + succ);
+
+				tuple.addValue(new ReferenceValue("predecessor", n.tuple));
+				tuple.addValue(new ReferenceValue("successor", succ.tuple));
+			}
+		}
+	}
+
 	/**
 	 * Pop the current subtree from the stack, and set the tuple for it.
 	 */
-	private CFlowNode popWithTuple(Event event, RuleEngine engine) {
+	CFlowNode popWithTuple(Event event, RuleEngine engine) {
 		final CFlowNode n = stack.pop();
 
 		// Special case: (compiler) statements should have the tuple (and node)
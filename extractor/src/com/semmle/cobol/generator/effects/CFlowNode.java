@@ -7,6 +7,7 @@ import java.util.Deque;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.semmle.cobol.generator.events.TreePath.Node;
 import com.semmle.cobol.generator.tuples.Tuple;
@@ -401,8 +402,8 @@ public class CFlowNode {
 
 	// ------------------------------------------------------------------------
 
-	private static int NEXT_ID = 0;
-	private final int ID = NEXT_ID++;
+	private static final AtomicInteger NEXT_ID = new AtomicInteger();
+	private final int ID = NEXT_ID.getAndIncrement();
 
 	@Override
 	public int hashCode() {
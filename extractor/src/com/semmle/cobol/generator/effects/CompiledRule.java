@@ -0,0 +1,214 @@
+package com.semmle.cobol.generator.effects;
+
+import static com.semmle.cobol.generator.effects.Effects.assignTo;
+import static com.semmle.cobol.generator.effects.Effects.closure;
+import static com.semmle.cobol.generator.effects.Effects.collect;
+import static com.semmle.cobol.generator.effects.Effects.createTuple;
+import static com.semmle.cobol.generator.triggers.Triggers.PROGRAM_TEXT;
+
+import java.util.Arrays;
+
+import com.semmle.cobol.generator.engine.Frame;
+import com.semmle.cobol.generator.engine.RuleEngine;
+import com.semmle.cobol.generator.events.Event;
+import com.semmle.cobol.generator.events.TreePath.Node;
+import com.semmle.cobol.generator.rules.RuleSet;
+import com.semmle.cobol.generator.triggers.BasicTrigger;
+import com.semmle.cobol.generator.triggers.Interest;
+import com.semmle.cobol.generator.triggers.Trigger;
+import com.semmle.cobol.generator.triggers.TriggerDefinition;
+import com.semmle.cobol.generator.triggers.TriggerState;
+import com.semmle.cobol.generator.tuples.Tuple;
+
+import koopa.core.data.Data;
+import koopa.core.data.markers.Start;
+
+/**
+ * An {@link Effect} which maps a node to a {@link Tuple}, and maps any of its
+ * child nodes to the attributes of that tuple. This does the same as combining
+ * {@link Effects#createTuple(String)} with a
+ * {@link Effects#setAttribute(String, TriggerDefinition, RuleSet)} (or one of
+ * its variants) per attribute, where each of those triggers on a child node.
+ * <p>
+ * Rather than adding a rule to the {@link RuleEngine} per attribute, each with
+ * its own {@link Trigger} and {@link Frame}, this adds a single rule which
+ * fires on all child nodes of interest. Subclasses then work out which
+ * attributes a child maps to in {@linkplain #map(Data, Event, Children,
+ * RuleEngine)}, which is straight-line code as generated by
+ * <code>tools/java_rules_gen.py</code>.
+ * <p>
+ * Anything which can not be compiled this way (e.g. attributes which map
+ * deeper paths) can still be done by the regular {@link Effect}s, in
+ * {@linkplain #before(Event, Frame, RuleEngine)} and
+ * {@linkplain #after(Event, Frame, RuleEngine)}.
+ */
+public abstract class CompiledRule implements Effect {
+
+	private static final Effect COLLECT_PROGRAM_TEXT = collect(PROGRAM_TEXT);
+
+	private final String typeName;
+
+	private final Effect createTuple;
+
+	/**
+	 * The child nodes for which {@linkplain #map(Data, Event, Children,
+	 * RuleEngine)} needs to be called. <code>null</code> if there are none.
+	 */
+	private final Interest interest;
+
+	/**
+	 * The effects assigning to each of the attributes, by index.
+	 */
+	private final Effect[] assignments;
+
+	protected CompiledRule(String typeName, Start[] children,
+			String[] attributes) {
+		this.typeName = typeName;
+		this.createTuple = createTuple(typeName);
+
+		this.interest = children.length == 0 ? null
+				: Interest.in(Arrays.asList(children));
+
+		this.assignments = new Effect[attributes.length];
+		for (int i = 0; i < attributes.length; i++)
+			assignments[i] = assignTo(attributes[i]);
+	}
+
+	@Override
+	public void apply(Event event, Frame frame, RuleEngine engine) {
+		createTuple.apply(event, frame, engine);
+
+		before(event, frame, engine);
+
+		if (interest != null)
+			engine.add(new OnChild(event.getNode().depth + 1, interest),
+					new Children(frame, assignments.length));
+
+		after(event, frame, engine);
+	}
+
+	/**
+	 * Anything which needs to be done after the tuple was created, but before
+	 * the child nodes get picked up.
+	 */
+	protected void before(Event event, Frame frame, RuleEngine engine) {
+	}
+
+	/**
+	 * Anything which needs to be done after the child nodes get picked up.
+	 */
+	protected void after(Event event, Frame frame, RuleEngine engine) {
+	}
+
+	/**
+	 * Map the given child node to whichever attributes want it, by calling
+	 * {@linkplain #assign(int, Effect, Event, Children, RuleEngine)} or
+	 * {@linkplain #assignProgramText(int, Event, Children, RuleEngine)} for
+	 * each of them, in order.
+	 */
+	protected abstract void map(Data child, Event event, Children children,
+			RuleEngine engine);
+
+	/**
+	 * Apply the given rule to the current node, and at its end assign the
+	 * result to the attribute with the given index.
+	 * <p>
+	 * This is what
+	 * {@link Effects#setAttribute(String, TriggerDefinition, RuleSet)} does
+	 * when its trigger fires.
+	 */
+	protected final void assign(int attribute, Effect rule, Event event,
+			Children children, RuleEngine engine) {
+		final Frame frame = children.get(attribute);
+		rule.apply(event, frame, engine);
+		engine.atEnd(closure(frame, assignments[attribute]));
+	}
+
+	/**
+	 * Collect the program text of the current node, and at its end assign it
+	 * to the attribute with the given index.
+	 * <p>
+	 * This is what
+	 * {@link Effects#setAttributeToProgramText(String, TriggerDefinition)}
+	 * does when its trigger fires.
+	 */
+	protected final void assignProgramText(int attribute, Event event,
+			Children children, RuleEngine engine) {
+		final Frame frame = children.get(attribute).push();
+		COLLECT_PROGRAM_TEXT.apply(event, frame, engine);
+		engine.atEnd(closure(frame, assignments[attribute]));
+	}
+
+	@Override
+	public String toString() {
+		return "compiled map @" + typeName;
+	}
+
+	/**
+	 * The {@link Effect} which runs when a child node of interest is found.
+	 * This keeps a {@link Frame} per attribute, same as the
+	 * {@linkplain Effects#on(TriggerDefinition, Effect)} for that attribute
+	 * would have. They get created when first needed, as most attributes are
+	 * optional.
+	 */
+	protected final class Children implements Effect {
+		private final Frame frame;
+		private final Frame[] frames;
+
+		private Children(Frame frame, int attributes) {
+			this.frame = frame;
+			this.frames = new Frame[attributes];
+		}
+
+		private Frame get(int attribute) {
+			Frame f = frames[attribute];
+			if (f == null) {
+				f = frame.push();
+				frames[attribute] = f;
+			}
+			return f;
+		}
+
+		@Override
+		public void apply(Event event, Frame frame, RuleEngine engine) {
+			map(event.data, event, this, engine);
+		}
+
+		@Override
+		public String toString() {
+			return CompiledRule.this.toString();
+		}
+	}
+
+	/**
+	 * A {@link Trigger} which fires on any of the given child nodes at the
+	 * given depth. This is the same as an <code>or</code> of a
+	 * <code>child(start(...))</code> per node, but without the nesting.
+	 */
+	private static final class OnChild extends BasicTrigger {
+		private final int depth;
+		private final Interest interest;
+
+		OnChild(int depth, Interest interest) {
+			this.depth = depth;
+			this.interest = interest.upToDepth(depth);
+		}
+
+		@Override
+		public TriggerState evaluate(Event e) {
+			final Node node = e.getNode();
+			return TriggerState.fromBoolean(node != null && node.depth == depth
+					&& interest.getData().contains(e.data));
+		}
+
+		@Override
+		public Interest getInterest() {
+			return interest;
+		}
+
+		@Override
+		public String toString() {
+			return "#" + depth + " and " + interest;
+		}
+	}
+}
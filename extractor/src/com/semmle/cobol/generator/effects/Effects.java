@@ -1,5 +1,6 @@
 package com.semmle.cobol.generator.effects;
 
+import static com.semmle.cobol.extractor.CobolExtractor.getTrappableType;
 import static com.semmle.cobol.generator.triggers.Triggers.PROGRAM_TEXT;
 import static com.semmle.cobol.generator.triggers.Triggers.path;
 
@@ -15,6 +16,7 @@ import com.semmle.cobol.generator.functions.Fn1;
 import com.semmle.cobol.generator.rules.RuleSet;
 import com.semmle.cobol.generator.triggers.TriggerDefinition;
 import com.semmle.cobol.generator.tuples.Tuple;
+import com.semmle.cobol.generator.types.TrappableType;
 import com.semmle.cobol.mapping.runtime.TrapFile;
 
 import koopa.core.data.Data;
@@ -221,14 +223,30 @@ public class Effects {
 	 * <p>
 	 * This also sets up the {@link #LOCATION} effect at the end, so all tuples
 	 * get the required location information.
+	 * <p>
+	 * The type is looked up when the effect is first applied, rather than when
+	 * it is defined, so that defining rules does not force every type to be
+	 * loaded.
 	 */
 	public static Effect createTuple(String typeName) {
 		return new Effect() {
+			/**
+			 * Rule sets are shared by all threads, so this must be safely
+			 * published.
+			 */
+			private volatile TrappableType type = null;
+
 			@Override
 			public void apply(Event event, Frame frame, RuleEngine engine) {
+				// Looking it up twice on different threads does no harm.
+				TrappableType t = type;
+				if (t == null) {
+					t = getTrappableType(typeName);
+					type = t;
+				}
+
 				frame.node = event.getNode();
-				frame.tuple = Trap.trapTuple(typeName, event.getNode(), null,
-						engine);
+				frame.tuple = Trap.trapTuple(t, event.getNode(), null, engine);
 
 				engine.atEnd(closure(frame, LOCATION));
 			}
@@ -247,11 +265,22 @@ public class Effects {
 	 */
 	public static Effect overrideTupleType(String typeName) {
 		return new Effect() {
+			/**
+			 * See {@linkplain #createTuple(String)}.
+			 */
+			private volatile TrappableType type = null;
+
 			@Override
 			public void apply(Event event, Frame frame, RuleEngine engine) {
+				TrappableType t = type;
+				if (t == null) {
+					t = getTrappableType(typeName);
+					type = t;
+				}
+
 				final Frame oldFrame = frame.findAncestorWithTuple();
 				final TrapFile trapFile = engine.getTrapFile();
-				trapFile.overrideTupleType(oldFrame.tuple, typeName);
+				trapFile.overrideTupleType(oldFrame.tuple, t);
 			}
 
 			@Override
@@ -86,16 +86,16 @@ class PictureEffect implements Effect {
 	public void trapStringAttribute(String attributeName, String value,
 			Frame frame, RuleEngine engine) {
 
-		final TypeWithAttributes pictureClause = (TypeWithAttributes) getType(
-				frame.tuple);
+		final TypeWithAttributes pictureClause = (TypeWithAttributes) frame.tuple
+				.getType();
 
 		final Attribute attribute = pictureClause.getAttribute(attributeName);
 		final Type attributeType = getType(attribute);
 		final DatabaseType attributeDBType = getDatabaseType(attributeType);
 		final Partition p = (Partition) attributeDBType;
 
-		final Tuple tuple = Trap.trapTuple(attributeDBType.getName(),
-				frame.node, p.getValueColumn(), engine);
+		final Tuple tuple = Trap.trapTuple(p, frame.node, p.getValueColumn(),
+				engine);
 		tuple.addConstantValue(p.getValueColumn(), value);
 
 		Trap.parentTupleToAttribute(frame.tuple, attribute, tuple);
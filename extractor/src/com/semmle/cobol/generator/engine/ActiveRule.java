@@ -3,6 +3,7 @@ package com.semmle.cobol.generator.engine;
 import com.semmle.cobol.generator.effects.Effect;
 import com.semmle.cobol.generator.events.Event;
 import com.semmle.cobol.generator.rules.RuleSet;
+import com.semmle.cobol.generator.triggers.Interest;
 import com.semmle.cobol.generator.triggers.Trigger;
 import com.semmle.cobol.generator.triggers.TriggerState;
 
@@ -27,28 +28,64 @@ class ActiveRule {
 	 */
 	final Effect effect;
 
+	/**
+	 * The events the {@link #trigger} is interested in.
+	 */
+	private final Interest interest;
+
+	/**
+	 * Where this rule is tracked when the {@link RuleProfiler} is enabled.
+	 * <code>null</code> otherwise.
+	 */
+	final RuleProfiler.Counts counts;
+
+	/**
+	 * Order in which this rule was added to its {@link RuleIndex}.
+	 */
+	int sequence = 0;
+
 	public ActiveRule(int depth, Trigger trigger, Effect effect) {
+		this(depth, trigger, effect, null);
+	}
+
+	public ActiveRule(int depth, Trigger trigger, Effect effect,
+			RuleProfiler.Counts counts) {
 		this.depth = depth;
 		this.trigger = trigger;
 		this.effect = effect;
+		this.interest = trigger.getInterest();
+		this.counts = counts;
 	}
 
 	public int getDepth() {
 		return depth;
 	}
 
+	/**
+	 * @see Trigger#getInterest()
+	 */
+	public Interest getInterest() {
+		return interest;
+	}
+
 	/**
 	 * @see Trigger#evaluate(Event)
 	 */
 	public TriggerState evaluate(Event event) {
-		return trigger.evaluate(event);
+		final TriggerState state = trigger.evaluate(event);
+		if (RuleProfiler.ENABLED && counts != null)
+			counts.evaluated(state);
+		return state;
 	}
 
 	/**
 	 * @see Effect#apply(Event, Frame, RuleEngine)
 	 */
 	public void apply(Event event, RuleEngine engine) {
-		effect.apply(event, null, engine);
+		if (RuleProfiler.ENABLED && counts != null)
+			counts.apply(effect, event, null, engine, false);
+		else
+			effect.apply(event, null, engine);
 	}
 
 	@Override
@@ -3,7 +3,6 @@ package com.semmle.cobol.generator.engine;
 import static com.semmle.cobol.generator.events.Event.Type.END;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -78,9 +77,16 @@ public class RuleEngine implements Target {
 	private int currentDepth = 0;
 
 	/**
-	 * The active rules, grouped by the depth at which they were activated.
+	 * The active rules, grouped by the depth at which they were activated, and
+	 * indexed on the events they are interested in.
 	 */
-	private final List<List<ActiveRule>> rules = new ArrayList<>();
+	private final List<RuleIndex> rules = new ArrayList<>();
+
+	/**
+	 * The rules which may fire on the current event, at the depth being
+	 * processed. Reused between events.
+	 */
+	private final List<ActiveRule> candidates = new ArrayList<>();
 
 	/**
 	 * A list of rules which should become active on the next event. Rule
@@ -109,6 +115,30 @@ public class RuleEngine implements Target {
 	 */
 	private final List<List<Effect>> andFinallys = new ArrayList<>();
 
+	/**
+	 * How many events were processed.
+	 */
+	private long eventCount = 0;
+
+	/**
+	 * The number of active rules, summed over all events.
+	 */
+	private long activeRuleCount = 0;
+
+	/**
+	 * The number of active rules which were suspended, as they could not fire
+	 * at the depth of the event, summed over all events.
+	 */
+	private long suspendedRuleCount = 0;
+
+	/**
+	 * Per rule counts and timings, when the {@link RuleProfiler} is enabled.
+	 * <code>null</code> otherwise.
+	 */
+	private final RuleProfiler.Profile profile = RuleProfiler.ENABLED
+			? new RuleProfiler.Profile()
+			: null;
+
 	public RuleEngine(TrapFile trapFile) {
 		this.trapFile = trapFile;
 		this.comments = new TrapComments(this);
@@ -119,6 +149,11 @@ public class RuleEngine implements Target {
 				RuleEngine.this.event = event;
 				processRulesForEvent();
 				RuleEngine.this.comments.process(event);
+
+				// Once everything for a subtree is done, the trap file may
+				// write out whatever got closed by it.
+				if (event.type == END && RuleEngine.this.trapFile != null)
+					RuleEngine.this.trapFile.subtreeEnded(event.getNode());
 			}
 		});
 
@@ -143,6 +178,12 @@ public class RuleEngine implements Target {
 	@Override
 	public void done() {
 		preconditions.done();
+
+		if (LOGGER.isDebugEnabled())
+			LOGGER.debug(getStatistics());
+
+		if (RuleProfiler.ENABLED)
+			RuleProfiler.add(profile);
 	}
 
 	/**
@@ -152,9 +193,19 @@ public class RuleEngine implements Target {
 	 * {@link #newRules}, and will become active on the very next event.
 	 */
 	public void add(TriggerDefinition def, Effect effect) {
+		add(def, effect, RuleProfiler.ENABLED ? profile.get(def.toString())
+				: null);
+	}
+
+	/**
+	 * Same as {@linkplain #add(TriggerDefinition, Effect)}, but tracking the
+	 * new rule in the given {@link RuleProfiler.Counts}, if any.
+	 */
+	private void add(TriggerDefinition def, Effect effect,
+			RuleProfiler.Counts counts) {
 		final int scope = def.getScope(currentDepth);
 		final Trigger trigger = def.getTriggerFor(null, this);
-		final ActiveRule rule = new ActiveRule(scope, trigger, effect);
+		final ActiveRule rule = new ActiveRule(scope, trigger, effect, counts);
 
 		if (LOGGER.isTraceEnabled())
 			LOGGER.trace("Adding " + rule);
@@ -250,6 +301,7 @@ public class RuleEngine implements Target {
 		// We always start by establishing the current depth.
 		final Node node = event.getNode();
 		currentDepth = node == null ? 0 : node.depth;
+		eventCount += 1;
 
 		if (LOGGER.isTraceEnabled())
 			LOGGER.trace("> " + event);
@@ -269,7 +321,7 @@ public class RuleEngine implements Target {
 			for (ActiveRule newRule : newRules) {
 				final int depth = newRule.getDepth();
 				while (rules.size() <= depth)
-					rules.add(new ArrayList<>());
+					rules.add(new RuleIndex());
 				rules.get(depth).add(newRule);
 			}
 			newRules.clear();
@@ -300,10 +352,9 @@ public class RuleEngine implements Target {
 
 			// Deactivate rules which have gone out of scope.
 			if (currentDepth < rules.size()) {
-				final List<ActiveRule> rulesOutOfScope = rules
-						.get(currentDepth);
-				for (ActiveRule rule : rulesOutOfScope)
-					if (LOGGER.isTraceEnabled())
+				final RuleIndex rulesOutOfScope = rules.get(currentDepth);
+				if (LOGGER.isTraceEnabled())
+					for (ActiveRule rule : rulesOutOfScope.getRules())
 						LOGGER.trace("Out of scope : " + rule);
 				rulesOutOfScope.clear();
 			}
@@ -311,13 +362,23 @@ public class RuleEngine implements Target {
 
 		// We walk over all active rules, in reverse order of depth.
 		// NOTE: this MUST test all matching rules, as triggers may activate
-		// depending on past events !
+		// depending on past events ! Rules whose triggers are not interested
+		// in the event are skipped, as they promise not to care.
 		// NOTE: this MUST apply all triggered rules, not just the first one it
 		// finds !
+		// Rules which can not fire this deep in the tree are suspended, and
+		// are skipped as well.
 		for (int l = Math.min(currentDepth, rules.size() - 1); l >= 0; l--) {
-			final Iterator<ActiveRule> i = rules.get(l).iterator();
-			while (i.hasNext()) {
-				final ActiveRule rule = i.next();
+			final RuleIndex index = rules.get(l);
+			if (index.isEmpty())
+				continue;
+
+			activeRuleCount += index.size();
+			suspendedRuleCount += index.suspendedAt(currentDepth);
+
+			index.getCandidates(event, currentDepth, candidates);
+			for (int c = 0; c < candidates.size(); c++) {
+				final ActiveRule rule = candidates.get(c);
 				final TriggerState a = rule.evaluate(event);
 
 				// If the rule triggered we apply the effect.
@@ -328,23 +389,26 @@ public class RuleEngine implements Target {
 				}
 
 				// If the rule's trigger defined new triggers, we add those in
-				// so they may be matched by the next event.
+				// so they may be matched by the next event. These are counted
+				// as part of the rule which defined them.
 				if (a.also != null)
 					for (TriggerDefinition def : a.also)
-						add(def.getTriggerFor(event, this), rule.effect);
+						add(def.getTriggerFor(event, this), rule.effect,
+								rule.counts);
 
 				// If a trigger expired we remove the rule from further
 				// processing.
 				if (a.expired) {
 					if (LOGGER.isTraceEnabled())
 						LOGGER.trace("Rule expired : " + rule);
-					i.remove();
+					index.remove(rule);
 				}
 
 				// Note that "triggered", "also" and "expired" can appear in any
 				// combination. Look at the logic for different triggers to see
 				// how and why that is used.
 			}
+			candidates.clear();
 		}
 	}
 
@@ -354,4 +418,42 @@ public class RuleEngine implements Target {
 	public TrapFile getTrapFile() {
 		return trapFile;
 	}
+
+	/**
+	 * The counts for this rule engine when the {@link RuleProfiler} is enabled,
+	 * or <code>null</code> otherwise.
+	 */
+	public RuleProfiler.Profile getProfile() {
+		return profile;
+	}
+
+	public long getEventCount() {
+		return eventCount;
+	}
+
+	/**
+	 * The number of rules which were active, summed over all events.
+	 */
+	public long getActiveRuleCount() {
+		return activeRuleCount;
+	}
+
+	/**
+	 * The number of active rules which were suspended, summed over all events.
+	 */
+	public long getSuspendedRuleCount() {
+		return suspendedRuleCount;
+	}
+
+	/**
+	 * Describes the average number of active rules per event, before and
+	 * after suspending those which could not fire.
+	 */
+	public String getStatistics() {
+		final double events = Math.max(eventCount, 1);
+		return String.format(
+				"%d events, %.1f active rules per event, %.1f after suspending",
+				eventCount, activeRuleCount / events,
+				(activeRuleCount - suspendedRuleCount) / events);
+	}
 }
@@ -0,0 +1,272 @@
+package com.semmle.cobol.generator.engine;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.semmle.cobol.generator.events.Event;
+import com.semmle.cobol.generator.events.Event.Type;
+import com.semmle.cobol.generator.triggers.Interest;
+import com.semmle.cobol.generator.triggers.Trigger;
+
+import koopa.core.data.Data;
+
+/**
+ * The {@link ActiveRule}s at a single depth, indexed on the {@link Interest} of
+ * their {@link Trigger}. This lets the {@link RuleEngine} find the rules which
+ * may fire on an {@link Event}, without having to evaluate all of them.
+ * <p>
+ * Rules whose interest is limited to a certain depth (e.g. those looking for
+ * child nodes) are kept apart from the others. While the engine is deeper in
+ * the tree than any of them can fire, they are suspended, and are not even
+ * looked at.
+ * <p>
+ * Candidate rules are always returned in the order in which they were added,
+ * same as if they were all kept in a single list.
+ */
+class RuleIndex {
+
+	/**
+	 * Rules which may fire at any depth.
+	 */
+	private final Part anyDepth = new Part();
+
+	/**
+	 * Rules which may only fire up to a certain depth.
+	 */
+	private final Part upToDepth = new Part();
+
+	/**
+	 * The deepest any of the rules in {@link #upToDepth} may fire. This only
+	 * grows until the index is cleared, as working out the new maximum on
+	 * every removal is not worth it.
+	 */
+	private int reach = -1;
+
+	/**
+	 * Sequence number for the next rule being added, so that we can restore
+	 * the order in which they were added.
+	 */
+	private int nextSequence = 0;
+
+	private static final Comparator<ActiveRule> IN_SEQUENCE = new Comparator<ActiveRule>() {
+		@Override
+		public int compare(ActiveRule a, ActiveRule b) {
+			return Integer.compare(a.sequence, b.sequence);
+		}
+	};
+
+	public void add(ActiveRule rule) {
+		rule.sequence = nextSequence++;
+
+		final int maxDepth = rule.getInterest().getMaxDepth();
+		if (maxDepth == Interest.ANY_DEPTH)
+			anyDepth.add(rule);
+		else {
+			upToDepth.add(rule);
+			if (maxDepth > reach)
+				reach = maxDepth;
+		}
+	}
+
+	public void remove(ActiveRule rule) {
+		if (rule.getInterest().getMaxDepth() == Interest.ANY_DEPTH)
+			anyDepth.remove(rule);
+		else
+			upToDepth.remove(rule);
+	}
+
+	public boolean isEmpty() {
+		return anyDepth.size == 0 && upToDepth.size == 0;
+	}
+
+	/**
+	 * How many rules are there in this index ?
+	 */
+	public int size() {
+		return anyDepth.size + upToDepth.size;
+	}
+
+	/**
+	 * How many rules in this index are suspended at the given depth ?
+	 */
+	public int suspendedAt(int depth) {
+		return depth > reach ? upToDepth.size : 0;
+	}
+
+	public void clear() {
+		anyDepth.clear();
+		upToDepth.clear();
+		reach = -1;
+	}
+
+	/**
+	 * Collect the rules which may fire on the given {@link Event} into the
+	 * given list, in the order in which they were added. The event is expected
+	 * to be at the given depth.
+	 */
+	public void getCandidates(Event event, int depth,
+			List<ActiveRule> candidates) {
+		int sources = anyDepth.getCandidates(event, candidates);
+
+		if (depth <= reach && upToDepth.size > 0)
+			sources += upToDepth.getCandidates(event, candidates);
+
+		if (sources <= 1)
+			return;
+
+		// Rules from different sources need to be put back in order. A rule
+		// can be interested in both the data and the type of the event, in
+		// which case we only want it once.
+		Collections.sort(candidates, IN_SEQUENCE);
+
+		int last = 0;
+		for (int i = 1; i < candidates.size(); i++)
+			if (candidates.get(i) != candidates.get(last))
+				candidates.set(++last, candidates.get(i));
+
+		candidates.subList(last + 1, candidates.size()).clear();
+	}
+
+	/**
+	 * Returns all rules, in the order in which they were added.
+	 */
+	public List<ActiveRule> getRules() {
+		final Set<ActiveRule> all = new LinkedHashSet<>();
+		anyDepth.addAllTo(all);
+		upToDepth.addAllTo(all);
+
+		final List<ActiveRule> rules = new ArrayList<>(all);
+		Collections.sort(rules, IN_SEQUENCE);
+		return rules;
+	}
+
+	/**
+	 * Part of the index, holding rules by what they are interested in.
+	 */
+	private static final class Part {
+		/**
+		 * Rules interested in specific {@link Data}.
+		 */
+		private final Map<Data, Set<ActiveRule>> byData = new HashMap<>();
+
+		/**
+		 * Rules interested in specific types of {@link Event}s.
+		 */
+		private final Map<Type, Set<ActiveRule>> byType = new EnumMap<>(
+				Type.class);
+
+		/**
+		 * Rules interested in all events.
+		 */
+		private final Set<ActiveRule> any = new LinkedHashSet<>();
+
+		private int size = 0;
+
+		void add(ActiveRule rule) {
+			size += 1;
+
+			final Interest interest = rule.getInterest();
+			if (interest.isAny()) {
+				any.add(rule);
+				return;
+			}
+
+			for (Data d : interest.getData())
+				getOrCreate(byData, d).add(rule);
+
+			for (Type t : interest.getTypes())
+				getOrCreate(byType, t).add(rule);
+		}
+
+		void remove(ActiveRule rule) {
+			size -= 1;
+
+			final Interest interest = rule.getInterest();
+			if (interest.isAny()) {
+				any.remove(rule);
+				return;
+			}
+
+			for (Data d : interest.getData())
+				removeFrom(byData, d, rule);
+
+			for (Type t : interest.getTypes())
+				removeFrom(byType, t, rule);
+		}
+
+		void clear() {
+			byData.clear();
+			byType.clear();
+			any.clear();
+			size = 0;
+		}
+
+		/**
+		 * Adds the rules which may fire on the given {@link Event} to the
+		 * given list, and returns from how many sources they came.
+		 */
+		int getCandidates(Event event, List<ActiveRule> candidates) {
+			int sources = 0;
+
+			if (!any.isEmpty()) {
+				candidates.addAll(any);
+				sources += 1;
+			}
+
+			if (!byType.isEmpty()) {
+				final Set<ActiveRule> rules = byType.get(event.type);
+				if (rules != null) {
+					candidates.addAll(rules);
+					sources += 1;
+				}
+			}
+
+			if (!byData.isEmpty()) {
+				final Set<ActiveRule> rules = byData.get(event.data);
+				if (rules != null) {
+					candidates.addAll(rules);
+					sources += 1;
+				}
+			}
+
+			return sources;
+		}
+
+		void addAllTo(Set<ActiveRule> all) {
+			all.addAll(any);
+			for (Set<ActiveRule> rules : byType.values())
+				all.addAll(rules);
+			for (Set<ActiveRule> rules : byData.values())
+				all.addAll(rules);
+		}
+	}
+
+	private static <K> Set<ActiveRule> getOrCreate(
+			Map<K, Set<ActiveRule>> index, K key) {
+		Set<ActiveRule> rules = index.get(key);
+		if (rules == null) {
+			rules = new LinkedHashSet<>();
+			index.put(key, rules);
+		}
+		return rules;
+	}
+
+	private static <K> void removeFrom(Map<K, Set<ActiveRule>> index, K key,
+			ActiveRule rule) {
+		final Collection<ActiveRule> rules = index.get(key);
+		if (rules == null)
+			return;
+
+		rules.remove(rule);
+		if (rules.isEmpty())
+			index.remove(key);
+	}
+}
@@ -0,0 +1,283 @@
+package com.semmle.cobol.generator.engine;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.semmle.cobol.generator.effects.Effect;
+import com.semmle.cobol.generator.events.Event;
+import com.semmle.cobol.generator.rules.RuleSet;
+import com.semmle.cobol.generator.triggers.TriggerDefinition;
+import com.semmle.cobol.generator.triggers.TriggerState;
+import com.semmle.cobol.mapping.runtime.TrapFile;
+
+/**
+ * Tracks, per rule, how often its trigger was evaluated, fired and expired,
+ * how much time was spent in its {@link Effect}, and how many tuples got
+ * created while doing so. Rules added to the {@link RuleEngine} are keyed on
+ * their {@link TriggerDefinition}, and rules in a {@link RuleSet} on their
+ * path.
+ * <p>
+ * This is only active when trace logging is enabled for this class. When it
+ * is not, {@link #ENABLED} is <code>false</code>, and the code guarded by it
+ * gets compiled away.
+ * <p>
+ * Each {@link RuleEngine} keeps its own {@link Profile}, which it adds to the
+ * totals when done. The totals cover all files extracted since the last
+ * {@linkplain #reset()}, and can be reported with {@linkplain #report()}.
+ */
+public final class RuleProfiler {
+
+	private static final Logger LOGGER = LoggerFactory
+			.getLogger(RuleProfiler.class);
+
+	public static final boolean ENABLED = LOGGER.isTraceEnabled();
+
+	/**
+	 * The counts for all rules, across all engines which are done since the last
+	 * reset.
+	 */
+	private static final Map<String, Counts> TOTALS = new HashMap<>();
+
+	private RuleProfiler() {
+	}
+
+	/**
+	 * Rules get sorted by the time spent in their effects, most expensive
+	 * first. Ties go to the rule whose trigger was evaluated most.
+	 */
+	private static final Comparator<Map.Entry<String, Counts>> BY_COST = new Comparator<Map.Entry<String, Counts>>() {
+		@Override
+		public int compare(Map.Entry<String, Counts> a,
+				Map.Entry<String, Counts> b) {
+			final int byNanos = Long.compare(b.getValue().nanos,
+					a.getValue().nanos);
+			if (byNanos != 0)
+				return byNanos;
+
+			final int byEvaluations = Long.compare(b.getValue().evaluations,
+					a.getValue().evaluations);
+			if (byEvaluations != 0)
+				return byEvaluations;
+
+			return a.getKey().compareTo(b.getKey());
+		}
+	};
+
+	/**
+	 * What gets tracked for a single rule.
+	 */
+	public static final class Counts {
+		long evaluations = 0;
+		long fires = 0;
+		long expirations = 0;
+		long nanos = 0;
+		long tuples = 0;
+
+		/**
+		 * Count an evaluation of the rule's trigger, and its outcome.
+		 */
+		void evaluated(TriggerState state) {
+			evaluations += 1;
+			if (state.fired)
+				fires += 1;
+			if (state.expired)
+				expirations += 1;
+		}
+
+		/**
+		 * Apply the given {@link Effect}, counting it as a firing of the rule
+		 * if asked to, and tracking the time spent and the tuples created.
+		 * Both include whatever other rules get applied while doing so.
+		 */
+		void apply(Effect effect, Event event, Frame frame, RuleEngine engine,
+				boolean fire) {
+			if (fire)
+				fires += 1;
+
+			final TrapFile trapFile = engine.getTrapFile();
+			final int before = trapFile == null ? 0
+					: trapFile.countCreatedTuples();
+			final long start = System.nanoTime();
+			try {
+				effect.apply(event, frame, engine);
+
+			} finally {
+				nanos += System.nanoTime() - start;
+				if (trapFile != null)
+					tuples += trapFile.countCreatedTuples() - before;
+			}
+		}
+
+		private void add(Counts other) {
+			evaluations += other.evaluations;
+			fires += other.fires;
+			expirations += other.expirations;
+			nanos += other.nanos;
+			tuples += other.tuples;
+		}
+	}
+
+	/**
+	 * The counts per rule for a single {@link RuleEngine}. This is not
+	 * thread-safe, same as the engine.
+	 */
+	public static final class Profile {
+		private final Map<String, Counts> counts = new HashMap<>();
+
+		/**
+		 * The counts for the rule with the given key.
+		 */
+		public Counts get(String key) {
+			Counts c = counts.get(key);
+			if (c == null) {
+				c = new Counts();
+				counts.put(key, c);
+			}
+			return c;
+		}
+
+		/**
+		 * Apply the effect of a rule from a {@link RuleSet}, counting it as
+		 * the rule firing.
+		 */
+		public void apply(String key, Effect effect, Event event, Frame frame,
+				RuleEngine engine) {
+			get(key).apply(effect, event, frame, engine, true);
+		}
+	}
+
+	/**
+	 * Add the counts from the given profile to the totals.
+	 */
+	static void add(Profile profile) {
+		synchronized (TOTALS) {
+			for (Map.Entry<String, Counts> e : profile.counts.entrySet()) {
+				Counts total = TOTALS.get(e.getKey());
+				if (total == null) {
+					total = new Counts();
+					TOTALS.put(e.getKey(), total);
+				}
+				total.add(e.getValue());
+			}
+		}
+	}
+
+	/**
+	 * Forgets the totals so far. To be called at the start of every run, so
+	 * that its report does not include earlier ones.
+	 */
+	public static void reset() {
+		synchronized (TOTALS) {
+			TOTALS.clear();
+		}
+	}
+
+	/**
+	 * Logs the totals so far, both as text and as JSON.
+	 */
+	public static void report() {
+		if (!ENABLED)
+			return;
+
+		LOGGER.trace("Rule profile:\n" + getTextReport());
+		LOGGER.trace("Rule profile (JSON):\n" + getJsonReport());
+	}
+
+	/**
+	 * The totals so far as a table, one rule per line, most expensive first.
+	 */
+	public static String getTextReport() {
+		final StringBuilder b = new StringBuilder();
+		b.append(String.format("%12s %10s %10s %10s %10s  %s%n", "ms",
+				"evaluated", "fired", "expired", "tuples", "rule"));
+
+		for (Map.Entry<String, Counts> e : getSortedTotals()) {
+			final Counts c = e.getValue();
+			b.append(String.format("%12.3f %10d %10d %10d %10d  %s%n",
+					c.nanos / 1e6, c.evaluations, c.fires, c.expirations,
+					c.tuples, e.getKey()));
+		}
+
+		return b.toString();
+	}
+
+	/**
+	 * The totals so far as a JSON array, one object per rule, most expensive
+	 * first.
+	 */
+	public static String getJsonReport() {
+		final StringBuilder b = new StringBuilder("[");
+
+		boolean first = true;
+		for (Map.Entry<String, Counts> e : getSortedTotals()) {
+			final Counts c = e.getValue();
+			b.append(first ? "\n" : ",\n");
+			first = false;
+
+			b.append("  {\"rule\": ");
+			appendJsonString(b, e.getKey());
+			b.append(", \"evaluations\": ").append(c.evaluations);
+			b.append(", \"fires\": ").append(c.fires);
+			b.append(", \"expirations\": ").append(c.expirations);
+			b.append(", \"nanos\": ").append(c.nanos);
+			b.append(", \"tuples\": ").append(c.tuples);
+			b.append("}");
+		}
+
+		b.append(first ? "]" : "\n]");
+		return b.toString();
+	}
+
+	private static List<Map.Entry<String, Counts>> getSortedTotals() {
+		final List<Map.Entry<String, Counts>> sorted;
+		synchronized (TOTALS) {
+			sorted = new ArrayList<>(TOTALS.size());
+			for (Map.Entry<String, Counts> e : TOTALS.entrySet()) {
+				final Counts copy = new Counts();
+				copy.add(e.getValue());
+				sorted.add(new AbstractMap.SimpleImmutableEntry<>(e.getKey(), copy));
+			}
+		}
+
+		Collections.sort(sorted, BY_COST);
+		return sorted;
+	}
+
+	private static void appendJsonString(StringBuilder b, String s) {
+		b.append('"');
+		for (int i = 0; i < s.length(); i++) {
+			final char c = s.charAt(i);
+			switch (c) {
+			case '"':
+				b.append("\\\"");
+				break;
+			case '\\':
+				b.append("\\\\");
+				break;
+			case '\n':
+				b.append("\\n");
+				break;
+			case '\r':
+				b.append("\\r");
+				break;
+			case '\t':
+				b.append("\\t");
+				break;
+			default:
+				if (c < 0x20)
+					b.append(String.format("\\u%04x", (int) c));
+				else
+					b.append(c);
+			}
+		}
+		b.append('"');
+	}
+}
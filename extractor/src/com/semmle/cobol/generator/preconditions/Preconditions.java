@@ -1,7 +1,7 @@
 package com.semmle.cobol.generator.preconditions;
 
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,6 +17,13 @@ import koopa.core.targets.Target;
  * This {@link Target} resolves {@link Precondition}s against the stream,
  * holding back {@link Data} from downstream {@link Target}s until the required
  * {@link Precondition}s have been resolved.
+ * <p>
+ * Delayed {@link Data} is kept in a circular buffer of slots, indexed by the
+ * position of the data in the stream. Any {@link Result}s are kept with the
+ * slot of the data they precede. Each {@link Precondition} tracks how far
+ * into the buffer it has gotten, so that one which gets added while data is
+ * being delayed only has to catch up on that data, and only as far as its
+ * scope goes. Nothing ever gets copied or presented to a precondition twice.
  */
 public class Preconditions implements Target {
 
@@ -37,9 +44,23 @@ public class Preconditions implements Target {
 		 */
 		public final Precondition precondition;
 
-		public ActivePrecondition(int scope, Precondition precondition) {
+		/**
+		 * The index of the next slot this precondition has to process.
+		 */
+		public int cursor;
+
+		/**
+		 * The depth in the tree right before the data at the
+		 * {@linkplain #cursor}.
+		 */
+		public int depth;
+
+		public ActivePrecondition(int scope, Precondition precondition,
+				int cursor) {
 			this.scope = scope;
 			this.precondition = precondition;
+			this.cursor = cursor;
+			this.depth = scope;
 		}
 
 		@Override
@@ -53,12 +74,7 @@ public class Preconditions implements Target {
 	/**
 	 * All {@link Precondition}s being resolved.
 	 */
-	private LinkedList<ActivePrecondition> preconditions = new LinkedList<>();
-
-	/**
-	 * The current depth in the tree, based on all {@link Data} we have seen.
-	 */
-	private int depth = 0;
+	private final ArrayList<ActivePrecondition> preconditions = new ArrayList<>();
 
 	/**
 	 * The depth of the tree, seen from the point of view of the {@link Data} we
@@ -68,14 +84,32 @@ public class Preconditions implements Target {
 
 	/**
 	 * All {@link Data} which is being delayed while we resolve the
-	 * {@link #preconditions}.
+	 * {@link #preconditions}. Slot <code>i</code> lives at
+	 * <code>i &amp; (data.length - 1)</code>.
+	 */
+	private Data[] data = new Data[64];
+
+	/**
+	 * The {@link Result}s which go before the data in the matching slot, if
+	 * any. Each entry is either <code>null</code>, a single {@link Result}, or
+	 * a list of them in the order in which their preconditions were added.
+	 */
+	private Object[] results = new Object[64];
+
+	/**
+	 * The index of the first slot which has not been passed on yet.
 	 */
-	private Queue<Data> delayed = new LinkedList<>();
+	private int head = 0;
 
 	/**
-	 * Used while processing {@link #delayed}.
+	 * How many results of the {@link #head} slot have been passed on already.
 	 */
-	private Queue<Data> delayed2 = new LinkedList<>();
+	private int headResults = 0;
+
+	/**
+	 * The index of the next free slot.
+	 */
+	private int tail = 0;
 
 	public Preconditions(Target next) {
 		this.next = next;
@@ -84,71 +118,87 @@ public class Preconditions implements Target {
 	/**
 	 * Adds a new {@linkplain Precondition} to be resolved.
 	 * <p>
-	 * This will immediately have the given precondition process all delayed
-	 * {@linkplain Data}, so that it is up to date when processing new incoming
-	 * data.
+	 * The precondition starts out at the first delayed {@linkplain Data}. It
+	 * will process that, and anything after it which is still in its scope,
+	 * before any of it is passed on.
 	 */
 	public void add(Precondition p) {
 		final ActivePrecondition activePrecondition = new ActivePrecondition(
-				delayedDepth, p);
+				delayedDepth, p, head);
 
 		if (LOGGER.isTraceEnabled())
 			LOGGER.trace("added {}", activePrecondition);
 
 		preconditions.add(activePrecondition);
+	}
 
-		// We process all delayed by "streaming" it into delayed2. At the end we
-		// will swap these around again, to restore things.
-
-		while (!delayed.isEmpty()) {
-			final Data h = delayed.poll();
-			if (h instanceof Result)
-				delayed2.add(h);
-			else {
-				final Result r = p.process(h);
-				if (r != null)
-					delayed2.add(r);
-				delayed2.add(h);
-			}
-		}
+	@Override
+	public void push(Data d) {
+		// Delay the new data until we are ready to forward it.
+		append(d);
 
-		final Queue<Data> tmp = delayed;
-		delayed = delayed2;
-		delayed2 = tmp;
+		// Forward any leading delayed data which is not unresolved.
+		forward(false);
 	}
 
 	@Override
-	public void push(Data d) {
-		// Bring the current depth up to date with the newly seen data.
-		if (d instanceof Start)
-			depth += 1;
-		else if (d instanceof End)
-			depth -= 1;
-
-		// Remove preconditions which have gone out of scope.
-		while (!preconditions.isEmpty()
-				&& preconditions.getLast().scope > depth) {
-			final ActivePrecondition removed = preconditions.removeLast();
-			if (LOGGER.isTraceEnabled())
-				LOGGER.trace("{} {} : removed {}", depth, d, removed);
-			removed.precondition.done();
-		}
+	public void done() {
+		if (LOGGER.isTraceEnabled())
+			LOGGER.trace("DONE");
 
-		// Present the new data to the preconditions.
-		for (ActivePrecondition active : preconditions) {
-			final Result r = active.precondition.process(d);
-			// If the precondition returns a result we add it to the delayed
-			// data.
-			if (r != null)
-				delayed.add(r);
+		// When the stream is done, we need to finalize all waiting
+		// preconditions.
+		for (int i = preconditions.size() - 1; i >= 0; i--) {
+			final ActivePrecondition active = preconditions.get(i);
+			if (catchUp(active)) {
+				if (LOGGER.isTraceEnabled())
+					LOGGER.trace("DONE : removed {}", active);
+				active.precondition.done();
+			}
 		}
+		preconditions.clear();
 
-		// Delay the new data until we are ready to forward it.
-		delayed.add(d);
+		// Forward all delayed data.
+		forward(true);
 
-		// Forward any leading delayed data which is not unresolved.
-		while (!delayed.isEmpty() && !isAnUnresolvedResult(delayed.peek())) {
-			final Data h = delayed.poll();
+		next.done();
+	}
+
+	/**
+	 * Pass on delayed data, up to the first unresolved {@link Result}. At the
+	 * end of the stream, unresolved results are dropped instead.
+	 * <p>
+	 * Passing on data may cause new preconditions to be added, which then
+	 * get to process the remaining delayed data before we look at it.
+	 */
+	private void forward(boolean atEnd) {
+		while (head < tail) {
+			// Anything we passed on may have added new preconditions.
+			catchUpAll();
+
+			final int slot = head & (data.length - 1);
+
+			// First come the results for this slot.
+			final Result r = getResult(slot, headResults);
+			if (r != null) {
+				if (!r.isResolved() && !atEnd)
+					return;
+
+				headResults += 1;
+
+				// We don't forward failed or unresolved precondition results.
+				if (r.isResolved() && r.passed())
+					next.push(r);
+
+				continue;
+			}
+
+			// Then the data itself.
+			final Data h = data[slot];
+			data[slot] = null;
+			results[slot] = null;
+			head += 1;
+			headResults = 0;
 
 			// When we forward delayed data we need to update the delayed depth
 			// as well.
@@ -157,41 +207,109 @@ public class Preconditions implements Target {
 			else if (h instanceof End)
 				delayedDepth -= 1;
 
-			// We don't forward failed precondition results though.
-			if (!isFailedResult(h))
-				next.push(h);
+			next.push(h);
 		}
 	}
 
-	@Override
-	public void done() {
-		if (LOGGER.isTraceEnabled())
-			LOGGER.trace("{} is done", depth);
+	/**
+	 * Bring all preconditions up to date with the delayed data, and drop the
+	 * ones which have gone out of scope.
+	 */
+	private void catchUpAll() {
+		int kept = 0;
+		for (int i = 0; i < preconditions.size(); i++) {
+			final ActivePrecondition active = preconditions.get(i);
+			if (catchUp(active))
+				preconditions.set(kept++, active);
+		}
 
-		// When the stream is done, we need to finalize all waiting
-		// preconditions.
-		while (!preconditions.isEmpty()) {
-			final ActivePrecondition removed = preconditions.removeLast();
-			if (LOGGER.isTraceEnabled())
-				LOGGER.trace("{} DONE : removed {}", depth, removed);
-			removed.precondition.done();
+		while (preconditions.size() > kept)
+			preconditions.remove(preconditions.size() - 1);
+	}
+
+	/**
+	 * Present all delayed data which the given precondition has not seen yet.
+	 * If this takes us out of its scope the precondition is done, and we
+	 * return <code>false</code>.
+	 */
+	private boolean catchUp(ActivePrecondition active) {
+		while (active.cursor < tail) {
+			final int slot = active.cursor & (data.length - 1);
+			final Data d = data[slot];
+
+			int depth = active.depth;
+			if (d instanceof Start)
+				depth += 1;
+			else if (d instanceof End)
+				depth -= 1;
+
+			if (active.scope > depth) {
+				if (LOGGER.isTraceEnabled())
+					LOGGER.trace("{} {} : removed {}", depth, d, active);
+				active.precondition.done();
+				return false;
+			}
+
+			final Result r = active.precondition.process(d);
+			if (r != null)
+				addResult(slot, r);
+
+			active.depth = depth;
+			active.cursor += 1;
 		}
 
-		// Forward all delayed data.
-		while (!delayed.isEmpty()) {
-			final Data h = delayed.poll();
-			if (!isAnUnresolvedResult(h) && !isFailedResult(h))
-				next.push(h);
+		return true;
+	}
+
+	private void append(Data d) {
+		if (tail - head == data.length)
+			grow();
+
+		data[tail & (data.length - 1)] = d;
+		tail += 1;
+	}
+
+	private void grow() {
+		final Data[] largerData = new Data[data.length * 2];
+		final Object[] largerResults = new Object[data.length * 2];
+
+		for (int i = head; i != tail; i++) {
+			largerData[i & (largerData.length - 1)] = data[i
+					& (data.length - 1)];
+			largerResults[i & (largerResults.length - 1)] = results[i
+					& (results.length - 1)];
 		}
 
-		next.done();
+		data = largerData;
+		results = largerResults;
 	}
 
-	private boolean isAnUnresolvedResult(Data d) {
-		return d instanceof Result && !((Result) d).isResolved();
+	@SuppressWarnings("unchecked")
+	private void addResult(int slot, Result r) {
+		final Object existing = results[slot];
+		if (existing == null) {
+			results[slot] = r;
+
+		} else if (existing instanceof Result) {
+			final List<Result> list = new ArrayList<>(2);
+			list.add((Result) existing);
+			list.add(r);
+			results[slot] = list;
+
+		} else
+			((List<Result>) existing).add(r);
 	}
 
-	private boolean isFailedResult(Data d) {
-		return d instanceof Result && ((Result) d).failed();
+	@SuppressWarnings("unchecked")
+	private Result getResult(int slot, int index) {
+		final Object existing = results[slot];
+		if (existing == null)
+			return null;
+
+		if (existing instanceof Result)
+			return index == 0 ? (Result) existing : null;
+
+		final List<Result> list = (List<Result>) existing;
+		return index < list.size() ? list.get(index) : null;
 	}
 }
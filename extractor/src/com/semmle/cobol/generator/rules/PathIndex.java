@@ -0,0 +1,131 @@
+package com.semmle.cobol.generator.rules;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.semmle.cobol.generator.engine.RuleEngine;
+import com.semmle.cobol.generator.events.TreePath.Node;
+
+import koopa.core.data.Data;
+import koopa.core.data.markers.Start;
+
+/**
+ * An index on the paths of all {@link Rule}s in a {@link RuleSet}. This is a
+ * trie of those paths in reverse, going from the most specific node up to its
+ * ancestors. Finding the most specific rule for a node then takes a single
+ * walk up its parents, rather than one for every rule defined on that node.
+ * <p>
+ * The index does not change once built, so it can be shared by
+ * {@linkplain RuleEngine}s running on different threads.
+ */
+final class PathIndex {
+
+	/**
+	 * All rules which end on the same node, keyed by that node.
+	 */
+	private final Map<Start, Key> keys = new IdentityHashMap<>();
+
+	PathIndex(List<Rule> rules) {
+		for (Rule rule : rules) {
+			final Start[] path = rule.path();
+
+			Key key = keys.get(rule.key());
+			if (key == null) {
+				key = new Key();
+				keys.put(rule.key(), key);
+			}
+
+			key.count += 1;
+			// If there are several shortest paths, the last one is taken as
+			// the generic one.
+			if (key.generic == null || path.length <= key.generic.path().length)
+				key.generic = rule;
+
+			Entry entry = key;
+			for (int i = path.length - 2; i >= 0; i--) {
+				if (entry.parents == null)
+					entry.parents = new IdentityHashMap<>(4);
+
+				Entry parent = entry.parents.get(path[i]);
+				if (parent == null) {
+					parent = new Entry();
+					entry.parents.put(path[i], parent);
+				}
+				entry = parent;
+			}
+
+			// If a path gets defined more than once, the first one wins.
+			if (entry.rule == null)
+				entry.rule = rule;
+		}
+	}
+
+	/**
+	 * Returns the rule with the longest path matching the given node and its
+	 * parents, or <code>null</code> if there is none.
+	 */
+	public Rule find(Data data, Node parent) {
+		Entry entry = keys.get(data);
+		if (entry == null)
+			return null;
+
+		Rule found = entry.rule;
+		Node n = parent;
+		while (entry.parents != null && n != null) {
+			entry = entry.parents.get(n.data);
+			if (entry == null)
+				break;
+
+			if (entry.rule != null)
+				found = entry.rule;
+
+			n = n.parent;
+		}
+
+		return found;
+	}
+
+	/**
+	 * How many rules were defined for the given node, across all paths ending
+	 * on it ?
+	 */
+	public int count(Start key) {
+		final Key k = keys.get(key);
+		return k == null ? 0 : k.count;
+	}
+
+	/**
+	 * Returns the rule with the shortest path ending on the given node, or
+	 * <code>null</code> if there is none.
+	 */
+	public Rule getGeneric(Start key) {
+		final Key k = keys.get(key);
+		return k == null ? null : k.generic;
+	}
+
+	/**
+	 * A step in the reversed path.
+	 */
+	private static class Entry {
+		/**
+		 * The rule whose path ends here, if any.
+		 */
+		private Rule rule = null;
+
+		/**
+		 * The entries for the paths which continue from here, by parent node.
+		 * <code>null</code> if there are none.
+		 */
+		private Map<Start, Entry> parents = null;
+	}
+
+	/**
+	 * The first step in the reversed path, which also keeps track of all rules
+	 * ending on it.
+	 */
+	private static final class Key extends Entry {
+		private int count = 0;
+		private Rule generic = null;
+	}
+}
@@ -5,14 +5,12 @@ import static com.semmle.cobol.generator.effects.Effects.all;
 import static com.semmle.cobol.generator.effects.Effects.atEnd;
 import static com.semmle.cobol.generator.effects.Effects.sub;
 
-import java.util.Comparator;
-
 import com.semmle.cobol.generator.effects.Effect;
 import com.semmle.cobol.generator.effects.Effects;
 import com.semmle.cobol.generator.engine.Frame;
 import com.semmle.cobol.generator.engine.RuleEngine;
+import com.semmle.cobol.generator.engine.RuleProfiler;
 import com.semmle.cobol.generator.events.Event;
-import com.semmle.cobol.generator.events.TreePath.Node;
 
 import koopa.core.data.markers.Start;
 
@@ -22,16 +20,6 @@ import koopa.core.data.markers.Start;
  */
 class Rule {
 
-	/**
-	 * Rule precedence is dictated by path length.
-	 */
-	public static final Comparator<Rule> BY_PATH_LENGTH_DESCENDING = new Comparator<Rule>() {
-		@Override
-		public int compare(Rule a, Rule b) {
-			return b.path.length - a.path.length;
-		}
-	};
-
 	/**
 	 * The path is defined as a sequence of {@link Start}s, which are to be
 	 * matched exactly against the path on the {@link Event}.
@@ -40,7 +28,7 @@ class Rule {
 
 	/**
 	 * The key matches the most specific node in the {@link #path}, and is how
-	 * {@link Rule}s will be grouped in the {@link RuleSet}.
+	 * {@link Rule}s will be grouped in the {@link PathIndex}.
 	 */
 	private final Start key;
 
@@ -50,16 +38,28 @@ class Rule {
 	 */
 	private final Effect effect;
 
+	/**
+	 * How this rule is known to the {@link RuleProfiler}. Only set when that
+	 * is enabled.
+	 */
+	private final String profileKey;
+
 	public Rule(Start[] path, Effect effect) {
 		this.path = path;
 		this.key = path[path.length - 1];
 		this.effect = effect;
+		this.profileKey = RuleProfiler.ENABLED ? "map " + pathToString()
+				: null;
 	}
 
 	public Start key() {
 		return key;
 	}
 
+	public Start[] path() {
+		return path;
+	}
+
 	/**
 	 * Apply the {@link Effect} of this rule.
 	 * <p>
@@ -68,38 +68,29 @@ class Rule {
 	 * at the end.
 	 */
 	public void apply(Event event, Frame frame, RuleEngine engine) {
-		sub(all( //
+		final Effect e = sub(all( //
 				effect, //
 				atEnd(RETURN) //
-		)).apply(event, frame, engine);
-	}
+		));
 
-	/**
-	 * Compare the expected path to the one on the event, and return whether or
-	 * not this rule applies to it.
-	 */
-	public boolean appliesTo(Event event) {
-		Node n = event.after.parent;
-		for (int i = path.length - 2; i >= 0; i--) {
-			if (n == null || n.data != path[i])
-				return false;
-			else
-				n = n.parent;
-		}
-		return true;
+		if (RuleProfiler.ENABLED && engine.getProfile() != null)
+			engine.getProfile().apply(profileKey, e, event, frame, engine);
+		else
+			e.apply(event, frame, engine);
 	}
 
-	@Override
-	public String toString() {
+	private String pathToString() {
 		final StringBuilder b = new StringBuilder();
 		b.append(path[0].toString());
 		for (int i = 1; i < path.length; i++) {
 			b.append("/");
 			b.append(path[i].toString());
 		}
-		b.append(" : ");
-		b.append(effect.toString());
-
 		return b.toString();
 	}
+
+	@Override
+	public String toString() {
+		return pathToString() + " : " + effect.toString();
+	}
 }
\ No newline at end of file
@@ -2,7 +2,7 @@ package com.semmle.cobol.generator.rules;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedHashMap;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -18,14 +18,38 @@ import koopa.core.data.markers.Start;
  * The rule set defines how certain nodes (or more complex paths) need to be
  * processed. It provides several {@linkplain Effect}s which can be used to
  * drive the mapping automatically.
+ * <p>
+ * A rule set is expected to be fully defined before it gets used. After that
+ * it may be shared by {@linkplain RuleEngine}s running on different threads.
+ * Rules are looked up through a {@link PathIndex}, which gets built when first
+ * needed.
  */
 public class RuleSet {
 
-	private final Map<Start, List<Rule>> RULES = new LinkedHashMap<>();
+	private final List<Rule> RULES = new ArrayList<>();
 
-	private Effect applyMatchingRule = null;
-	private Map<Start, Effect> applyMatchingRules = new LinkedHashMap<>();
-	private Map<Start, Effect> applyRules = new LinkedHashMap<>();
+	/**
+	 * The index on {@link #RULES}, or <code>null</code> if it has yet to be
+	 * built.
+	 */
+	private volatile PathIndex index = null;
+
+	private final Effect applyMatchingRule = new Effect() {
+		@Override
+		public void apply(Event event, Frame frame, RuleEngine engine) {
+			final Rule rule = getIndex().find(event.data, event.after.parent);
+			if (rule != null)
+				rule.apply(event, frame, engine);
+		}
+	};
+
+	/**
+	 * These only ever get replaced by a larger copy, so they can be read
+	 * without locking.
+	 */
+	private volatile Map<Start, Effect> applyMatchingRules = Collections
+			.emptyMap();
+	private volatile Map<Start, Effect> applyRules = Collections.emptyMap();
 
 	/**
 	 * This defines a new rule, which will map any encounters of the given raw
@@ -44,18 +68,26 @@ public class RuleSet {
 	 * The precendence rule is tied to matching path length. The effect attached
 	 * to the longest matching path will be the one returned/executed.
 	 */
-	public void define(String rawPath, Effect effect) {
+	public synchronized void define(String rawPath, Effect effect) {
 		final Start[] path = convertRawPathToStartNodes(rawPath);
-		final Rule rule = new Rule(path, effect);
+		RULES.add(new Rule(path, effect));
 
-		final Start key = rule.key();
-		if (!RULES.containsKey(key))
-			RULES.put(key, new ArrayList<>());
+		// Any rules defined after the index was built need a new one.
+		index = null;
+	}
 
-		final List<Rule> rules = RULES.get(key);
-		rules.add(rule);
+	private PathIndex getIndex() {
+		PathIndex i = index;
+		if (i == null)
+			synchronized (this) {
+				i = index;
+				if (i == null) {
+					i = new PathIndex(RULES);
+					index = i;
+				}
+			}
 
-		Collections.sort(rules, Rule.BY_PATH_LENGTH_DESCENDING);
+		return i;
 	}
 
 	/**
@@ -101,23 +133,6 @@ public class RuleSet {
 	 */
 	public Effect applyMatchingRule() {
 		// NOTE. We only build one instance of this per rule set.
-		if (applyMatchingRule == null)
-			applyMatchingRule = new Effect() {
-				@Override
-				public void apply(Event event, Frame frame, RuleEngine engine) {
-					final List<Rule> applicableRules = RULES.get(event.data);
-
-					if (applicableRules == null || applicableRules.isEmpty())
-						return;
-
-					for (Rule rule : applicableRules)
-						if (rule.appliesTo(event)) {
-							rule.apply(event, frame, engine);
-							return;
-						}
-				}
-			};
-
 		return applyMatchingRule;
 	}
 
@@ -132,41 +147,33 @@ public class RuleSet {
 	public Effect applyMatchingRule(Start defaultRuleStart) {
 		// NOTE. We only want to build one instance of this effect per instance
 		// of Start.
-		if (!applyMatchingRules.containsKey(defaultRuleStart))
-			applyMatchingRules.put(defaultRuleStart, new Effect() {
-				private Rule defaultRule = null;
-
-				@Override
-				public void apply(Event event, Frame frame, RuleEngine engine) {
-					final List<Rule> applicableRules = RULES.get(event.data);
-					if (applicableRules != null)
-						for (Rule rule : applicableRules)
-							if (rule.appliesTo(event)) {
+		final Effect existing = applyMatchingRules.get(defaultRuleStart);
+		if (existing != null)
+			return existing;
+
+		synchronized (this) {
+			if (!applyMatchingRules.containsKey(defaultRuleStart))
+				applyMatchingRules = with(applyMatchingRules,
+						defaultRuleStart, new Effect() {
+							@Override
+							public void apply(Event event, Frame frame,
+									RuleEngine engine) {
+								final PathIndex index = getIndex();
+
+								Rule rule = index.find(event.data,
+										event.after.parent);
+
+								// Fall back to default.
+								if (rule == null)
+									rule = getUniqueRule(index,
+											defaultRuleStart);
+
 								rule.apply(event, frame, engine);
-								return;
 							}
+						});
 
-					// Fall back to default.
-					if (defaultRule == null) {
-						final List<Rule> defaultRules = RULES
-								.get(defaultRuleStart);
-
-						if (defaultRules == null || defaultRules.size() == 0)
-							throw new CatastrophicError("No rules for '"
-									+ defaultRuleStart + "' found.");
-
-						if (defaultRules.size() > 1)
-							throw new CatastrophicError("No unique rule for '"
-									+ defaultRuleStart + "' found.");
-
-						defaultRule = defaultRules.get(0);
-					}
-
-					defaultRule.apply(event, frame, engine);
-				}
-			});
-
-		return applyMatchingRules.get(defaultRuleStart);
+			return applyMatchingRules.get(defaultRuleStart);
+		}
 	}
 
 	/**
@@ -176,29 +183,53 @@ public class RuleSet {
 	public Effect applyRule(Start defaultRuleStart) {
 		// NOTE. We only want to build one instance of this effect per instance
 		// of Start.
-		if (!applyRules.containsKey(defaultRuleStart))
-			applyRules.put(defaultRuleStart, new Effect() {
-				private Rule defaultRule = null;
-
-				@Override
-				public void apply(Event event, Frame frame, RuleEngine engine) {
-					if (defaultRule == null) {
-						final List<Rule> defaultRules = RULES
-								.get(defaultRuleStart);
-
-						if (defaultRules == null || defaultRules.size() == 0)
+		final Effect existing = applyRules.get(defaultRuleStart);
+		if (existing != null)
+			return existing;
+
+		synchronized (this) {
+			if (!applyRules.containsKey(defaultRuleStart))
+				applyRules = with(applyRules, defaultRuleStart, new Effect() {
+					@Override
+					public void apply(Event event, Frame frame,
+							RuleEngine engine) {
+						final Rule defaultRule = getIndex()
+								.getGeneric(defaultRuleStart);
+
+						if (defaultRule == null)
 							throw new CatastrophicError("No rules for '"
 									+ defaultRuleStart + "' found.");
 
-						// The last rule is always the generic one, as we're
-						// sorting by Rule.BY_PATH_LENGTH_DESCENDING.
-						defaultRule = defaultRules.get(defaultRules.size() - 1);
+						defaultRule.apply(event, frame, engine);
 					}
+				});
 
-					defaultRule.apply(event, frame, engine);
-				}
-			});
+			return applyRules.get(defaultRuleStart);
+		}
+	}
+
+	private static Rule getUniqueRule(PathIndex index, Start start) {
+		final int count = index.count(start);
+
+		if (count == 0)
+			throw new CatastrophicError(
+					"No rules for '" + start + "' found.");
+
+		if (count > 1)
+			throw new CatastrophicError(
+					"No unique rule for '" + start + "' found.");
 
-		return applyRules.get(defaultRuleStart);
+		return index.getGeneric(start);
+	}
+
+	/**
+	 * Returns an unmodifiable copy of the given map, with the given entry
+	 * added.
+	 */
+	private static Map<Start, Effect> with(Map<Start, Effect> map, Start key,
+			Effect effect) {
+		final Map<Start, Effect> copy = new HashMap<>(map);
+		copy.put(key, effect);
+		return Collections.unmodifiableMap(copy);
 	}
 }
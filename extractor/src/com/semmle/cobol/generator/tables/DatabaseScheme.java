@@ -1,5 +1,7 @@
 package com.semmle.cobol.generator.tables;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -13,4 +15,8 @@ public class DatabaseScheme {
 	public Relation getRelation(String name) {
 		return tableDefinitions.get(name);
 	}
+
+	public Collection<Relation> getRelations() {
+		return Collections.unmodifiableCollection(tableDefinitions.values());
+	}
 }
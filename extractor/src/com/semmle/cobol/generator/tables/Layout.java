@@ -0,0 +1,133 @@
+package com.semmle.cobol.generator.tables;
+
+import java.util.List;
+
+import com.semmle.cobol.generator.types.DBType;
+import com.semmle.util.exception.CatastrophicError;
+
+/**
+ * The slot layout for {@linkplain com.semmle.cobol.generator.tuples.Tuple}s
+ * of a {@link Relation}. Every column gets the slot matching its index in the
+ * relation, so that tuple values can be kept in flat arrays, and be checked and
+ * written out in column order without looking up any names.
+ * <p>
+ * Columns of type {@linkplain DBType#INT} may hold a primitive
+ * <code>int</code> rather than a boxed value.
+ */
+public class Layout {
+
+	/**
+	 * The layout for tuples which have no relation. Everything they hold is
+	 * kept by name.
+	 */
+	public static final Layout NONE = new Layout();
+
+	/**
+	 * Tuples keep track of their slots in <code>long</code> bit sets.
+	 */
+	public static final int MAX_SLOTS = 64;
+
+	private final Relation relation;
+
+	private final String[] names;
+
+	/**
+	 * Bit set of the slots which may hold a primitive <code>int</code>.
+	 */
+	private final long intSlots;
+
+	private final int idSlot;
+	private final int kindSlot;
+
+	/**
+	 * The slot for the index of a tuple within its parent. gentools.py may
+	 * call this column either "index" or "idx".
+	 */
+	private final int indexSlot;
+
+	private Layout() {
+		this.relation = null;
+		this.names = new String[0];
+		this.intSlots = 0L;
+		this.idSlot = -1;
+		this.kindSlot = -1;
+		this.indexSlot = -1;
+	}
+
+	Layout(Relation relation) {
+		final List<Column> columns = relation.getColumns();
+		if (columns.size() > MAX_SLOTS)
+			throw new CatastrophicError("Relation " + relation.getName()
+					+ " has more than " + MAX_SLOTS + " columns.");
+
+		this.relation = relation;
+		this.names = new String[columns.size()];
+
+		long intSlots = 0L;
+		for (int i = 0; i < names.length; i++) {
+			final Column column = columns.get(i);
+			// Interned, so that lookups can mostly get away with comparing
+			// references.
+			names[i] = column.getName().intern();
+			if (column.getDbType() == DBType.INT)
+				intSlots |= 1L << i;
+		}
+		this.intSlots = intSlots;
+
+		this.idSlot = slotOf("id");
+		this.kindSlot = slotOf("kind");
+
+		final int index = slotOf("index");
+		this.indexSlot = index >= 0 ? index : slotOf("idx");
+	}
+
+	public Relation getRelation() {
+		return relation;
+	}
+
+	public int size() {
+		return names.length;
+	}
+
+	public String getName(int slot) {
+		return names[slot];
+	}
+
+	/**
+	 * Returns the slot for the column with the given name, or <code>-1</code>
+	 * if there is no such column.
+	 */
+	public int slotOf(String name) {
+		// Relations have only a handful of columns, so this beats hashing.
+		for (int i = 0; i < names.length; i++)
+			if (names[i] == name)
+				return i;
+
+		for (int i = 0; i < names.length; i++)
+			if (names[i].equals(name))
+				return i;
+
+		return -1;
+	}
+
+	public boolean isInt(int slot) {
+		return (intSlots & (1L << slot)) != 0;
+	}
+
+	public int getIdSlot() {
+		return idSlot;
+	}
+
+	public int getKindSlot() {
+		return kindSlot;
+	}
+
+	public int getIndexSlot() {
+		return indexSlot;
+	}
+
+	@Override
+	public String toString() {
+		return relation == null ? "<no relation>" : relation.getName();
+	}
+}
@@ -11,6 +11,12 @@ public class Relation {
 	private final String name;
 	private final List<Column> columns;
 
+	/**
+	 * Derived from the columns when first needed. Relations are shared between
+	 * threads, but building the same layout twice does no harm.
+	 */
+	private volatile Layout layout = null;
+
 	public Relation(String name) {
 		this.name = name;
 		this.columns = new ArrayList<Column>();
@@ -22,13 +28,26 @@ public class Relation {
 
 	public void addColumn(Column column) {
 		columns.add(column);
+		layout = null;
 	}
 
 	public void addColumn(String name, DBType dbType) {
-		columns.add(new Column(name, dbType));
+		addColumn(new Column(name, dbType));
 	}
 
 	public List<Column> getColumns() {
 		return Collections.unmodifiableList(columns);
 	}
+
+	/**
+	 * The slot layout for tuples of this relation.
+	 */
+	public Layout getLayout() {
+		Layout l = layout;
+		if (l == null) {
+			l = new Layout(this);
+			layout = l;
+		}
+		return l;
+	}
 }
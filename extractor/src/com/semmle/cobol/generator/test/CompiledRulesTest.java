@@ -0,0 +1,189 @@
+package com.semmle.cobol.generator.test;
+
+import static com.semmle.cobol.generator.effects.Effects.closure;
+import static com.semmle.cobol.generator.test.StreamUtil.token;
+import static com.semmle.cobol.generator.test.StreamUtil.tree;
+import static com.semmle.cobol.generator.triggers.Triggers.path;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.semmle.cobol.generator.GenerateTrapFile;
+import com.semmle.cobol.generator.engine.RuleEngine;
+import com.semmle.cobol.generator.rules.RuleSet;
+import com.semmle.cobol.generator.test.SyntheticCorpus.Size;
+import com.semmle.cobol.generator.tuples.Tuple;
+import com.semmle.cobol.generator.tuples.Value;
+import com.semmle.cobol.mapping.runtime.TrapFile;
+import com.semmle.cobol.mapping.values.ReferenceValue;
+import com.semmle.cobol.mapping.values.ReferencedByTuple;
+import com.semmle.cobol.mapping.values.TrapFileValue;
+import com.semmle.cobol.mapping.values.TrapKeyedValue;
+import com.semmle.cobol.population.CobolRulesFromSpec;
+import com.semmle.cobol.population.CompiledCobolRulesFromSpec;
+
+/**
+ * Unit tests which check that {@link CompiledCobolRulesFromSpec} gives the
+ * same tuples as {@link CobolRulesFromSpec}.
+ */
+public class CompiledRulesTest {
+
+	@Rule
+	public TemporaryFolder temp = new TemporaryFolder();
+
+	/**
+	 * Extracts each program from the {@link SyntheticCorpus} with both rule
+	 * sets, and checks that the trap files are identical.
+	 */
+	@Test
+	public void syntheticCorpus() throws IOException {
+		for (Size size : Size.values()) {
+			final File source = SyntheticCorpus.write(size, temp.getRoot());
+
+			final byte[] interpreted = ExtractionUtil.extract(source,
+					new File(temp.getRoot(), size + "-interpreted.trap"),
+					false, false);
+			final byte[] compiled = ExtractionUtil.extract(source,
+					new File(temp.getRoot(), size + "-compiled.trap"), false,
+					true);
+
+			assertTrue(interpreted.length > 0);
+			assertArrayEquals(size.name(), interpreted, compiled);
+		}
+	}
+
+	@Test
+	public void simpleAttributes() {
+		assertSameTuples(tree("x", //
+				tree("stopStatement", //
+						token("STOP"), //
+						tree("endpoint", token("RUN"))) //
+		));
+	}
+
+	@Test
+	public void attributesMappedByRules() {
+		assertSameTuples(tree("x", //
+				tree("ifStatement", //
+						token("IF"), //
+						tree("thenBranch", //
+								tree("statement", //
+										tree("continueStatement",
+												token("CONTINUE")))), //
+						tree("elseBranch", //
+								tree("nestedStatements", //
+										tree("statement", //
+												tree("stopStatement", //
+														token("STOP"), //
+														tree("endpoint",
+																token("RUN")))), //
+										tree("statement", //
+												tree("displayStatement", //
+														token("DISPLAY"), //
+														tree("end", token(
+																"END-DISPLAY")))))), //
+						tree("end", token("END-IF"))) //
+		));
+	}
+
+	@Test
+	public void repeatedAttributes() {
+		assertSameTuples(tree("x", //
+				tree("ifStatement", //
+						token("IF"), //
+						tree("thenBranch", //
+								tree("statement", //
+										tree("continueStatement",
+												token("CONTINUE"))), //
+								tree("statement", //
+										tree("stopStatement", //
+												token("STOP"), //
+												tree("endpoint",
+														token("RUN"))))), //
+						tree("end", token("END-IF"))) //
+		));
+	}
+
+	@Test
+	public void defaultRules() {
+		assertSameTuples(tree("x", //
+				tree("statement", //
+						tree("unknownStatement", //
+								token("UNKNOWN"), //
+								tree("onSizeError", //
+										tree("statement", //
+												tree("continueStatement",
+														token("CONTINUE")))))) //
+		));
+	}
+
+	private static void assertSameTuples(Stream stream) {
+		final String interpreted = trap(stream, false);
+		final String compiled = trap(stream, true);
+
+		assertFalse(interpreted.isEmpty());
+		assertEquals(interpreted, compiled);
+	}
+
+	/**
+	 * Runs the given stream through the {@link RuleSet} from
+	 * {@linkplain GenerateTrapFile#getRules(boolean)}, and returns a listing of
+	 * the resulting tuples. References between tuples are listed by index, as
+	 * the tuples themselves differ from one run to the next.
+	 */
+	private static String trap(Stream stream, boolean compiledRules) {
+		final TrapFile trapFile = new TrapFile(null);
+		final RuleEngine engine = new RuleEngine(trapFile);
+		final RuleSet rules = GenerateTrapFile.getRules(compiledRules);
+
+		engine.add(path("<x>/<>"), closure(rules.applyMatchingRule()));
+
+		stream.streamInto(engine);
+		engine.done();
+
+		final List<Tuple> tuples = trapFile.getTuples();
+		final Map<Tuple, Integer> indices = new HashMap<>();
+		for (Tuple tuple : tuples)
+			indices.put(tuple, indices.size());
+
+		final StringBuilder b = new StringBuilder();
+		for (Tuple tuple : tuples) {
+			b.append(indices.get(tuple)).append(" ").append(tuple.getName());
+
+			for (Value value : tuple.getValues()) {
+				// The id and the values for the trap file are only known when
+				// writing out the trap file, which we don't do here.
+				if ("id".equals(value.getName())
+						|| value instanceof TrapFileValue
+						|| value instanceof TrapKeyedValue)
+					continue;
+
+				b.append(" ").append(value.getName()).append("=");
+
+				if (value instanceof ReferenceValue)
+					b.append("#").append(
+							indices.get(((ReferenceValue) value).getTuple()));
+				else if (value instanceof ReferencedByTuple)
+					b.append("#").append(indices
+							.get(((ReferencedByTuple) value).getTuple()));
+				else
+					b.append(value.getValue());
+			}
+
+			b.append("\n");
+		}
+
+		return b.toString();
+	}
+}
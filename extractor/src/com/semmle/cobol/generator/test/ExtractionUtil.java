@@ -0,0 +1,57 @@
+package com.semmle.cobol.generator.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+
+import com.semmle.cobol.extractor.CommonBuild;
+import com.semmle.cobol.extractor.SemmleCobolProject;
+import com.semmle.cobol.extractor.SourceBuffer;
+import com.semmle.cobol.extractor.StreamPipeline;
+import com.semmle.cobol.generator.GenerateTrapFile;
+import com.semmle.cobol.processing.Done;
+import com.semmle.cobol.timing.Timing;
+
+import koopa.cobol.parser.CobolParser;
+import koopa.cobol.parser.ParseResults;
+import koopa.cobol.sources.SourceFormat;
+import koopa.core.parsers.Parse;
+
+class ExtractionUtil {
+	/**
+	 * Runs the given fixed format source file through the same parse,
+	 * normalization and trap generation as the extractor does, and returns
+	 * the contents of the resulting trap file. That gets written to the given
+	 * file, rather than wherever the environment says.
+	 */
+	public static byte[] extract(File source, File output, boolean streaming,
+			boolean compiledRules) throws IOException {
+		final SemmleCobolProject project = new SemmleCobolProject();
+		project.setDefaultFormat(SourceFormat.FIXED);
+		project.setDefaultPreprocessing(false);
+
+		final CobolParser parser = new CobolParser();
+		parser.setProject(project);
+		parser.setBuildTrees(false);
+		parser.setKeepingTrackOfTokens(false);
+
+		try (Reader reader = SourceBuffer.load(source).newReader()) {
+			final Parse parse = parser.getParseSetup(source, reader);
+
+			final StreamPipeline pipeline = new StreamPipeline();
+			CommonBuild.addNormalizationSteps(pipeline, parse, false);
+			pipeline.then(new GenerateTrapFile(source, output, streaming,
+					compiledRules)) //
+					.then(new Done());
+			parse.to(pipeline);
+
+			Timing.start("parse + generation");
+			final ParseResults results = parser.parse(source, parse);
+			if (!results.isValidInput())
+				throw new AssertionError("Failed to parse " + source);
+		}
+
+		return Files.readAllBytes(output.toPath());
+	}
+}
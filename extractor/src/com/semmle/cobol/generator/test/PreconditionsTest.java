@@ -12,6 +12,7 @@ import com.semmle.cobol.generator.preconditions.IsLast;
 import com.semmle.cobol.generator.preconditions.IsLastChild;
 import com.semmle.cobol.generator.preconditions.Preconditions;
 
+import koopa.core.data.markers.End;
 import koopa.core.data.markers.Start;
 import koopa.core.targets.ListTarget;
 
@@ -128,6 +129,38 @@ public class PreconditionsTest {
 		assertLog(logNull, "FFFFFT");
 	}
 
+	@Test
+	public void addingWhileDelayed() {
+		final ListTarget list = new ListTarget();
+		final Preconditions preconditions = new Preconditions(list);
+
+		// This holds back every <a> until we know whether it is the last one.
+		final PreconditionLog logLast = new PreconditionLog(
+				new IsLast(Start.on("cobol", "a")));
+		preconditions.add(logLast);
+
+		preconditions.push(Start.on("cobol", "x"));
+		tree("a").streamInto(preconditions);
+		preconditions.push(Start.on("cobol", "a"));
+
+		// The second <a> is being held back now. A precondition added at this
+		// point should still get to see it.
+		final PreconditionLog logChild = new PreconditionLog(
+				new HasChild(Start.on("cobol", "a"), Start.on("cobol", "b")));
+		preconditions.add(logChild);
+
+		tree("b").streamInto(preconditions);
+		preconditions.push(End.on("cobol", "a"));
+		preconditions.push(End.on("cobol", "x"));
+		preconditions.done();
+
+		// We see 2 events for every tree, and one matching precondition for
+		// each we defined.
+		assertEquals(4 * 2 + 2, list.size());
+		assertLog(logLast, "FT");
+		assertLog(logChild, "T");
+	}
+
 	// ------------------------------------------------------------------------
 
 	private void assertLog(PreconditionLog log, String resolutions) {
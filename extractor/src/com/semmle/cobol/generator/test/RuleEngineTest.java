@@ -16,6 +16,8 @@ import static com.semmle.cobol.generator.triggers.Triggers.path;
 import static com.semmle.cobol.generator.triggers.Triggers.root;
 import static com.semmle.cobol.generator.triggers.Triggers.start;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.util.LinkedList;
 import java.util.List;
@@ -93,6 +95,26 @@ public class RuleEngineTest {
 		assertLog(log, "))", "23", "aa");
 	}
 
+	@Test
+	public void rulesApplyInOrderRegardlessOfInterest() {
+		final RuleEngine engine = new RuleEngine(null);
+
+		final Log log = new Log();
+		// These all log to the same log, and must do so in the order in which
+		// they were added, whatever events they are interested in.
+		engine.add(start(Start.on("cobol", "a")), log);
+		engine.add(ANY, log);
+		engine.add(END, log);
+		engine.add(or(start(Start.on("cobol", "a")), END), log);
+
+		tree("x", //
+				tree("a", token("t")) //
+		).streamInto(engine);
+		engine.done();
+
+		assertLog(log, "((((T))))))", "12222222111", "xaaaaaaaxxx");
+	}
+
 	@Test
 	public void basicAtEndWorks() {
 		final RuleEngine engine = new RuleEngine(null);
@@ -188,6 +210,30 @@ public class RuleEngineTest {
 		assertLog(logXA, "(", "2", "a");
 	}
 
+	@Test
+	public void childPathsAreSuspendedWhenDeeper() {
+		final RuleEngine engine = new RuleEngine(null);
+
+		final Log logXA = new Log();
+		// This logs any <a>, which is a child of <x>. Once past the <x>, the
+		// rule can only fire on its children, so it need not be evaluated on
+		// anything below them.
+		engine.add(path("<x>/<a>"), closure(logXA));
+
+		tree("x", //
+				tree("a", tree("b", tree("a", token("t")))), //
+				token("t"), //
+				tree("b", tree("a", token("t"))), //
+				tree("a", token("t")) //
+		).streamInto(engine);
+		engine.done();
+
+		assertLog(logXA, "((", "22", "aa");
+		assertTrue(engine.getSuspendedRuleCount() > 0);
+		assertTrue(engine.getSuspendedRuleCount() < engine
+				.getActiveRuleCount());
+	}
+
 	@Test
 	public void indexingWorks() {
 		final RuleEngine engine = new RuleEngine(null);
@@ -319,6 +365,37 @@ public class RuleEngineTest {
 		assertEquals("abc", trace.getTrace());
 	}
 
+	@Test
+	public void ruleMatchingSkipsPartialPaths() {
+		final RuleEngine engine = new RuleEngine(null);
+
+		final RuleSet rules = new RuleSet();
+
+		final Trace trace = new Trace();
+
+		// Map an <a> by marking "a" in the trace.
+		rules.define("<a>", trace.mark("a"));
+		// Mark a "c" instead, if the <a> is a child of a <b> which is itself a
+		// child of <c>. There is no rule for <b>/<a> on its own.
+		rules.define("<c>/<b>/<a>", trace.mark("c"));
+		// Mark a "d" instead, if the <a> is nested in a <b>, <c> and <d>.
+		rules.define("<d>/<c>/<b>/<a>", trace.mark("d"));
+
+		// Apply the rule for any <a> seen in the tree.
+		engine.add(path("**/<a>"), closure(rules.applyMatchingRule()));
+
+		tree("x", //
+				tree("b", tree("a", tree("A"))), //
+				tree("c", tree("b", tree("a", tree("C")))), //
+				tree("e", tree("c", tree("b", tree("a", tree("E"))))), //
+				tree("d", tree("c", tree("b", tree("a", tree("D"))))), //
+				tree("d", tree("b", tree("a", tree("B")))) //
+		).streamInto(engine);
+		engine.done();
+
+		assertEquals("accda", trace.getTrace());
+	}
+
 	@Test
 	public void defaultRuleWorks() {
 		final RuleEngine engine = new RuleEngine(null);
@@ -514,6 +591,33 @@ public class RuleEngineTest {
 		assertLog(log, "(", "1", "y");
 	}
 
+	@Test
+	public void pathsAreCompiledOnce() {
+		assertSame(path("**/<x>/<a>[1]"), path("**/<x>/<a>[1]"));
+	}
+
+	@Test
+	public void sharedPathsMatchIndependently() {
+		final RuleEngine engine = new RuleEngine(null);
+
+		final Log log1 = new Log(1);
+		final Log log2 = new Log(2);
+		// Both rules use the same compiled path, but should each track their
+		// own progress through it.
+		engine.add(path("**/<x>/<a>"), log1);
+		engine.add(path("**/<x>/<a>"), log2);
+
+		tree("y", //
+				tree("x", tree("a"), tree("b", tree("a"))), //
+				tree("a"), //
+				tree("x", tree("a")) //
+		).streamInto(engine);
+		engine.done();
+
+		assertLog(log1, "((", "33", "aa");
+		assertLog(log2, "((", "33", "aa");
+	}
+
 	@Test
 	public void absolutePaths() {
 		final RuleEngine engine = new RuleEngine(null);
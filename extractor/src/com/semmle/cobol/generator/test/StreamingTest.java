@@ -0,0 +1,52 @@
+package com.semmle.cobol.generator.test;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.semmle.cobol.generator.test.SyntheticCorpus.Size;
+import com.semmle.cobol.mapping.runtime.TrapFile;
+
+/**
+ * Unit tests which check that streaming tuples out of a {@link TrapFile} as
+ * soon as they are closed traps the same as storing them all at the end.
+ */
+public class StreamingTest {
+
+	@Rule
+	public TemporaryFolder temp = new TemporaryFolder();
+
+	@Test
+	public void syntheticCorpus() throws IOException {
+		for (Size size : Size.values())
+			assertSameContent(size,
+					SyntheticCorpus.write(size, temp.getRoot()), false);
+	}
+
+	@Test
+	public void syntheticCorpusWithCompiledRules() throws IOException {
+		assertSameContent(Size.MEDIUM,
+				SyntheticCorpus.write(Size.MEDIUM, temp.getRoot()), true);
+	}
+
+	private void assertSameContent(Size size, File source,
+			boolean compiledRules) throws IOException {
+		final byte[] stored = ExtractionUtil.extract(source,
+				new File(temp.getRoot(), size + "-stored.trap"), false,
+				compiledRules);
+		final byte[] streamed = ExtractionUtil.extract(source,
+				new File(temp.getRoot(), size + "-streamed.trap"), true,
+				compiledRules);
+
+		assertTrue(stored.length > 0);
+		TrapContent.assertSameContent(size.name(),
+				new String(stored, StandardCharsets.UTF_8),
+				new String(streamed, StandardCharsets.UTF_8));
+	}
+}
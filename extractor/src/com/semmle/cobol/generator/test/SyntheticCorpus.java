@@ -0,0 +1,137 @@
+package com.semmle.cobol.generator.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Generates synthetic, fixed format COBOL programs of increasing size for the
+ * benchmarks and tests. The programs are deterministic, so runs can be
+ * compared, and cover the constructs which matter most to the extractor:
+ * nested records, condition names, paragraphs and sections, and a mix of
+ * control flow statements.
+ */
+public class SyntheticCorpus {
+
+	/**
+	 * The sizes available to benchmarks and tests, by name.
+	 */
+	public static enum Size {
+		SMALL(2, 5), MEDIUM(20, 50), LARGE(200, 500);
+
+		/** Number of top level records in the WORKING-STORAGE SECTION. */
+		public final int records;
+
+		/** Number of paragraphs in the PROCEDURE DIVISION. */
+		public final int paragraphs;
+
+		private Size(int records, int paragraphs) {
+			this.records = records;
+			this.paragraphs = paragraphs;
+		}
+	}
+
+	/**
+	 * Write the program for the given size to a file in the given directory,
+	 * and return that file.
+	 */
+	public static File write(Size size, File directory) throws IOException {
+		final File file = new File(directory,
+				"SYNTH-" + size.name() + ".cbl");
+		Files.write(file.toPath(),
+				generate(size).getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+	/**
+	 * Generate the program text for the given size.
+	 */
+	public static String generate(Size size) {
+		final Program p = new Program();
+
+		p.a("IDENTIFICATION DIVISION.");
+		p.a("PROGRAM-ID. SYNTH-" + size.name() + ".");
+
+		p.a("DATA DIVISION.");
+		p.a("WORKING-STORAGE SECTION.");
+		for (int r = 0; r < size.records; r++) {
+			p.a("01 REC-" + r + ".");
+			p.b("05 REC-" + r + "-KEY     PIC 9(8).");
+			p.b("05 REC-" + r + "-STATUS  PIC X.");
+			p.b("   88 REC-" + r + "-ACTIVE VALUE 'A'.");
+			p.b("   88 REC-" + r + "-CLOSED VALUE 'C'.");
+			p.b("05 REC-" + r + "-DETAIL.");
+			p.b("   10 REC-" + r + "-NAME   PIC X(30).");
+			p.b("   10 REC-" + r + "-AMOUNT PIC S9(7)V99 COMP-3.");
+			p.b("   10 REC-" + r + "-COUNT  PIC 9(4) VALUE ZERO.");
+		}
+		p.a("77 WS-TOTAL PIC S9(9)V99 VALUE ZERO.");
+		p.a("77 WS-INDEX PIC 9(4) VALUE ZERO.");
+
+		p.a("PROCEDURE DIVISION.");
+		p.a("MAIN SECTION.");
+		p.a("MAIN-ENTRY.");
+		p.b("PERFORM PARA-0 THRU PARA-" + (size.paragraphs - 1) + ".");
+		p.b("STOP RUN.");
+
+		p.a("WORK SECTION.");
+		for (int i = 0; i < size.paragraphs; i++) {
+			final String rec = "REC-" + (i % size.records);
+
+			p.a("PARA-" + i + ".");
+			p.b("MOVE " + i + " TO " + rec + "-KEY.");
+			p.b("IF " + rec + "-ACTIVE AND " + rec + "-KEY > 10");
+			p.b("   ADD " + rec + "-AMOUNT TO WS-TOTAL");
+			p.b("   MOVE 'C' TO " + rec + "-STATUS");
+			p.b("ELSE");
+			p.b("   SUBTRACT 1 FROM " + rec + "-COUNT");
+			p.b("END-IF.");
+			p.b("EVALUATE TRUE");
+			p.b("   WHEN " + rec + "-COUNT = 0");
+			p.b("      DISPLAY 'EMPTY " + i + "'");
+			p.b("   WHEN " + rec + "-COUNT < 100");
+			p.b("      COMPUTE WS-TOTAL = WS-TOTAL * 2 + " + rec
+					+ "-COUNT");
+			p.b("   WHEN OTHER");
+			p.b("      CONTINUE");
+			p.b("END-EVALUATE.");
+			p.b("PERFORM VARYING WS-INDEX FROM 1 BY 1");
+			p.b("        UNTIL WS-INDEX > " + rec + "-COUNT");
+			p.b("   ADD 1 TO WS-TOTAL");
+			p.b("END-PERFORM.");
+			p.comment("Paragraph " + i + " is done.");
+		}
+
+		p.a("EXIT-PARA.");
+		p.b("EXIT.");
+
+		return p.toString();
+	}
+
+	/**
+	 * Takes care of the fixed format layout.
+	 */
+	private static class Program {
+		private final StringBuilder b = new StringBuilder();
+
+		/** A line starting in area A. */
+		public void a(String text) {
+			b.append("       ").append(text).append('\n');
+		}
+
+		/** A line starting in area B. */
+		public void b(String text) {
+			b.append("           ").append(text).append('\n');
+		}
+
+		public void comment(String text) {
+			b.append("      *").append(text).append('\n');
+		}
+
+		@Override
+		public String toString() {
+			return b.toString();
+		}
+	}
+}
@@ -0,0 +1,231 @@
+package com.semmle.cobol.generator.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares the contents of trap files, regardless of the order of their lines
+ * and of the numbers their labels were given. Streaming writes tuples out in a
+ * different order than storing them all at the end, which also changes the
+ * numbering of their labels, but it should not change what gets trapped.
+ * <p>
+ * Labels get identified by how they are used: which lines they show up in,
+ * and at what position, and what other labels show up in those lines. This
+ * gets refined until it no longer tells any more labels apart. The contents of
+ * a trap file is then the sorted list of its lines, with each label replaced
+ * by how it got identified.
+ */
+class TrapContent {
+
+	/**
+	 * Stands in for a label in a {@link Line}'s template.
+	 */
+	private static final char LABEL = '\u0000';
+
+	/**
+	 * A line from a trap file, with the labels taken out.
+	 */
+	private static class Line {
+		private final String template;
+		private final int[] labels;
+
+		private Line(String template, int[] labels) {
+			this.template = template;
+			this.labels = labels;
+		}
+
+		/**
+		 * The line, with each label replaced by its color.
+		 */
+		private String render(int[] colors) {
+			final StringBuilder b = new StringBuilder();
+			int next = 0;
+			for (int i = 0; i < template.length(); i++) {
+				final char c = template.charAt(i);
+				if (c == LABEL)
+					b.append('#').append(colors[labels[next++]]);
+				else
+					b.append(c);
+			}
+			return b.toString();
+		}
+	}
+
+	/**
+	 * Fails if the two trap files do not have the same contents.
+	 */
+	public static void assertSameContent(String message, String expected,
+			String actual) {
+		final Map<String, Integer> labels = new HashMap<>();
+		final List<Line> expectedLines = parse(expected, "expected", labels);
+		final List<Line> actualLines = parse(actual, "actual", labels);
+
+		assertEquals(message + ": number of lines", expectedLines.size(),
+				actualLines.size());
+
+		// Comparing the lines without their labels first points out most
+		// differences more clearly.
+		final int[] none = new int[labels.size()];
+		assertSameLines(message, render(expectedLines, none),
+				render(actualLines, none));
+
+		final List<Line> all = new ArrayList<>(expectedLines);
+		all.addAll(actualLines);
+		final int[] colors = refine(all, labels.size());
+
+		assertSameLines(message, render(expectedLines, colors),
+				render(actualLines, colors));
+	}
+
+	/**
+	 * Both lists are sorted, so we can walk them side by side to find the
+	 * lines which are only in one of them.
+	 */
+	private static void assertSameLines(String message, List<String> expected,
+			List<String> actual) {
+		int i = 0;
+		int j = 0;
+		while (i < expected.size() && j < actual.size()) {
+			final int c = expected.get(i).compareTo(actual.get(j));
+			if (c == 0) {
+				i++;
+				j++;
+			} else if (c < 0)
+				fail(message + ": missing " + expected.get(i));
+			else
+				fail(message + ": unexpected " + actual.get(j));
+		}
+	}
+
+	/**
+	 * Splits the trap file into {@link Line}s. Labels are numbered across all
+	 * trap files, with the given scope telling the ones from different files
+	 * apart.
+	 */
+	private static List<Line> parse(String trap, String scope,
+			Map<String, Integer> labels) {
+		final List<Line> lines = new ArrayList<>();
+
+		for (String text : trap.split("\r?\n")) {
+			if (text.isEmpty() || text.startsWith("//"))
+				continue;
+
+			final StringBuilder template = new StringBuilder();
+			final List<Integer> ids = new ArrayList<>();
+
+			boolean inString = false;
+			int i = 0;
+			while (i < text.length()) {
+				final char c = text.charAt(i);
+
+				// Labels show up as is, or in keys as "{#123}".
+				final boolean isLabel = c == '#' && i + 1 < text.length()
+						&& Character.isDigit(text.charAt(i + 1))
+						&& (!inString || i > 0 && text.charAt(i - 1) == '{');
+
+				if (!isLabel) {
+					// Quotes in strings are doubled, so this works out.
+					if (c == '"')
+						inString = !inString;
+					template.append(c);
+					i++;
+					continue;
+				}
+
+				int end = i + 1;
+				while (end < text.length()
+						&& Character.isDigit(text.charAt(end)))
+					end++;
+
+				final String label = scope + text.substring(i, end);
+				Integer id = labels.get(label);
+				if (id == null) {
+					id = labels.size();
+					labels.put(label, id);
+				}
+
+				template.append(LABEL);
+				ids.add(id);
+				i = end;
+			}
+
+			final int[] idArray = new int[ids.size()];
+			for (int k = 0; k < idArray.length; k++)
+				idArray[k] = ids.get(k);
+
+			lines.add(new Line(template.toString(), idArray));
+		}
+
+		return lines;
+	}
+
+	/**
+	 * Colors the labels by how they are used, until that no longer tells any
+	 * more of them apart.
+	 */
+	private static int[] refine(List<Line> lines, int labelCount) {
+		int[] colors = new int[labelCount];
+		int distinct = 1;
+
+		while (true) {
+			// A use is a line, with the label's position in it. Uses are
+			// numbered, so they are cheap to compare.
+			final Map<String, Integer> useIds = new HashMap<>();
+			final List<List<Integer>> uses = new ArrayList<>(labelCount);
+			for (int l = 0; l < labelCount; l++)
+				uses.add(new ArrayList<Integer>());
+
+			for (Line line : lines) {
+				final String rendered = line.render(colors);
+				for (int p = 0; p < line.labels.length; p++) {
+					final String use = p + "@" + rendered;
+					Integer id = useIds.get(use);
+					if (id == null) {
+						id = useIds.size();
+						useIds.put(use, id);
+					}
+					uses.get(line.labels[p]).add(id);
+				}
+			}
+
+			final Map<String, Integer> newColorsByUse = new HashMap<>();
+			final int[] newColors = new int[labelCount];
+			for (int l = 0; l < labelCount; l++) {
+				final List<Integer> u = uses.get(l);
+				Collections.sort(u);
+
+				final String key = colors[l] + "|" + u;
+				Integer color = newColorsByUse.get(key);
+				if (color == null) {
+					color = newColorsByUse.size();
+					newColorsByUse.put(key, color);
+				}
+				newColors[l] = color;
+			}
+
+			// Each round can only tell more labels apart, so once it doesn't
+			// we're done.
+			if (newColorsByUse.size() == distinct)
+				return colors;
+
+			colors = newColors;
+			distinct = newColorsByUse.size();
+		}
+	}
+
+	private static List<String> render(List<Line> lines, int[] colors) {
+		final String[] rendered = new String[lines.size()];
+		for (int i = 0; i < rendered.length; i++)
+			rendered[i] = lines.get(i).render(colors);
+
+		Arrays.sort(rendered);
+		return Arrays.asList(rendered);
+	}
+}
@@ -14,4 +14,12 @@ public abstract class BasicTrigger extends BasicTriggerDefinition
 	public Trigger getTriggerFor(Event event, RuleEngine engine) {
 		return this;
 	}
+
+	/**
+	 * By default {@link Trigger}s are interested in all events.
+	 */
+	@Override
+	public Interest getInterest() {
+		return Interest.ANY;
+	}
 }
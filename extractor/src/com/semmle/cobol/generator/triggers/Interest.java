@@ -0,0 +1,143 @@
+package com.semmle.cobol.generator.triggers;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import com.semmle.cobol.generator.engine.RuleEngine;
+import com.semmle.cobol.generator.events.Event;
+import com.semmle.cobol.generator.events.Event.Type;
+
+import koopa.core.data.Data;
+
+/**
+ * Describes which {@link Event}s a {@link Trigger} may fire on. The
+ * {@link RuleEngine} uses this to skip evaluating triggers for any other
+ * events.
+ * <p>
+ * An event is of interest if its {@link Event#data} is one of the listed
+ * {@link Data}, or if its {@link Event#type} is one of the listed
+ * {@link Type}s. Or if the interest is {@link #ANY}, of course.
+ * <p>
+ * An interest may also be limited to events no deeper than a given depth in
+ * the tree (e.g. for triggers which only fire on child nodes). The engine then
+ * suspends the trigger while it is processing anything below that.
+ */
+public final class Interest {
+
+	/**
+	 * The depth for interests which are not limited to any depth.
+	 */
+	public static final int ANY_DEPTH = Integer.MAX_VALUE;
+
+	/**
+	 * Interested in all events.
+	 */
+	public static final Interest ANY = new Interest(
+			Collections.<Data> emptySet(), EnumSet.noneOf(Type.class), true,
+			ANY_DEPTH);
+
+	private final Set<Data> data;
+	private final Set<Type> types;
+	private final boolean any;
+	private final int maxDepth;
+
+	private Interest(Set<Data> data, Set<Type> types) {
+		this(data, types, false, ANY_DEPTH);
+	}
+
+	private Interest(Set<Data> data, Set<Type> types, boolean any,
+			int maxDepth) {
+		this.data = data;
+		this.types = types;
+		this.any = any;
+		this.maxDepth = maxDepth;
+	}
+
+	/**
+	 * Interested only in events for the given {@link Data}.
+	 */
+	public static Interest in(Data data) {
+		return new Interest(Collections.singleton(data),
+				EnumSet.noneOf(Type.class));
+	}
+
+	/**
+	 * Interested only in events for any of the given {@link Data}.
+	 */
+	public static Interest in(Collection<? extends Data> data) {
+		return new Interest(
+				Collections.unmodifiableSet(new LinkedHashSet<Data>(data)),
+				EnumSet.noneOf(Type.class));
+	}
+
+	/**
+	 * Interested only in events of the given {@link Type}.
+	 */
+	public static Interest in(Type type) {
+		return new Interest(Collections.<Data> emptySet(),
+				Collections.unmodifiableSet(EnumSet.of(type)));
+	}
+
+	/**
+	 * Interested in the same events as this, but only for those at the given
+	 * depth or less.
+	 */
+	public Interest upToDepth(int depth) {
+		if (depth >= maxDepth)
+			return this;
+		else
+			return new Interest(data, types, any, depth);
+	}
+
+	/**
+	 * Interested in events which either this or the other is interested in.
+	 */
+	public Interest or(Interest other) {
+		final int depth = Math.max(this.maxDepth, other.maxDepth);
+
+		if (this.any || other.any)
+			return depth == ANY_DEPTH ? ANY
+					: new Interest(data, types, true, depth);
+
+		final Set<Data> data = new LinkedHashSet<>(this.data);
+		data.addAll(other.data);
+
+		final Set<Type> types = EnumSet.noneOf(Type.class);
+		types.addAll(this.types);
+		types.addAll(other.types);
+
+		return new Interest(Collections.unmodifiableSet(data),
+				Collections.unmodifiableSet(types), false, depth);
+	}
+
+	public boolean isAny() {
+		return any;
+	}
+
+	/**
+	 * The deepest events of interest, or {@link #ANY_DEPTH}.
+	 */
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+
+	public Set<Data> getData() {
+		return data;
+	}
+
+	public Set<Type> getTypes() {
+		return types;
+	}
+
+	@Override
+	public String toString() {
+		final String s = any ? "any" : data + " " + types;
+		if (maxDepth == ANY_DEPTH)
+			return s;
+		else
+			return s + " up to #" + maxDepth;
+	}
+}
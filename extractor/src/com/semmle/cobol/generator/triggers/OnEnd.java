@@ -15,6 +15,11 @@ class OnEnd extends BasicTrigger {
 		return TriggerState.fromBoolean(e.type == END);
 	}
 
+	@Override
+	public Interest getInterest() {
+		return Interest.in(END);
+	}
+
 	@Override
 	public String toString() {
 		return "</>";
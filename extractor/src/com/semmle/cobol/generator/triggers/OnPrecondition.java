@@ -42,6 +42,15 @@ class OnPrecondition extends BasicTrigger {
 		return TriggerState.INACTIVE;
 	}
 
+	/**
+	 * Any event other than a precondition result resets this trigger, so it
+	 * needs to see all of them.
+	 */
+	@Override
+	public Interest getInterest() {
+		return Interest.ANY;
+	}
+
 	@Override
 	public String toString() {
 		return precondition.toString();
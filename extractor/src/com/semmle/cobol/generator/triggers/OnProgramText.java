@@ -21,6 +21,11 @@ class OnProgramText extends BasicTrigger {
 		return TriggerState.fromBoolean(t.hasTag(AreaTag.PROGRAM_TEXT_AREA));
 	}
 
+	@Override
+	public Interest getInterest() {
+		return Interest.in(TOKEN);
+	}
+
 	@Override
 	public String toString() {
 		return "program text";
@@ -15,6 +15,11 @@ class OnStart extends BasicTrigger {
 		return TriggerState.fromBoolean(e.type == START);
 	}
 
+	@Override
+	public Interest getInterest() {
+		return Interest.in(START);
+	}
+
 	@Override
 	public String toString() {
 		return "<>";
@@ -15,6 +15,11 @@ class OnToken extends BasicTrigger {
 		return TriggerState.fromBoolean(e.type == TOKEN);
 	}
 
+	@Override
+	public Interest getInterest() {
+		return Interest.in(TOKEN);
+	}
+
 	@Override
 	public String toString() {
 		return "token";
@@ -15,4 +15,11 @@ import com.semmle.cobol.generator.events.Event;
 public interface Trigger extends TriggerDefinition {
 
 	TriggerState evaluate(Event event);
+
+	/**
+	 * Which events may this trigger fire on ? For any event outside of this it
+	 * must return {@link TriggerState#INACTIVE}, without updating whatever
+	 * state it keeps, as the engine need not evaluate it for those.
+	 */
+	Interest getInterest();
 }
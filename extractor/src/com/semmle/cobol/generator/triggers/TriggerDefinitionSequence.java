@@ -1,24 +1,69 @@
 package com.semmle.cobol.generator.triggers;
 
 import java.util.Collections;
+import java.util.List;
 
 import com.semmle.cobol.generator.engine.RuleEngine;
 import com.semmle.cobol.generator.events.Event;
 
+/**
+ * A {@link TriggerDefinition} which fires once all of its definitions have
+ * fired in sequence. Whenever a definition fires, the next one gets added to
+ * the {@link RuleEngine}, which then waits for that one to fire, and so on.
+ * <p>
+ * The whole sequence is set up once, when it is defined, and is immutable.
+ * This means it can be shared freely, and that advancing to the next
+ * definition does not need to allocate anything beyond the {@link Trigger} for
+ * it.
+ */
 class TriggerDefinitionSequence implements TriggerDefinition {
 
 	private final TriggerDefinition[] definitions;
 	private final int index;
 
+	/**
+	 * What to add to the engine when the current definition fires. This is
+	 * the remainder of the sequence, or simply the last definition if there is
+	 * only one left.
+	 */
+	private final TriggerDefinition next;
+
+	/**
+	 * The state for when the current definition fired.
+	 */
+	private final TriggerState advance;
+
+	/**
+	 * The state for when the current definition fired, and expired.
+	 */
+	private final TriggerState advanceAndExpire;
+
 	public TriggerDefinitionSequence(TriggerDefinition... definitions) {
-		this.definitions = definitions;
-		this.index = 0;
+		this(definitions.clone(), 0);
 	}
 
 	private TriggerDefinitionSequence(TriggerDefinition[] definitions,
 			int index) {
 		this.definitions = definitions;
 		this.index = index;
+
+		if (index + 1 >= definitions.length) {
+			this.next = null;
+			this.advance = null;
+			this.advanceAndExpire = null;
+
+		} else {
+			if (index + 2 >= definitions.length)
+				this.next = definitions[index + 1];
+			else
+				this.next = new TriggerDefinitionSequence(definitions,
+						index + 1);
+
+			final List<TriggerDefinition> also = Collections
+					.singletonList(next);
+			this.advance = new TriggerState(false, false, also);
+			this.advanceAndExpire = new TriggerState(false, true, also);
+		}
 	}
 
 	@Override
@@ -34,12 +79,10 @@ class TriggerDefinitionSequence implements TriggerDefinition {
 			@Override
 			public TriggerState evaluate(Event event) {
 				final TriggerState a = t.evaluate(event);
-				if (!a.fired || index + 1 >= definitions.length)
+				if (!a.fired || next == null)
 					return a;
 
-				return new TriggerState(false, a.expired,
-						Collections.singletonList(new TriggerDefinitionSequence(
-								definitions, index + 1)));
+				return a.expired ? advanceAndExpire : advance;
 			}
 
 			@Override
@@ -47,6 +90,11 @@ class TriggerDefinitionSequence implements TriggerDefinition {
 				return t.getScope(scopeAtInstantiation);
 			}
 
+			@Override
+			public Interest getInterest() {
+				return t.getInterest();
+			}
+
 			@Override
 			public String toString() {
 				final StringBuilder b = new StringBuilder(t.toString());
@@ -60,4 +108,17 @@ class TriggerDefinitionSequence implements TriggerDefinition {
 			}
 		};
 	}
+
+	@Override
+	public String toString() {
+		final StringBuilder b = new StringBuilder(
+				definitions[index].toString());
+
+		for (int i = index + 1; i < definitions.length; i++) {
+			b.append(" and then ");
+			b.append(definitions[i].toString());
+		}
+
+		return b.toString();
+	}
 }
@@ -6,6 +6,8 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -73,6 +75,11 @@ public class Triggers {
 				return TriggerState.fromBoolean(start.equals(e.data));
 			}
 
+			@Override
+			public Interest getInterest() {
+				return Interest.in(start);
+			}
+
 			@Override
 			public String toString() {
 				return start.toString();
@@ -90,6 +97,11 @@ public class Triggers {
 				return TriggerState.fromBoolean(end.equals(e.data));
 			}
 
+			@Override
+			public Interest getInterest() {
+				return Interest.in(end);
+			}
+
 			@Override
 			public String toString() {
 				return end.toString();
@@ -127,6 +139,15 @@ public class Triggers {
 							return TriggerState.INACTIVE;
 					}
 
+					/**
+					 * This only ever fires at the top of the tree, so it need
+					 * not be evaluated anywhere below that.
+					 */
+					@Override
+					public Interest getInterest() {
+						return trigger.getInterest().upToDepth(1);
+					}
+
 					@Override
 					public String toString() {
 						return "root " + trigger;
@@ -172,6 +193,16 @@ public class Triggers {
 						return scopeAtInstantiation - levelsUp;
 					}
 
+					/**
+					 * This only ever fires on nodes at the given depth (or on
+					 * the preconditions just before them), so it need not be
+					 * evaluated anywhere deeper.
+					 */
+					@Override
+					public Interest getInterest() {
+						return trigger.getInterest().upToDepth(depth);
+					}
+
 					@Override
 					public String toString() {
 						return "#" + depth + " and " + trigger;
@@ -210,6 +241,11 @@ public class Triggers {
 							return a;
 					}
 
+					@Override
+					public Interest getInterest() {
+						return trigger.getInterest();
+					}
+
 					@Override
 					public String toString() {
 						return "first " + trigger;
@@ -227,7 +263,29 @@ public class Triggers {
 	private static final Pattern STEP = Pattern.compile(
 			"<(([\\w-]+):)?([\\w-]+)?>(\\[(-1|\\d+)\\]|\\[<(([\\w-]+):)?([\\w-]+)>\\])?");
 
+	/**
+	 * Paths which have already been compiled. The same paths get used over and
+	 * over by the rules, and their definitions are immutable, so there is no
+	 * need to compile them more than once.
+	 */
+	private static final ConcurrentMap<String, TriggerDefinition> PATHS = new ConcurrentHashMap<>();
+
+	/**
+	 * Create a {@link TriggerDefinition} which fires on nodes matching the
+	 * given path. The path gets compiled only once, and the result is shared
+	 * by everyone asking for it.
+	 */
 	public static TriggerDefinition path(String path) {
+		final TriggerDefinition compiled = PATHS.get(path);
+		if (compiled != null)
+			return compiled;
+
+		final TriggerDefinition def = compilePath(path);
+		final TriggerDefinition existing = PATHS.putIfAbsent(path, def);
+		return existing != null ? existing : def;
+	}
+
+	private static TriggerDefinition compilePath(String path) {
 		String[] steps = path.split("/");
 
 		boolean root = false;
@@ -383,6 +441,15 @@ public class Triggers {
 						return a.also(also);
 					}
 
+					@Override
+					public Interest getInterest() {
+						Interest interest = null;
+						for (Trigger trigger : triggers)
+							interest = interest == null ? trigger.getInterest()
+									: interest.or(trigger.getInterest());
+						return interest == null ? Interest.ANY : interest;
+					}
+
 					@Override
 					public String toString() {
 						StringBuilder b = new StringBuilder();
@@ -431,6 +498,11 @@ public class Triggers {
 						return TriggerState.INACTIVE;
 					}
 
+					@Override
+					public Interest getInterest() {
+						return trigger.getInterest();
+					}
+
 					@Override
 					public String toString() {
 						return n + "-th " + trigger;
@@ -18,19 +18,24 @@ import koopa.core.trees.Tree;
  * <li>a "topic", which is a String differentiating multiple tuples for the same
  * subject.</li>
  * </ul>
+ * The topic is also interned into a {@link #topicId}, which is what the
+ * tuples actually get looked up by.
  */
 public class Key {
-	public static final Key NULL = new Key(null, null, null);
+	public static final Key NULL = new Key(null, null, null, -1);
 
 	public final TrappableType type;
 	public final Object subject;
 	public final String topic;
+	public final int topicId;
 
-	public Key(TrappableType type, Object subject, String topic) {
+	public Key(TrappableType type, Object subject, String topic,
+			int topicId) {
 		super();
 		this.type = type;
 		this.subject = subject;
 		this.topic = topic;
+		this.topicId = topicId;
 	}
 
 	@Override
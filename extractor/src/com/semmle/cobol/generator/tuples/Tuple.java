@@ -1,66 +1,324 @@
 package com.semmle.cobol.generator.tuples;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import com.semmle.cobol.extractor.CobolExtractor;
 import com.semmle.cobol.generator.engine.RuleEngine;
+import com.semmle.cobol.generator.tables.Layout;
 import com.semmle.cobol.generator.types.CaseType;
-import com.semmle.cobol.generator.types.Type;
+import com.semmle.cobol.generator.types.TrappableType;
 import com.semmle.cobol.mapping.values.ConstantValue;
 import com.semmle.cobol.mapping.values.PartitionedValue;
 import com.semmle.cobol.mapping.values.ReferenceValue;
-
+import com.semmle.cobol.mapping.values.ReferencedByTuple;
+import com.semmle.util.exception.CatastrophicError;
+
+/**
+ * A tuple keeps the values for the columns of its relation in slots, as given
+ * by its {@link Layout}. Integer constants for <code>int</code> columns are
+ * kept unboxed, and the "id" and "kind" columns are only worked out when
+ * asked for. Values which do not go into a column (e.g. the back references
+ * for attributes) are kept by name instead.
+ */
 public class Tuple {
 
 	private Key key;
-	private String name;
-	private final Map<String, Value> values;
+	private TrappableType type;
+	private Layout layout;
+
+	/**
+	 * The values for each slot, if any. Allocated on first use.
+	 */
+	private Value[] values = null;
+
+	/**
+	 * The primitive values for each slot, if any. Allocated on first use.
+	 */
+	private int[] ints = null;
+
+	/**
+	 * Which slots have a value ?
+	 */
+	private long present = 0L;
+
+	/**
+	 * Which slots have their value in {@link #ints} ?
+	 */
+	private long primitive = 0L;
+
+	/**
+	 * Where to get our local id, once {@linkplain #addIdValue(RuleEngine)} was
+	 * called.
+	 */
+	private RuleEngine engine = null;
+
+	/**
+	 * Values which do not go into any slot. Allocated on first use.
+	 */
+	private Map<String, Value> extras = null;
 
 	/** How many tuples are parented to this one ? */
 	private int childCount = 0;
 
-	public Tuple(Key key, String name) {
+	/** Was this tuple already written out to the trap file ? */
+	private boolean written = false;
+
+	public Tuple(Key key, TrappableType type, Layout layout) {
 		this.key = key;
-		this.name = name;
-		this.values = new LinkedHashMap<String, Value>();
+		this.type = type;
+		this.layout = layout;
 	}
 
 	public String getName() {
-		return name;
+		return type.getName();
+	}
+
+	public TrappableType getType() {
+		return type;
+	}
+
+	/**
+	 * Change the type of this tuple, moving its values into the slots of the
+	 * given layout if that is a different one.
+	 */
+	public void setType(TrappableType type, Layout layout) {
+		this.type = type;
+
+		if (layout == this.layout)
+			return;
+
+		final Layout oldLayout = this.layout;
+		final Value[] oldValues = values;
+		final int[] oldInts = ints;
+		final long oldPresent = present;
+		final long oldPrimitive = primitive;
+		final Map<String, Value> oldExtras = extras;
+
+		this.layout = layout;
+		values = null;
+		ints = null;
+		present = 0L;
+		primitive = 0L;
+		extras = null;
+
+		for (int slot = 0; slot < oldLayout.size(); slot++) {
+			final long bit = 1L << slot;
+			if ((oldPresent & bit) == 0)
+				continue;
+
+			String slotName = oldLayout.getName(slot);
+			if (slot == oldLayout.getIndexSlot() && layout.getIndexSlot() >= 0)
+				slotName = layout.getName(layout.getIndexSlot());
+
+			if ((oldPrimitive & bit) != 0)
+				setInt(slotName, oldInts[slot]);
+			else if (oldValues != null && oldValues[slot] != null)
+				setValue(oldValues[slot]);
+			else if (slot == oldLayout.getIdSlot())
+				setLateBound("id", layout.getIdSlot());
+			else if (slot == oldLayout.getKindSlot())
+				setLateBound("kind", layout.getKindSlot());
+		}
+
+		if (oldExtras != null)
+			for (Value value : oldExtras.values())
+				setValue(value);
 	}
 
-	public void setName(String name) {
-		this.name = name;
+	public Layout getLayout() {
+		return layout;
 	}
 
 	public void addValue(Value value) {
-		values.put(value.getName(), value);
+		// Back references are only for our own bookkeeping, so they don't
+		// matter once the tuple was written. Anything else does.
+		if (written && (!(value instanceof ReferencedByTuple)
+				|| value instanceof PartitionedValue))
+			throw new CatastrophicError("Can't set " + value.getName()
+					+ " on " + this + " as it was already written.");
+
+		setValue(value);
+	}
+
+	private void setValue(Value value) {
+		final int slot = layout.slotOf(value.getName());
+		if (slot < 0) {
+			if (extras == null)
+				extras = new LinkedHashMap<String, Value>(4);
+			extras.put(value.getName(), value);
+			return;
+		}
+
+		if (values == null)
+			values = new Value[layout.size()];
+
+		values[slot] = value;
+		present |= 1L << slot;
+		primitive &= ~(1L << slot);
+	}
+
+	private void setInt(String name, int value) {
+		final int slot = layout.slotOf(name);
+		if (slot < 0 || !layout.isInt(slot)) {
+			setValue(new ConstantValue(name, value));
+			return;
+		}
+
+		if (ints == null)
+			ints = new int[layout.size()];
+
+		ints[slot] = value;
+		if (values != null)
+			values[slot] = null;
+		present |= 1L << slot;
+		primitive |= 1L << slot;
+	}
+
+	/**
+	 * Marks the "id" or "kind" value as present. If our relation has no slot
+	 * for it, it gets kept by name like any other value.
+	 */
+	private void setLateBound(String name, int slot) {
+		if (slot < 0) {
+			setValue(lateBoundValue(name));
+			return;
+		}
+
+		if (values != null)
+			values[slot] = null;
+		present |= 1L << slot;
+		primitive &= ~(1L << slot);
 	}
 
 	public Collection<Value> getValues() {
-		return Collections.unmodifiableCollection(values.values());
+		final List<Value> all = new ArrayList<>();
+		for (int slot = 0; slot < layout.size(); slot++)
+			if (hasValue(slot))
+				all.add(getValue(slot));
+
+		if (extras != null)
+			all.addAll(extras.values());
+
+		return Collections.unmodifiableCollection(all);
 	}
 
 	public boolean hasValue(String name) {
-		return values.containsKey(name);
+		final int slot = layout.slotOf(name);
+		if (slot >= 0)
+			return hasValue(slot);
+		else
+			return extras != null && extras.containsKey(name);
+	}
+
+	public boolean hasValue(int slot) {
+		return (present & (1L << slot)) != 0;
 	}
 
 	public Value getValue(String name) {
-		return values.get(name);
+		final int slot = layout.slotOf(name);
+		if (slot >= 0)
+			return getValue(slot);
+		else
+			return extras == null ? null : extras.get(name);
+	}
+
+	/**
+	 * Returns the value in the given slot, if any. Primitive and late bound
+	 * values get wrapped in a new {@link Value}, so prefer
+	 * {@linkplain #resolve(int)} when only the actual value is needed.
+	 */
+	public Value getValue(int slot) {
+		final long bit = 1L << slot;
+		if ((present & bit) == 0)
+			return null;
+
+		if ((primitive & bit) != 0)
+			return new ConstantValue(layout.getName(slot), ints[slot]);
+
+		if (values != null && values[slot] != null)
+			return values[slot];
+
+		return lateBoundValue(layout.getName(slot));
+	}
+
+	/**
+	 * Returns the actual value for the given column, or <code>null</code> if
+	 * there is none.
+	 */
+	public Object resolve(String name) {
+		final int slot = layout.slotOf(name);
+		if (slot >= 0)
+			return resolve(slot);
+
+		final Value value = extras == null ? null : extras.get(name);
+		return value == null ? null : value.getValue();
+	}
+
+	/**
+	 * Returns the actual value in the given slot, or <code>null</code> if
+	 * there is none.
+	 */
+	public Object resolve(int slot) {
+		final long bit = 1L << slot;
+		if ((present & bit) == 0)
+			return null;
+
+		if ((primitive & bit) != 0)
+			return ints[slot];
+
+		if (values != null && values[slot] != null)
+			return values[slot].getValue();
+
+		if (slot == layout.getIdSlot())
+			return getLocalId();
+		else
+			return getKind();
+	}
+
+	/**
+	 * Returns the actual values for all columns, in order, or
+	 * <code>null</code> if any of them is missing.
+	 */
+	public Object[] resolveAll() {
+		final int size = layout.size();
+		final Object[] resolved = new Object[size];
+		for (int slot = 0; slot < size; slot++) {
+			final Object value = resolve(slot);
+			if (value == null)
+				return null;
+
+			resolved[slot] = value;
+		}
+		return resolved;
+	}
+
+	/**
+	 * Does this have a value for every column ?
+	 */
+	public boolean isComplete() {
+		final int size = layout.size();
+		return size == Layout.MAX_SLOTS ? present == -1L
+				: present == (1L << size) - 1;
 	}
 
 	@Override
 	public String toString() {
-		return "@" + name + "#" + hashCode();
+		return "@" + type.getName() + "#" + hashCode();
 	}
 
+	/**
+	 * Set the index of this tuple within its parent. This is only kept if the
+	 * relation has a column for it.
+	 */
 	public void addIndexValue(int index) {
-		addConstantValue("index", index);
-		// Because gentools.py uses this shorthand...
-		addConstantValue("idx", index);
+		final int slot = layout.getIndexSlot();
+		if (slot >= 0)
+			addConstantValue(layout.getName(slot), index);
 	}
 
 	public void addParentValue(Tuple parentTuple) {
@@ -73,30 +331,65 @@ public class Tuple {
 	}
 
 	public void addIdValue(final RuleEngine engine) {
-		addValue(new Value("id") {
-			@Override
-			public Object getValue() {
-				final Object localId = engine.getTrapFile()
-						.getLocalId(Tuple.this);
-
-				return localId;
-			}
-		});
+		checkNotWritten("id");
+		this.engine = engine;
+		setLateBound("id", layout.getIdSlot());
 	}
 
 	public void addKindValue(final RuleEngine engine) {
-		addValue(new Value("kind") {
-			@Override
-			public Object getValue() {
-				final Type type = CobolExtractor.getType(Tuple.this.getName());
-				final CaseType kindType = (CaseType) type;
-				return kindType.getKind();
-			}
-		});
+		checkNotWritten("kind");
+		setLateBound("kind", layout.getKindSlot());
+	}
+
+	public void addConstantValue(String name, int value) {
+		checkNotWritten(name);
+		setInt(name, value);
 	}
 
 	public void addConstantValue(String name, Object value) {
-		addValue(new ConstantValue(name, value));
+		if (value instanceof Integer)
+			addConstantValue(name, ((Integer) value).intValue());
+		else
+			addValue(new ConstantValue(name, value));
+	}
+
+	private void checkNotWritten(String name) {
+		if (written)
+			throw new CatastrophicError("Can't set " + name + " on " + this
+					+ " as it was already written.");
+	}
+
+	private Value lateBoundValue(String name) {
+		if ("id".equals(name))
+			return new Value("id") {
+				@Override
+				public Object getValue() {
+					return getLocalId();
+				}
+			};
+		else
+			return new Value("kind") {
+				@Override
+				public Object getValue() {
+					return getKind();
+				}
+			};
+	}
+
+	private Object getLocalId() {
+		return engine.getTrapFile().getLocalId(this);
+	}
+
+	private Object getKind() {
+		return ((CaseType) type).getKind();
+	}
+
+	public boolean isWritten() {
+		return written;
+	}
+
+	public void markWritten() {
+		written = true;
 	}
 
 	public int getChildCount() {
@@ -111,8 +404,7 @@ public class Tuple {
 				final Tuple partitionedAttribute = ((PartitionedValue) value)
 						.getTuple();
 
-				return (String) partitionedAttribute.getValue(attributeName)
-						.getValue();
+				return (String) partitionedAttribute.resolve(attributeName);
 			} else
 				return (String) value.getValue();
 		}
@@ -128,8 +420,7 @@ public class Tuple {
 				final Tuple partitionedAttribute = ((PartitionedValue) value)
 						.getTuple();
 
-				return (Integer) partitionedAttribute.getValue(attributeName)
-						.getValue();
+				return (Integer) partitionedAttribute.resolve(attributeName);
 			} else
 				return (Integer) value.getValue();
 		}
@@ -143,8 +434,8 @@ public class Tuple {
 
 	// ------------------------------------------------------------------------
 
-	private static int NEXT_ID = 0;
-	private final int ID = NEXT_ID++;
+	private static final AtomicInteger NEXT_ID = new AtomicInteger();
+	private final int ID = NEXT_ID.getAndIncrement();
 
 	@Override
 	public int hashCode() {
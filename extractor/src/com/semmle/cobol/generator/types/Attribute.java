@@ -1,5 +1,7 @@
 package com.semmle.cobol.generator.types;
 
+import com.semmle.cobol.extractor.CobolExtractor;
+
 public class Attribute {
 
 	public static final int NO_INDEX = -1;
@@ -8,6 +10,11 @@ public class Attribute {
 	private String typeName;
 	private final int index;
 
+	/**
+	 * The type for {@link #typeName}, once it was looked up.
+	 */
+	private volatile Type type = null;
+
 	public Attribute(String name, String typeName, int index) {
 		super();
 		this.name = name;
@@ -29,6 +36,19 @@ public class Attribute {
 
 	public void setTypeName(String typeName) {
 		this.typeName = typeName;
+		this.type = null;
+	}
+
+	/**
+	 * The type of this attribute. This is looked up by name only once.
+	 */
+	public Type getType() {
+		Type t = type;
+		if (t == null) {
+			t = CobolExtractor.getType(typeName);
+			type = t;
+		}
+		return t;
 	}
 
 	public int getIndex() {
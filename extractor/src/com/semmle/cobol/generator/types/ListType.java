@@ -8,6 +8,11 @@ public class ListType extends NamedType
 	private String itemTypeName;
 	private String tableName;
 
+	/**
+	 * The type for {@link #itemTypeName}, once it was looked up.
+	 */
+	private volatile Type itemType = null;
+
 	public ListType(String name, String itemType) {
 		super(name);
 		this.itemTypeName = itemType;
@@ -21,7 +26,12 @@ public class ListType extends NamedType
 	}
 
 	public Type getItemType() {
-		return CobolExtractor.getType(itemTypeName);
+		Type t = itemType;
+		if (t == null) {
+			t = CobolExtractor.getType(itemTypeName);
+			itemType = t;
+		}
+		return t;
 	}
 
 	public String getItemTypeName() {
@@ -30,6 +40,7 @@ public class ListType extends NamedType
 
 	public void setItemTypeName(String itemTypeName) {
 		this.itemTypeName = itemTypeName;
+		this.itemType = null;
 	}
 
 	@Override
@@ -4,6 +4,12 @@ public abstract class NamedType implements Type {
 
 	private final String name;
 
+	/**
+	 * The number given to this type by the {@linkplain TypeSystem} it was
+	 * added to, or <code>-1</code> if it wasn't.
+	 */
+	private int id = -1;
+
 	public NamedType(String name) {
 		this.name = name;
 	}
@@ -12,6 +18,18 @@ public abstract class NamedType implements Type {
 		return name;
 	}
 
+	/**
+	 * This type's position in {@linkplain TypeSystem#getTypes()}, or
+	 * <code>-1</code> if it is not part of a type system.
+	 */
+	public int getId() {
+		return id;
+	}
+
+	void setId(int id) {
+		this.id = id;
+	}
+
 	@Override
 	public String toString() {
 		return "@" + name;
@@ -0,0 +1,88 @@
+package com.semmle.cobol.generator.types;
+
+import java.util.List;
+
+/**
+ * A binary relation between types, worked out for all pairs in a
+ * {@linkplain TypeSystem} up front. Each type gets a row of bits, indexed by
+ * the types' ids (see {@link NamedType#getId()}), so that any check is a bit
+ * test.
+ * <p>
+ * The rows are only set up by {@linkplain #fill(TypeSystem)}, which is
+ * expected to run while the type system itself gets set up, before anything
+ * else can see the matrix. From then on it is read-only, and safe to share
+ * between threads. Types which are not part of the type system get worked
+ * out every time, as do pairs for which working it out failed (e.g. because
+ * the model refers to a type it doesn't define), so that such a failure only
+ * shows up when the pair is actually asked about.
+ */
+public abstract class TypeMatrix {
+
+	/**
+	 * Per type, the bits for the types it is related to.
+	 */
+	private long[][] rows = new long[0][];
+
+	/**
+	 * Per type, the bits for the types for which we have an answer.
+	 */
+	private long[][] known = new long[0][];
+
+	/**
+	 * Work out whether the relation holds for the given pair.
+	 */
+	protected abstract boolean compute(Type a, Type b);
+
+	/**
+	 * Work out the relation for all pairs of types in the given type system.
+	 */
+	public void fill(TypeSystem typeSystem) {
+		final List<Type> types = typeSystem.getTypes();
+		final int count = types.size();
+		final int words = (count + 63) >>> 6;
+
+		final long[][] r = new long[count][];
+		final long[][] k = new long[count][];
+		for (int i = 0; i < count; i++) {
+			final Type a = types.get(i);
+			final long[] row = new long[words];
+			final long[] knownRow = new long[words];
+			for (int j = 0; j < count; j++) {
+				final boolean holds;
+				try {
+					holds = compute(a, types.get(j));
+				} catch (RuntimeException e) {
+					continue;
+				}
+
+				knownRow[j >>> 6] |= 1L << j;
+				if (holds)
+					row[j >>> 6] |= 1L << j;
+			}
+			r[i] = row;
+			k[i] = knownRow;
+		}
+
+		rows = r;
+		known = k;
+	}
+
+	public boolean test(Type a, Type b) {
+		final long[][] r = rows;
+		final long[][] k = known;
+		final int i = getId(a);
+		final int j = getId(b);
+		if (i < 0 || j < 0 || i >= k.length || j >= k.length
+				|| (k[i][j >>> 6] & (1L << j)) == 0)
+			return compute(a, b);
+
+		return (r[i][j >>> 6] & (1L << j)) != 0;
+	}
+
+	private static int getId(Type type) {
+		if (type instanceof NamedType)
+			return ((NamedType) type).getId();
+		else
+			return -1;
+	}
+}
@@ -1,6 +1,9 @@
 package com.semmle.cobol.generator.types;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 public class TypeSystem {
@@ -11,11 +14,36 @@ public class TypeSystem {
 	 */
 	private final Map<String, Type> typeDefinitions = new LinkedHashMap<String, Type>();
 
+	/**
+	 * All types, in the order in which they were added. Each
+	 * {@linkplain NamedType} gets its position in here as its id.
+	 */
+	private final List<Type> types = new ArrayList<Type>();
+
 	public void addType(Type type) {
-		typeDefinitions.put(type.getName(), type);
+		final Type previous = typeDefinitions.put(type.getName(), type);
+
+		final int id;
+		if (previous == null) {
+			id = types.size();
+			types.add(type);
+		} else {
+			id = types.indexOf(previous);
+			types.set(id, type);
+		}
+
+		if (type instanceof NamedType)
+			((NamedType) type).setId(id);
 	}
 
 	public Type getType(String typeName) {
 		return typeDefinitions.get(typeName);
 	}
+
+	/**
+	 * Returns all types, in the order in which they were added.
+	 */
+	public List<Type> getTypes() {
+		return Collections.unmodifiableList(types);
+	}
 }
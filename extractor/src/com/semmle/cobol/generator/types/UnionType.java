@@ -6,6 +6,11 @@ public class UnionType extends NamedType implements Type {
 
 	private final String[] types;
 
+	/**
+	 * The member types, once they were looked up.
+	 */
+	private volatile Type[] members = null;
+
 	public UnionType(String name, String... types) {
 		super(name);
 		this.types = types;
@@ -13,10 +18,21 @@ public class UnionType extends NamedType implements Type {
 
 	@Override
 	public boolean isAssignableFrom(Type type) {
-		for (String t : types)
-			if (CobolExtractor.getType(t).isAssignableFrom(type))
+		for (Type t : getMembers())
+			if (t.isAssignableFrom(type))
 				return true;
 
 		return false;
 	}
+
+	private Type[] getMembers() {
+		Type[] m = members;
+		if (m == null) {
+			m = new Type[types.length];
+			for (int i = 0; i < types.length; i++)
+				m[i] = CobolExtractor.getType(types[i]);
+			members = m;
+		}
+		return m;
+	}
 }
@@ -7,9 +7,11 @@ import static com.semmle.cobol.util.Common.COBOL_WORD;
 import static com.semmle.cobol.util.Common.DATA_DIVISION;
 import static com.semmle.cobol.util.Common.DECIMAL;
 import static com.semmle.cobol.util.Common.INTEGER_LITERAL;
+import static com.semmle.cobol.util.Common.PARAGRAPH;
 import static com.semmle.cobol.util.Common.PICTURE_STRING;
 import static com.semmle.cobol.util.Common.PROCEDURE_DIVISION;
 import static com.semmle.cobol.util.Common.PROGRAM_DEFINITION;
+import static com.semmle.cobol.util.Common.SECTION;
 import static com.semmle.cobol.util.Common.SPACE;
 import static com.semmle.cobol.util.Common.ZERO;
 import static com.semmle.cobol.util.Common._PROGRAM_DEFINITION;
@@ -31,6 +33,7 @@ import com.semmle.cobol.generator.engine.RuleEngine;
 import com.semmle.cobol.generator.events.Event;
 import com.semmle.cobol.generator.events.TreePath.Node;
 import com.semmle.cobol.generator.triggers.BasicTrigger;
+import com.semmle.cobol.generator.triggers.Interest;
 import com.semmle.cobol.generator.triggers.Trigger;
 import com.semmle.cobol.generator.triggers.TriggerState;
 import com.semmle.cobol.generator.tuples.Tuple;
@@ -44,6 +47,16 @@ import koopa.core.data.markers.End;
 import koopa.core.data.markers.Start;
 import koopa.core.data.tags.AreaTag;
 
+/**
+ * Counts operators and operands for every program definition, for its data
+ * and procedure divisions, and for every section and paragraph in the latter.
+ * The counts are passed on as {@link HalsteadCount}s, right before the end of
+ * the scope they apply to.
+ * <p>
+ * Distinct tokens are counted exactly by default. When asked to use sketches
+ * the distinct counts become estimates instead, but the memory needed per
+ * scope no longer depends on the size of the program.
+ */
 public class CalculateHalstead extends StreamProcessingStep {
 
 	private static final Logger LOGGER = LoggerFactory
@@ -61,11 +74,28 @@ public class CalculateHalstead extends StreamProcessingStep {
 	 */
 	private Stack<Tokens> tokens = new Stack<>();
 
+	/**
+	 * Tracking data for scopes which have been closed, ready to be reused.
+	 */
+	private Stack<Tokens> spareTokens = new Stack<>();
+
+	/**
+	 * Ids for all token texts seen in any scope, when counting exactly. This
+	 * is <code>null</code> when using sketches.
+	 */
+	private final Vocabulary vocabulary;
+
 	/**
 	 * When inside a target, how do we recognize its end ?
 	 */
 	private End endOfCurrentTarget = null;
 
+	/**
+	 * When inside nested units of a target, how do we recognize their ends ?
+	 * The innermost one is on top.
+	 */
+	private Stack<End> endsOfNestedUnits = new Stack<>();
+
 	/**
 	 * When inside an operand, how do we recognize its end ?
 	 */
@@ -88,6 +118,16 @@ public class CalculateHalstead extends StreamProcessingStep {
 		TARGET_UNITS.add(PROCEDURE_DIVISION);
 	}
 
+	/**
+	 * While scanning a target: which subtrees get counted on their own, as
+	 * well as being part of the enclosing count ?
+	 */
+	public static final Set<Start> NESTED_UNITS = new LinkedHashSet<>();
+	static {
+		NESTED_UNITS.add(SECTION);
+		NESTED_UNITS.add(PARAGRAPH);
+	}
+
 	/**
 	 * When counting tokens, which types count as operands ?
 	 */
@@ -102,6 +142,21 @@ public class CalculateHalstead extends StreamProcessingStep {
 		OPERAND_TYPES.add(SPACE);
 	}
 
+	/**
+	 * Count distinct tokens exactly.
+	 */
+	public CalculateHalstead() {
+		this(false);
+	}
+
+	/**
+	 * Count distinct tokens exactly, or estimate them using fixed size
+	 * sketches.
+	 */
+	public CalculateHalstead(boolean sketches) {
+		this.vocabulary = sketches ? null : new Vocabulary();
+	}
+
 	@Override
 	public void push(Data d) {
 		switch (state) {
@@ -115,7 +170,7 @@ public class CalculateHalstead extends StreamProcessingStep {
 				if (LOGGER.isTraceEnabled())
 					LOGGER.trace("HALSTEAD: start scope: {}", d);
 
-				tokens.push(new Tokens());
+				tokens.push(newScope());
 
 			} else if (d == _PROGRAM_DEFINITION) {
 				// Close the current scope, possibly reactivating a parent one.
@@ -129,7 +184,7 @@ public class CalculateHalstead extends StreamProcessingStep {
 				if (LOGGER.isTraceEnabled())
 					LOGGER.trace("HALSTEAD: start target: {}", d);
 
-				tokens.push(new Tokens());
+				tokens.push(newScope());
 
 				// We need to know how to recognize the end of this new scope.
 				endOfCurrentTarget = ((Start) d).matchingEnd();
@@ -151,6 +206,23 @@ public class CalculateHalstead extends StreamProcessingStep {
 				endOfCurrentTarget = null;
 				state = State.IDLE;
 
+			} else if (NESTED_UNITS.contains(d)) {
+				// Start of a new scope within the target.
+				if (LOGGER.isTraceEnabled())
+					LOGGER.trace("HALSTEAD: start nested unit: {}", d);
+
+				tokens.push(newScope());
+				endsOfNestedUnits.push(((Start) d).matchingEnd());
+
+			} else if (!endsOfNestedUnits.isEmpty()
+					&& d == endsOfNestedUnits.peek()) {
+				// Close the nested scope, reactivating its parent.
+				if (LOGGER.isTraceEnabled())
+					LOGGER.trace("HALSTEAD: end nested unit: {}", d);
+
+				endsOfNestedUnits.pop();
+				pass(tally(tokens.pop()));
+
 			} else if (OPERAND_TYPES.contains(d)) {
 				// Start of an operand.
 				if (LOGGER.isTraceEnabled())
@@ -197,7 +269,7 @@ public class CalculateHalstead extends StreamProcessingStep {
 					LOGGER.trace("HALSTEAD: end operand: {} {}", d,
 							operandText.toString());
 
-				tokens.peek().addOperand(operandText.toString());
+				tokens.peek().addOperand(operandText);
 
 				operandText.setLength(0);
 				endOfCurrentOperand = null;
@@ -221,7 +293,22 @@ public class CalculateHalstead extends StreamProcessingStep {
 		if (!tokens.isEmpty())
 			tokens.peek().include(ts);
 
-		return new HalsteadCount(ts);
+		final HalsteadCount count = new HalsteadCount(ts);
+
+		// Sketches are a bit too large to throw away after every paragraph.
+		ts.clear();
+		spareTokens.push(ts);
+
+		return count;
+	}
+
+	private Tokens newScope() {
+		if (!spareTokens.isEmpty())
+			return spareTokens.pop();
+		else if (vocabulary == null)
+			return Tokens.sketched();
+		else
+			return Tokens.exact(vocabulary);
 	}
 
 	/**
@@ -234,6 +321,11 @@ public class CalculateHalstead extends StreamProcessingStep {
 			return TriggerState.fromBoolean(event.type == HALSTEAD);
 		}
 
+		@Override
+		public Interest getInterest() {
+			return Interest.in(HALSTEAD);
+		}
+
 		@Override
 		public String toString() {
 			return "halstead";
@@ -0,0 +1,54 @@
+package com.semmle.cobol.halstead;
+
+/**
+ * Counts the distinct token texts in a scope, ignoring case.
+ */
+abstract class Distinct {
+
+	public abstract void add(CharSequence text);
+
+	/**
+	 * Add all texts counted by the other one, which must be of the same kind,
+	 * to this one.
+	 */
+	public abstract void addAll(Distinct other);
+
+	public abstract int size();
+
+	/**
+	 * Forget all texts, so that this can be reused for another scope.
+	 */
+	public abstract void clear();
+
+	/**
+	 * Exact counts, based on the ids in a {@link Vocabulary}.
+	 */
+	static class Exact extends Distinct {
+		private final Vocabulary vocabulary;
+		private final IdSet ids = new IdSet();
+
+		public Exact(Vocabulary vocabulary) {
+			this.vocabulary = vocabulary;
+		}
+
+		@Override
+		public void add(CharSequence text) {
+			ids.add(vocabulary.intern(text));
+		}
+
+		@Override
+		public void addAll(Distinct other) {
+			ids.addAll(((Exact) other).ids);
+		}
+
+		@Override
+		public int size() {
+			return ids.size();
+		}
+
+		@Override
+		public void clear() {
+			ids.clear();
+		}
+	}
+}
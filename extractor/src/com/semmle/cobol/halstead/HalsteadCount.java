@@ -20,8 +20,15 @@ public class HalsteadCount implements Data {
 		this.N1 = tokens.operatorCount;
 		this.N2 = tokens.operandCount;
 
-		this.n1 = tokens.operators.size();
-		this.n2 = tokens.operands.size();
+		this.n1 = tokens.distinctOperators();
+		this.n2 = tokens.distinctOperands();
+	}
+
+	public HalsteadCount(int n1, int n2, int N1, int N2) {
+		this.n1 = n1;
+		this.n2 = n2;
+		this.N1 = N1;
+		this.N2 = N2;
 	}
 
 	@Override
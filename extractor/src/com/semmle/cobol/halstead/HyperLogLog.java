@@ -0,0 +1,88 @@
+package com.semmle.cobol.halstead;
+
+import java.util.Arrays;
+
+/**
+ * Estimates the number of distinct token texts (ignoring case) using a
+ * HyperLogLog sketch. It takes the same, fixed, amount of memory no matter
+ * how many texts it sees, and two sketches merge by taking the maximum of
+ * each register. With {@link #PRECISION} at 12 the standard error is about
+ * 1.6%. Small counts use linear counting, which is close to exact.
+ */
+class HyperLogLog extends Distinct {
+
+	static final int PRECISION = 12;
+
+	private static final int REGISTERS = 1 << PRECISION;
+
+	private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+	private final byte[] registers = new byte[REGISTERS];
+
+	@Override
+	public void add(CharSequence text) {
+		if (!Vocabulary.isAscii(text))
+			text = text.toString().toUpperCase();
+
+		final long hash = hash(text);
+		final int index = (int) (hash >>> (64 - PRECISION));
+		// The rank is the position of the first set bit in what remains. The
+		// added bit puts a limit on it.
+		final byte rank = (byte) (Long.numberOfLeadingZeros(
+				(hash << PRECISION) | (1L << (PRECISION - 1))) + 1);
+
+		if (rank > registers[index])
+			registers[index] = rank;
+	}
+
+	@Override
+	public void addAll(Distinct other) {
+		final byte[] others = ((HyperLogLog) other).registers;
+		for (int i = 0; i < REGISTERS; i++)
+			if (others[i] > registers[i])
+				registers[i] = others[i];
+	}
+
+	@Override
+	public int size() {
+		double sum = 0;
+		int zeros = 0;
+		for (int i = 0; i < REGISTERS; i++) {
+			sum += 1.0 / (1L << registers[i]);
+			if (registers[i] == 0)
+				zeros += 1;
+		}
+
+		final double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+
+		if (estimate <= 2.5 * REGISTERS && zeros > 0)
+			return (int) Math.round(
+					REGISTERS * Math.log((double) REGISTERS / zeros));
+
+		return (int) Math.round(estimate);
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(registers, (byte) 0);
+	}
+
+	/**
+	 * 64-bit FNV-1a over the upper cased text, followed by the MurmurHash3
+	 * finalizer to get all bits well mixed.
+	 */
+	private static long hash(CharSequence text) {
+		long h = 0xcbf29ce484222325L;
+		for (int i = 0; i < text.length(); i++) {
+			h ^= Vocabulary.upper(text.charAt(i));
+			h *= 0x100000001b3L;
+		}
+
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+}
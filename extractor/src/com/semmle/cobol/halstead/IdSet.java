@@ -0,0 +1,52 @@
+package com.semmle.cobol.halstead;
+
+import java.util.Arrays;
+
+/**
+ * A set of ids, as handed out by a {@link Vocabulary}, kept as a bitset.
+ */
+class IdSet {
+
+	private long[] words = new long[8];
+
+	private int size = 0;
+
+	public void add(int id) {
+		final int word = id >>> 6;
+		if (word >= words.length)
+			words = Arrays.copyOf(words,
+					Math.max(words.length * 2, word + 1));
+
+		final long bit = 1L << id;
+		if ((words[word] & bit) == 0) {
+			words[word] |= bit;
+			size += 1;
+		}
+	}
+
+	/**
+	 * Add all ids in the other set to this one.
+	 */
+	public void addAll(IdSet other) {
+		if (other.words.length > words.length)
+			words = Arrays.copyOf(words, other.words.length);
+
+		int count = 0;
+		for (int i = 0; i < words.length; i++) {
+			if (i < other.words.length)
+				words[i] |= other.words[i];
+			count += Long.bitCount(words[i]);
+		}
+
+		size = count;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public void clear() {
+		Arrays.fill(words, 0L);
+		size = 0;
+	}
+}
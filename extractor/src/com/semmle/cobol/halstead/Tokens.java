@@ -1,32 +1,62 @@
 package com.semmle.cobol.halstead;
 
-import java.util.LinkedHashSet;
-import java.util.Set;
-
 /**
  * Supporting class which tracks tokens as being either operators or
  * operands. We keep track of distinct tokens, based on their text (but
  * ignoring case), as well as of the overall count of individual tokens.
+ * <p>
+ * How distinct tokens get counted is up to the {@link Distinct} instances
+ * this is given. Instances whose counts get combined should use the same
+ * kind.
  */
 class Tokens {
-	public final Set<String> operands = new LinkedHashSet<String>();
+	private final Distinct operands;
 	public int operandCount = 0;
 
-	public final Set<String> operators = new LinkedHashSet<String>();
+	private final Distinct operators;
 	public int operatorCount = 0;
 
-	public void addOperand(String text) {
-		text = text.toUpperCase();
+	public Tokens(Distinct operands, Distinct operators) {
+		this.operands = operands;
+		this.operators = operators;
+	}
+
+	/**
+	 * Tokens whose distinct counts are exact, by way of the given
+	 * {@link Vocabulary}.
+	 */
+	public static Tokens exact(Vocabulary vocabulary) {
+		return new Tokens(new Distinct.Exact(vocabulary),
+				new Distinct.Exact(vocabulary));
+	}
+
+	/**
+	 * Tokens whose distinct counts are estimated by {@link HyperLogLog}
+	 * sketches. These take the same amount of memory no matter how many tokens
+	 * are added.
+	 */
+	public static Tokens sketched() {
+		return new Tokens(new HyperLogLog(), new HyperLogLog());
+	}
+
+	public void addOperand(CharSequence text) {
 		operands.add(text);
 		operandCount += 1;
 	}
 
-	public void addOperator(String text) {
-		text = text.toUpperCase();
+	public void addOperator(CharSequence text) {
 		operators.add(text);
 		operatorCount += 1;
 	}
 
+	public int distinctOperands() {
+		return operands.size();
+	}
+
+	public int distinctOperators() {
+		return operators.size();
+	}
+
 	/**
 	 * Add the data of another Tokens instance to this one.
 	 */
@@ -37,4 +67,15 @@ class Tokens {
 		operators.addAll(sub.operators);
 		operatorCount += sub.operatorCount;
 	}
+
+	/**
+	 * Forget all data, so that this can be reused for another scope.
+	 */
+	public void clear() {
+		operands.clear();
+		operandCount = 0;
+
+		operators.clear();
+		operatorCount = 0;
+	}
 }
@@ -0,0 +1,147 @@
+package com.semmle.cobol.halstead;
+
+import java.util.Arrays;
+
+/**
+ * Hands out a small integer id for every distinct token text, ignoring case.
+ * Looking up text which was seen before allocates nothing, so the text may be
+ * given as any {@link CharSequence}, including a reused
+ * {@link StringBuilder}.
+ * <p>
+ * Ids are dense, starting at zero, which makes them a good fit for
+ * {@link IdSet}s.
+ */
+class Vocabulary {
+
+	/**
+	 * Open addressing table holding <code>id + 1</code> for each entry, or
+	 * zero for an empty slot. Its length is always a power of two.
+	 */
+	private int[] table = new int[1024];
+
+	/**
+	 * Upper case text for each id.
+	 */
+	private String[] texts = new String[512];
+
+	/**
+	 * Hash for each id, so that we don't have to recalculate them when the
+	 * table grows.
+	 */
+	private int[] hashes = new int[512];
+
+	private int size = 0;
+
+	/**
+	 * Returns the id for the given text.
+	 */
+	public int intern(CharSequence text) {
+		if (!isAscii(text))
+			// Upper casing anything but plain ASCII may change the length of
+			// the text. So we leave that to the experts.
+			return intern_(text.toString().toUpperCase());
+
+		return intern_(text);
+	}
+
+	/**
+	 * Returns how many distinct texts were seen.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the (upper case) text for the given id.
+	 */
+	public String getText(int id) {
+		return texts[id];
+	}
+
+	private int intern_(CharSequence text) {
+		final int hash = hash(text);
+		final int mask = table.length - 1;
+
+		int slot = hash & mask;
+		while (true) {
+			final int entry = table[slot];
+			if (entry == 0)
+				break;
+
+			final int id = entry - 1;
+			if (hashes[id] == hash && matches(texts[id], text))
+				return id;
+
+			slot = (slot + 1) & mask;
+		}
+
+		final int id = size;
+		if (id == texts.length) {
+			texts = Arrays.copyOf(texts, id * 2);
+			hashes = Arrays.copyOf(hashes, id * 2);
+		}
+
+		texts[id] = toUpperCase(text);
+		hashes[id] = hash;
+		table[slot] = id + 1;
+		size += 1;
+
+		// Keep the table at most half full.
+		if (2 * size > table.length)
+			rehash();
+
+		return id;
+	}
+
+	private void rehash() {
+		table = new int[table.length * 2];
+		final int mask = table.length - 1;
+
+		for (int id = 0; id < size; id++) {
+			int slot = hashes[id] & mask;
+			while (table[slot] != 0)
+				slot = (slot + 1) & mask;
+			table[slot] = id + 1;
+		}
+	}
+
+	private static int hash(CharSequence text) {
+		int h = 0;
+		for (int i = 0; i < text.length(); i++)
+			h = 31 * h + upper(text.charAt(i));
+
+		// Spread the bits, as we only use the lower ones.
+		return h ^ (h >>> 16);
+	}
+
+	private static boolean matches(String upper, CharSequence text) {
+		if (upper.length() != text.length())
+			return false;
+
+		for (int i = 0; i < upper.length(); i++)
+			if (upper.charAt(i) != upper(text.charAt(i)))
+				return false;
+
+		return true;
+	}
+
+	private static String toUpperCase(CharSequence text) {
+		final char[] chars = new char[text.length()];
+		for (int i = 0; i < chars.length; i++)
+			chars[i] = upper(text.charAt(i));
+		return new String(chars);
+	}
+
+	static boolean isAscii(CharSequence text) {
+		final int length = text.length();
+		for (int i = 0; i < length; i++)
+			if (text.charAt(i) > 0x7F)
+				return false;
+
+		return true;
+	}
+
+	static char upper(char c) {
+		return c >= 'a' && c <= 'z' ? (char) (c - ('a' - 'A')) : c;
+	}
+}
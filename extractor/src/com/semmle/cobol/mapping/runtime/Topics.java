@@ -0,0 +1,102 @@
+package com.semmle.cobol.mapping.runtime;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interns tuple topics into small integer ids, so that tuples can be looked up
+ * without hashing and comparing strings.
+ * <p>
+ * Topics which are built from a prefix and another topic (such as
+ * <code>"stmt:default"</code> for the location of a statement) can be interned
+ * from their parts. After the first time, this takes no string building at
+ * all. Either way the same topic always gets the same id.
+ */
+final class Topics {
+
+	private final Map<String, Integer> ids = new HashMap<>();
+	private final List<String> topics = new ArrayList<>();
+
+	/**
+	 * Compound topics, keyed on the ids of their parts. Open addressing, with
+	 * the (never valid) key <code>-1</code> marking empty slots.
+	 */
+	private long[] compoundKeys = newKeys(64);
+	private int[] compoundIds = new int[64];
+	private int compoundCount = 0;
+
+	public int intern(String topic) {
+		final Integer id = ids.get(topic);
+		if (id != null)
+			return id;
+
+		final int newId = topics.size();
+		topics.add(topic);
+		ids.put(topic, newId);
+		return newId;
+	}
+
+	/**
+	 * Returns the id for the topic <code>prefix + ":" + topic</code>.
+	 */
+	public int intern(String prefix, int topic) {
+		final long key = ((long) intern(prefix) << 32) | topic;
+
+		final int mask = compoundKeys.length - 1;
+		int slot = mix(key) & mask;
+		while (compoundKeys[slot] != -1L) {
+			if (compoundKeys[slot] == key)
+				return compoundIds[slot];
+			slot = (slot + 1) & mask;
+		}
+
+		final int id = intern(prefix + ":" + topics.get(topic));
+		compoundKeys[slot] = key;
+		compoundIds[slot] = id;
+
+		compoundCount += 1;
+		if (compoundCount * 2 > compoundKeys.length)
+			growCompounds();
+
+		return id;
+	}
+
+	public String get(int topic) {
+		return topics.get(topic);
+	}
+
+	private void growCompounds() {
+		final long[] oldKeys = compoundKeys;
+		final int[] oldIds = compoundIds;
+
+		compoundKeys = newKeys(oldKeys.length * 2);
+		compoundIds = new int[oldKeys.length * 2];
+
+		final int mask = compoundKeys.length - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] == -1L)
+				continue;
+
+			int slot = mix(oldKeys[i]) & mask;
+			while (compoundKeys[slot] != -1L)
+				slot = (slot + 1) & mask;
+
+			compoundKeys[slot] = oldKeys[i];
+			compoundIds[slot] = oldIds[i];
+		}
+	}
+
+	private static long[] newKeys(int size) {
+		final long[] keys = new long[size];
+		Arrays.fill(keys, -1L);
+		return keys;
+	}
+
+	private static int mix(long key) {
+		final long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+}
@@ -2,28 +2,32 @@ package com.semmle.cobol.mapping.runtime;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.semmle.cobol.extractor.CobolExtractor;
-import com.semmle.cobol.generator.tables.Column;
+import com.semmle.cobol.generator.events.TreePath.Node;
+import com.semmle.cobol.generator.tables.Layout;
 import com.semmle.cobol.generator.tables.Relation;
 import com.semmle.cobol.generator.tuples.Key;
 import com.semmle.cobol.generator.tuples.Tuple;
 import com.semmle.cobol.generator.tuples.Value;
-import com.semmle.cobol.generator.types.PersistentType;
+import com.semmle.cobol.generator.types.ListType;
+import com.semmle.cobol.generator.types.Partition;
 import com.semmle.cobol.generator.types.TrappableType;
 import com.semmle.cobol.generator.types.Type;
 import com.semmle.cobol.generator.types.TypeWithAttributes;
 import com.semmle.cobol.mapping.values.PartitionedValue;
+import com.semmle.cobol.mapping.values.ReferenceValue;
 import com.semmle.cobol.timing.Timing;
 import com.semmle.util.exception.CatastrophicError;
 import com.semmle.util.exception.Exceptions;
@@ -35,6 +39,31 @@ import com.semmle.util.trap.TrapWriter.Label;
  * This class is used to generate, and track, all {@linkplain Tuple} instances.
  * It also checks the generated tuples at the end, and writes them out to a trap
  * file.
+ * <p>
+ * When {@linkplain #startStreaming(DefaultTrapWriterFactory) streaming}, tuples
+ * are written out as soon as they are closed, rather than all of them being
+ * held until the end. A tuple is closed once:
+ * <ul>
+ * <li>the subtree of the {@linkplain Node} it was trapped for has ended,</li>
+ * <li>it has a value for every column of its relation, and</li>
+ * <li>the tuple which owns it, if any, has been closed as well.</li>
+ * </ul>
+ * Partitions and lists are owned by their parent, as they get updated when the
+ * parent does. Anything else can be made to {@linkplain #closeWith(Tuple, Tuple)
+ * close with} another tuple explicitly. The second condition covers tuples
+ * which only get parented later on (e.g. record entries, which get nested at
+ * the end of their section). Tuples for any other subject are only written at
+ * the end, same as when not streaming.
+ * <p>
+ * Tuples which get streamed skip {@linkplain #clearNonTrappableTuples()} and
+ * {@linkplain #validateTuplesAgainstDatabaseScheme()}, but they would pass
+ * both anyway: only tuples of a {@link TrappableType} which have a value for
+ * every column get written. If the tuples left at the end fail validation,
+ * the trap file gets {@linkplain #discard() discarded}, streamed tuples and
+ * all, same as when not streaming. A closed tuple is expected to stay as it
+ * is. Setting another value on it after it was written is an error, rather
+ * than something which silently changes the output. {@code StreamingTest}
+ * checks that the output is the same as when not streaming.
  */
 public class TrapFile {
 
@@ -60,7 +89,47 @@ public class TrapFile {
 	 * Tracking all generated tuples. Cfr {@linkplain Key} to see how tuples get
 	 * indexed.
 	 */
-	private Map<Key, Tuple> tuples = new LinkedHashMap<Key, Tuple>();
+	private final TupleStore tuples = new TupleStore();
+
+	/**
+	 * The topics of all generated tuples.
+	 */
+	private final Topics topics = new Topics();
+
+	/**
+	 * Are we writing out tuples as soon as they are closed ?
+	 */
+	private boolean streaming = false;
+
+	/**
+	 * The trap file being streamed to. Needed in case we have to discard it.
+	 */
+	private File streamedTrapFile = null;
+
+	/**
+	 * When streaming, the tuples trapped for a {@linkplain Node} whose subtree
+	 * has not ended yet. Tuples which could not be closed when their subtree
+	 * ended are moved up to the parent node, so they get another chance when
+	 * that one ends.
+	 */
+	private final Map<Node, List<Tuple>> pending = new HashMap<>();
+
+	/**
+	 * When streaming, the tuples which must close with another one. See
+	 * {@linkplain #closeWith(Tuple, Tuple)}.
+	 */
+	private final Map<Tuple, Tuple> owners = new HashMap<>();
+
+	/**
+	 * How many tuples were written out before the end ?
+	 */
+	private int streamedTupleCount = 0;
+
+	/**
+	 * How many tuples were created so far ? Unlike {@linkplain #countTuples()}
+	 * this does not go down when tuples get written out or cleared.
+	 */
+	private int createdTupleCount = 0;
 
 	public TrapFile(File sourceFile) {
 		this.sourceFile = sourceFile;
@@ -90,92 +159,155 @@ public class TrapFile {
 	}
 
 	public Tuple getTuple(String typeName, Object subject, String topic) {
-		if (topic == null)
-			topic = "default";
-
-		final TrappableType type = getKnownTrappableType(typeName);
-		final Key key = new Key(type, subject, topic);
+		return getTuple(typeName, subject, getTopic(topic));
+	}
 
-		if (!tuples.containsKey(key)) {
-			final Tuple tuple = new Tuple(key, typeName);
-			tuples.put(key, tuple);
+	/**
+	 * Same as {@linkplain #getTuple(String, Object, String)}, but for a topic
+	 * which was already interned by {@linkplain #getTopic(String)} or
+	 * {@linkplain #getTopic(String, int)}.
+	 */
+	public Tuple getTuple(String typeName, Object subject, int topic) {
+		return getTuple(CobolExtractor.getTrappableType(typeName), subject,
+				topic);
+	}
 
+	/**
+	 * Same as {@linkplain #getTuple(String, Object, int)}, but for a type which
+	 * was already resolved.
+	 */
+	public Tuple getTuple(TrappableType type, Object subject, int topic) {
+		final Tuple existing = tuples.get(type, subject, topic);
+		if (existing != null) {
 			if (LOGGER.isTraceEnabled())
-				LOGGER.trace(". tuple for " + key + " --> NEW " + tuple);
+				LOGGER.trace(". tuple for " + existing.getKey() + " --> "
+						+ existing);
 
-			return tuple;
+			return existing;
+		}
 
-		} else {
-			final Tuple tuple = tuples.get(key);
+		final Key key = new Key(type, subject, topics.get(topic), topic);
+		final Tuple tuple = new Tuple(key, type, getLayout(type));
+		tuples.add(type, subject, topic, tuple);
+		createdTupleCount += 1;
 
-			if (LOGGER.isTraceEnabled())
-				LOGGER.trace(". tuple for " + key + " --> " + tuple);
+		if (streaming)
+			track(tuple);
 
-			return tuple;
-		}
+		if (LOGGER.isTraceEnabled())
+			LOGGER.trace(". tuple for " + key + " --> NEW " + tuple);
+
+		return tuple;
 	}
 
 	public Tuple getExistingTuple(String typeName, Object subject,
 			String topic) {
+		return getExistingTuple(typeName, subject, getTopic(topic));
+	}
 
-		if (topic == null)
-			topic = "default";
-
+	/**
+	 * Same as {@linkplain #getExistingTuple(String, Object, String)}, but for a
+	 * topic which was already interned by {@linkplain #getTopic(String)} or
+	 * {@linkplain #getTopic(String, int)}.
+	 */
+	public Tuple getExistingTuple(String typeName, Object subject,
+			int topic) {
 		final Type type = CobolExtractor.getType(typeName);
-		if (type instanceof TrappableType) {
-			final Key key = new Key((TrappableType) type, subject, topic);
-			return tuples.get(key);
-
-		} else
+		if (type instanceof TrappableType)
+			return getExistingTuple((TrappableType) type, subject, topic);
+		else
 			return null;
 	}
 
+	/**
+	 * Same as {@linkplain #getExistingTuple(String, Object, int)}, but for a
+	 * type which was already resolved.
+	 */
+	public Tuple getExistingTuple(TrappableType type, Object subject,
+			int topic) {
+		return tuples.get(type, subject, topic);
+	}
+
+	/**
+	 * Returns the id for the given topic, which may be <code>null</code> for
+	 * the default one.
+	 */
+	public int getTopic(String topic) {
+		return topics.intern(topic == null ? "default" : topic);
+	}
+
+	/**
+	 * Returns the id for the topic <code>prefix + ":" + topic</code>, without
+	 * building that string more than once.
+	 */
+	public int getTopic(String prefix, int topic) {
+		return topics.intern(prefix, topic);
+	}
+
 	public int countTuples() {
 		return tuples.size();
 	}
 
+	public int countCreatedTuples() {
+		return createdTupleCount;
+	}
+
+	/**
+	 * All tuples which are still being tracked, in the order they were
+	 * created.
+	 */
+	public List<Tuple> getTuples() {
+		final List<Tuple> all = new ArrayList<Tuple>(tuples.size());
+		for (int i = 0; i < tuples.end(); i++) {
+			final Tuple tuple = tuples.tupleAt(i);
+			if (tuple != null)
+				all.add(tuple);
+		}
+
+		return all;
+	}
+
 	public List<Tuple> getTuplesOfType(String typeName) {
 		Type type = CobolExtractor.getType(typeName);
 		if (type == null)
 			return Collections.emptyList();
 
 		List<Tuple> matchingTuples = new LinkedList<Tuple>();
-		for (Key key : tuples.keySet())
-			if (type.isAssignableFrom(key.type))
-				matchingTuples.add(tuples.get(key));
+		for (int i = 0; i < tuples.end(); i++) {
+			final Tuple tuple = tuples.tupleAt(i);
+			if (tuple != null && CobolExtractor.isAssignableFrom(type, tuples.typeAt(i)))
+				matchingTuples.add(tuple);
+		}
 
 		return matchingTuples;
 	}
 
-	private TrappableType getKnownTrappableType(String typeName) {
-		final Type type = CobolExtractor.getType(typeName);
-
-		if (type == null)
-			throw new IllegalArgumentException(
-					"Type system does not know type: " + typeName);
-
-		if (!(type instanceof TrappableType))
-			throw new CatastrophicError(
-					"Can only trap types which are actually trappable. "
-							+ "Type " + typeName + " is not.");
-
-		return (TrappableType) type;
+	/**
+	 * The slot layout for tuples of the given type.
+	 */
+	private static Layout getLayout(TrappableType type) {
+		final Relation relation = CobolExtractor
+				.getRelation(type.getPersistentType().getRelationName());
+
+		if (relation == null)
+			return Layout.NONE;
+		else
+			return relation.getLayout();
 	}
 
 	public void clearNonTrappableTuples() {
 		Timing.start("clearing non-trappable tuples");
 
-		Iterator<Entry<Key, Tuple>> it = tuples.entrySet().iterator();
+		for (int i = 0; i < tuples.end(); i++) {
+			Tuple tuple = tuples.tupleAt(i);
+			if (tuple == null)
+				continue;
 
-		while (it.hasNext()) {
-			Entry<Key, Tuple> entry = it.next();
-
-			Tuple tuple = entry.getValue();
-			Type type = CobolExtractor.getType(tuple.getName());
+			Type type = tuple.getType();
 			if (!(type instanceof TrappableType)) {
 				if (LOGGER.isDebugEnabled())
 					LOGGER.debug("Clearing non trappable: " + tuple);
-				it.remove();
+				tuples.removeAt(i);
 			}
 		}
 
@@ -185,25 +317,21 @@ public class TrapFile {
 	public boolean validateTuplesAgainstDatabaseScheme() {
 		Timing.start("validating tuples against db");
 
-		Iterator<Entry<Key, Tuple>> it = tuples.entrySet().iterator();
-
 		boolean valid = true;
-		while (it.hasNext()) {
-			Entry<Key, Tuple> entry = it.next();
+		for (int t = 0; t < tuples.end(); t++) {
+			Tuple tuple = tuples.tupleAt(t);
+			if (tuple == null)
+				continue;
 
-			TrappableType type = entry.getKey().type;
-			Tuple tuple = entry.getValue();
+			if (tuple.isComplete())
+				continue;
 
-			PersistentType persistentType = type.getPersistentType();
-			Relation table = CobolExtractor
-					.getRelation(persistentType.getRelationName());
-			List<Column> columns = table.getColumns();
-
-			for (Column column : columns) {
-				if (!tuple.hasValue(column.getName())) {
+			final Layout layout = tuple.getLayout();
+			for (int slot = 0; slot < layout.size(); slot++) {
+				if (!tuple.hasValue(slot)) {
 					LOGGER.error("Tuple " + tuple + " missing value for column "
-							+ column.getName() + "." + " Key was: "
-							+ entry.getKey() + ".");
+							+ layout.getName(slot) + "." + " Key was: "
+							+ tuple.getKey() + ".");
 					valid = false;
 				}
 			}
@@ -214,52 +342,225 @@ public class TrapFile {
 	}
 
 	public void storeTuples(DefaultTrapWriterFactory trapWriterFactory) {
+		storeTuples(trapWriterFactory.getTrapFileFor(sourceFile));
+	}
+
+	/**
+	 * Same as {@linkplain #storeTuples(DefaultTrapWriterFactory)}, but writing
+	 * to the given trap file. When streaming, the trap file given to
+	 * {@linkplain #startStreaming(File)} is used instead.
+	 */
+	public void storeTuples(File trapFile) {
 		Timing.start("storing tuples");
 
 		try {
-			File trapFile = trapWriterFactory.getTrapFileFor(sourceFile);
-			trapWriter = new TrapWriter(trapFile);
+			if (!streaming)
+				openTrapWriter(trapFile);
 
-			Label sourceFileLabel = trapWriter.populateFile(sourceFile);
-			values.put("file", sourceFileLabel);
+			for (int t = 0; t < tuples.end(); t++) {
+				Tuple tuple = tuples.tupleAt(t);
+				if (tuple == null || !tuple.isComplete())
+					continue;
 
-			Iterator<Entry<Key, Tuple>> it = tuples.entrySet().iterator();
+				Object[] values = tuple.resolveAll();
+				if (values == null)
+					continue;
 
-			trappingTuples: while (it.hasNext()) {
-				Entry<Key, Tuple> entry = it.next();
+				trapWriter.addTuple(tuple.getLayout().getRelation().getName(),
+						values);
+			}
 
-				TrappableType type = entry.getKey().type;
-				Tuple tuple = entry.getValue();
+			if (streaming && LOGGER.isDebugEnabled())
+				LOGGER.debug("Streamed " + streamedTupleCount
+						+ " tuples before the end, and " + tuples.size()
+						+ " at the end.");
 
-				PersistentType persistentType = type.getPersistentType();
-				Relation table = CobolExtractor
-						.getRelation(persistentType.getRelationName());
-				List<Column> columns = table.getColumns();
-				Object[] values = new Object[columns.size()];
+		} finally {
+			if (trapWriter != null)
+				trapWriter.close();
 
-				for (int i = 0; i < columns.size(); i++) {
-					Column column = columns.get(i);
+			Timing.end("storing tuples");
+		}
+	}
 
-					Value value = tuple.getValue(column.getName());
-					if (value == null)
-						continue trappingTuples;
+	private void openTrapWriter(File trapFile) {
+		trapWriter = new TrapWriter(trapFile);
 
-					Object actualValue = value.getValue();
-					if (actualValue == null)
-						continue trappingTuples;
+		Label sourceFileLabel = trapWriter.populateFile(sourceFile);
+		values.put("file", sourceFileLabel);
 
-					values[i] = actualValue;
-				}
+		streamedTrapFile = trapFile;
+	}
+
+	// ------------------------------------------------------------------------
+
+	/**
+	 * Open the trap file right away, and from now on write out tuples as soon
+	 * as they are closed. Anything still open at the end gets written by
+	 * {@linkplain #storeTuples(DefaultTrapWriterFactory)}, as usual.
+	 * <p>
+	 * Tuples which were written are no longer tracked here, so they can not be
+	 * looked up anymore. They keep their local id, so they can still be
+	 * referenced.
+	 */
+	public void startStreaming(DefaultTrapWriterFactory trapWriterFactory) {
+		startStreaming(trapWriterFactory.getTrapFileFor(sourceFile));
+	}
+
+	/**
+	 * Same as {@linkplain #startStreaming(DefaultTrapWriterFactory)}, but
+	 * writing to the given trap file.
+	 */
+	public void startStreaming(File trapFile) {
+		if (streaming)
+			return;
+
+		if (!tuples.isEmpty())
+			throw new IllegalStateException(
+					"Must start streaming before trapping any tuple.");
+
+		openTrapWriter(trapFile);
+		streaming = true;
+	}
+
+	/**
+	 * Close and delete whatever was streamed to the trap file so far. To be
+	 * called when something went wrong, so that we don't leave a partial trap
+	 * file behind. Calling this more than once does no harm.
+	 */
+	public void discard() {
+		if (!streaming)
+			return;
+
+		streaming = false;
+
+		if (trapWriter != null)
+			trapWriter.close();
+
+		if (streamedTrapFile != null && streamedTrapFile.exists()
+				&& !streamedTrapFile.delete())
+			LOGGER.warn("Failed to delete " + streamedTrapFile);
+	}
+
+	/**
+	 * When streaming, make sure the given tuple is not written out before its
+	 * owner is. Use this for tuples which get updated as long as the owner is
+	 * being worked on.
+	 */
+	public void closeWith(Tuple tuple, Tuple owner) {
+		if (streaming)
+			owners.put(tuple, owner);
+	}
+
+	/**
+	 * To be called when the subtree for the given {@linkplain Node} has ended,
+	 * and all effects for it have been run. When streaming this writes out all
+	 * tuples which got closed because of it.
+	 */
+	public void subtreeEnded(Node node) {
+		if (!streaming)
+			return;
+
+		final List<Tuple> candidates = pending.remove(node);
+		if (candidates == null)
+			return;
 
-				trapWriter.addTuple(table.getName(), values);
+		// Writing out one tuple may close others (e.g. the lists and
+		// partitions it owns), so we keep going until nothing changes.
+		boolean progress = true;
+		while (progress && !candidates.isEmpty()) {
+			progress = false;
+
+			final Iterator<Tuple> it = candidates.iterator();
+			while (it.hasNext()) {
+				final Tuple tuple = it.next();
+				if (tuple.isWritten() || write(tuple)) {
+					it.remove();
+					progress = true;
+				}
 			}
+		}
 
-		} finally {
-			if (trapWriter != null)
-				trapWriter.close();
+		if (candidates.isEmpty() || node.parent == null)
+			return;
 
-			Timing.end("storing tuples");
+		// Whatever is still open gets another chance when the parent ends.
+		final List<Tuple> parentCandidates = pending.get(node.parent);
+		if (parentCandidates == null)
+			pending.put(node.parent, candidates);
+		else
+			parentCandidates.addAll(candidates);
+	}
+
+	private void track(Tuple tuple) {
+		final Object subject = tuple.getKey().subject;
+		if (!(subject instanceof Node))
+			return;
+
+		// A tuple may be trapped for a subtree which has already ended. Such a
+		// tuple is handled when the current subtree ends.
+		Node node = (Node) subject;
+		while (node.end != null && node.parent != null)
+			node = node.parent;
+
+		List<Tuple> tuplesForNode = pending.get(node);
+		if (tuplesForNode == null) {
+			tuplesForNode = new ArrayList<>();
+			pending.put(node, tuplesForNode);
 		}
+		tuplesForNode.add(tuple);
+	}
+
+	/**
+	 * Write out the given tuple if it is closed. Returns whether it was.
+	 */
+	private boolean write(Tuple tuple) {
+		final Tuple owner = getOwner(tuple);
+		if (owner != null && !owner.isWritten())
+			return false;
+
+		// Quick check first, so we don't resolve values needlessly.
+		if (!tuple.isComplete())
+			return false;
+
+		final Object[] values = tuple.resolveAll();
+		if (values == null)
+			return false;
+
+		final TrappableType type = tuple.getType();
+		trapWriter.addTuple(tuple.getLayout().getRelation().getName(), values);
+		tuple.markWritten();
+		streamedTupleCount += 1;
+
+		final Key key = tuple.getKey();
+		tuples.remove(type, key.subject, key.topicId);
+		owners.remove(tuple);
+
+		if (LOGGER.isTraceEnabled())
+			LOGGER.trace(". streamed " + tuple);
+
+		return true;
+	}
+
+	private Tuple getOwner(Tuple tuple) {
+		final Tuple owner = owners.get(tuple);
+		if (owner != null)
+			return owner;
+
+		final Type type = tuple.getType();
+
+		final Value parent;
+		if (type instanceof Partition)
+			parent = tuple.getValue(((Partition) type).getParentColumn());
+		else if (type instanceof ListType)
+			parent = tuple.getValue("parent");
+		else
+			return null;
+
+		if (parent instanceof ReferenceValue)
+			return ((ReferenceValue) parent).getTuple();
+		else
+			return null;
 	}
 
 	public Object getValue(String key) {
@@ -267,35 +568,41 @@ public class TrapFile {
 	}
 
 	public void overrideTupleType(Tuple tuple, String newTypeName) {
+		overrideTupleType(tuple, CobolExtractor.getTrappableType(newTypeName));
+	}
+
+	public void overrideTupleType(Tuple tuple, TrappableType newType) {
 		// Don't override if already of the right type.
-		final String oldTypeName = tuple.getName();
-		if (newTypeName.equals(oldTypeName))
+		final TrappableType oldType = tuple.getType();
+		if (newType == oldType)
 			return;
 
 		// Validate the new type is compatible with the old one.
-		final TrappableType oldType = getKnownTrappableType(oldTypeName);
-		final TrappableType newType = getKnownTrappableType(newTypeName);
 		if (!CobolExtractor.typeCanBeRecast(oldType, newType))
 			throw new CatastrophicError(
-					"Can't recast @" + oldTypeName + " to " + newType);
+					"Can't recast @" + oldType.getName() + " to " + newType);
 
 		// NOTE: attributes etc are expected to share details and
 		// indexes, and so should not need an update.
 
-		final Key oldKey = tuple.getKey();
-		if (!tuples.containsKey(oldKey))
-			throw new CatastrophicError("Old key not found: " + oldKey);
+		final Key key = tuple.getKey();
+		if (tuples.get(oldType, key.subject, key.topicId) != tuple)
+			throw new CatastrophicError("Old key not found: " + key);
 
-		final Key newKey = new Key(newType, oldKey.subject, oldKey.topic);
-		if (tuples.containsKey(newKey))
-			throw new CatastrophicError("New key already exists: " + newKey);
+		if (tuples.get(newType, key.subject, key.topicId) != null)
+			throw new CatastrophicError("New key already exists: ("
+					+ newType + ", " + key.subject + ", " + key.topic + ")");
+
+		if (tuple.isWritten())
+			throw new CatastrophicError(
+					"Can't recast " + tuple + " as it was already written.");
 
 		if (LOGGER.isTraceEnabled())
-			LOGGER.trace(". converting " + tuple + " to " + newKey);
+			LOGGER.trace(". converting " + tuple + " to " + newType);
 
-		tuple.setName(newTypeName);
-		tuples.remove(oldKey);
-		tuples.put(newKey, tuple);
+		tuple.setType(newType, getLayout(newType));
+		tuples.remove(oldType, key.subject, key.topicId);
+		tuples.add(newType, key.subject, key.topicId, tuple);
 
 		// The tuple's "kind" is late bound and should be fine.
 
@@ -308,16 +615,15 @@ public class TrapFile {
 
 					final Tuple partitionedTuple = p.getTuple();
 					final String partitionedAttributeName = p.getName();
-					final String partitionedTypeName = twa
-							.getAttribute(partitionedAttributeName)
-							.getTypeName();
+					final TrappableType partitionedType = (TrappableType) twa
+							.getAttribute(partitionedAttributeName).getType();
 
 					if (LOGGER.isTraceEnabled())
 						LOGGER.trace(
 								". converting partitioned " + partitionedTuple
-										+ " to " + partitionedTypeName);
+										+ " to " + partitionedType);
 
-					overrideTupleType(partitionedTuple, partitionedTypeName);
+					overrideTupleType(partitionedTuple, partitionedType);
 				}
 			}
 		}
@@ -0,0 +1,209 @@
+package com.semmle.cobol.mapping.runtime;
+
+import java.util.Arrays;
+
+import com.semmle.cobol.generator.tuples.Tuple;
+import com.semmle.cobol.generator.types.TrappableType;
+
+/**
+ * Holds all {@linkplain Tuple}s of a {@linkplain TrapFile}, indexed on their
+ * type, subject and (interned) topic. Types and subjects are compared by
+ * identity, same as for the tuple's key.
+ * <p>
+ * Lookups don't allocate anything. The tuples are kept in an array in the
+ * order in which they were added, and the index is an open addressing hash
+ * table pointing into that array. This also means iteration happens in the
+ * order in which tuples were added, which is the order in which they get
+ * written out.
+ * <p>
+ * Iterating is done by index, from <code>0</code> up to {@link #end()},
+ * skipping any index for which {@link #tupleAt(int)} returns
+ * <code>null</code>. Tuples may be removed while doing so.
+ */
+final class TupleStore {
+
+	/** Marks an empty slot in the hash table. */
+	private static final int EMPTY = -1;
+
+	/** Marks a slot in the hash table whose entry was removed. */
+	private static final int REMOVED = -2;
+
+	// The entries, in the order in which they were added. Removed entries
+	// have a null tuple, until they get compacted away.
+	private Tuple[] tuples = new Tuple[256];
+	private TrappableType[] types = new TrappableType[256];
+	private Object[] subjects = new Object[256];
+	private int[] topics = new int[256];
+	private int[] hashes = new int[256];
+
+	/** Number of entries used, including removed ones. */
+	private int end = 0;
+
+	/** Number of entries which were not removed. */
+	private int size = 0;
+
+	/** Indexes into the entries, or {@link #EMPTY} or {@link #REMOVED}. */
+	private int[] slots = newSlots(512);
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public int end() {
+		return end;
+	}
+
+	public Tuple tupleAt(int index) {
+		return tuples[index];
+	}
+
+	public TrappableType typeAt(int index) {
+		return types[index];
+	}
+
+	public Tuple get(TrappableType type, Object subject, int topic) {
+		final int slot = find(type, subject, topic, hash(type, subject, topic));
+		return slot < 0 ? null : tuples[slots[slot]];
+	}
+
+	/**
+	 * Add a tuple under the given key, which must not be in use yet.
+	 */
+	public void add(TrappableType type, Object subject, int topic,
+			Tuple tuple) {
+		if (end == tuples.length)
+			growEntries();
+
+		final int hash = hash(type, subject, topic);
+		tuples[end] = tuple;
+		types[end] = type;
+		subjects[end] = subject;
+		topics[end] = topic;
+		hashes[end] = hash;
+
+		insert(hash, end);
+		end += 1;
+		size += 1;
+	}
+
+	/**
+	 * Remove the tuple with the given key, if any. Returns whether there was
+	 * one.
+	 */
+	public boolean remove(TrappableType type, Object subject, int topic) {
+		final int slot = find(type, subject, topic, hash(type, subject, topic));
+		if (slot < 0)
+			return false;
+
+		clear(slots[slot]);
+		slots[slot] = REMOVED;
+		size -= 1;
+		return true;
+	}
+
+	/**
+	 * Remove the tuple at the given index, as found while iterating.
+	 */
+	public void removeAt(int index) {
+		if (tuples[index] == null)
+			return;
+
+		final int mask = slots.length - 1;
+		int slot = hashes[index] & mask;
+		while (slots[slot] != index)
+			slot = (slot + 1) & mask;
+
+		clear(index);
+		slots[slot] = REMOVED;
+		size -= 1;
+	}
+
+	private void clear(int index) {
+		tuples[index] = null;
+		types[index] = null;
+		subjects[index] = null;
+	}
+
+	private int find(TrappableType type, Object subject, int topic,
+			int hash) {
+		final int mask = slots.length - 1;
+		int slot = hash & mask;
+
+		while (true) {
+			final int index = slots[slot];
+			if (index == EMPTY)
+				return -1;
+
+			if (index >= 0 && hashes[index] == hash && types[index] == type
+					&& subjects[index] == subject && topics[index] == topic)
+				return slot;
+
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	private void insert(int hash, int index) {
+		final int mask = slots.length - 1;
+		int slot = hash & mask;
+		while (slots[slot] >= 0)
+			slot = (slot + 1) & mask;
+		slots[slot] = index;
+	}
+
+	/**
+	 * Make room for more entries. If many were removed (as happens when
+	 * streaming) we just compact them, otherwise we double in size. Either
+	 * way the hash table gets rebuilt, which also clears any removed slots.
+	 */
+	private void growEntries() {
+		final int capacity = size * 2 <= tuples.length ? tuples.length
+				: tuples.length * 2;
+
+		final Tuple[] newTuples = new Tuple[capacity];
+		final TrappableType[] newTypes = new TrappableType[capacity];
+		final Object[] newSubjects = new Object[capacity];
+		final int[] newTopics = new int[capacity];
+		final int[] newHashes = new int[capacity];
+
+		int n = 0;
+		for (int i = 0; i < end; i++) {
+			if (tuples[i] == null)
+				continue;
+
+			newTuples[n] = tuples[i];
+			newTypes[n] = types[i];
+			newSubjects[n] = subjects[i];
+			newTopics[n] = topics[i];
+			newHashes[n] = hashes[i];
+			n += 1;
+		}
+
+		tuples = newTuples;
+		types = newTypes;
+		subjects = newSubjects;
+		topics = newTopics;
+		hashes = newHashes;
+		end = n;
+
+		slots = newSlots(capacity * 2);
+		for (int i = 0; i < end; i++)
+			insert(hashes[i], i);
+	}
+
+	private static int[] newSlots(int size) {
+		final int[] slots = new int[size];
+		Arrays.fill(slots, EMPTY);
+		return slots;
+	}
+
+	private static int hash(TrappableType type, Object subject, int topic) {
+		int h = System.identityHashCode(type);
+		h = 31 * h + System.identityHashCode(subject);
+		h = 31 * h + topic;
+		return h ^ (h >>> 16);
+	}
+}
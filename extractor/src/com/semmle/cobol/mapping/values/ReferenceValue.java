@@ -25,11 +25,6 @@ public class ReferenceValue extends Value {
 
 	@Override
 	public Object getValue() {
-		Value value = tuple.getValue(referencedColumnName);
-
-		if (value == null)
-			return null;
-		else
-			return value.getValue();
+		return tuple.resolve(referencedColumnName);
 	}
 }
@@ -12,8 +12,8 @@ import static com.semmle.cobol.util.Common.RELOP;
 import static com.semmle.cobol.util.Common.UNEQUALTO_OP;
 import static com.semmle.cobol.util.Common._RELOP;
 
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
@@ -72,7 +72,7 @@ public class NormalizeRelationOperators extends StreamProcessingStep {
 
 	private State state = State.IDLE;
 
-	private List<Data> tokens = new LinkedList<Data>();
+	private List<Data> tokens = new ArrayList<Data>();
 	private Start relop = null;
 	private boolean negated = false;
 
@@ -107,9 +107,8 @@ public class NormalizeRelationOperators extends StreamProcessingStep {
 				// right relation operator.
 				pass(RELOP);
 				pass(relop);
-				for (Data r : tokens) {
-					pass(r);
-				}
+				for (int i = 0; i < tokens.size(); i++)
+					pass(tokens.get(i));
 				pass(relop.matchingEnd());
 				pass(_RELOP);
 
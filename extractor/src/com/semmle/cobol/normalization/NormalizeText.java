@@ -82,6 +82,7 @@ public class NormalizeText extends StreamProcessingStep {
 				pass(startOfText);
 				passAllDelayed();
 				pass(d);
+				bypass();
 
 			} else if (!isStart(d))
 				delay(d);
@@ -91,6 +92,7 @@ public class NormalizeText extends StreamProcessingStep {
 				pass(startOfText);
 				pass(d);
 				passAllDelayed();
+				bypass();
 			}
 			break;
 
@@ -98,7 +100,8 @@ public class NormalizeText extends StreamProcessingStep {
 		default:
 			// We have seen the root node, and normalized the stream. From that
 			// point on we can just pass along the remainder of the stream as
-			// is.
+			// is. Normally we will have been bypassed by then, unless someone
+			// is feeding us data directly.
 			pass(d);
 		}
 	}
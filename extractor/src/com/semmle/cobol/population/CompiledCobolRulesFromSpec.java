@@ -0,0 +1,3944 @@
+package com.semmle.cobol.population;
+
+import com.semmle.cobol.generator.effects.CompiledRule;
+import com.semmle.cobol.generator.effects.Effect;
+import com.semmle.cobol.generator.engine.Frame;
+import com.semmle.cobol.generator.engine.RuleEngine;
+import com.semmle.cobol.generator.events.Event;
+import com.semmle.cobol.generator.rules.RuleSet;
+
+import static com.semmle.cobol.generator.effects.Effects.NUMLINES;
+import static com.semmle.cobol.generator.effects.Effects.all;
+import static com.semmle.cobol.generator.effects.Effects.assignTo;
+import static com.semmle.cobol.generator.effects.Effects.atEnd;
+import static com.semmle.cobol.generator.effects.Effects.collect;
+import static com.semmle.cobol.generator.effects.Effects.createTuple;
+import static com.semmle.cobol.generator.effects.Effects.nestedRecordStructure;
+import static com.semmle.cobol.generator.effects.Effects.on;
+import static com.semmle.cobol.generator.effects.Effects.print;
+import static com.semmle.cobol.generator.effects.Effects.sub;
+import static com.semmle.cobol.generator.effects.Effects.setAttribute;
+import static com.semmle.cobol.generator.effects.Effects.setAttributeAs;
+import static com.semmle.cobol.generator.effects.Effects.setAttributeToProgramText;
+
+import static com.semmle.cobol.generator.triggers.Triggers.child;
+import static com.semmle.cobol.generator.triggers.Triggers.end;
+import static com.semmle.cobol.generator.triggers.Triggers.first;
+import static com.semmle.cobol.generator.triggers.Triggers.isLast;
+import static com.semmle.cobol.generator.triggers.Triggers.isLastChild;
+import static com.semmle.cobol.generator.triggers.Triggers.PROGRAM_TEXT;
+import static com.semmle.cobol.generator.triggers.Triggers.or;
+import static com.semmle.cobol.generator.triggers.Triggers.path;
+import static com.semmle.cobol.generator.triggers.Triggers.start;
+
+import koopa.core.data.Data;
+import koopa.core.data.markers.Start;
+
+/**
+ * This class is meant to be generated by 'tools/java_rules_gen.py --compiled',
+ * from the same data definition as the Cobol database schema and QL wrapper
+ * classes. This version was derived by hand from {@link CobolRulesFromSpec},
+ * following what that generator writes, as the spec modules it needs are not
+ * part of this tree. Regenerate it once they are.
+ * <p>
+ * It defines the same rules as {@link CobolRulesFromSpec}, but attributes which
+ * get mapped from child nodes are matched by a {@link CompiledRule} per node,
+ * rather than by combining effects. Attributes which map deeper paths (e.g.
+ * <code>add.to_operands</code>) are set up after the child nodes, which is a
+ * different order than in {@link CobolRulesFromSpec}. They never fire on the
+ * same nodes as the child nodes, though, so the order does not change the
+ * output. {@code CompiledRulesTest} checks that it is the same.
+ */
+public class CompiledCobolRulesFromSpec {
+    public static void initialize(RuleSet rules) {
+        // abbreviatedNegation ...
+        rules.define("<abbreviatedNegation>", //
+            all(createTuple("abbr_log_not_expr"), //
+                // abbr_log_not_expr.expression <- $1
+                setAttribute("expression", path("<>[1]"), rules)) //
+        );
+
+        // acceptStatement ...
+        rules.define("<acceptStatement>", new AcceptStatement(rules));
+
+        // addStatement ...
+        rules.define("<addStatement>", new AddStatement(rules));
+
+        // addressOf ...
+        rules.define("<addressOf>", new AddressOf(rules));
+
+        // after ...
+        rules.define("<after>", new After(rules));
+
+        // alterStatement ...
+        rules.define("<alterStatement>", new AlterStatement(rules));
+
+        // alterationClause ...
+        rules.define("<alterationClause>", //
+            all(createTuple("alteration_clause"), //
+                // alteration_clause.from <- {procedureName[1]}
+                setAttribute("from", path("<procedureName>[1]"), rules), //
+                // alteration_clause.to <- {procedureName[2]}
+                setAttribute("to", path("<procedureName>[2]"), rules)) //
+        );
+
+        // atEnd ...
+        rules.define("<atEnd>", //
+            all(createTuple("at_end_branch"), //
+                // at_end_branch.statements <- {statement|nestedStatements/statement|compilerStatement} default other_stmt
+                setAttribute("statements", or(path("<statement>"), //
+                    path("<nestedStatements>/<statement>"), //
+                    path("<compilerStatement>")), rules, Start.on("cobol", "other_stmt"))) //
+        );
+
+        // atEndOfPage ...
+        rules.define("<atEndOfPage>", //
+            all(createTuple("at_end_of_page_branch"), //
+                // at_end_of_page_branch.statements <- {statement|nestedStatements/statement|compilerStatement} default other_stmt
+                setAttribute("statements", or(path("<statement>"), //
+                    path("<nestedStatements>/<statement>"), //
+                    path("<compilerStatement>")), rules, Start.on("cobol", "other_stmt"))) //
+        );
+
+        // blockContainsClause ...
+        rules.define("<blockContainsClause>", //
+            all(createTuple("block_contains_clause"), //
+                // block_contains_clause.minimum_size <- {integer[1]}
+                setAttributeToProgramText("minimum_size", path("<integer>[1]")), //
+                // block_contains_clause.maximum_size <- {integer[2]}
+                setAttributeToProgramText("maximum_size", path("<integer>[2]"))) //
+        );
+
+        // callStatement ...
+        rules.define("<callStatement>", new CallStatement(rules));
+
+        // callStatement/using/byContent/arg ...
+        rules.define("<callStatement>/<using>/<byContent>/<arg>", //
+            all(createTuple("call_arg_by_content"), //
+                // call_arg_by_content.value <- {$1}
+                setAttribute("value", path("<>[1]"), rules)) //
+        );
+
+        // callStatement/using/byReference/arg ...
+        rules.define("<callStatement>/<using>/<byReference>/<arg>", //
+            all(createTuple("call_arg_by_reference"), //
+                // call_arg_by_reference.value <- {$1}
+                setAttribute("value", path("<>[1]"), rules)) //
+        );
+
+        // callStatement/using/byValue/arg ...
+        rules.define("<callStatement>/<using>/<byValue>/<arg>", //
+            all(createTuple("call_arg_by_value"), //
+                // call_arg_by_value.value <- {$1}
+                setAttribute("value", path("<>[1]"), rules)) //
+        );
+
+        // callStatement/using/copyStatement ...
+        rules.define("<callStatement>/<using>/<copyStatement>", //
+            all(createTuple("call_arg_copied"), //
+                // call_arg_copied.copy <- $. as copyStatement
+                sub(all(rules.applyRule(Start.on("cobol", "copyStatement")), //
+                    atEnd(assignTo("copy"))))) //
+        );
+
+        // execCICSStatement ...
+        rules.define("<execCICSStatement>", //
+            all(createTuple("cics"), //
+                // cics.command <- cics::{cicsStatement/command}
+                setAttributeToProgramText("command", path("<cics:cicsStatement>/<cics:command>")), //
+                // cics.map <- cics::{cicsStatement/option/map/value}   as cics_option_ref
+                setAttributeAs("map", path("<cics:cicsStatement>/<cics:option>/<cics:map>/<cics:value>"), rules, Start.on("cobol", "cics_option_ref")), //
+                // cics.queue <- cics::{cicsStatement/option/queue/value} as cics_option_ref
+                setAttributeAs("queue", path("<cics:cicsStatement>/<cics:option>/<cics:queue>/<cics:value>"), rules, Start.on("cobol", "cics_option_ref")), //
+                // cics.file <- cics::{cicsStatement/option/file/value}  as cics_option_ref
+                setAttributeAs("file", path("<cics:cicsStatement>/<cics:option>/<cics:file>/<cics:value>"), rules, Start.on("cobol", "cics_option_ref")), //
+                // cics.resp <- cics::{cicsStatement/option/resp/value}  as cics_option_ref
+                setAttributeAs("resp", path("<cics:cicsStatement>/<cics:option>/<cics:resp>/<cics:value>"), rules, Start.on("cobol", "cics_option_ref"))) //
+        );
+
+        // cics_option_ref ...
+        rules.define("<cics_option_ref>", //
+            all(createTuple("cics_option_reference"), //
+                // cics_option_reference.value <- $.
+                sub(all(collect(PROGRAM_TEXT), //
+                    atEnd(assignTo("value"))))) //
+        );
+
+        // closeStatement ...
+        rules.define("<closeStatement>", new CloseStatement(rules));
+
+        // communicationSection ...
+        rules.define("<communicationSection>", new CommunicationSection(rules));
+
+        // relationCondition ...
+        rules.define("<relationCondition>", //
+            all(createTuple("comparison_expr"), //
+                // comparison_expr.subject <- {relationSubject/$1}
+                setAttribute("subject", path("<relationSubject>/<>[1]"), rules), //
+                // comparison_expr.object <- $-1
+                setAttribute("object", child(isLastChild(null)), rules)) //
+        );
+
+        // computeStatement ...
+        rules.define("<computeStatement>", new ComputeStatement(rules));
+
+        // conditionNameCondition ...
+        rules.define("<conditionNameCondition>", //
+            all(createTuple("condition_name_condition_expr"), //
+                // condition_name_condition_expr.name <- {conditionName/identifier}
+                setAttribute("name", path("<conditionName>/<identifier>"), rules)) //
+        );
+
+        // configurationSection ...
+        rules.define("<configurationSection>", new ConfigurationSection(rules));
+
+        // constantEntry ...
+        rules.define("<constantEntry>", new ConstantEntry(rules));
+
+        // continueStatement ...
+        rules.define("<continueStatement>", //
+            createTuple("continue_stmt") //
+        );
+
+        // copyStatement ...
+        rules.define("<copyStatement>", new CopyStatement(rules));
+
+        // corresponding ...
+        rules.define("<corresponding>", new Corresponding(rules));
+
+        // dataAddressIdentifier ...
+        rules.define("<dataAddressIdentifier>", new DataAddressIdentifier(rules));
+
+        // dataDescriptionEntry ...
+        rules.define("<dataDescriptionEntry>", new DataDescriptionEntry(rules));
+
+        // dataDivision ...
+        rules.define("<dataDivision>", new DataDivision(rules));
+
+        // data_reference ...
+        rules.define("<data_reference>", new DataReference(rules));
+
+        // declaratives ...
+        rules.define("<declaratives>", new Declaratives(rules));
+
+        // deleteStatement ...
+        rules.define("<deleteStatement>", new DeleteStatement(rules));
+
+        // dependingOn ...
+        rules.define("<dependingOn>", //
+            createTuple("depending_on_clause") //
+        );
+
+        // displayStatement ...
+        rules.define("<displayStatement>", new DisplayStatement(rules));
+
+        // divideStatement ...
+        rules.define("<divideStatement>", new DivideStatement(rules));
+
+        // elseBranch ...
+        rules.define("<elseBranch>", //
+            all(createTuple("else_branch"), //
+                // else_branch.statements <- {statement|nestedStatements/statement|compilerStatement} default other_stmt
+                setAttribute("statements", or(path("<statement>"), //
+                    path("<nestedStatements>/<statement>"), //
+                    path("<compilerStatement>")), rules, Start.on("cobol", "other_stmt"))) //
+        );
+
+        // entryStatement ...
+        rules.define("<entryStatement>", //
+            createTuple("entry") //
+        );
+
+        // environmentDivision ...
+        rules.define("<environmentDivision>", new EnvironmentDivision(rules));
+
+        // evaluateStatement ...
+        rules.define("<evaluateStatement>", new EvaluateStatement(rules));
+
+        // exitStatement ...
+        rules.define("<exitStatement>", new ExitStatement(rules));
+
+        // exit_node ...
+        rules.define("<cflow:exit_node>", //
+            createTuple("exit_node") //
+        );
+
+        // false ...
+        rules.define("<false>", //
+            createTuple("false_expr") //
+        );
+
+        // figurativeConstant ...
+        rules.define("<figurativeConstant>", //
+            all(createTuple("figurative_constant_expr"), //
+                // figurative_constant_expr.value <- $.
+                sub(all(collect(PROGRAM_TEXT), //
+                    atEnd(assignTo("value"))))) //
+        );
+
+        // selectStatement ...
+        rules.define("<selectStatement>", //
+            all(createTuple("file_control_entry"), //
+                // file_control_entry.name <- {selectClause/fileName}
+                setAttributeToProgramText("name", path("<selectClause>/<fileName>")), //
+                // file_control_entry.file_status <- {fileStatusClause/qualifiedDataName} as data_reference
+                setAttributeAs("file_status", path("<fileStatusClause>/<qualifiedDataName>"), rules, Start.on("cobol", "data_reference"))) //
+        );
+
+        // fileControlParagraph ...
+        rules.define("<fileControlParagraph>", new FileControlParagraph(rules));
+
+        // fdFileDescriptionEntry ...
+        rules.define("<fdFileDescriptionEntry>", new FdFileDescriptionEntry(rules));
+
+        // fileName ...
+        rules.define("<fileName>", //
+            all(createTuple("file_reference"), //
+                // file_reference.name <- $.
+                sub(all(collect(PROGRAM_TEXT), //
+                    atEnd(assignTo("name"))))) //
+        );
+
+        // fileSection ...
+        rules.define("<fileSection>", new FileSection(rules));
+
+        // functionDefinition ...
+        rules.define("<functionDefinition>", new FunctionDefinition(rules));
+
+        // function ...
+        rules.define("<function>", new Function(rules));
+
+        // goToStatement ...
+        rules.define("<goToStatement>", new GoToStatement(rules));
+
+        // gobackStatement ...
+        rules.define("<gobackStatement>", //
+            createTuple("goback") //
+        );
+
+        // identificationDivision ...
+        rules.define("<identificationDivision>", new IdentificationDivision(rules));
+
+        // identifierAtom ...
+        rules.define("<identifierAtom>", new IdentifierAtom(rules));
+
+        // ifStatement ...
+        rules.define("<ifStatement>", new IfStatement(rules));
+
+        // indexedBy ...
+        rules.define("<indexedBy>", new IndexedBy(rules));
+
+        // invalidKey ...
+        rules.define("<invalidKey>", //
+            all(createTuple("invalid_key_branch"), //
+                // invalid_key_branch.statements <- {statement|nestedStatements/statement|compilerStatement} default other_stmt
+                setAttribute("statements", or(path("<statement>"), //
+                    path("<nestedStatements>/<statement>"), //
+                    path("<compilerStatement>")), rules, Start.on("cobol", "other_stmt"))) //
+        );
+
+        // ioSection ...
+        rules.define("<ioSection>", new IoSection(rules));
+
+        // linkageSection ...
+        rules.define("<linkageSection>", new LinkageSection(rules));
+
+        // localStorageSection ...
+        rules.define("<localStorageSection>", new LocalStorageSection(rules));
+
+        // negation ...
+        rules.define("<negation>", //
+            all(createTuple("log_not_expr"), //
+                // log_not_expr.expression <- $1
+                setAttribute("expression", path("<>[1]"), rules)) //
+        );
+
+        // directive/mf/set ...
+        rules.define("<cobol-directives:directive>/<cobol-directives:mf>/<cobol-directives:set>", //
+            all(createTuple("m_f_set_statement"), //
+                // m_f_set_statement.format <- {sourceformat[last()]/parameter}
+                setAttributeToProgramText("format", path("<cobol-directives:sourceformat>[-1]/<cobol-directives:parameter>"))) //
+        );
+
+        // mergeStatement ...
+        rules.define("<mergeStatement>", new MergeStatement(rules));
+
+        // moveStatement ...
+        rules.define("<moveStatement>", new MoveStatement(rules));
+
+        // multiplyStatement ...
+        rules.define("<multiplyStatement>", new MultiplyStatement(rules));
+
+        // nextSentenceStatement ...
+        rules.define("<nextSentenceStatement>", //
+            createTuple("next_sentence") //
+        );
+
+        // noData ...
+        rules.define("<noData>", //
+            all(createTuple("no_data_branch"), //
+                // no_data_branch.statements <- {statement|nestedStatements/statement|compilerStatement} default other_stmt
+                setAttribute("statements", or(path("<statement>"), //
+                    path("<nestedStatements>/<statement>"), //
+                    path("<compilerStatement>")), rules, Start.on("cobol", "other_stmt"))) //
+        );
+
+        // notAtEnd ...
+        rules.define("<notAtEnd>", //
+            all(createTuple("not_at_end_branch"), //
+                // not_at_end_branch.statements <- {statement|nestedStatements/statement|compilerStatement} default other_stmt
+                setAttribute("statements", or(path("<statement>"), //
+                    path("<nestedStatements>/<statement>"), //
+                    path("<compilerStatement>")), rules, Start.on("cobol", "other_stmt"))) //
+        );
+
+        // notAtEndOfPage ...
+        rules.define("<notAtEndOfPage>", //
+            all(createTuple("not_at_end_of_page_branch"), //
+                // not_at_end_of_page_branch.statements <- {statement|nestedStatements/statement|compilerStatement} default other_stmt
+                setAttribute("statements", or(path("<statement>"), //
+                    path("<nestedStatements>/<statement>"), //
+                    path("<compilerStatement>")), rules, Start.on("cobol", "other_stmt"))) //
+        );
+
+        // notInvalidKey ...
+        rules.define("<notInvalidKey>", //
+            all(createTuple("not_invalid_key_branch"), //
+                // not_invalid_key_branch.statements <- {statement|nestedStatements/statement|compilerStatement} default other_stmt
+                setAttribute("statements", or(path("<statement>"), //
+                    path("<nestedStatements>/<statement>"), //
+                    path("<compilerStatement>")), rules, Start.on("cobol", "other_stmt"))) //
+        );
+
+        // notOnEscape ...
+        rules.define("<notOnEscape>", //
+            all(createTuple("not_on_escape_branch"), //
+                // not_on_escape_branch.statements <- {statement|nestedStatements/statement|compilerStatement} default other_stmt
+                setAttribute("statements", or(path("<statement>"), //
+                    path("<nestedStatements>/<statement>"), //
+                    path("<compilerStatement>")), rules, Start.on("cobol", "other_stmt"))) //
+        );
+
+        // notOnException ...
+        rules.define("<notOnException>", //
+            all(createTuple("not_on_exception_branch"), //
+                // not_on_exception_branch.statements <- {statement|nestedStatements/statement|compilerStatement} default other_stmt
+                setAttribute("statements", or(path("<statement>"), //
+                    path("<nestedStatements>/<statement>"), //
+                    path("<compilerStatement>")), rules, Start.on("cobol", "other_stmt"))) //
+        );
+
+        // notOnOverflow ...
+        rules.define("<notOnOverflow>", //
+            all(createTuple("not_on_overflow_branch"), //
+                // not_on_overflow_branch.statements <- {statement|nestedStatements/statement|compilerStatement} default other_stmt
+                setAttribute("statements", or(path("<statement>"), //
+                    path("<nestedStatements>/<statement>"), //
+                    path("<compilerStatement>")), rules, Start.on("cobol", "other_stmt"))) //
+        );
+
+        // notOnSizeError ...
+        rules.define("<notOnSizeError>", //
+            all(createTuple("not_on_size_error_branch"), //
+                // not_on_size_error_branch.statements <- {statement|nestedStatements/statement|compilerStatement} default other_stmt
+                setAttribute("statements", or(path("<statement>"), //
+                    path("<nestedStatements>/<statement>"), //
+                    path("<compilerStatement>")), rules, Start.on("cobol", "other_stmt"))) //
+        );
+
+        // numericAtom ...
+        rules.define("<numericAtom>", new NumericAtom(rules));
+
+        // specialNameStatement/numericSignIs ...
+        rules.define("<specialNameStatement>/<numericSignIs>", new SpecialNameStatementNumericSignIs(rules));
+
+        // objectSection ...
+        rules.define("<objectSection>", new ObjectSection(rules));
+
+        // objectStorageSection ...
+        rules.define("<objectStorageSection>", new ObjectStorageSection(rules));
+
+        // occursClause ...
+        rules.define("<occursClause>", new OccursClause(rules));
+
+        // omitted ...
+        rules.define("<omitted>", //
+            createTuple("omitted") //
+        );
+
+        // onEscape ...
+        rules.define("<onEscape>", //
+            all(createTuple("on_escape_branch"), //
+                // on_escape_branch.statements <- {statement|nestedStatements/statement|compilerStatement} default other_stmt
+                setAttribute("statements", or(path("<statement>"), //
+                    path("<nestedStatements>/<statement>"), //
+                    path("<compilerStatement>")), rules, Start.on("cobol", "other_stmt"))) //
+        );
+
+        // onException ...
+        rules.define("<onException>", //
+            all(createTuple("on_exception_branch"), //
+                // on_exception_branch.statements <- {statement|nestedStatements/statement|compilerStatement} default other_stmt
+                setAttribute("statements", or(path("<statement>"), //
+                    path("<nestedStatements>/<statement>"), //
+                    path("<compilerStatement>")), rules, Start.on("cobol", "other_stmt"))) //
+        );
+
+        // onOverflow ...
+        rules.define("<onOverflow>", //
+            all(createTuple("on_overflow_branch"), //
+                // on_overflow_branch.statements <- {statement|nestedStatements/statement|compilerStatement} default other_stmt
+                setAttribute("statements", or(path("<statement>"), //
+                    path("<nestedStatements>/<statement>"), //
+                    path("<compilerStatement>")), rules, Start.on("cobol", "other_stmt"))) //
+        );
+
+        // onSizeError ...
+        rules.define("<onSizeError>", //
+            all(createTuple("on_size_error_branch"), //
+                // on_size_error_branch.statements <- {statement|nestedStatements/statement|compilerStatement} default other_stmt
+                setAttribute("statements", or(path("<statement>"), //
+                    path("<nestedStatements>/<statement>"), //
+                    path("<compilerStatement>")), rules, Start.on("cobol", "other_stmt"))) //
+        );
+
+        // openStatement ...
+        rules.define("<openStatement>", new OpenStatement(rules));
+
+        // optional ...
+        rules.define("<optional>", //
+            createTuple("optional") //
+        );
+
+        // header ...
+        rules.define("<header>", //
+            createTuple("other_header") //
+        );
+
+        // other_stmt ...
+        rules.define("<other_stmt>", new OtherStmt(rules));
+
+        // paragraph ...
+        rules.define("<paragraph>", new Paragraph(rules));
+
+        // identifier_format6 ...
+        rules.define("<identifier_format6>", //
+            all(createTuple("predefined_object"), //
+                // predefined_object.value <- $.
+                sub(all(collect(PROGRAM_TEXT), //
+                    atEnd(assignTo("value"))))) //
+        );
+
+        // procedureDivision ...
+        rules.define("<procedureDivision>", new ProcedureDivision(rules));
+
+        // procedureDivision/header ...
+        rules.define("<procedureDivision>/<header>", //
+            all(createTuple("procedure_division_header"), //
+                // procedure_division_header.using <- {using/$*/arg}
+                setAttribute("using", path("<using>/<>/<arg>"), rules), //
+                // procedure_division_header.returning <- {returning[dataName]} as qualifiedDataName
+                setAttributeAs("returning", path("<returning>[<dataName>]"), rules, Start.on("cobol", "qualifiedDataName"))) //
+        );
+
+        // procedureDivision/header/using/byOutput/arg ...
+        rules.define("<procedureDivision>/<header>/<using>/<byOutput>/<arg>", new ProcedureDivisionHeaderUsingByOutputArg(rules));
+
+        // procedureDivision/header/using/byReference/arg ...
+        rules.define("<procedureDivision>/<header>/<using>/<byReference>/<arg>", new ProcedureDivisionHeaderUsingByReferenceArg(rules));
+
+        // procedureDivision/header/using/byValue/arg ...
+        rules.define("<procedureDivision>/<header>/<using>/<byValue>/<arg>", new ProcedureDivisionHeaderUsingByValueArg(rules));
+
+        // procedureName ...
+        rules.define("<procedureName>", new ProcedureName(rules));
+
+        // programDefinition ...
+        rules.define("<programDefinition>", new ProgramDefinition(rules));
+
+        // qualifiedDataName ...
+        rules.define("<qualifiedDataName>", new QualifiedDataName(rules));
+
+        // qualifiedLinageCounter ...
+        rules.define("<qualifiedLinageCounter>", //
+            all(createTuple("qualified_linage_counter"), //
+                // qualified_linage_counter.qualification <- {fileName/name}
+                setAttributeToProgramText("qualification", path("<fileName>/<name>"))) //
+        );
+
+        // readStatement ...
+        rules.define("<readStatement>", new ReadStatement(rules));
+
+        // referenceModifier ...
+        rules.define("<referenceModifier>", //
+            all(createTuple("reference_modifier"), //
+                // reference_modifier.start <- {arithmeticExpression[1]}
+                setAttribute("start", path("<arithmeticExpression>[1]"), rules), //
+                // reference_modifier.length <- {arithmeticExpression[2]}
+                setAttribute("length", path("<arithmeticExpression>[2]"), rules)) //
+        );
+
+        // relativeSubscript ...
+        rules.define("<relativeSubscript>", new RelativeSubscript(rules));
+
+        // replaceStatement ...
+        rules.define("<replaceStatement>", //
+            createTuple("replace") //
+        );
+
+        // reportDescriptionEntry ...
+        rules.define("<reportDescriptionEntry>", new ReportDescriptionEntry(rules));
+
+        // reportGroupDescriptionEntry ...
+        rules.define("<reportGroupDescriptionEntry>", new ReportGroupDescriptionEntry(rules));
+
+        // reportSection ...
+        rules.define("<reportSection>", new ReportSection(rules));
+
+        // returnStatement ...
+        rules.define("<returnStatement>", new ReturnStatement(rules));
+
+        // rewriteStatement ...
+        rules.define("<rewriteStatement>", new RewriteStatement(rules));
+
+        // screenDescriptionEntry ...
+        rules.define("<screenDescriptionEntry>", new ScreenDescriptionEntry(rules));
+
+        // screenSection ...
+        rules.define("<screenSection>", new ScreenSection(rules));
+
+        // searchStatement ...
+        rules.define("<searchStatement>", new SearchStatement(rules));
+
+        // section ...
+        rules.define("<section>", new Section(rules));
+
+        // sentence ...
+        rules.define("<sentence>", new Sentence(rules));
+
+        // signClause ...
+        rules.define("<signClause>", new SignClause(rules));
+
+        // sortStatement ...
+        rules.define("<sortStatement>", new SortStatement(rules));
+
+        // sdFileDescriptionEntry ...
+        rules.define("<sdFileDescriptionEntry>", new SdFileDescriptionEntry(rules));
+
+        // directive/iso/instruction/source ...
+        rules.define("<cobol-directives:directive>/<cobol-directives:iso>/<cobol-directives:instruction>/<cobol-directives:source>", new CobolDirectivesDirectiveIsoInstructionSource(rules));
+
+        // source_unit ...
+        rules.define("<source_unit>", new SourceUnit(rules));
+
+        // specialNamesParagraph ...
+        rules.define("<specialNamesParagraph>", new SpecialNamesParagraph(rules));
+
+        // execSQLStatement ...
+        rules.define("<execSQLStatement>", //
+            all(createTuple("sql"), //
+                // sql.stmt <- {sqlStatement/$*} default sql_other_stmt
+                setAttribute("stmt", path("<sql:sqlStatement>/<>"), rules, Start.on("sql", "sql_other_stmt"))) //
+        );
+
+        // <SQL> alterStatement ...
+        rules.define("<sql:alterStatement>", new SqlAlterStatement(rules));
+
+        // <SQL> closeStatement ...
+        rules.define("<sql:closeStatement>", new SqlCloseStatement(rules));
+
+        // <SQL> comparison ...
+        rules.define("<sql:comparison>", new SqlComparison(rules));
+
+        // <SQL> countAll ...
+        rules.define("<sql:countAll>", //
+            createTuple("sql_count_all") //
+        );
+
+        // <SQL> createStatement ...
+        rules.define("<sql:createStatement>", //
+            createTuple("sql_create_stmt") //
+        );
+
+        // <SQL> cursorName ...
+        rules.define("<sql:cursorName>", new SqlCursorName(rules));
+
+        // <SQL> declareCursorStatement ...
+        rules.define("<sql:declareCursorStatement>", new SqlDeclareCursorStatement(rules));
+
+        // <SQL> deleteStatement ...
+        rules.define("<sql:deleteStatement>", //
+            all(createTuple("sql_delete_stmt"), //
+                // sql_delete_stmt.table_name <- {targetTable/tableName}
+                setAttribute("table_name", path("<sql:targetTable>/<sql:tableName>"), rules)) //
+        );
+
+        // <SQL> dropStatement ...
+        rules.define("<sql:dropStatement>", //
+            createTuple("sql_drop_stmt") //
+        );
+
+        // <SQL> equalsOp ...
+        rules.define("<sql:equalsOp>", //
+            createTuple("sql_eq_op") //
+        );
+
+        // <SQL> from ...
+        rules.define("<sql:from>", //
+            all(createTuple("sql_from_clause"), //
+                // sql_from_clause.targets <- {tableReferenceList/tableReference/$*} default unknown_ref
+                setAttribute("targets", path("<sql:tableReferenceList>/<sql:tableReference>/<>"), rules, Start.on("cobol", "unknown_ref"))) //
+        );
+
+        // <SQL> greaterThanOrEqualsOp ...
+        rules.define("<sql:greaterThanOrEqualsOp>", //
+            createTuple("sql_g_e_op") //
+        );
+
+        // <SQL> greaterThanOp ...
+        rules.define("<sql:greaterThanOp>", //
+            createTuple("sql_g_t_op") //
+        );
+
+        // <SQL> hostParameterName ...
+        rules.define("<sql:hostParameterName>", new SqlHostParameterName(rules));
+
+        // <SQL> hostParameterSpecification ...
+        rules.define("<sql:hostParameterSpecification>", new SqlHostParameterSpecification(rules));
+
+        // <SQL> into ...
+        rules.define("<sql:into>", //
+            all(createTuple("sql_into_clause"), //
+                // sql_into_clause.targets <- {$*} default unknown_spec
+                setAttribute("targets", path("<>"), rules, Start.on("cobol", "unknown_spec"))) //
+        );
+
+        // <SQL> lessThanOrEqualsOp ...
+        rules.define("<sql:lessThanOrEqualsOp>", //
+            createTuple("sql_l_e_op") //
+        );
+
+        // <SQL> lessThanOp ...
+        rules.define("<sql:lessThanOp>", //
+            createTuple("sql_l_t_op") //
+        );
+
+        // <SQL> likePredicate ...
+        rules.define("<sql:likePredicate>", //
+            all(createTuple("sql_like_predicate"), //
+                // sql_like_predicate.pattern <- {pattern/stringLiteral}
+                setAttributeToProgramText("pattern", path("<sql:pattern>/<sql:stringLiteral>"))) //
+        );
+
+        // <SQL> lockTableStatement ...
+        rules.define("<sql:lockTableStatement>", new SqlLockTableStatement(rules));
+
+        // <SQL> notEqualsOp ...
+        rules.define("<sql:notEqualsOp>", //
+            createTuple("sql_n_eq_op") //
+        );
+
+        // <SQL> negation ...
+        rules.define("<sql:negation>", new SqlNegation(rules));
+
+        // <SQL> openStatement ...
+        rules.define("<sql:openStatement>", new SqlOpenStatement(rules));
+
+        // <SQL> sql_other_stmt ...
+        rules.define("<sql:sql_other_stmt>", //
+            createTuple("sql_other_stmt") //
+        );
+
+        // <SQL> renameStatement ...
+        rules.define("<sql:renameStatement>", //
+            createTuple("sql_rename_stmt") //
+        );
+
+        // <SQL> selectStatement ...
+        rules.define("<sql:selectStatement>", new SqlSelectStatement(rules));
+
+        // <SQL> tableName ...
+        rules.define("<sql:tableName>", new SqlTableName(rules));
+
+        // <SQL> unknown_expr ...
+        rules.define("<sql:unknown_expr>", //
+            createTuple("sql_unknown_expr") //
+        );
+
+        // <SQL> unknown_ref ...
+        rules.define("<sql:unknown_ref>", //
+            createTuple("sql_unknown_reference") //
+        );
+
+        // <SQL> unknown_spec ...
+        rules.define("<sql:unknown_spec>", //
+            createTuple("sql_unknown_spec") //
+        );
+
+        // <SQL> updateStatement ...
+        rules.define("<sql:updateStatement>", new SqlUpdateStatement(rules));
+
+        // <SQL> where ...
+        rules.define("<sql:where>", new SqlWhere(rules));
+
+        // startStatement ...
+        rules.define("<startStatement>", new StartStatement(rules));
+
+        // stopStatement ...
+        rules.define("<stopStatement>", new StopStatement(rules));
+
+        // stringStatement ...
+        rules.define("<stringStatement>", new StringStatement(rules));
+
+        // subtractStatement ...
+        rules.define("<subtractStatement>", new SubtractStatement(rules));
+
+        // thenBranch ...
+        rules.define("<thenBranch>", //
+            all(createTuple("then_branch"), //
+                // then_branch.statements <- {statement|nestedStatements/statement|compilerStatement} default other_stmt
+                setAttribute("statements", or(path("<statement>"), //
+                    path("<nestedStatements>/<statement>"), //
+                    path("<compilerStatement>")), rules, Start.on("cobol", "other_stmt"))) //
+        );
+
+        // threadLocalStorageSection ...
+        rules.define("<threadLocalStorageSection>", new ThreadLocalStorageSection(rules));
+
+        // times ...
+        rules.define("<times>", //
+            createTuple("times") //
+        );
+
+        // true ...
+        rules.define("<true>", //
+            createTuple("true_expr") //
+        );
+
+        // unstringStatement ...
+        rules.define("<unstringStatement>", new UnstringStatement(rules));
+
+        // until ...
+        rules.define("<until>", new Until(rules));
+
+        // usageClause ...
+        rules.define("<usageClause>", new UsageClause(rules));
+
+        // useStatement ...
+        rules.define("<useStatement>", //
+            createTuple("use") //
+        );
+
+        // valueClause ...
+        rules.define("<valueClause>", //
+            all(createTuple("value_clause"), //
+                // value_clause.literal <- {literal[1]}
+                setAttribute("literal", path("<literal>[1]"), rules), //
+                // value_clause.through <- {literal[2]}
+                setAttribute("through", path("<literal>[2]"), rules)) //
+        );
+
+        // varying ...
+        rules.define("<varying>", new Varying(rules));
+
+        // when ...
+        rules.define("<when>", //
+            all(createTuple("when_branch"), //
+                // when_branch.statements <- {statement|nestedStatements/statement|compilerStatement} default other_stmt
+                setAttribute("statements", or(path("<statement>"), //
+                    path("<nestedStatements>/<statement>"), //
+                    path("<compilerStatement>")), rules, Start.on("cobol", "other_stmt")), //
+                // when_branch.objects <- {object/$*}
+                setAttribute("objects", path("<object>/<>"), rules)) //
+        );
+
+        // whenOther ...
+        rules.define("<whenOther>", //
+            all(createTuple("when_other_branch"), //
+                // when_other_branch.statements <- {statement|nestedStatements/statement|compilerStatement} default other_stmt
+                setAttribute("statements", or(path("<statement>"), //
+                    path("<nestedStatements>/<statement>"), //
+                    path("<compilerStatement>")), rules, Start.on("cobol", "other_stmt"))) //
+        );
+
+        // withData ...
+        rules.define("<withData>", //
+            all(createTuple("with_data_branch"), //
+                // with_data_branch.statements <- {statement|nestedStatements/statement|compilerStatement} default other_stmt
+                setAttribute("statements", or(path("<statement>"), //
+                    path("<nestedStatements>/<statement>"), //
+                    path("<compilerStatement>")), rules, Start.on("cobol", "other_stmt"))) //
+        );
+
+        // workingStorageSection ...
+        rules.define("<workingStorageSection>", new WorkingStorageSection(rules));
+
+        // writeStatement ...
+        rules.define("<writeStatement>", new WriteStatement(rules));
+
+        // zeroAtom ...
+        rules.define("<zeroAtom>", //
+            createTuple("zero_expr") //
+        );
+
+    }
+
+    // acceptStatement ...
+    private static final class AcceptStatement extends CompiledRule {
+        private static final Start END = Start.on("cobol", "end");
+
+        private final Effect applyScopeTerminator;
+        private final Effect setOnException;
+        private final Effect setNotOnException;
+        private final Effect setOnEscape;
+        private final Effect setNotOnEscape;
+
+        AcceptStatement(RuleSet rules) {
+            super("accept", //
+                    new Start[] { END }, //
+                    new String[] { "scope_terminator" });
+            applyScopeTerminator = rules.applyRule(Start.on("cobol", "scope_terminator"));
+            // accept.on_exception <- {acceptFromMnemonic/onException|acceptScreenFormat/onException}
+            setOnException = setAttribute("on_exception", or(path("<acceptFromMnemonic>/<onException>"), //
+                path("<acceptScreenFormat>/<onException>")), rules);
+            // accept.not_on_exception <- {acceptFromMnemonic/notOnException|acceptScreenFormat/notOnException}
+            setNotOnException = setAttribute("not_on_exception", or(path("<acceptFromMnemonic>/<notOnException>"), //
+                path("<acceptScreenFormat>/<notOnException>")), rules);
+            // accept.on_escape <- {acceptFromMnemonic/onEscape|acceptScreenFormat/onEscape}
+            setOnEscape = setAttribute("on_escape", or(path("<acceptFromMnemonic>/<onEscape>"), //
+                path("<acceptScreenFormat>/<onEscape>")), rules);
+            // accept.not_on_escape <- {acceptFromMnemonic/notOnEscape|acceptScreenFormat/notOnEscape}
+            setNotOnEscape = setAttribute("not_on_escape", or(path("<acceptFromMnemonic>/<notOnEscape>"), //
+                path("<acceptScreenFormat>/<notOnEscape>")), rules);
+        }
+
+        @Override
+        protected void before(Event event, Frame frame, RuleEngine engine) {
+            setOnException.apply(event, frame, engine);
+            setNotOnException.apply(event, frame, engine);
+            setOnEscape.apply(event, frame, engine);
+            setNotOnEscape.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // accept.scope_terminator <- {end} as scope_terminator
+            if (END.equals(child))
+                assign(0, applyScopeTerminator, event, children, engine);
+        }
+    }
+
+    // addStatement ...
+    private static final class AddStatement extends CompiledRule {
+        private static final Start CORRESPONDING = Start.on("cobol", "corresponding");
+        private static final Start IDENTIFIER = Start.on("cobol", "identifier");
+        private static final Start ON_SIZE_ERROR = Start.on("cobol", "onSizeError");
+        private static final Start NOT_ON_SIZE_ERROR = Start.on("cobol", "notOnSizeError");
+        private static final Start END = Start.on("cobol", "end");
+
+        private final Effect applyMatchingRule;
+        private final Effect applyScopeTerminator;
+        private final Effect setToOperands;
+        private final Effect setGivingOperands;
+
+        AddStatement(RuleSet rules) {
+            super("add", //
+                    new Start[] { CORRESPONDING, IDENTIFIER, ON_SIZE_ERROR, NOT_ON_SIZE_ERROR, END }, //
+                    new String[] { "corresponding", "initial_operands", "on_size_error", "not_on_size_error", "scope_terminator" });
+            applyMatchingRule = rules.applyMatchingRule();
+            applyScopeTerminator = rules.applyRule(Start.on("cobol", "scope_terminator"));
+            // add.to_operands <- {to/identifier|to/qualifiedDataName}
+            setToOperands = setAttribute("to_operands", or(path("<to>/<identifier>"), //
+                path("<to>/<qualifiedDataName>")), rules);
+            // add.giving_operands <- {giving/identifier}
+            setGivingOperands = setAttribute("giving_operands", path("<giving>/<identifier>"), rules);
+        }
+
+        @Override
+        protected void after(Event event, Frame frame, RuleEngine engine) {
+            setToOperands.apply(event, frame, engine);
+            setGivingOperands.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // add.corresponding <- {corresponding}
+            if (CORRESPONDING.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+            // add.initial_operands <- {identifier}
+            if (IDENTIFIER.equals(child))
+                assign(1, applyMatchingRule, event, children, engine);
+            // add.on_size_error <- {onSizeError}
+            if (ON_SIZE_ERROR.equals(child))
+                assign(2, applyMatchingRule, event, children, engine);
+            // add.not_on_size_error <- {notOnSizeError}
+            if (NOT_ON_SIZE_ERROR.equals(child))
+                assign(3, applyMatchingRule, event, children, engine);
+            // add.scope_terminator <- {end} as scope_terminator
+            if (END.equals(child))
+                assign(4, applyScopeTerminator, event, children, engine);
+        }
+    }
+
+    // addressOf ...
+    private static final class AddressOf extends CompiledRule {
+        private static final Start IDENTIFIER = Start.on("cobol", "identifier");
+
+        private final Effect applyMatchingRule;
+
+        AddressOf(RuleSet rules) {
+            super("address_of_register", //
+                    new Start[] { IDENTIFIER }, //
+                    new String[] { "data_item" });
+            applyMatchingRule = rules.applyMatchingRule();
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // address_of_register.data_item <- {identifier}
+            if (IDENTIFIER.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // after ...
+    private static final class After extends CompiledRule {
+        private static final Start UNTIL = Start.on("cobol", "until");
+
+        private final Effect applyMatchingRule;
+        private final Effect setOperand;
+
+        After(RuleSet rules) {
+            super("after", //
+                    new Start[] { UNTIL }, //
+                    new String[] { "until" });
+            applyMatchingRule = rules.applyMatchingRule();
+            // after.operand <- {identifier[1]}
+            setOperand = setAttribute("operand", path("<identifier>[1]"), rules);
+        }
+
+        @Override
+        protected void before(Event event, Frame frame, RuleEngine engine) {
+            setOperand.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // after.until <- {until}
+            if (UNTIL.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // alterStatement ...
+    private static final class AlterStatement extends CompiledRule {
+        private static final Start ALTERATION_CLAUSE = Start.on("cobol", "alterationClause");
+
+        private final Effect applyMatchingRule;
+
+        AlterStatement(RuleSet rules) {
+            super("alter", //
+                    new Start[] { ALTERATION_CLAUSE }, //
+                    new String[] { "alterations" });
+            applyMatchingRule = rules.applyMatchingRule();
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // alter.alterations <- {alterationClause}
+            if (ALTERATION_CLAUSE.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // callStatement ...
+    private static final class CallStatement extends CompiledRule {
+        private static final Start ON_OVERFLOW = Start.on("cobol", "onOverflow");
+        private static final Start ON_EXCEPTION = Start.on("cobol", "onException");
+        private static final Start NOT_ON_EXCEPTION = Start.on("cobol", "notOnException");
+        private static final Start END = Start.on("cobol", "end");
+
+        private final Effect applyMatchingRule;
+        private final Effect applyScopeTerminator;
+        private final Effect setProgramName;
+        private final Effect setUsing;
+        private final Effect setGiving;
+
+        CallStatement(RuleSet rules) {
+            super("call", //
+                    new Start[] { ON_OVERFLOW, ON_EXCEPTION, NOT_ON_EXCEPTION, END }, //
+                    new String[] { "on_overflow", "on_exception", "not_on_exception", "scope_terminator" });
+            applyMatchingRule = rules.applyMatchingRule();
+            applyScopeTerminator = rules.applyRule(Start.on("cobol", "scope_terminator"));
+            // call.program_name <- {programName/$1}
+            setProgramName = setAttribute("program_name", path("<programName>/<>[1]"), rules);
+            // call.using <- {using/$*/arg|using/copyStatement}
+            setUsing = setAttribute("using", or(path("<using>/<>/<arg>"), //
+                path("<using>/<copyStatement>")), rules);
+            // call.giving <- {giving/addressOf|giving/identifier}
+            setGiving = setAttribute("giving", or(path("<giving>/<addressOf>"), //
+                path("<giving>/<identifier>")), rules);
+        }
+
+        @Override
+        protected void before(Event event, Frame frame, RuleEngine engine) {
+            setProgramName.apply(event, frame, engine);
+            setUsing.apply(event, frame, engine);
+            setGiving.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // call.on_overflow <- {onOverflow}
+            if (ON_OVERFLOW.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+            // call.on_exception <- {onException}
+            if (ON_EXCEPTION.equals(child))
+                assign(1, applyMatchingRule, event, children, engine);
+            // call.not_on_exception <- {notOnException}
+            if (NOT_ON_EXCEPTION.equals(child))
+                assign(2, applyMatchingRule, event, children, engine);
+            // call.scope_terminator <- {end} as scope_terminator
+            if (END.equals(child))
+                assign(3, applyScopeTerminator, event, children, engine);
+        }
+    }
+
+    // closeStatement ...
+    private static final class CloseStatement extends CompiledRule {
+        private static final Start FILE_NAME = Start.on("cobol", "fileName");
+
+        private final Effect applyMatchingRule;
+
+        CloseStatement(RuleSet rules) {
+            super("close", //
+                    new Start[] { FILE_NAME }, //
+                    new String[] { "files" });
+            applyMatchingRule = rules.applyMatchingRule();
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // close.files <- {fileName}
+            if (FILE_NAME.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // communicationSection ...
+    private static final class CommunicationSection extends CompiledRule {
+        private static final Start HEADER = Start.on("cobol", "header");
+
+        private final Effect applyMatchingRule;
+
+        CommunicationSection(RuleSet rules) {
+            super("communication_section", //
+                    new Start[] { HEADER }, //
+                    new String[] { "header" });
+            applyMatchingRule = rules.applyMatchingRule();
+        }
+
+        @Override
+        protected void after(Event event, Frame frame, RuleEngine engine) {
+            // [NUMLINES]
+            NUMLINES.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // communication_section.header <- {header}
+            if (HEADER.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // computeStatement ...
+    private static final class ComputeStatement extends CompiledRule {
+        private static final Start QUALIFIED_DATA_NAME = Start.on("cobol", "qualifiedDataName");
+        private static final Start ARITHMETIC_EXPRESSION = Start.on("cobol", "arithmeticExpression");
+        private static final Start ON_SIZE_ERROR = Start.on("cobol", "onSizeError");
+        private static final Start NOT_ON_SIZE_ERROR = Start.on("cobol", "notOnSizeError");
+        private static final Start END = Start.on("cobol", "end");
+
+        private final Effect applyMatchingRule;
+        private final Effect applyScopeTerminator;
+
+        ComputeStatement(RuleSet rules) {
+            super("compute", //
+                    new Start[] { QUALIFIED_DATA_NAME, ARITHMETIC_EXPRESSION, ON_SIZE_ERROR, NOT_ON_SIZE_ERROR, END }, //
+                    new String[] { "result_operands", "expr", "on_size_error", "not_on_size_error", "scope_terminator" });
+            applyMatchingRule = rules.applyMatchingRule();
+            applyScopeTerminator = rules.applyRule(Start.on("cobol", "scope_terminator"));
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // compute.result_operands <- {qualifiedDataName}
+            if (QUALIFIED_DATA_NAME.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+            // compute.expr <- {arithmeticExpression}
+            if (ARITHMETIC_EXPRESSION.equals(child))
+                assign(1, applyMatchingRule, event, children, engine);
+            // compute.on_size_error <- {onSizeError}
+            if (ON_SIZE_ERROR.equals(child))
+                assign(2, applyMatchingRule, event, children, engine);
+            // compute.not_on_size_error <- {notOnSizeError}
+            if (NOT_ON_SIZE_ERROR.equals(child))
+                assign(3, applyMatchingRule, event, children, engine);
+            // compute.scope_terminator <- {end} as scope_terminator
+            if (END.equals(child))
+                assign(4, applyScopeTerminator, event, children, engine);
+        }
+    }
+
+    // configurationSection ...
+    private static final class ConfigurationSection extends CompiledRule {
+        private static final Start HEADER = Start.on("cobol", "header");
+        private static final Start SPECIAL_NAMES_PARAGRAPH = Start.on("cobol", "specialNamesParagraph");
+
+        private final Effect applyMatchingRule;
+
+        ConfigurationSection(RuleSet rules) {
+            super("configuration_section", //
+                    new Start[] { HEADER, SPECIAL_NAMES_PARAGRAPH }, //
+                    new String[] { "header", "special_names" });
+            applyMatchingRule = rules.applyMatchingRule();
+        }
+
+        @Override
+        protected void after(Event event, Frame frame, RuleEngine engine) {
+            // [NUMLINES]
+            NUMLINES.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // configuration_section.header <- {header}
+            if (HEADER.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+            // configuration_section.special_names <- {specialNamesParagraph}
+            if (SPECIAL_NAMES_PARAGRAPH.equals(child))
+                assign(1, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // constantEntry ...
+    private static final class ConstantEntry extends CompiledRule {
+        private static final Start ENTRY_NAME = Start.on("cobol", "entryName");
+        private static final Start LEVEL_NUMBER = Start.on("cobol", "levelNumber");
+
+        ConstantEntry(RuleSet rules) {
+            super("constant_entry", //
+                    new Start[] { ENTRY_NAME, LEVEL_NUMBER }, //
+                    new String[] { "name", "level_number" });
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // constant_entry.name <- {entryName}
+            if (ENTRY_NAME.equals(child))
+                assignProgramText(0, event, children, engine);
+            // constant_entry.level_number <- {levelNumber}
+            if (LEVEL_NUMBER.equals(child))
+                assignProgramText(1, event, children, engine);
+        }
+    }
+
+    // copyStatement ...
+    private static final class CopyStatement extends CompiledRule {
+        private static final Start TEXT_NAME = Start.on("cobol", "textName");
+        private static final Start LIBRARY_NAME = Start.on("cobol", "libraryName");
+
+        CopyStatement(RuleSet rules) {
+            super("copy", //
+                    new Start[] { TEXT_NAME, LIBRARY_NAME }, //
+                    new String[] { "text_name", "library_name" });
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // copy.text_name <- {textName}
+            if (TEXT_NAME.equals(child))
+                assignProgramText(0, event, children, engine);
+            // copy.library_name <- {libraryName}
+            if (LIBRARY_NAME.equals(child))
+                assignProgramText(1, event, children, engine);
+        }
+    }
+
+    // corresponding ...
+    private static final class Corresponding extends CompiledRule {
+        private static final Start IDENTIFIER = Start.on("cobol", "identifier");
+
+        private final Effect applyMatchingRule;
+
+        Corresponding(RuleSet rules) {
+            super("corresponding_clause", //
+                    new Start[] { IDENTIFIER }, //
+                    new String[] { "identifier" });
+            applyMatchingRule = rules.applyMatchingRule();
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // corresponding_clause.identifier <- {identifier}
+            if (IDENTIFIER.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // dataAddressIdentifier ...
+    private static final class DataAddressIdentifier extends CompiledRule {
+        private static final Start IDENTIFIER = Start.on("cobol", "identifier");
+
+        private final Effect applyMatchingRule;
+
+        DataAddressIdentifier(RuleSet rules) {
+            super("data_address_identifier", //
+                    new Start[] { IDENTIFIER }, //
+                    new String[] { "identifier" });
+            applyMatchingRule = rules.applyMatchingRule();
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // data_address_identifier.identifier <- {identifier}
+            if (IDENTIFIER.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // dataDescriptionEntry ...
+    private static final class DataDescriptionEntry extends CompiledRule {
+        private static final Start ENTRY_NAME = Start.on("cobol", "entryName");
+        private static final Start LEVEL_NUMBER = Start.on("cobol", "levelNumber");
+        private static final Start PICTURE_CLAUSE = Start.on("cobol", "pictureClause");
+        private static final Start USAGE_CLAUSE = Start.on("cobol", "usageClause");
+        private static final Start OCCURS_CLAUSE = Start.on("cobol", "occursClause");
+        private static final Start VALUE_CLAUSE = Start.on("cobol", "valueClause");
+        private static final Start SIGN_CLAUSE = Start.on("cobol", "signClause");
+        private static final Start REDEFINES_CLAUSE = Start.on("cobol", "redefinesClause");
+
+        private final Effect applyMatchingRule;
+        private final Effect applyDataReference;
+
+        DataDescriptionEntry(RuleSet rules) {
+            super("data_description_entry", //
+                    new Start[] { ENTRY_NAME, LEVEL_NUMBER, PICTURE_CLAUSE, USAGE_CLAUSE, OCCURS_CLAUSE, VALUE_CLAUSE, SIGN_CLAUSE, REDEFINES_CLAUSE }, //
+                    new String[] { "name", "level_number", "picture", "usage", "occurs", "value", "sign", "redefines" });
+            applyMatchingRule = rules.applyMatchingRule();
+            applyDataReference = rules.applyRule(Start.on("cobol", "data_reference"));
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // data_description_entry.name <- {entryName}
+            if (ENTRY_NAME.equals(child))
+                assignProgramText(0, event, children, engine);
+            // data_description_entry.level_number <- {levelNumber}
+            if (LEVEL_NUMBER.equals(child))
+                assignProgramText(1, event, children, engine);
+            // data_description_entry.picture <- {pictureClause}
+            if (PICTURE_CLAUSE.equals(child))
+                assign(2, applyMatchingRule, event, children, engine);
+            // data_description_entry.usage <- {usageClause}
+            if (USAGE_CLAUSE.equals(child))
+                assign(3, applyMatchingRule, event, children, engine);
+            // data_description_entry.occurs <- {occursClause}
+            if (OCCURS_CLAUSE.equals(child))
+                assign(4, applyMatchingRule, event, children, engine);
+            // data_description_entry.value <- {valueClause}
+            if (VALUE_CLAUSE.equals(child))
+                assign(5, applyMatchingRule, event, children, engine);
+            // data_description_entry.sign <- {signClause}
+            if (SIGN_CLAUSE.equals(child))
+                assign(6, applyMatchingRule, event, children, engine);
+            // data_description_entry.redefines <- {redefinesClause} as data_reference
+            if (REDEFINES_CLAUSE.equals(child))
+                assign(7, applyDataReference, event, children, engine);
+        }
+    }
+
+    // dataDivision ...
+    private static final class DataDivision extends CompiledRule {
+        private static final Start HEADER = Start.on("cobol", "header");
+        private static final Start FILE_SECTION = Start.on("cobol", "fileSection");
+        private static final Start WORKING_STORAGE_SECTION = Start.on("cobol", "workingStorageSection");
+        private static final Start THREAD_LOCAL_STORAGE_SECTION = Start.on("cobol", "threadLocalStorageSection");
+        private static final Start OBJECT_STORAGE_SECTION = Start.on("cobol", "objectStorageSection");
+        private static final Start LOCAL_STORAGE_SECTION = Start.on("cobol", "localStorageSection");
+        private static final Start LINKAGE_SECTION = Start.on("cobol", "linkageSection");
+        private static final Start COMMUNICATION_SECTION = Start.on("cobol", "communicationSection");
+        private static final Start REPORT_SECTION = Start.on("cobol", "reportSection");
+        private static final Start SCREEN_SECTION = Start.on("cobol", "screenSection");
+
+        private final Effect applyMatchingRule;
+
+        DataDivision(RuleSet rules) {
+            super("data_division", //
+                    new Start[] { HEADER, FILE_SECTION, WORKING_STORAGE_SECTION, THREAD_LOCAL_STORAGE_SECTION, OBJECT_STORAGE_SECTION, LOCAL_STORAGE_SECTION, LINKAGE_SECTION, COMMUNICATION_SECTION, REPORT_SECTION, SCREEN_SECTION }, //
+                    new String[] { "header", "file_section", "working_storage_section", "thread_local_storage_section", "object_storage_section", "local_storage_section", "linkage_section", "communication_section", "report_section", "screen_section" });
+            applyMatchingRule = rules.applyMatchingRule();
+        }
+
+        @Override
+        protected void after(Event event, Frame frame, RuleEngine engine) {
+            // [NUMLINES]
+            NUMLINES.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // data_division.header <- {header}
+            if (HEADER.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+            // data_division.file_section <- {fileSection}
+            if (FILE_SECTION.equals(child))
+                assign(1, applyMatchingRule, event, children, engine);
+            // data_division.working_storage_section <- {workingStorageSection}
+            if (WORKING_STORAGE_SECTION.equals(child))
+                assign(2, applyMatchingRule, event, children, engine);
+            // data_division.thread_local_storage_section <- {threadLocalStorageSection}
+            if (THREAD_LOCAL_STORAGE_SECTION.equals(child))
+                assign(3, applyMatchingRule, event, children, engine);
+            // data_division.object_storage_section <- {objectStorageSection}
+            if (OBJECT_STORAGE_SECTION.equals(child))
+                assign(4, applyMatchingRule, event, children, engine);
+            // data_division.local_storage_section <- {localStorageSection}
+            if (LOCAL_STORAGE_SECTION.equals(child))
+                assign(5, applyMatchingRule, event, children, engine);
+            // data_division.linkage_section <- {linkageSection}
+            if (LINKAGE_SECTION.equals(child))
+                assign(6, applyMatchingRule, event, children, engine);
+            // data_division.communication_section <- {communicationSection}
+            if (COMMUNICATION_SECTION.equals(child))
+                assign(7, applyMatchingRule, event, children, engine);
+            // data_division.report_section <- {reportSection}
+            if (REPORT_SECTION.equals(child))
+                assign(8, applyMatchingRule, event, children, engine);
+            // data_division.screen_section <- {screenSection}
+            if (SCREEN_SECTION.equals(child))
+                assign(9, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // data_reference ...
+    private static final class DataReference extends CompiledRule {
+        private static final Start DATA_NAME = Start.on("cobol", "dataName");
+
+        private final Effect setQualifiers;
+
+        DataReference(RuleSet rules) {
+            super("data_reference", //
+                    new Start[] { DATA_NAME }, //
+                    new String[] { "name" });
+            // data_reference.qualifiers <- {qualifier/dataName}
+            setQualifiers = setAttributeToProgramText("qualifiers", path("<qualifier>/<dataName>"));
+        }
+
+        @Override
+        protected void after(Event event, Frame frame, RuleEngine engine) {
+            setQualifiers.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // data_reference.name <- {dataName}
+            if (DATA_NAME.equals(child))
+                assignProgramText(0, event, children, engine);
+        }
+    }
+
+    // declaratives ...
+    private static final class Declaratives extends CompiledRule {
+        private static final Start HEADER = Start.on("cobol", "header");
+
+        private final Effect applyMatchingRule;
+        private final Effect setSections;
+
+        Declaratives(RuleSet rules) {
+            super("declaratives", //
+                    new Start[] { HEADER }, //
+                    new String[] { "header" });
+            applyMatchingRule = rules.applyMatchingRule();
+            // declaratives.sections <- {.//declarativeSection}
+            setSections = setAttribute("sections", path("**/<declarativeSection>"), rules);
+        }
+
+        @Override
+        protected void after(Event event, Frame frame, RuleEngine engine) {
+            setSections.apply(event, frame, engine);
+            // [NUMLINES]
+            NUMLINES.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // declaratives.header <- {header}
+            if (HEADER.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // deleteStatement ...
+    private static final class DeleteStatement extends CompiledRule {
+        private static final Start FILE_NAME = Start.on("cobol", "fileName");
+        private static final Start INVALID_KEY = Start.on("cobol", "invalidKey");
+        private static final Start NOT_INVALID_KEY = Start.on("cobol", "notInvalidKey");
+        private static final Start END = Start.on("cobol", "end");
+
+        private final Effect applyMatchingRule;
+        private final Effect applyScopeTerminator;
+
+        DeleteStatement(RuleSet rules) {
+            super("delete", //
+                    new Start[] { FILE_NAME, INVALID_KEY, NOT_INVALID_KEY, END }, //
+                    new String[] { "file", "invalid_key", "not_invalid_key", "scope_terminator" });
+            applyMatchingRule = rules.applyMatchingRule();
+            applyScopeTerminator = rules.applyRule(Start.on("cobol", "scope_terminator"));
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // delete.file <- {fileName}
+            if (FILE_NAME.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+            // delete.invalid_key <- {invalidKey}
+            if (INVALID_KEY.equals(child))
+                assign(1, applyMatchingRule, event, children, engine);
+            // delete.not_invalid_key <- {notInvalidKey}
+            if (NOT_INVALID_KEY.equals(child))
+                assign(2, applyMatchingRule, event, children, engine);
+            // delete.scope_terminator <- {end} as scope_terminator
+            if (END.equals(child))
+                assign(3, applyScopeTerminator, event, children, engine);
+        }
+    }
+
+    // displayStatement ...
+    private static final class DisplayStatement extends CompiledRule {
+        private static final Start END = Start.on("cobol", "end");
+        private static final Start ON_EXCEPTION = Start.on("cobol", "onException");
+        private static final Start NOT_ON_EXCEPTION = Start.on("cobol", "notOnException");
+
+        private final Effect applyScopeTerminator;
+        private final Effect applyMatchingRule;
+
+        DisplayStatement(RuleSet rules) {
+            super("display", //
+                    new Start[] { END, ON_EXCEPTION, NOT_ON_EXCEPTION }, //
+                    new String[] { "scope_terminator", "on_exception", "not_on_exception" });
+            applyScopeTerminator = rules.applyRule(Start.on("cobol", "scope_terminator"));
+            applyMatchingRule = rules.applyMatchingRule();
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // display.scope_terminator <- {end} as scope_terminator
+            if (END.equals(child))
+                assign(0, applyScopeTerminator, event, children, engine);
+            // display.on_exception <- {onException}
+            if (ON_EXCEPTION.equals(child))
+                assign(1, applyMatchingRule, event, children, engine);
+            // display.not_on_exception <- {notOnException}
+            if (NOT_ON_EXCEPTION.equals(child))
+                assign(2, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // divideStatement ...
+    private static final class DivideStatement extends CompiledRule {
+        private static final Start IDENTIFIER = Start.on("cobol", "identifier");
+        private static final Start ON_SIZE_ERROR = Start.on("cobol", "onSizeError");
+        private static final Start NOT_ON_SIZE_ERROR = Start.on("cobol", "notOnSizeError");
+        private static final Start END = Start.on("cobol", "end");
+
+        private final Effect applyMatchingRule;
+        private final Effect applyScopeTerminator;
+        private final Effect setIntoOperands;
+        private final Effect setGivingOperands;
+        private final Effect setRemainderOperand;
+
+        DivideStatement(RuleSet rules) {
+            super("divide", //
+                    new Start[] { IDENTIFIER, ON_SIZE_ERROR, NOT_ON_SIZE_ERROR, END }, //
+                    new String[] { "initial_operand", "on_size_error", "not_on_size_error", "scope_terminator" });
+            applyMatchingRule = rules.applyMatchingRule();
+            applyScopeTerminator = rules.applyRule(Start.on("cobol", "scope_terminator"));
+            // divide.into_operands <- {into/identifier|into/qualifiedDataName}
+            setIntoOperands = setAttribute("into_operands", or(path("<into>/<identifier>"), //
+                path("<into>/<qualifiedDataName>")), rules);
+            // divide.giving_operands <- {giving/identifier}
+            setGivingOperands = setAttribute("giving_operands", path("<giving>/<identifier>"), rules);
+            // divide.remainder_operand <- {remainder/identifier}
+            setRemainderOperand = setAttribute("remainder_operand", path("<remainder>/<identifier>"), rules);
+        }
+
+        @Override
+        protected void after(Event event, Frame frame, RuleEngine engine) {
+            setIntoOperands.apply(event, frame, engine);
+            setGivingOperands.apply(event, frame, engine);
+            setRemainderOperand.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // divide.initial_operand <- {identifier}
+            if (IDENTIFIER.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+            // divide.on_size_error <- {onSizeError}
+            if (ON_SIZE_ERROR.equals(child))
+                assign(1, applyMatchingRule, event, children, engine);
+            // divide.not_on_size_error <- {notOnSizeError}
+            if (NOT_ON_SIZE_ERROR.equals(child))
+                assign(2, applyMatchingRule, event, children, engine);
+            // divide.scope_terminator <- {end} as scope_terminator
+            if (END.equals(child))
+                assign(3, applyScopeTerminator, event, children, engine);
+        }
+    }
+
+    // environmentDivision ...
+    private static final class EnvironmentDivision extends CompiledRule {
+        private static final Start HEADER = Start.on("cobol", "header");
+        private static final Start CONFIGURATION_SECTION = Start.on("cobol", "configurationSection");
+        private static final Start IO_SECTION = Start.on("cobol", "ioSection");
+        private static final Start OBJECT_SECTION = Start.on("cobol", "objectSection");
+
+        private final Effect applyMatchingRule;
+
+        EnvironmentDivision(RuleSet rules) {
+            super("environment_division", //
+                    new Start[] { HEADER, CONFIGURATION_SECTION, IO_SECTION, OBJECT_SECTION }, //
+                    new String[] { "header", "configuration_section", "io_section", "object_section" });
+            applyMatchingRule = rules.applyMatchingRule();
+        }
+
+        @Override
+        protected void after(Event event, Frame frame, RuleEngine engine) {
+            // [NUMLINES]
+            NUMLINES.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // environment_division.header <- {header}
+            if (HEADER.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+            // environment_division.configuration_section <- {configurationSection}
+            if (CONFIGURATION_SECTION.equals(child))
+                assign(1, applyMatchingRule, event, children, engine);
+            // environment_division.io_section <- {ioSection}
+            if (IO_SECTION.equals(child))
+                assign(2, applyMatchingRule, event, children, engine);
+            // environment_division.object_section <- {objectSection}
+            if (OBJECT_SECTION.equals(child))
+                assign(3, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // evaluateStatement ...
+    private static final class EvaluateStatement extends CompiledRule {
+        private static final Start WHEN = Start.on("cobol", "when");
+        private static final Start WHEN_OTHER = Start.on("cobol", "whenOther");
+        private static final Start END = Start.on("cobol", "end");
+
+        private final Effect applyMatchingRule;
+        private final Effect applyScopeTerminator;
+        private final Effect setSubjects;
+
+        EvaluateStatement(RuleSet rules) {
+            super("evaluate", //
+                    new Start[] { WHEN, WHEN_OTHER, END }, //
+                    new String[] { "branches", "scope_terminator" });
+            applyMatchingRule = rules.applyMatchingRule();
+            applyScopeTerminator = rules.applyRule(Start.on("cobol", "scope_terminator"));
+            // evaluate.subjects <- {subject/$*}
+            setSubjects = setAttribute("subjects", path("<subject>/<>"), rules);
+        }
+
+        @Override
+        protected void before(Event event, Frame frame, RuleEngine engine) {
+            setSubjects.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // evaluate.branches <- {when|whenOther}
+            if (WHEN.equals(child) || WHEN_OTHER.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+            // evaluate.scope_terminator <- {end} as scope_terminator
+            if (END.equals(child))
+                assign(1, applyScopeTerminator, event, children, engine);
+        }
+    }
+
+    // exitStatement ...
+    private static final class ExitStatement extends CompiledRule {
+        private static final Start ENDPOINT = Start.on("cobol", "endpoint");
+
+        ExitStatement(RuleSet rules) {
+            super("exit", //
+                    new Start[] { ENDPOINT }, //
+                    new String[] { "endpoint" });
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // exit.endpoint <- {endpoint}
+            if (ENDPOINT.equals(child))
+                assignProgramText(0, event, children, engine);
+        }
+    }
+
+    // fileControlParagraph ...
+    private static final class FileControlParagraph extends CompiledRule {
+        private static final Start HEADER = Start.on("cobol", "header");
+
+        private final Effect applyMatchingRule;
+        private final Effect setEntries;
+
+        FileControlParagraph(RuleSet rules) {
+            super("file_control_paragraph", //
+                    new Start[] { HEADER }, //
+                    new String[] { "header" });
+            applyMatchingRule = rules.applyMatchingRule();
+            // file_control_paragraph.entries <- {fileControlEntry/selectStatement}
+            setEntries = setAttribute("entries", path("<fileControlEntry>/<selectStatement>"), rules);
+        }
+
+        @Override
+        protected void after(Event event, Frame frame, RuleEngine engine) {
+            setEntries.apply(event, frame, engine);
+            // [NUMLINES]
+            NUMLINES.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // file_control_paragraph.header <- {header}
+            if (HEADER.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // fdFileDescriptionEntry ...
+    private static final class FdFileDescriptionEntry extends CompiledRule {
+        private static final Start FILE_NAME = Start.on("cobol", "fileName");
+        private static final Start BLOCK_CONTAINS_CLAUSE = Start.on("cobol", "blockContainsClause");
+
+        private final Effect applyMatchingRule;
+
+        FdFileDescriptionEntry(RuleSet rules) {
+            super("file_description_entry", //
+                    new Start[] { FILE_NAME, BLOCK_CONTAINS_CLAUSE }, //
+                    new String[] { "name", "block_contains" });
+            applyMatchingRule = rules.applyMatchingRule();
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // file_description_entry.name <- {fileName}
+            if (FILE_NAME.equals(child))
+                assignProgramText(0, event, children, engine);
+            // file_description_entry.block_contains <- {blockContainsClause}
+            if (BLOCK_CONTAINS_CLAUSE.equals(child))
+                assign(1, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // fileSection ...
+    private static final class FileSection extends CompiledRule {
+        private static final Start HEADER = Start.on("cobol", "header");
+
+        private final Effect applyMatchingRule;
+        private final Effect effect0;
+
+        FileSection(RuleSet rules) {
+            super("file_section", //
+                    new Start[] { HEADER }, //
+                    new String[] { "header" });
+            applyMatchingRule = rules.applyMatchingRule();
+            // file_section.entries <- nested record structure {fileDescriptionEntry/$* | recordDescriptionEntry/$*}
+            effect0 = nestedRecordStructure("entries", or(path("<fileDescriptionEntry>/<>"), //
+                path("<recordDescriptionEntry>/<>")), rules);
+        }
+
+        @Override
+        protected void after(Event event, Frame frame, RuleEngine engine) {
+            effect0.apply(event, frame, engine);
+            // [NUMLINES]
+            NUMLINES.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // file_section.header <- {header}
+            if (HEADER.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // functionDefinition ...
+    private static final class FunctionDefinition extends CompiledRule {
+        private static final Start HEADER = Start.on("cobol", "header");
+        private static final Start IDENTIFICATION_DIVISION = Start.on("cobol", "identificationDivision");
+        private static final Start ENVIRONMENT_DIVISION = Start.on("cobol", "environmentDivision");
+        private static final Start DATA_DIVISION = Start.on("cobol", "dataDivision");
+        private static final Start PROCEDURE_DIVISION = Start.on("cobol", "procedureDivision");
+
+        private final Effect applyMatchingRule;
+
+        FunctionDefinition(RuleSet rules) {
+            super("function_definition", //
+                    new Start[] { HEADER, IDENTIFICATION_DIVISION, ENVIRONMENT_DIVISION, DATA_DIVISION, PROCEDURE_DIVISION }, //
+                    new String[] { "header", "identification_division", "environment_division", "data_division", "procedure_division" });
+            applyMatchingRule = rules.applyMatchingRule();
+        }
+
+        @Override
+        protected void after(Event event, Frame frame, RuleEngine engine) {
+            // [NUMLINES]
+            NUMLINES.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // function_definition.header <- {header}
+            if (HEADER.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+            // function_definition.identification_division <- {identificationDivision}
+            if (IDENTIFICATION_DIVISION.equals(child))
+                assign(1, applyMatchingRule, event, children, engine);
+            // function_definition.environment_division <- {environmentDivision}
+            if (ENVIRONMENT_DIVISION.equals(child))
+                assign(2, applyMatchingRule, event, children, engine);
+            // function_definition.data_division <- {dataDivision}
+            if (DATA_DIVISION.equals(child))
+                assign(3, applyMatchingRule, event, children, engine);
+            // function_definition.procedure_division <- {procedureDivision}
+            if (PROCEDURE_DIVISION.equals(child))
+                assign(4, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // function ...
+    private static final class Function extends CompiledRule {
+        private static final Start FUNCTION_NAME = Start.on("cobol", "functionName");
+        private static final Start ARGUMENT = Start.on("cobol", "argument");
+
+        private final Effect applyMatchingRule;
+
+        Function(RuleSet rules) {
+            super("function_identifier", //
+                    new Start[] { FUNCTION_NAME, ARGUMENT }, //
+                    new String[] { "name", "arguments" });
+            applyMatchingRule = rules.applyMatchingRule();
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // function_identifier.name <- {functionName}
+            if (FUNCTION_NAME.equals(child))
+                assignProgramText(0, event, children, engine);
+            // function_identifier.arguments <- {argument}
+            if (ARGUMENT.equals(child))
+                assign(1, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // goToStatement ...
+    private static final class GoToStatement extends CompiledRule {
+        private static final Start PROCEDURE_NAME = Start.on("cobol", "procedureName");
+        private static final Start DEPENDING_ON = Start.on("cobol", "dependingOn");
+
+        private final Effect applyMatchingRule;
+
+        GoToStatement(RuleSet rules) {
+            super("go_to", //
+                    new Start[] { PROCEDURE_NAME, DEPENDING_ON }, //
+                    new String[] { "targets", "depending_on" });
+            applyMatchingRule = rules.applyMatchingRule();
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // go_to.targets <- {procedureName}
+            if (PROCEDURE_NAME.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+            // go_to.depending_on <- {dependingOn}
+            if (DEPENDING_ON.equals(child))
+                assign(1, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // identificationDivision ...
+    private static final class IdentificationDivision extends CompiledRule {
+        private static final Start HEADER = Start.on("cobol", "header");
+
+        private final Effect applyMatchingRule;
+        private final Effect setName;
+
+        IdentificationDivision(RuleSet rules) {
+            super("identification_division", //
+                    new Start[] { HEADER }, //
+                    new String[] { "header" });
+            applyMatchingRule = rules.applyMatchingRule();
+            // identification_division.name <- {.//programName}
+            setName = setAttributeToProgramText("name", path("**/<programName>"));
+        }
+
+        @Override
+        protected void after(Event event, Frame frame, RuleEngine engine) {
+            setName.apply(event, frame, engine);
+            // [NUMLINES]
+            NUMLINES.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // identification_division.header <- {header}
+            if (HEADER.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // identifierAtom ...
+    private static final class IdentifierAtom extends CompiledRule {
+        private static final Start IDENTIFIER = Start.on("cobol", "identifier");
+
+        private final Effect applyMatchingRule;
+
+        IdentifierAtom(RuleSet rules) {
+            super("identifier_expr", //
+                    new Start[] { IDENTIFIER }, //
+                    new String[] { "identifier" });
+            applyMatchingRule = rules.applyMatchingRule();
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // identifier_expr.identifier <- {identifier}
+            if (IDENTIFIER.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // ifStatement ...
+    private static final class IfStatement extends CompiledRule {
+        private static final Start CONDITION = Start.on("cobol", "condition");
+        private static final Start THEN_BRANCH = Start.on("cobol", "thenBranch");
+        private static final Start ELSE_BRANCH = Start.on("cobol", "elseBranch");
+        private static final Start END = Start.on("cobol", "end");
+
+        private final Effect applyMatchingRule;
+        private final Effect applyScopeTerminator;
+
+        IfStatement(RuleSet rules) {
+            super("if_then_else", //
+                    new Start[] { CONDITION, THEN_BRANCH, ELSE_BRANCH, END }, //
+                    new String[] { "condition", "then", "else", "scope_terminator" });
+            applyMatchingRule = rules.applyMatchingRule();
+            applyScopeTerminator = rules.applyRule(Start.on("cobol", "scope_terminator"));
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // if_then_else.condition <- {condition}
+            if (CONDITION.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+            // if_then_else.then <- {thenBranch}
+            if (THEN_BRANCH.equals(child))
+                assign(1, applyMatchingRule, event, children, engine);
+            // if_then_else.else <- {elseBranch}
+            if (ELSE_BRANCH.equals(child))
+                assign(2, applyMatchingRule, event, children, engine);
+            // if_then_else.scope_terminator <- {end} as scope_terminator
+            if (END.equals(child))
+                assign(3, applyScopeTerminator, event, children, engine);
+        }
+    }
+
+    // indexedBy ...
+    private static final class IndexedBy extends CompiledRule {
+        private static final Start INDEX_NAME = Start.on("cobol", "indexName");
+
+        IndexedBy(RuleSet rules) {
+            super("indexed_by", //
+                    new Start[] { INDEX_NAME }, //
+                    new String[] { "indices" });
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // indexed_by.indices <- {indexName}
+            if (INDEX_NAME.equals(child))
+                assignProgramText(0, event, children, engine);
+        }
+    }
+
+    // ioSection ...
+    private static final class IoSection extends CompiledRule {
+        private static final Start HEADER = Start.on("cobol", "header");
+        private static final Start FILE_CONTROL_PARAGRAPH = Start.on("cobol", "fileControlParagraph");
+
+        private final Effect applyMatchingRule;
+
+        IoSection(RuleSet rules) {
+            super("io_section", //
+                    new Start[] { HEADER, FILE_CONTROL_PARAGRAPH }, //
+                    new String[] { "header", "file_control_paragraph" });
+            applyMatchingRule = rules.applyMatchingRule();
+        }
+
+        @Override
+        protected void after(Event event, Frame frame, RuleEngine engine) {
+            // [NUMLINES]
+            NUMLINES.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // io_section.header <- {header}
+            if (HEADER.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+            // io_section.file_control_paragraph <- {fileControlParagraph}
+            if (FILE_CONTROL_PARAGRAPH.equals(child))
+                assign(1, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // linkageSection ...
+    private static final class LinkageSection extends CompiledRule {
+        private static final Start HEADER = Start.on("cobol", "header");
+
+        private final Effect applyMatchingRule;
+        private final Effect effect0;
+
+        LinkageSection(RuleSet rules) {
+            super("linkage_section", //
+                    new Start[] { HEADER }, //
+                    new String[] { "header" });
+            applyMatchingRule = rules.applyMatchingRule();
+            // linkage_section.entries <- nested record structure {recordDescriptionEntry/$*}
+            effect0 = nestedRecordStructure("entries", path("<recordDescriptionEntry>/<>"), rules);
+        }
+
+        @Override
+        protected void after(Event event, Frame frame, RuleEngine engine) {
+            effect0.apply(event, frame, engine);
+            // [NUMLINES]
+            NUMLINES.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // linkage_section.header <- {header}
+            if (HEADER.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // localStorageSection ...
+    private static final class LocalStorageSection extends CompiledRule {
+        private static final Start HEADER = Start.on("cobol", "header");
+
+        private final Effect applyMatchingRule;
+        private final Effect effect0;
+
+        LocalStorageSection(RuleSet rules) {
+            super("local_storage_section", //
+                    new Start[] { HEADER }, //
+                    new String[] { "header" });
+            applyMatchingRule = rules.applyMatchingRule();
+            // local_storage_section.entries <- nested record structure {recordDescriptionEntry/$*}
+            effect0 = nestedRecordStructure("entries", path("<recordDescriptionEntry>/<>"), rules);
+        }
+
+        @Override
+        protected void after(Event event, Frame frame, RuleEngine engine) {
+            effect0.apply(event, frame, engine);
+            // [NUMLINES]
+            NUMLINES.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // local_storage_section.header <- {header}
+            if (HEADER.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // mergeStatement ...
+    private static final class MergeStatement extends CompiledRule {
+        private static final Start FILE_NAME = Start.on("cobol", "fileName");
+
+        private final Effect applyMatchingRule;
+        private final Effect setUsing;
+        private final Effect setGiving;
+
+        MergeStatement(RuleSet rules) {
+            super("merge", //
+                    new Start[] { FILE_NAME }, //
+                    new String[] { "file" });
+            applyMatchingRule = rules.applyMatchingRule();
+            // merge.using <- {using/fileName}
+            setUsing = setAttribute("using", path("<using>/<fileName>"), rules);
+            // merge.giving <- {giving/fileName}
+            setGiving = setAttribute("giving", path("<giving>/<fileName>"), rules);
+        }
+
+        @Override
+        protected void after(Event event, Frame frame, RuleEngine engine) {
+            setUsing.apply(event, frame, engine);
+            setGiving.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // merge.file <- {fileName}
+            if (FILE_NAME.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // moveStatement ...
+    private static final class MoveStatement extends CompiledRule {
+        private static final Start CORRESPONDING = Start.on("cobol", "corresponding");
+        private static final Start IDENTIFIER = Start.on("cobol", "identifier");
+
+        private final Effect applyMatchingRule;
+        private final Effect setInitialOperand;
+
+        MoveStatement(RuleSet rules) {
+            super("move", //
+                    new Start[] { CORRESPONDING, IDENTIFIER }, //
+                    new String[] { "corresponding", "to_operands" });
+            applyMatchingRule = rules.applyMatchingRule();
+            // move.initial_operand <- {sending/identifier}
+            setInitialOperand = setAttribute("initial_operand", path("<sending>/<identifier>"), rules);
+        }
+
+        @Override
+        protected void after(Event event, Frame frame, RuleEngine engine) {
+            setInitialOperand.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // move.corresponding <- {corresponding}
+            if (CORRESPONDING.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+            // move.to_operands <- {identifier}
+            if (IDENTIFIER.equals(child))
+                assign(1, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // multiplyStatement ...
+    private static final class MultiplyStatement extends CompiledRule {
+        private static final Start IDENTIFIER = Start.on("cobol", "identifier");
+        private static final Start ON_SIZE_ERROR = Start.on("cobol", "onSizeError");
+        private static final Start NOT_ON_SIZE_ERROR = Start.on("cobol", "notOnSizeError");
+        private static final Start END = Start.on("cobol", "end");
+
+        private final Effect applyMatchingRule;
+        private final Effect applyScopeTerminator;
+        private final Effect setByOperands;
+        private final Effect setGivingOperands;
+
+        MultiplyStatement(RuleSet rules) {
+            super("multiply", //
+                    new Start[] { IDENTIFIER, ON_SIZE_ERROR, NOT_ON_SIZE_ERROR, END }, //
+                    new String[] { "initial_operand", "on_size_error", "not_on_size_error", "scope_terminator" });
+            applyMatchingRule = rules.applyMatchingRule();
+            applyScopeTerminator = rules.applyRule(Start.on("cobol", "scope_terminator"));
+            // multiply.by_operands <- {by/identifier|by/qualifiedDataName}
+            setByOperands = setAttribute("by_operands", or(path("<by>/<identifier>"), //
+                path("<by>/<qualifiedDataName>")), rules);
+            // multiply.giving_operands <- {giving/identifier}
+            setGivingOperands = setAttribute("giving_operands", path("<giving>/<identifier>"), rules);
+        }
+
+        @Override
+        protected void after(Event event, Frame frame, RuleEngine engine) {
+            setByOperands.apply(event, frame, engine);
+            setGivingOperands.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // multiply.initial_operand <- {identifier}
+            if (IDENTIFIER.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+            // multiply.on_size_error <- {onSizeError}
+            if (ON_SIZE_ERROR.equals(child))
+                assign(1, applyMatchingRule, event, children, engine);
+            // multiply.not_on_size_error <- {notOnSizeError}
+            if (NOT_ON_SIZE_ERROR.equals(child))
+                assign(2, applyMatchingRule, event, children, engine);
+            // multiply.scope_terminator <- {end} as scope_terminator
+            if (END.equals(child))
+                assign(3, applyScopeTerminator, event, children, engine);
+        }
+    }
+
+    // numericAtom ...
+    private static final class NumericAtom extends CompiledRule {
+        private static final Start NUMERIC = Start.on("cobol", "numeric");
+
+        private final Effect applyMatchingRule;
+
+        NumericAtom(RuleSet rules) {
+            super("numeric_expr", //
+                    new Start[] { NUMERIC }, //
+                    new String[] { "literal" });
+            applyMatchingRule = rules.applyMatchingRule();
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // numeric_expr.literal <- {numeric}
+            if (NUMERIC.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // specialNameStatement/numericSignIs ...
+    private static final class SpecialNameStatementNumericSignIs extends CompiledRule {
+        private static final Start LEADING = Start.on("cobol", "leading");
+        private static final Start TRAILING = Start.on("cobol", "trailing");
+        private static final Start SEPARATE = Start.on("cobol", "separate");
+
+        SpecialNameStatementNumericSignIs(RuleSet rules) {
+            super("numeric_sign_clause", //
+                    new Start[] { LEADING, TRAILING, SEPARATE }, //
+                    new String[] { "position", "separate" });
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // numeric_sign_clause.position <- {leading|trailing}
+            if (LEADING.equals(child) || TRAILING.equals(child))
+                assignProgramText(0, event, children, engine);
+            // numeric_sign_clause.separate <- {separate}
+            if (SEPARATE.equals(child))
+                assignProgramText(1, event, children, engine);
+        }
+    }
+
+    // objectSection ...
+    private static final class ObjectSection extends CompiledRule {
+        private static final Start HEADER = Start.on("cobol", "header");
+
+        private final Effect applyMatchingRule;
+
+        ObjectSection(RuleSet rules) {
+            super("object_section", //
+                    new Start[] { HEADER }, //
+                    new String[] { "header" });
+            applyMatchingRule = rules.applyMatchingRule();
+        }
+
+        @Override
+        protected void after(Event event, Frame frame, RuleEngine engine) {
+            // [NUMLINES]
+            NUMLINES.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // object_section.header <- {header}
+            if (HEADER.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // objectStorageSection ...
+    private static final class ObjectStorageSection extends CompiledRule {
+        private static final Start HEADER = Start.on("cobol", "header");
+
+        private final Effect applyMatchingRule;
+
+        ObjectStorageSection(RuleSet rules) {
+            super("object_storage_section", //
+                    new Start[] { HEADER }, //
+                    new String[] { "header" });
+            applyMatchingRule = rules.applyMatchingRule();
+        }
+
+        @Override
+        protected void after(Event event, Frame frame, RuleEngine engine) {
+            // [NUMLINES]
+            NUMLINES.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // object_storage_section.header <- {header}
+            if (HEADER.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // occursClause ...
+    private static final class OccursClause extends CompiledRule {
+        private static final Start INDEXED_BY = Start.on("cobol", "indexedBy");
+
+        private final Effect applyMatchingRule;
+        private final Effect setMinimum;
+        private final Effect setMaximum;
+        private final Effect setObject;
+
+        OccursClause(RuleSet rules) {
+            super("occurs_clause", //
+                    new Start[] { INDEXED_BY }, //
+                    new String[] { "indexed_by" });
+            applyMatchingRule = rules.applyMatchingRule();
+            // occurs_clause.minimum <- {fixed/min/integer[integerLiteral]}
+            setMinimum = setAttributeToProgramText("minimum", path("<fixed>/<min>/<integer>[<integerLiteral>]"));
+            // occurs_clause.maximum <- {fixed/max/integer[integerLiteral]}
+            setMaximum = setAttributeToProgramText("maximum", path("<fixed>/<max>/<integer>[<integerLiteral>]"));
+            // occurs_clause.object <- {dependingOn/qualifiedDataName} as data_reference
+            setObject = setAttributeAs("object", path("<dependingOn>/<qualifiedDataName>"), rules, Start.on("cobol", "data_reference"));
+        }
+
+        @Override
+        protected void before(Event event, Frame frame, RuleEngine engine) {
+            setMinimum.apply(event, frame, engine);
+            setMaximum.apply(event, frame, engine);
+            setObject.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // occurs_clause.indexed_by <- {indexedBy}
+            if (INDEXED_BY.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // openStatement ...
+    private static final class OpenStatement extends CompiledRule {
+        private static final Start FILE_NAME = Start.on("cobol", "fileName");
+
+        private final Effect applyMatchingRule;
+
+        OpenStatement(RuleSet rules) {
+            super("open", //
+                    new Start[] { FILE_NAME }, //
+                    new String[] { "files" });
+            applyMatchingRule = rules.applyMatchingRule();
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // open.files <- {fileName}
+            if (FILE_NAME.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // other_stmt ...
+    private static final class OtherStmt extends CompiledRule {
+        private static final Start ON_EXCEPTION = Start.on("cobol", "onException");
+        private static final Start NOT_ON_EXCEPTION = Start.on("cobol", "notOnException");
+        private static final Start ON_SIZE_ERROR = Start.on("cobol", "onSizeError");
+        private static final Start NOT_ON_SIZE_ERROR = Start.on("cobol", "notOnSizeError");
+        private static final Start ON_OVERFLOW = Start.on("cobol", "onOverflow");
+        private static final Start NOT_ON_OVERFLOW = Start.on("cobol", "notOnOverflow");
+        private static final Start INVALID_KEY = Start.on("cobol", "invalidKey");
+        private static final Start NOT_INVALID_KEY = Start.on("cobol", "notInvalidKey");
+        private static final Start AT_END = Start.on("cobol", "atEnd");
+        private static final Start NOT_AT_END = Start.on("cobol", "notAtEnd");
+        private static final Start AT_END_OF_PAGE = Start.on("cobol", "atEndOfPage");
+        private static final Start NOT_AT_END_OF_PAGE = Start.on("cobol", "notAtEndOfPage");
+        private static final Start WITH_DATA = Start.on("cobol", "withData");
+        private static final Start NO_DATA = Start.on("cobol", "noData");
+
+        private final Effect applyMatchingRule;
+
+        OtherStmt(RuleSet rules) {
+            super("other_stmt", //
+                    new Start[] { ON_EXCEPTION, NOT_ON_EXCEPTION, ON_SIZE_ERROR, NOT_ON_SIZE_ERROR, ON_OVERFLOW, NOT_ON_OVERFLOW, INVALID_KEY, NOT_INVALID_KEY, AT_END, NOT_AT_END, AT_END_OF_PAGE, NOT_AT_END_OF_PAGE, WITH_DATA, NO_DATA }, //
+                    new String[] { "on_exception", "not_on_exception", "on_size_error", "not_on_size_error", "on_overflow", "not_on_overflow", "invalid_key", "not_invalid_key", "at_end", "not_at_end", "at_end_of_page", "not_at_end_of_page", "with_data", "no_data" });
+            applyMatchingRule = rules.applyMatchingRule();
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // other_stmt.on_exception <- {onException}
+            if (ON_EXCEPTION.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+            // other_stmt.not_on_exception <- {notOnException}
+            if (NOT_ON_EXCEPTION.equals(child))
+                assign(1, applyMatchingRule, event, children, engine);
+            // other_stmt.on_size_error <- {onSizeError}
+            if (ON_SIZE_ERROR.equals(child))
+                assign(2, applyMatchingRule, event, children, engine);
+            // other_stmt.not_on_size_error <- {notOnSizeError}
+            if (NOT_ON_SIZE_ERROR.equals(child))
+                assign(3, applyMatchingRule, event, children, engine);
+            // other_stmt.on_overflow <- {onOverflow}
+            if (ON_OVERFLOW.equals(child))
+                assign(4, applyMatchingRule, event, children, engine);
+            // other_stmt.not_on_overflow <- {notOnOverflow}
+            if (NOT_ON_OVERFLOW.equals(child))
+                assign(5, applyMatchingRule, event, children, engine);
+            // other_stmt.invalid_key <- {invalidKey}
+            if (INVALID_KEY.equals(child))
+                assign(6, applyMatchingRule, event, children, engine);
+            // other_stmt.not_invalid_key <- {notInvalidKey}
+            if (NOT_INVALID_KEY.equals(child))
+                assign(7, applyMatchingRule, event, children, engine);
+            // other_stmt.at_end <- {atEnd}
+            if (AT_END.equals(child))
+                assign(8, applyMatchingRule, event, children, engine);
+            // other_stmt.not_at_end <- {notAtEnd}
+            if (NOT_AT_END.equals(child))
+                assign(9, applyMatchingRule, event, children, engine);
+            // other_stmt.at_end_of_page <- {atEndOfPage}
+            if (AT_END_OF_PAGE.equals(child))
+                assign(10, applyMatchingRule, event, children, engine);
+            // other_stmt.not_at_end_of_page <- {notAtEndOfPage}
+            if (NOT_AT_END_OF_PAGE.equals(child))
+                assign(11, applyMatchingRule, event, children, engine);
+            // other_stmt.with_data <- {withData}
+            if (WITH_DATA.equals(child))
+                assign(12, applyMatchingRule, event, children, engine);
+            // other_stmt.no_data <- {noData}
+            if (NO_DATA.equals(child))
+                assign(13, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // paragraph ...
+    private static final class Paragraph extends CompiledRule {
+        private static final Start HEADER = Start.on("cobol", "header");
+        private static final Start PARAGRAPH_NAME = Start.on("cobol", "paragraphName");
+        private static final Start SENTENCE = Start.on("cobol", "sentence");
+
+        private final Effect applyMatchingRule;
+        private final Effect setExitNode;
+
+        Paragraph(RuleSet rules) {
+            super("paragraph", //
+                    new Start[] { HEADER, PARAGRAPH_NAME, SENTENCE }, //
+                    new String[] { "header", "name", "sentences" });
+            applyMatchingRule = rules.applyMatchingRule();
+            // paragraph.exit_node <- {(.//exit_node)[last()]}
+            setExitNode = setAttribute("exit_node", isLast(Start.on("cflow", "exit_node")), rules);
+        }
+
+        @Override
+        protected void after(Event event, Frame frame, RuleEngine engine) {
+            setExitNode.apply(event, frame, engine);
+            // [NUMLINES]
+            NUMLINES.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // paragraph.header <- {header}
+            if (HEADER.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+            // paragraph.name <- {paragraphName}
+            if (PARAGRAPH_NAME.equals(child))
+                assignProgramText(1, event, children, engine);
+            // paragraph.sentences <- {sentence}
+            if (SENTENCE.equals(child))
+                assign(2, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // procedureDivision ...
+    private static final class ProcedureDivision extends CompiledRule {
+        private static final Start HEADER = Start.on("cobol", "header");
+        private static final Start DECLARATIVES = Start.on("cobol", "declaratives");
+        private static final Start SENTENCE = Start.on("cobol", "sentence");
+        private static final Start PARAGRAPH = Start.on("cobol", "paragraph");
+        private static final Start SECTION = Start.on("cobol", "section");
+
+        private final Effect applyMatchingRule;
+        private final Effect setExitNode;
+
+        ProcedureDivision(RuleSet rules) {
+            super("procedure_division", //
+                    new Start[] { HEADER, DECLARATIVES, SENTENCE, PARAGRAPH, SECTION }, //
+                    new String[] { "header", "declaratives", "sentences", "paragraphs", "sections" });
+            applyMatchingRule = rules.applyMatchingRule();
+            // procedure_division.exit_node <- {(.//exit_node)[last()]}
+            setExitNode = setAttribute("exit_node", isLast(Start.on("cflow", "exit_node")), rules);
+        }
+
+        @Override
+        protected void after(Event event, Frame frame, RuleEngine engine) {
+            setExitNode.apply(event, frame, engine);
+            // [NUMLINES]
+            NUMLINES.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // procedure_division.header <- {header}
+            if (HEADER.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+            // procedure_division.declaratives <- {declaratives}
+            if (DECLARATIVES.equals(child))
+                assign(1, applyMatchingRule, event, children, engine);
+            // procedure_division.sentences <- {sentence}
+            if (SENTENCE.equals(child))
+                assign(2, applyMatchingRule, event, children, engine);
+            // procedure_division.paragraphs <- {paragraph}
+            if (PARAGRAPH.equals(child))
+                assign(3, applyMatchingRule, event, children, engine);
+            // procedure_division.sections <- {section}
+            if (SECTION.equals(child))
+                assign(4, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // procedureDivision/header/using/byOutput/arg ...
+    private static final class ProcedureDivisionHeaderUsingByOutputArg extends CompiledRule {
+        private static final Start OPTIONAL = Start.on("cobol", "optional");
+
+        private final Effect applyMatchingRule;
+        private final Effect setValue;
+
+        ProcedureDivisionHeaderUsingByOutputArg(RuleSet rules) {
+            super("procedure_division_parameter_by_output", //
+                    new Start[] { OPTIONAL }, //
+                    new String[] { "optional" });
+            applyMatchingRule = rules.applyMatchingRule();
+            // procedure_division_parameter_by_output.value <- {value[dataName]} as qualifiedDataName
+            setValue = setAttributeAs("value", path("<value>[<dataName>]"), rules, Start.on("cobol", "qualifiedDataName"));
+        }
+
+        @Override
+        protected void after(Event event, Frame frame, RuleEngine engine) {
+            setValue.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // procedure_division_parameter_by_output.optional <- {optional}
+            if (OPTIONAL.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // procedureDivision/header/using/byReference/arg ...
+    private static final class ProcedureDivisionHeaderUsingByReferenceArg extends CompiledRule {
+        private static final Start OPTIONAL = Start.on("cobol", "optional");
+
+        private final Effect applyMatchingRule;
+        private final Effect setValue;
+
+        ProcedureDivisionHeaderUsingByReferenceArg(RuleSet rules) {
+            super("procedure_division_parameter_by_reference", //
+                    new Start[] { OPTIONAL }, //
+                    new String[] { "optional" });
+            applyMatchingRule = rules.applyMatchingRule();
+            // procedure_division_parameter_by_reference.value <- {value[dataName]} as qualifiedDataName
+            setValue = setAttributeAs("value", path("<value>[<dataName>]"), rules, Start.on("cobol", "qualifiedDataName"));
+        }
+
+        @Override
+        protected void after(Event event, Frame frame, RuleEngine engine) {
+            setValue.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // procedure_division_parameter_by_reference.optional <- {optional}
+            if (OPTIONAL.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // procedureDivision/header/using/byValue/arg ...
+    private static final class ProcedureDivisionHeaderUsingByValueArg extends CompiledRule {
+        private static final Start OPTIONAL = Start.on("cobol", "optional");
+
+        private final Effect applyMatchingRule;
+        private final Effect setValue;
+
+        ProcedureDivisionHeaderUsingByValueArg(RuleSet rules) {
+            super("procedure_division_parameter_by_value", //
+                    new Start[] { OPTIONAL }, //
+                    new String[] { "optional" });
+            applyMatchingRule = rules.applyMatchingRule();
+            // procedure_division_parameter_by_value.value <- {value[dataName]} as qualifiedDataName
+            setValue = setAttributeAs("value", path("<value>[<dataName>]"), rules, Start.on("cobol", "qualifiedDataName"));
+        }
+
+        @Override
+        protected void after(Event event, Frame frame, RuleEngine engine) {
+            setValue.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // procedure_division_parameter_by_value.optional <- {optional}
+            if (OPTIONAL.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // procedureName ...
+    private static final class ProcedureName extends CompiledRule {
+        private static final Start NAME = Start.on("cobol", "name");
+        private static final Start SECTION_NAME = Start.on("cobol", "sectionName");
+
+        ProcedureName(RuleSet rules) {
+            super("procedure_reference", //
+                    new Start[] { NAME, SECTION_NAME }, //
+                    new String[] { "name", "qualification" });
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // procedure_reference.name <- {name}
+            if (NAME.equals(child))
+                assignProgramText(0, event, children, engine);
+            // procedure_reference.qualification <- {sectionName}
+            if (SECTION_NAME.equals(child))
+                assignProgramText(1, event, children, engine);
+        }
+    }
+
+    // programDefinition ...
+    private static final class ProgramDefinition extends CompiledRule {
+        private static final Start HEADER = Start.on("cobol", "header");
+        private static final Start IDENTIFICATION_DIVISION = Start.on("cobol", "identificationDivision");
+        private static final Start ENVIRONMENT_DIVISION = Start.on("cobol", "environmentDivision");
+        private static final Start DATA_DIVISION = Start.on("cobol", "dataDivision");
+        private static final Start PROCEDURE_DIVISION = Start.on("cobol", "procedureDivision");
+
+        private final Effect applyMatchingRule;
+        private final Effect setSourceUnits;
+
+        ProgramDefinition(RuleSet rules) {
+            super("program_definition", //
+                    new Start[] { HEADER, IDENTIFICATION_DIVISION, ENVIRONMENT_DIVISION, DATA_DIVISION, PROCEDURE_DIVISION }, //
+                    new String[] { "header", "identification_division", "environment_division", "data_division", "procedure_division" });
+            applyMatchingRule = rules.applyMatchingRule();
+            // program_definition.source_units <- {sourceUnit/$*} default source_unit
+            setSourceUnits = setAttribute("source_units", path("<sourceUnit>/<>"), rules, Start.on("cobol", "source_unit"));
+        }
+
+        @Override
+        protected void after(Event event, Frame frame, RuleEngine engine) {
+            setSourceUnits.apply(event, frame, engine);
+            // [NUMLINES]
+            NUMLINES.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // program_definition.header <- {header}
+            if (HEADER.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+            // program_definition.identification_division <- {identificationDivision}
+            if (IDENTIFICATION_DIVISION.equals(child))
+                assign(1, applyMatchingRule, event, children, engine);
+            // program_definition.environment_division <- {environmentDivision}
+            if (ENVIRONMENT_DIVISION.equals(child))
+                assign(2, applyMatchingRule, event, children, engine);
+            // program_definition.data_division <- {dataDivision}
+            if (DATA_DIVISION.equals(child))
+                assign(3, applyMatchingRule, event, children, engine);
+            // program_definition.procedure_division <- {procedureDivision}
+            if (PROCEDURE_DIVISION.equals(child))
+                assign(4, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // qualifiedDataName ...
+    private static final class QualifiedDataName extends CompiledRule {
+        private static final Start SUBSCRIPT = Start.on("cobol", "subscript");
+
+        private final Effect applyMatchingRule;
+        private final Effect setReference;
+        private final Effect setReferenceModifier;
+
+        QualifiedDataName(RuleSet rules) {
+            super("qualified_data_name_with_subscripts", //
+                    new Start[] { SUBSCRIPT }, //
+                    new String[] { "subscripts" });
+            applyMatchingRule = rules.applyMatchingRule();
+            // qualified_data_name_with_subscripts.reference <- $. as data_reference
+            setReference = sub(all(rules.applyRule(Start.on("cobol", "data_reference")), //
+                atEnd(assignTo("reference"))));
+            // qualified_data_name_with_subscripts.reference_modifier <- {../referenceModifier}
+            setReferenceModifier = setAttribute("reference_modifier", path("../<referenceModifier>"), rules);
+        }
+
+        @Override
+        protected void before(Event event, Frame frame, RuleEngine engine) {
+            setReference.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void after(Event event, Frame frame, RuleEngine engine) {
+            setReferenceModifier.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // qualified_data_name_with_subscripts.subscripts <- {subscript}
+            if (SUBSCRIPT.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // readStatement ...
+    private static final class ReadStatement extends CompiledRule {
+        private static final Start FILE_NAME = Start.on("cobol", "fileName");
+        private static final Start INVALID_KEY = Start.on("cobol", "invalidKey");
+        private static final Start NOT_INVALID_KEY = Start.on("cobol", "notInvalidKey");
+        private static final Start AT_END = Start.on("cobol", "atEnd");
+        private static final Start NOT_AT_END = Start.on("cobol", "notAtEnd");
+        private static final Start END = Start.on("cobol", "end");
+
+        private final Effect applyMatchingRule;
+        private final Effect applyScopeTerminator;
+
+        ReadStatement(RuleSet rules) {
+            super("read", //
+                    new Start[] { FILE_NAME, INVALID_KEY, NOT_INVALID_KEY, AT_END, NOT_AT_END, END }, //
+                    new String[] { "file", "invalid_key", "not_invalid_key", "at_end", "not_at_end", "scope_terminator" });
+            applyMatchingRule = rules.applyMatchingRule();
+            applyScopeTerminator = rules.applyRule(Start.on("cobol", "scope_terminator"));
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // read.file <- {fileName}
+            if (FILE_NAME.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+            // read.invalid_key <- {invalidKey}
+            if (INVALID_KEY.equals(child))
+                assign(1, applyMatchingRule, event, children, engine);
+            // read.not_invalid_key <- {notInvalidKey}
+            if (NOT_INVALID_KEY.equals(child))
+                assign(2, applyMatchingRule, event, children, engine);
+            // read.at_end <- {atEnd}
+            if (AT_END.equals(child))
+                assign(3, applyMatchingRule, event, children, engine);
+            // read.not_at_end <- {notAtEnd}
+            if (NOT_AT_END.equals(child))
+                assign(4, applyMatchingRule, event, children, engine);
+            // read.scope_terminator <- {end} as scope_terminator
+            if (END.equals(child))
+                assign(5, applyScopeTerminator, event, children, engine);
+        }
+    }
+
+    // relativeSubscript ...
+    private static final class RelativeSubscript extends CompiledRule {
+        private static final Start INTEGER = Start.on("cobol", "integer");
+
+        private final Effect setReference;
+
+        RelativeSubscript(RuleSet rules) {
+            super("relative_subscript", //
+                    new Start[] { INTEGER }, //
+                    new String[] { "modifier" });
+            // relative_subscript.reference <- {identifier/identifier_format2/qualifiedDataName} as data_reference
+            setReference = setAttributeAs("reference", path("<identifier>/<identifier_format2>/<qualifiedDataName>"), rules, Start.on("cobol", "data_reference"));
+        }
+
+        @Override
+        protected void before(Event event, Frame frame, RuleEngine engine) {
+            setReference.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // relative_subscript.modifier <- {integer}
+            if (INTEGER.equals(child))
+                assignProgramText(0, event, children, engine);
+        }
+    }
+
+    // reportDescriptionEntry ...
+    private static final class ReportDescriptionEntry extends CompiledRule {
+        private static final Start REPORT_NAME = Start.on("cobol", "reportName");
+
+        ReportDescriptionEntry(RuleSet rules) {
+            super("report_description_entry", //
+                    new Start[] { REPORT_NAME }, //
+                    new String[] { "name" });
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // report_description_entry.name <- {reportName}
+            if (REPORT_NAME.equals(child))
+                assignProgramText(0, event, children, engine);
+        }
+    }
+
+    // reportGroupDescriptionEntry ...
+    private static final class ReportGroupDescriptionEntry extends CompiledRule {
+        private static final Start DATA_NAME = Start.on("cobol", "dataName");
+        private static final Start LEVEL_NUMBER = Start.on("cobol", "levelNumber");
+        private static final Start PICTURE_CLAUSE = Start.on("cobol", "pictureClause");
+        private static final Start OCCURS_CLAUSE = Start.on("cobol", "occursClause");
+
+        private final Effect applyMatchingRule;
+
+        ReportGroupDescriptionEntry(RuleSet rules) {
+            super("report_group_description_entry", //
+                    new Start[] { DATA_NAME, LEVEL_NUMBER, PICTURE_CLAUSE, OCCURS_CLAUSE }, //
+                    new String[] { "name", "level_number", "picture", "occurs" });
+            applyMatchingRule = rules.applyMatchingRule();
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // report_group_description_entry.name <- {dataName}
+            if (DATA_NAME.equals(child))
+                assignProgramText(0, event, children, engine);
+            // report_group_description_entry.level_number <- {levelNumber}
+            if (LEVEL_NUMBER.equals(child))
+                assignProgramText(1, event, children, engine);
+            // report_group_description_entry.picture <- {pictureClause}
+            if (PICTURE_CLAUSE.equals(child))
+                assign(2, applyMatchingRule, event, children, engine);
+            // report_group_description_entry.occurs <- {occursClause}
+            if (OCCURS_CLAUSE.equals(child))
+                assign(3, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // reportSection ...
+    private static final class ReportSection extends CompiledRule {
+        private static final Start HEADER = Start.on("cobol", "header");
+
+        private final Effect applyMatchingRule;
+        private final Effect effect0;
+
+        ReportSection(RuleSet rules) {
+            super("report_section", //
+                    new Start[] { HEADER }, //
+                    new String[] { "header" });
+            applyMatchingRule = rules.applyMatchingRule();
+            // report_section.entries <- nested record structure {reportDescriptionEntry | reportGroupDescriptionEntry}
+            effect0 = nestedRecordStructure("entries", or(path("<reportDescriptionEntry>"), //
+                path("<reportGroupDescriptionEntry>")), rules);
+        }
+
+        @Override
+        protected void after(Event event, Frame frame, RuleEngine engine) {
+            effect0.apply(event, frame, engine);
+            // [NUMLINES]
+            NUMLINES.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // report_section.header <- {header}
+            if (HEADER.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // returnStatement ...
+    private static final class ReturnStatement extends CompiledRule {
+        private static final Start FILE_NAME = Start.on("cobol", "fileName");
+        private static final Start AT_END = Start.on("cobol", "atEnd");
+        private static final Start NOT_AT_END = Start.on("cobol", "notAtEnd");
+        private static final Start END = Start.on("cobol", "end");
+
+        private final Effect applyMatchingRule;
+        private final Effect applyScopeTerminator;
+
+        ReturnStatement(RuleSet rules) {
+            super("return_stmt", //
+                    new Start[] { FILE_NAME, AT_END, NOT_AT_END, END }, //
+                    new String[] { "file", "at_end", "not_at_end", "scope_terminator" });
+            applyMatchingRule = rules.applyMatchingRule();
+            applyScopeTerminator = rules.applyRule(Start.on("cobol", "scope_terminator"));
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // return_stmt.file <- {fileName}
+            if (FILE_NAME.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+            // return_stmt.at_end <- {atEnd}
+            if (AT_END.equals(child))
+                assign(1, applyMatchingRule, event, children, engine);
+            // return_stmt.not_at_end <- {notAtEnd}
+            if (NOT_AT_END.equals(child))
+                assign(2, applyMatchingRule, event, children, engine);
+            // return_stmt.scope_terminator <- {end} as scope_terminator
+            if (END.equals(child))
+                assign(3, applyScopeTerminator, event, children, engine);
+        }
+    }
+
+    // rewriteStatement ...
+    private static final class RewriteStatement extends CompiledRule {
+        private static final Start FILE_NAME = Start.on("cobol", "fileName");
+        private static final Start INVALID_KEY = Start.on("cobol", "invalidKey");
+        private static final Start NOT_INVALID_KEY = Start.on("cobol", "notInvalidKey");
+        private static final Start END = Start.on("cobol", "end");
+
+        private final Effect applyMatchingRule;
+        private final Effect applyScopeTerminator;
+        private final Effect setRecord;
+
+        RewriteStatement(RuleSet rules) {
+            super("rewrite", //
+                    new Start[] { FILE_NAME, INVALID_KEY, NOT_INVALID_KEY, END }, //
+                    new String[] { "file", "invalid_key", "not_invalid_key", "scope_terminator" });
+            applyMatchingRule = rules.applyMatchingRule();
+            applyScopeTerminator = rules.applyRule(Start.on("cobol", "scope_terminator"));
+            // rewrite.record <- {recordName/identifier}
+            setRecord = setAttribute("record", path("<recordName>/<identifier>"), rules);
+        }
+
+        @Override
+        protected void after(Event event, Frame frame, RuleEngine engine) {
+            setRecord.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // rewrite.file <- {fileName}
+            if (FILE_NAME.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+            // rewrite.invalid_key <- {invalidKey}
+            if (INVALID_KEY.equals(child))
+                assign(1, applyMatchingRule, event, children, engine);
+            // rewrite.not_invalid_key <- {notInvalidKey}
+            if (NOT_INVALID_KEY.equals(child))
+                assign(2, applyMatchingRule, event, children, engine);
+            // rewrite.scope_terminator <- {end} as scope_terminator
+            if (END.equals(child))
+                assign(3, applyScopeTerminator, event, children, engine);
+        }
+    }
+
+    // screenDescriptionEntry ...
+    private static final class ScreenDescriptionEntry extends CompiledRule {
+        private static final Start SCREEN_NAME = Start.on("cobol", "screenName");
+        private static final Start LEVEL_NUMBER = Start.on("cobol", "levelNumber");
+        private static final Start PICTURE_CLAUSE = Start.on("cobol", "pictureClause");
+        private static final Start USAGE_CLAUSE = Start.on("cobol", "usageClause");
+        private static final Start OCCURS_CLAUSE = Start.on("cobol", "occursClause");
+
+        private final Effect applyMatchingRule;
+
+        ScreenDescriptionEntry(RuleSet rules) {
+            super("screen_description_entry", //
+                    new Start[] { SCREEN_NAME, LEVEL_NUMBER, PICTURE_CLAUSE, USAGE_CLAUSE, OCCURS_CLAUSE }, //
+                    new String[] { "name", "level_number", "picture", "usage", "occurs" });
+            applyMatchingRule = rules.applyMatchingRule();
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // screen_description_entry.name <- {screenName}
+            if (SCREEN_NAME.equals(child))
+                assignProgramText(0, event, children, engine);
+            // screen_description_entry.level_number <- {levelNumber}
+            if (LEVEL_NUMBER.equals(child))
+                assignProgramText(1, event, children, engine);
+            // screen_description_entry.picture <- {pictureClause}
+            if (PICTURE_CLAUSE.equals(child))
+                assign(2, applyMatchingRule, event, children, engine);
+            // screen_description_entry.usage <- {usageClause}
+            if (USAGE_CLAUSE.equals(child))
+                assign(3, applyMatchingRule, event, children, engine);
+            // screen_description_entry.occurs <- {occursClause}
+            if (OCCURS_CLAUSE.equals(child))
+                assign(4, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // screenSection ...
+    private static final class ScreenSection extends CompiledRule {
+        private static final Start HEADER = Start.on("cobol", "header");
+
+        private final Effect applyMatchingRule;
+        private final Effect effect0;
+
+        ScreenSection(RuleSet rules) {
+            super("screen_section", //
+                    new Start[] { HEADER }, //
+                    new String[] { "header" });
+            applyMatchingRule = rules.applyMatchingRule();
+            // screen_section.entries <- nested record structure {screenDescriptionEntry}
+            effect0 = nestedRecordStructure("entries", path("<screenDescriptionEntry>"), rules);
+        }
+
+        @Override
+        protected void after(Event event, Frame frame, RuleEngine engine) {
+            effect0.apply(event, frame, engine);
+            // [NUMLINES]
+            NUMLINES.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // screen_section.header <- {header}
+            if (HEADER.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // searchStatement ...
+    private static final class SearchStatement extends CompiledRule {
+        private static final Start AT_END = Start.on("cobol", "atEnd");
+        private static final Start WHEN = Start.on("cobol", "when");
+        private static final Start END = Start.on("cobol", "end");
+
+        private final Effect applyMatchingRule;
+        private final Effect applyScopeTerminator;
+
+        SearchStatement(RuleSet rules) {
+            super("search", //
+                    new Start[] { AT_END, WHEN, END }, //
+                    new String[] { "branches", "scope_terminator" });
+            applyMatchingRule = rules.applyMatchingRule();
+            applyScopeTerminator = rules.applyRule(Start.on("cobol", "scope_terminator"));
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // search.branches <- {atEnd|when}
+            if (AT_END.equals(child) || WHEN.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+            // search.scope_terminator <- {end} as scope_terminator
+            if (END.equals(child))
+                assign(1, applyScopeTerminator, event, children, engine);
+        }
+    }
+
+    // section ...
+    private static final class Section extends CompiledRule {
+        private static final Start HEADER = Start.on("cobol", "header");
+        private static final Start SECTION_NAME = Start.on("cobol", "sectionName");
+        private static final Start SENTENCE = Start.on("cobol", "sentence");
+        private static final Start PARAGRAPH = Start.on("cobol", "paragraph");
+
+        private final Effect applyMatchingRule;
+        private final Effect setExitNode;
+
+        Section(RuleSet rules) {
+            super("section", //
+                    new Start[] { HEADER, SECTION_NAME, SENTENCE, PARAGRAPH }, //
+                    new String[] { "header", "name", "sentences", "paragraphs" });
+            applyMatchingRule = rules.applyMatchingRule();
+            // section.exit_node <- {(.//exit_node)[last()]}
+            setExitNode = setAttribute("exit_node", isLast(Start.on("cflow", "exit_node")), rules);
+        }
+
+        @Override
+        protected void after(Event event, Frame frame, RuleEngine engine) {
+            setExitNode.apply(event, frame, engine);
+            // [NUMLINES]
+            NUMLINES.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // section.header <- {header}
+            if (HEADER.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+            // section.name <- {sectionName}
+            if (SECTION_NAME.equals(child))
+                assignProgramText(1, event, children, engine);
+            // section.sentences <- {sentence}
+            if (SENTENCE.equals(child))
+                assign(2, applyMatchingRule, event, children, engine);
+            // section.paragraphs <- {paragraph}
+            if (PARAGRAPH.equals(child))
+                assign(3, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // sentence ...
+    private static final class Sentence extends CompiledRule {
+        private static final Start HEADER = Start.on("cobol", "header");
+
+        private final Effect applyMatchingRule;
+        private final Effect setStatements;
+
+        Sentence(RuleSet rules) {
+            super("sentence", //
+                    new Start[] { HEADER }, //
+                    new String[] { "header" });
+            applyMatchingRule = rules.applyMatchingRule();
+            // sentence.statements <- {statement|nestedStatements/statement|compilerStatement} default other_stmt
+            setStatements = setAttribute("statements", or(path("<statement>"), //
+                path("<nestedStatements>/<statement>"), //
+                path("<compilerStatement>")), rules, Start.on("cobol", "other_stmt"));
+        }
+
+        @Override
+        protected void after(Event event, Frame frame, RuleEngine engine) {
+            setStatements.apply(event, frame, engine);
+            // [NUMLINES]
+            NUMLINES.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // sentence.header <- {header}
+            if (HEADER.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // signClause ...
+    private static final class SignClause extends CompiledRule {
+        private static final Start LEADING = Start.on("cobol", "leading");
+        private static final Start TRAILING = Start.on("cobol", "trailing");
+        private static final Start SEPARATE = Start.on("cobol", "separate");
+
+        SignClause(RuleSet rules) {
+            super("sign_clause", //
+                    new Start[] { LEADING, TRAILING, SEPARATE }, //
+                    new String[] { "position", "separate" });
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // sign_clause.position <- {leading|trailing}
+            if (LEADING.equals(child) || TRAILING.equals(child))
+                assignProgramText(0, event, children, engine);
+            // sign_clause.separate <- {separate}
+            if (SEPARATE.equals(child))
+                assignProgramText(1, event, children, engine);
+        }
+    }
+
+    // sortStatement ...
+    private static final class SortStatement extends CompiledRule {
+        private static final Start FILE_NAME = Start.on("cobol", "fileName");
+
+        private final Effect applyMatchingRule;
+        private final Effect setUsing;
+        private final Effect setGiving;
+
+        SortStatement(RuleSet rules) {
+            super("sort", //
+                    new Start[] { FILE_NAME }, //
+                    new String[] { "file" });
+            applyMatchingRule = rules.applyMatchingRule();
+            // sort.using <- {using/fileName}
+            setUsing = setAttribute("using", path("<using>/<fileName>"), rules);
+            // sort.giving <- {giving/fileName}
+            setGiving = setAttribute("giving", path("<giving>/<fileName>"), rules);
+        }
+
+        @Override
+        protected void after(Event event, Frame frame, RuleEngine engine) {
+            setUsing.apply(event, frame, engine);
+            setGiving.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // sort.file <- {fileName}
+            if (FILE_NAME.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // sdFileDescriptionEntry ...
+    private static final class SdFileDescriptionEntry extends CompiledRule {
+        private static final Start FILE_NAME = Start.on("cobol", "fileName");
+        private static final Start BLOCK_CONTAINS_CLAUSE = Start.on("cobol", "blockContainsClause");
+
+        private final Effect applyMatchingRule;
+
+        SdFileDescriptionEntry(RuleSet rules) {
+            super("sort_merge_file_description_entry", //
+                    new Start[] { FILE_NAME, BLOCK_CONTAINS_CLAUSE }, //
+                    new String[] { "name", "block_contains" });
+            applyMatchingRule = rules.applyMatchingRule();
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // sort_merge_file_description_entry.name <- {fileName}
+            if (FILE_NAME.equals(child))
+                assignProgramText(0, event, children, engine);
+            // sort_merge_file_description_entry.block_contains <- {blockContainsClause}
+            if (BLOCK_CONTAINS_CLAUSE.equals(child))
+                assign(1, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // directive/iso/instruction/source ...
+    private static final class CobolDirectivesDirectiveIsoInstructionSource extends CompiledRule {
+        private static final Start COBOL_DIRECTIVES_FORMAT = Start.on("cobol-directives", "format");
+
+        CobolDirectivesDirectiveIsoInstructionSource(RuleSet rules) {
+            super("source_format_directive", //
+                    new Start[] { COBOL_DIRECTIVES_FORMAT }, //
+                    new String[] { "format" });
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // source_format_directive.format <- {format}
+            if (COBOL_DIRECTIVES_FORMAT.equals(child))
+                assignProgramText(0, event, children, engine);
+        }
+    }
+
+    // source_unit ...
+    private static final class SourceUnit extends CompiledRule {
+        private static final Start HEADER = Start.on("cobol", "header");
+
+        private final Effect applyMatchingRule;
+        private final Effect setSourceUnits;
+
+        SourceUnit(RuleSet rules) {
+            super("source_unit", //
+                    new Start[] { HEADER }, //
+                    new String[] { "header" });
+            applyMatchingRule = rules.applyMatchingRule();
+            // source_unit.source_units <- {sourceUnit/$*} default source_unit
+            setSourceUnits = setAttribute("source_units", path("<sourceUnit>/<>"), rules, Start.on("cobol", "source_unit"));
+        }
+
+        @Override
+        protected void after(Event event, Frame frame, RuleEngine engine) {
+            setSourceUnits.apply(event, frame, engine);
+            // [NUMLINES]
+            NUMLINES.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // source_unit.header <- {header}
+            if (HEADER.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // specialNamesParagraph ...
+    private static final class SpecialNamesParagraph extends CompiledRule {
+        private static final Start HEADER = Start.on("cobol", "header");
+
+        private final Effect applyMatchingRule;
+        private final Effect setNumericSign;
+
+        SpecialNamesParagraph(RuleSet rules) {
+            super("special_names_paragraph", //
+                    new Start[] { HEADER }, //
+                    new String[] { "header" });
+            applyMatchingRule = rules.applyMatchingRule();
+            // special_names_paragraph.numeric_sign <- {specialNameStatement/numericSignIs}
+            setNumericSign = setAttribute("numeric_sign", path("<specialNameStatement>/<numericSignIs>"), rules);
+        }
+
+        @Override
+        protected void after(Event event, Frame frame, RuleEngine engine) {
+            setNumericSign.apply(event, frame, engine);
+            // [NUMLINES]
+            NUMLINES.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // special_names_paragraph.header <- {header}
+            if (HEADER.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // <SQL> alterStatement ...
+    private static final class SqlAlterStatement extends CompiledRule {
+        private static final Start SQL_SUBJECT = Start.on("sql", "subject");
+
+        SqlAlterStatement(RuleSet rules) {
+            super("sql_alter_stmt", //
+                    new Start[] { SQL_SUBJECT }, //
+                    new String[] { "subject" });
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // sql_alter_stmt.subject <- {subject}
+            if (SQL_SUBJECT.equals(child))
+                assignProgramText(0, event, children, engine);
+        }
+    }
+
+    // <SQL> closeStatement ...
+    private static final class SqlCloseStatement extends CompiledRule {
+        private static final Start SQL_CURSOR_NAME = Start.on("sql", "cursorName");
+
+        private final Effect applyMatchingRule;
+
+        SqlCloseStatement(RuleSet rules) {
+            super("sql_close_stmt", //
+                    new Start[] { SQL_CURSOR_NAME }, //
+                    new String[] { "cursor" });
+            applyMatchingRule = rules.applyMatchingRule();
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // sql_close_stmt.cursor <- {cursorName}
+            if (SQL_CURSOR_NAME.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // <SQL> comparison ...
+    private static final class SqlComparison extends CompiledRule {
+        private static final Start SQL_COMPARISON_OP = Start.on("sql", "comparisonOp");
+
+        private final Effect applyMatchingRule;
+
+        SqlComparison(RuleSet rules) {
+            super("sql_comparison", //
+                    new Start[] { SQL_COMPARISON_OP }, //
+                    new String[] { "op" });
+            applyMatchingRule = rules.applyMatchingRule();
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // sql_comparison.op <- {comparisonOp}
+            if (SQL_COMPARISON_OP.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // <SQL> cursorName ...
+    private static final class SqlCursorName extends CompiledRule {
+        private static final Start SQL_IDENTIFIER = Start.on("sql", "identifier");
+        private static final Start SQL_MODULE = Start.on("sql", "module");
+
+        SqlCursorName(RuleSet rules) {
+            super("sql_cursor_name", //
+                    new Start[] { SQL_IDENTIFIER, SQL_MODULE }, //
+                    new String[] { "name", "module" });
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // sql_cursor_name.name <- {identifier}
+            if (SQL_IDENTIFIER.equals(child))
+                assignProgramText(0, event, children, engine);
+            // sql_cursor_name.module <- {module}
+            if (SQL_MODULE.equals(child))
+                assignProgramText(1, event, children, engine);
+        }
+    }
+
+    // <SQL> declareCursorStatement ...
+    private static final class SqlDeclareCursorStatement extends CompiledRule {
+        private static final Start SQL_CURSOR_NAME = Start.on("sql", "cursorName");
+
+        private final Effect applyMatchingRule;
+
+        SqlDeclareCursorStatement(RuleSet rules) {
+            super("sql_declare_cursor_stmt", //
+                    new Start[] { SQL_CURSOR_NAME }, //
+                    new String[] { "cursor" });
+            applyMatchingRule = rules.applyMatchingRule();
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // sql_declare_cursor_stmt.cursor <- {cursorName}
+            if (SQL_CURSOR_NAME.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // <SQL> hostParameterName ...
+    private static final class SqlHostParameterName extends CompiledRule {
+        private static final Start SQL_IDENTIFIER = Start.on("sql", "identifier");
+
+        SqlHostParameterName(RuleSet rules) {
+            super("sql_host_parameter_name", //
+                    new Start[] { SQL_IDENTIFIER }, //
+                    new String[] { "name" });
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // sql_host_parameter_name.name <- {identifier}
+            if (SQL_IDENTIFIER.equals(child))
+                assignProgramText(0, event, children, engine);
+        }
+    }
+
+    // <SQL> hostParameterSpecification ...
+    private static final class SqlHostParameterSpecification extends CompiledRule {
+        private static final Start SQL_HOST_PARAMETER_NAME = Start.on("sql", "hostParameterName");
+
+        private final Effect applyMatchingRule;
+        private final Effect setIndicator;
+
+        SqlHostParameterSpecification(RuleSet rules) {
+            super("sql_host_parameter_specification", //
+                    new Start[] { SQL_HOST_PARAMETER_NAME }, //
+                    new String[] { "parameter" });
+            applyMatchingRule = rules.applyMatchingRule();
+            // sql_host_parameter_specification.indicator <- {indicator/hostParameterName}
+            setIndicator = setAttribute("indicator", path("<sql:indicator>/<sql:hostParameterName>"), rules);
+        }
+
+        @Override
+        protected void after(Event event, Frame frame, RuleEngine engine) {
+            setIndicator.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // sql_host_parameter_specification.parameter <- {hostParameterName}
+            if (SQL_HOST_PARAMETER_NAME.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // <SQL> lockTableStatement ...
+    private static final class SqlLockTableStatement extends CompiledRule {
+        private static final Start SQL_TABLE_NAME = Start.on("sql", "tableName");
+
+        private final Effect applyMatchingRule;
+
+        SqlLockTableStatement(RuleSet rules) {
+            super("sql_lock_table_stmt", //
+                    new Start[] { SQL_TABLE_NAME }, //
+                    new String[] { "table_name" });
+            applyMatchingRule = rules.applyMatchingRule();
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // sql_lock_table_stmt.table_name <- {tableName}
+            if (SQL_TABLE_NAME.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // <SQL> negation ...
+    private static final class SqlNegation extends CompiledRule {
+        private static final Start SQL_TERM = Start.on("sql", "term");
+
+        private final Effect applyMatchingRule;
+
+        SqlNegation(RuleSet rules) {
+            super("sql_not_expr", //
+                    new Start[] { SQL_TERM }, //
+                    new String[] { "expression" });
+            applyMatchingRule = rules.applyMatchingRule();
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // sql_not_expr.expression <- {term}
+            if (SQL_TERM.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // <SQL> openStatement ...
+    private static final class SqlOpenStatement extends CompiledRule {
+        private static final Start SQL_CURSOR_NAME = Start.on("sql", "cursorName");
+
+        private final Effect applyMatchingRule;
+
+        SqlOpenStatement(RuleSet rules) {
+            super("sql_open_stmt", //
+                    new Start[] { SQL_CURSOR_NAME }, //
+                    new String[] { "cursor" });
+            applyMatchingRule = rules.applyMatchingRule();
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // sql_open_stmt.cursor <- {cursorName}
+            if (SQL_CURSOR_NAME.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // <SQL> selectStatement ...
+    private static final class SqlSelectStatement extends CompiledRule {
+        private static final Start SQL_INTO = Start.on("sql", "into");
+        private static final Start SQL_FROM = Start.on("sql", "from");
+        private static final Start SQL_WHERE = Start.on("sql", "where");
+
+        private final Effect applyMatchingRule;
+        private final Effect setSelection;
+
+        SqlSelectStatement(RuleSet rules) {
+            super("sql_select_stmt", //
+                    new Start[] { SQL_INTO, SQL_FROM, SQL_WHERE }, //
+                    new String[] { "into", "from", "where" });
+            applyMatchingRule = rules.applyMatchingRule();
+            // sql_select_stmt.selection <- {selectList/$*} default unknown_expr
+            setSelection = setAttribute("selection", path("<sql:selectList>/<>"), rules, Start.on("cobol", "unknown_expr"));
+        }
+
+        @Override
+        protected void before(Event event, Frame frame, RuleEngine engine) {
+            setSelection.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // sql_select_stmt.into <- {into}
+            if (SQL_INTO.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+            // sql_select_stmt.from <- {from}
+            if (SQL_FROM.equals(child))
+                assign(1, applyMatchingRule, event, children, engine);
+            // sql_select_stmt.where <- {where}
+            if (SQL_WHERE.equals(child))
+                assign(2, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // <SQL> tableName ...
+    private static final class SqlTableName extends CompiledRule {
+        private static final Start SQL_IDENTIFIER = Start.on("sql", "identifier");
+        private static final Start SQL_SCHEMA_NAME = Start.on("sql", "schemaName");
+        private static final Start SQL_MODULE = Start.on("sql", "module");
+        private static final Start SQL_CATALOG_NAME = Start.on("sql", "catalogName");
+
+        SqlTableName(RuleSet rules) {
+            super("sql_table_name", //
+                    new Start[] { SQL_IDENTIFIER, SQL_SCHEMA_NAME, SQL_MODULE, SQL_CATALOG_NAME }, //
+                    new String[] { "name", "schema", "module", "catalog" });
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // sql_table_name.name <- {identifier}
+            if (SQL_IDENTIFIER.equals(child))
+                assignProgramText(0, event, children, engine);
+            // sql_table_name.schema <- {schemaName}
+            if (SQL_SCHEMA_NAME.equals(child))
+                assignProgramText(1, event, children, engine);
+            // sql_table_name.module <- {module}
+            if (SQL_MODULE.equals(child))
+                assignProgramText(2, event, children, engine);
+            // sql_table_name.catalog <- {catalogName}
+            if (SQL_CATALOG_NAME.equals(child))
+                assignProgramText(3, event, children, engine);
+        }
+    }
+
+    // <SQL> updateStatement ...
+    private static final class SqlUpdateStatement extends CompiledRule {
+        private static final Start SQL_WHERE = Start.on("sql", "where");
+
+        private final Effect applyMatchingRule;
+
+        SqlUpdateStatement(RuleSet rules) {
+            super("sql_update_stmt", //
+                    new Start[] { SQL_WHERE }, //
+                    new String[] { "where" });
+            applyMatchingRule = rules.applyMatchingRule();
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // sql_update_stmt.where <- {where}
+            if (SQL_WHERE.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // <SQL> where ...
+    private static final class SqlWhere extends CompiledRule {
+        private static final Start SQL_SEARCH_CONDITION = Start.on("sql", "searchCondition");
+
+        private final Effect applyMatchingRule;
+
+        SqlWhere(RuleSet rules) {
+            super("sql_where_clause", //
+                    new Start[] { SQL_SEARCH_CONDITION }, //
+                    new String[] { "search_condition" });
+            applyMatchingRule = rules.applyMatchingRule();
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // sql_where_clause.search_condition <- {searchCondition}
+            if (SQL_SEARCH_CONDITION.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // startStatement ...
+    private static final class StartStatement extends CompiledRule {
+        private static final Start FILE_NAME = Start.on("cobol", "fileName");
+        private static final Start INVALID_KEY = Start.on("cobol", "invalidKey");
+        private static final Start NOT_INVALID_KEY = Start.on("cobol", "notInvalidKey");
+        private static final Start END = Start.on("cobol", "end");
+
+        private final Effect applyMatchingRule;
+        private final Effect applyScopeTerminator;
+
+        StartStatement(RuleSet rules) {
+            super("start", //
+                    new Start[] { FILE_NAME, INVALID_KEY, NOT_INVALID_KEY, END }, //
+                    new String[] { "file", "invalid_key", "not_invalid_key", "scope_terminator" });
+            applyMatchingRule = rules.applyMatchingRule();
+            applyScopeTerminator = rules.applyRule(Start.on("cobol", "scope_terminator"));
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // start.file <- {fileName}
+            if (FILE_NAME.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+            // start.invalid_key <- {invalidKey}
+            if (INVALID_KEY.equals(child))
+                assign(1, applyMatchingRule, event, children, engine);
+            // start.not_invalid_key <- {notInvalidKey}
+            if (NOT_INVALID_KEY.equals(child))
+                assign(2, applyMatchingRule, event, children, engine);
+            // start.scope_terminator <- {end} as scope_terminator
+            if (END.equals(child))
+                assign(3, applyScopeTerminator, event, children, engine);
+        }
+    }
+
+    // stopStatement ...
+    private static final class StopStatement extends CompiledRule {
+        private static final Start ENDPOINT = Start.on("cobol", "endpoint");
+        private static final Start LITERAL = Start.on("cobol", "literal");
+
+        StopStatement(RuleSet rules) {
+            super("stop", //
+                    new Start[] { ENDPOINT, LITERAL }, //
+                    new String[] { "endpoint", "literal" });
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // stop.endpoint <- {endpoint}
+            if (ENDPOINT.equals(child))
+                assignProgramText(0, event, children, engine);
+            // stop.literal <- {literal}
+            if (LITERAL.equals(child))
+                assignProgramText(1, event, children, engine);
+        }
+    }
+
+    // stringStatement ...
+    private static final class StringStatement extends CompiledRule {
+        private static final Start ON_OVERFLOW = Start.on("cobol", "onOverflow");
+        private static final Start NOT_ON_OVERFLOW = Start.on("cobol", "notOnOverflow");
+        private static final Start END = Start.on("cobol", "end");
+
+        private final Effect applyMatchingRule;
+        private final Effect applyScopeTerminator;
+
+        StringStatement(RuleSet rules) {
+            super("string_stmt", //
+                    new Start[] { ON_OVERFLOW, NOT_ON_OVERFLOW, END }, //
+                    new String[] { "on_overflow", "not_on_overflow", "scope_terminator" });
+            applyMatchingRule = rules.applyMatchingRule();
+            applyScopeTerminator = rules.applyRule(Start.on("cobol", "scope_terminator"));
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // string_stmt.on_overflow <- {onOverflow}
+            if (ON_OVERFLOW.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+            // string_stmt.not_on_overflow <- {notOnOverflow}
+            if (NOT_ON_OVERFLOW.equals(child))
+                assign(1, applyMatchingRule, event, children, engine);
+            // string_stmt.scope_terminator <- {end} as scope_terminator
+            if (END.equals(child))
+                assign(2, applyScopeTerminator, event, children, engine);
+        }
+    }
+
+    // subtractStatement ...
+    private static final class SubtractStatement extends CompiledRule {
+        private static final Start CORRESPONDING = Start.on("cobol", "corresponding");
+        private static final Start IDENTIFIER = Start.on("cobol", "identifier");
+        private static final Start ON_SIZE_ERROR = Start.on("cobol", "onSizeError");
+        private static final Start NOT_ON_SIZE_ERROR = Start.on("cobol", "notOnSizeError");
+        private static final Start END = Start.on("cobol", "end");
+
+        private final Effect applyMatchingRule;
+        private final Effect applyScopeTerminator;
+        private final Effect setFromOperands;
+        private final Effect setGivingOperands;
+
+        SubtractStatement(RuleSet rules) {
+            super("subtract", //
+                    new Start[] { CORRESPONDING, IDENTIFIER, ON_SIZE_ERROR, NOT_ON_SIZE_ERROR, END }, //
+                    new String[] { "corresponding", "initial_operands", "on_size_error", "not_on_size_error", "scope_terminator" });
+            applyMatchingRule = rules.applyMatchingRule();
+            applyScopeTerminator = rules.applyRule(Start.on("cobol", "scope_terminator"));
+            // subtract.from_operands <- {from/identifier}
+            setFromOperands = setAttribute("from_operands", path("<from>/<identifier>"), rules);
+            // subtract.giving_operands <- {giving/identifier}
+            setGivingOperands = setAttribute("giving_operands", path("<giving>/<identifier>"), rules);
+        }
+
+        @Override
+        protected void after(Event event, Frame frame, RuleEngine engine) {
+            setFromOperands.apply(event, frame, engine);
+            setGivingOperands.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // subtract.corresponding <- {corresponding}
+            if (CORRESPONDING.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+            // subtract.initial_operands <- {identifier}
+            if (IDENTIFIER.equals(child))
+                assign(1, applyMatchingRule, event, children, engine);
+            // subtract.on_size_error <- {onSizeError}
+            if (ON_SIZE_ERROR.equals(child))
+                assign(2, applyMatchingRule, event, children, engine);
+            // subtract.not_on_size_error <- {notOnSizeError}
+            if (NOT_ON_SIZE_ERROR.equals(child))
+                assign(3, applyMatchingRule, event, children, engine);
+            // subtract.scope_terminator <- {end} as scope_terminator
+            if (END.equals(child))
+                assign(4, applyScopeTerminator, event, children, engine);
+        }
+    }
+
+    // threadLocalStorageSection ...
+    private static final class ThreadLocalStorageSection extends CompiledRule {
+        private static final Start HEADER = Start.on("cobol", "header");
+
+        private final Effect applyMatchingRule;
+        private final Effect effect0;
+
+        ThreadLocalStorageSection(RuleSet rules) {
+            super("thread_local_storage_section", //
+                    new Start[] { HEADER }, //
+                    new String[] { "header" });
+            applyMatchingRule = rules.applyMatchingRule();
+            // thread_local_storage_section.entries <- nested record structure {recordDescriptionEntry/$*}
+            effect0 = nestedRecordStructure("entries", path("<recordDescriptionEntry>/<>"), rules);
+        }
+
+        @Override
+        protected void after(Event event, Frame frame, RuleEngine engine) {
+            effect0.apply(event, frame, engine);
+            // [NUMLINES]
+            NUMLINES.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // thread_local_storage_section.header <- {header}
+            if (HEADER.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // unstringStatement ...
+    private static final class UnstringStatement extends CompiledRule {
+        private static final Start ON_OVERFLOW = Start.on("cobol", "onOverflow");
+        private static final Start NOT_ON_OVERFLOW = Start.on("cobol", "notOnOverflow");
+        private static final Start END = Start.on("cobol", "end");
+
+        private final Effect applyMatchingRule;
+        private final Effect applyScopeTerminator;
+
+        UnstringStatement(RuleSet rules) {
+            super("unstring", //
+                    new Start[] { ON_OVERFLOW, NOT_ON_OVERFLOW, END }, //
+                    new String[] { "on_overflow", "not_on_overflow", "scope_terminator" });
+            applyMatchingRule = rules.applyMatchingRule();
+            applyScopeTerminator = rules.applyRule(Start.on("cobol", "scope_terminator"));
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // unstring.on_overflow <- {onOverflow}
+            if (ON_OVERFLOW.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+            // unstring.not_on_overflow <- {notOnOverflow}
+            if (NOT_ON_OVERFLOW.equals(child))
+                assign(1, applyMatchingRule, event, children, engine);
+            // unstring.scope_terminator <- {end} as scope_terminator
+            if (END.equals(child))
+                assign(2, applyScopeTerminator, event, children, engine);
+        }
+    }
+
+    // until ...
+    private static final class Until extends CompiledRule {
+        private static final Start CONDITION = Start.on("cobol", "condition");
+
+        private final Effect applyMatchingRule;
+
+        Until(RuleSet rules) {
+            super("until", //
+                    new Start[] { CONDITION }, //
+                    new String[] { "condition" });
+            applyMatchingRule = rules.applyMatchingRule();
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // until.condition <- {condition}
+            if (CONDITION.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // usageClause ...
+    private static final class UsageClause extends CompiledRule {
+        private static final Start USAGE_OPERAND = Start.on("cobol", "usageOperand");
+
+        UsageClause(RuleSet rules) {
+            super("usage_clause", //
+                    new Start[] { USAGE_OPERAND }, //
+                    new String[] { "operand" });
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // usage_clause.operand <- {usageOperand}
+            if (USAGE_OPERAND.equals(child))
+                assignProgramText(0, event, children, engine);
+        }
+    }
+
+    // varying ...
+    private static final class Varying extends CompiledRule {
+        private static final Start UNTIL = Start.on("cobol", "until");
+        private static final Start AFTER = Start.on("cobol", "after");
+
+        private final Effect applyMatchingRule;
+        private final Effect setOperand;
+
+        Varying(RuleSet rules) {
+            super("varying", //
+                    new Start[] { UNTIL, AFTER }, //
+                    new String[] { "until", "after_list" });
+            applyMatchingRule = rules.applyMatchingRule();
+            // varying.operand <- {identifier[1]}
+            setOperand = setAttribute("operand", path("<identifier>[1]"), rules);
+        }
+
+        @Override
+        protected void before(Event event, Frame frame, RuleEngine engine) {
+            setOperand.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // varying.until <- {until}
+            if (UNTIL.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+            // varying.after_list <- {after}
+            if (AFTER.equals(child))
+                assign(1, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // workingStorageSection ...
+    private static final class WorkingStorageSection extends CompiledRule {
+        private static final Start HEADER = Start.on("cobol", "header");
+
+        private final Effect applyMatchingRule;
+        private final Effect effect0;
+
+        WorkingStorageSection(RuleSet rules) {
+            super("working_storage_section", //
+                    new Start[] { HEADER }, //
+                    new String[] { "header" });
+            applyMatchingRule = rules.applyMatchingRule();
+            // working_storage_section.entries <- nested record structure {recordDescriptionEntry/$*}
+            effect0 = nestedRecordStructure("entries", path("<recordDescriptionEntry>/<>"), rules);
+        }
+
+        @Override
+        protected void after(Event event, Frame frame, RuleEngine engine) {
+            effect0.apply(event, frame, engine);
+            // [NUMLINES]
+            NUMLINES.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // working_storage_section.header <- {header}
+            if (HEADER.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+        }
+    }
+
+    // writeStatement ...
+    private static final class WriteStatement extends CompiledRule {
+        private static final Start FILE_NAME = Start.on("cobol", "fileName");
+        private static final Start INVALID_KEY = Start.on("cobol", "invalidKey");
+        private static final Start NOT_INVALID_KEY = Start.on("cobol", "notInvalidKey");
+        private static final Start AT_END = Start.on("cobol", "atEnd");
+        private static final Start NOT_AT_END = Start.on("cobol", "notAtEnd");
+        private static final Start AT_END_OF_PAGE = Start.on("cobol", "atEndOfPage");
+        private static final Start NOT_AT_END_OF_PAGE = Start.on("cobol", "notAtEndOfPage");
+        private static final Start END = Start.on("cobol", "end");
+
+        private final Effect applyMatchingRule;
+        private final Effect applyScopeTerminator;
+        private final Effect setRecord;
+
+        WriteStatement(RuleSet rules) {
+            super("write", //
+                    new Start[] { FILE_NAME, INVALID_KEY, NOT_INVALID_KEY, AT_END, NOT_AT_END, AT_END_OF_PAGE, NOT_AT_END_OF_PAGE, END }, //
+                    new String[] { "file", "invalid_key", "not_invalid_key", "at_end", "not_at_end", "at_end_of_page", "not_at_end_of_page", "scope_terminator" });
+            applyMatchingRule = rules.applyMatchingRule();
+            applyScopeTerminator = rules.applyRule(Start.on("cobol", "scope_terminator"));
+            // write.record <- {recordName/identifier}
+            setRecord = setAttribute("record", path("<recordName>/<identifier>"), rules);
+        }
+
+        @Override
+        protected void after(Event event, Frame frame, RuleEngine engine) {
+            setRecord.apply(event, frame, engine);
+        }
+
+        @Override
+        protected void map(Data child, Event event, Children children, RuleEngine engine) {
+            // write.file <- {fileName}
+            if (FILE_NAME.equals(child))
+                assign(0, applyMatchingRule, event, children, engine);
+            // write.invalid_key <- {invalidKey}
+            if (INVALID_KEY.equals(child))
+                assign(1, applyMatchingRule, event, children, engine);
+            // write.not_invalid_key <- {notInvalidKey}
+            if (NOT_INVALID_KEY.equals(child))
+                assign(2, applyMatchingRule, event, children, engine);
+            // write.at_end <- {atEnd}
+            if (AT_END.equals(child))
+                assign(3, applyMatchingRule, event, children, engine);
+            // write.not_at_end <- {notAtEnd}
+            if (NOT_AT_END.equals(child))
+                assign(4, applyMatchingRule, event, children, engine);
+            // write.at_end_of_page <- {atEndOfPage}
+            if (AT_END_OF_PAGE.equals(child))
+                assign(5, applyMatchingRule, event, children, engine);
+            // write.not_at_end_of_page <- {notAtEndOfPage}
+            if (NOT_AT_END_OF_PAGE.equals(child))
+                assign(6, applyMatchingRule, event, children, engine);
+            // write.scope_terminator <- {end} as scope_terminator
+            if (END.equals(child))
+                assign(7, applyScopeTerminator, event, children, engine);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.semmle.cobol.replay;
+
+import java.io.File;
+
+/**
+ * Shared definitions for the binary log of a normalized data stream, as
+ * written by {@link DataLogWriter} and read by {@link DataLogReader}.
+ * <p>
+ * A log starts with a header holding {@link #MAGIC}, {@link #FORMAT} and the
+ * path of the source file. It is followed by one record per piece of data,
+ * each starting with a single byte giving its kind, and finally an
+ * {@link #END_OF_LOG} record.
+ * <p>
+ * Numbers are written as variable length integers. Strings, tags and markers
+ * are interned: each gets a number on first use, and is written out in full
+ * right after that number. Any later use only writes the number.
+ */
+public final class DataLog {
+
+	static final int MAGIC = 0x43424C47; // "CBLG"
+
+	/**
+	 * Bump this whenever the layout of the log changes.
+	 */
+	static final int FORMAT = 1;
+
+	static final byte END_OF_LOG = 0;
+	static final byte TOKEN = 1;
+	static final byte START = 2;
+	static final byte END = 3;
+	static final byte HALSTEAD = 4;
+
+	static final byte ENUM_TAG = 0;
+	static final byte STRING_TAG = 1;
+
+	public static final String SUFFIX = ".datalog";
+
+	private DataLog() {
+	}
+
+	/**
+	 * Where to keep the log for the given source file, in the given
+	 * directory. This mirrors the absolute path of the source file, so that
+	 * files with the same name don't clash.
+	 */
+	public static File getLogFileFor(File directory, File source) {
+		final String path = source.getAbsolutePath().replace(':', '_');
+		return new File(directory, path + SUFFIX);
+	}
+}
@@ -0,0 +1,204 @@
+package com.semmle.cobol.replay;
+
+import static com.semmle.cobol.replay.DataLog.END;
+import static com.semmle.cobol.replay.DataLog.END_OF_LOG;
+import static com.semmle.cobol.replay.DataLog.ENUM_TAG;
+import static com.semmle.cobol.replay.DataLog.FORMAT;
+import static com.semmle.cobol.replay.DataLog.HALSTEAD;
+import static com.semmle.cobol.replay.DataLog.MAGIC;
+import static com.semmle.cobol.replay.DataLog.START;
+import static com.semmle.cobol.replay.DataLog.STRING_TAG;
+import static com.semmle.cobol.replay.DataLog.TOKEN;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.semmle.cobol.halstead.HalsteadCount;
+
+import koopa.core.data.Data;
+import koopa.core.data.Position;
+import koopa.core.data.Replaced;
+import koopa.core.data.Token;
+import koopa.core.data.markers.End;
+import koopa.core.data.markers.Start;
+
+/**
+ * Reads back a data stream from a {@link DataLog}.
+ */
+public class DataLogReader implements Closeable {
+
+	private final File logFile;
+	private final DataInputStream in;
+	private final File source;
+
+	private final List<String> strings = new ArrayList<>();
+	private final List<Object> tags = new ArrayList<>();
+	private final List<Start> starts = new ArrayList<>();
+	private final List<End> ends = new ArrayList<>();
+
+	public DataLogReader(File logFile) throws IOException {
+		this.logFile = logFile;
+		this.in = new DataInputStream(
+				new BufferedInputStream(new FileInputStream(logFile), 65536));
+
+		try {
+			if (in.readInt() != MAGIC)
+				throw new IOException("Not a data log: " + logFile);
+			if (in.readInt() != FORMAT)
+				throw new IOException("Unsupported data log: " + logFile);
+
+			source = new File(in.readUTF());
+
+		} catch (IOException e) {
+			in.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * The source file whose data stream got logged.
+	 */
+	public File getSource() {
+		return source;
+	}
+
+	/**
+	 * Returns the next piece of data, or <code>null</code> at the end of the
+	 * log.
+	 */
+	public Data read() throws IOException {
+		final byte kind = in.readByte();
+		switch (kind) {
+		case END_OF_LOG:
+			return null;
+
+		case TOKEN:
+			return readToken();
+
+		case START: {
+			final int id = readNumber();
+			if (id > starts.size())
+				starts.add(Start.on(readString(), readString()));
+			return starts.get(id - 1);
+		}
+
+		case END: {
+			final int id = readNumber();
+			if (id > ends.size())
+				ends.add(End.on(readString(), readString()));
+			return ends.get(id - 1);
+		}
+
+		case HALSTEAD:
+			return new HalsteadCount(readNumber(), readNumber(), readNumber(),
+					readNumber());
+
+		default:
+			throw new IOException(
+					"Unknown record " + kind + " in data log: " + logFile);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+	private Token readToken() throws IOException {
+		final String text = readString();
+		final Position start = readPosition();
+		final Position end = readPosition();
+
+		final Object[] tagsOfToken = new Object[readNumber()];
+		for (int i = 0; i < tagsOfToken.length; i++)
+			tagsOfToken[i] = readTag();
+
+		final Token token = new Token(text, start, end, tagsOfToken);
+
+		final int replacements = readNumber();
+		if (replacements == 0)
+			return token;
+
+		// The replacements were logged from the most specific one outwards,
+		// but each one needs its context when it gets created.
+		final Position[] positions = new Position[2 * replacements];
+		for (int i = 0; i < positions.length; i++)
+			positions[i] = readPosition();
+
+		Replaced replaced = null;
+		for (int i = replacements - 1; i >= 0; i--)
+			replaced = new Replaced(positions[2 * i], positions[2 * i + 1],
+					replaced);
+
+		return token.asReplacing(replaced);
+	}
+
+	private Position readPosition() throws IOException {
+		return new Position(readString(), readNumber(), readNumber(),
+				readNumber());
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private Object readTag() throws IOException {
+		final int id = readNumber();
+		if (id <= tags.size())
+			return tags.get(id - 1);
+
+		final Object tag;
+		final byte kind = in.readByte();
+		switch (kind) {
+		case ENUM_TAG:
+			final String className = readString();
+			final String name = readString();
+			try {
+				tag = Enum.valueOf((Class<? extends Enum>) Class
+						.forName(className), name);
+			} catch (ClassNotFoundException | IllegalArgumentException e) {
+				throw new IOException("Unknown tag " + className + "."
+						+ name + " in data log: " + logFile, e);
+			}
+			break;
+
+		case STRING_TAG:
+			tag = readString();
+			break;
+
+		default:
+			throw new IOException(
+					"Unknown tag kind " + kind + " in data log: " + logFile);
+		}
+
+		tags.add(tag);
+		return tag;
+	}
+
+	private String readString() throws IOException {
+		final int id = readNumber();
+		if (id == 0)
+			return null;
+
+		if (id > strings.size())
+			strings.add(in.readUTF());
+
+		return strings.get(id - 1);
+	}
+
+	private int readNumber() throws IOException {
+		int v = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = in.readByte();
+			v |= (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+
+		return (v >>> 1) ^ -(v & 1);
+	}
+}
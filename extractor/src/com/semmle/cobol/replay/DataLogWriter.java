@@ -0,0 +1,220 @@
+package com.semmle.cobol.replay;
+
+import static com.semmle.cobol.replay.DataLog.END;
+import static com.semmle.cobol.replay.DataLog.END_OF_LOG;
+import static com.semmle.cobol.replay.DataLog.ENUM_TAG;
+import static com.semmle.cobol.replay.DataLog.FORMAT;
+import static com.semmle.cobol.replay.DataLog.HALSTEAD;
+import static com.semmle.cobol.replay.DataLog.MAGIC;
+import static com.semmle.cobol.replay.DataLog.START;
+import static com.semmle.cobol.replay.DataLog.STRING_TAG;
+import static com.semmle.cobol.replay.DataLog.TOKEN;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.semmle.cobol.halstead.HalsteadCount;
+import com.semmle.util.exception.CatastrophicError;
+
+import koopa.core.data.Data;
+import koopa.core.data.Position;
+import koopa.core.data.Replaced;
+import koopa.core.data.Token;
+import koopa.core.data.markers.End;
+import koopa.core.data.markers.Start;
+
+/**
+ * Writes a data stream to a {@link DataLog}.
+ * <p>
+ * Only the data the {@linkplain com.semmle.cobol.generator.engine.RuleEngine}
+ * responds to gets logged: tokens, start and end markers, and Halstead
+ * counts. Anything else is skipped.
+ */
+public class DataLogWriter implements Closeable {
+
+	private static final Logger LOGGER = LoggerFactory
+			.getLogger(DataLogWriter.class);
+
+	private final DataOutputStream out;
+
+	private final Map<String, Integer> strings = new HashMap<>();
+	private final Map<Object, Integer> tags = new HashMap<>();
+	private final Map<Start, Integer> starts = new HashMap<>();
+	private final Map<End, Integer> ends = new HashMap<>();
+
+	/**
+	 * Reused for collecting the tags of each token.
+	 */
+	private final List<Object> tagsOfToken = new ArrayList<>();
+
+	/**
+	 * Reused for walking the replacement context of each token.
+	 */
+	private final List<Replaced> replacements = new ArrayList<>();
+
+	public DataLogWriter(File logFile, File source) throws IOException {
+		final File parent = logFile.getParentFile();
+		if (parent != null && !parent.isDirectory() && !parent.mkdirs())
+			throw new IOException("Failed to create " + parent);
+
+		out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(logFile), 65536));
+
+		out.writeInt(MAGIC);
+		out.writeInt(FORMAT);
+		out.writeUTF(source.getPath());
+	}
+
+	public void write(Data d) throws IOException {
+		if (d instanceof Token) {
+			out.writeByte(TOKEN);
+			writeToken((Token) d);
+
+		} else if (d instanceof Start) {
+			final Start s = (Start) d;
+			out.writeByte(START);
+			writeMarker(starts, s, s.getNamespace(), s.getName());
+
+		} else if (d instanceof End) {
+			final End e = (End) d;
+			out.writeByte(END);
+			writeMarker(ends, e, e.getNamespace(), e.getName());
+
+		} else if (d instanceof HalsteadCount) {
+			final HalsteadCount h = (HalsteadCount) d;
+			out.writeByte(HALSTEAD);
+			writeNumber(h.n1);
+			writeNumber(h.n2);
+			writeNumber(h.N1);
+			writeNumber(h.N2);
+
+		} else if (LOGGER.isTraceEnabled())
+			LOGGER.trace("Not logging " + d);
+	}
+
+	/**
+	 * Marks the end of the log, and closes it.
+	 */
+	public void finish() throws IOException {
+		out.writeByte(END_OF_LOG);
+		close();
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+
+	private void writeToken(Token t) throws IOException {
+		writeString(t.getText());
+		writePosition(t.getStart());
+		writePosition(t.getEnd());
+
+		tagsOfToken.clear();
+		for (Object tag : t.getTags())
+			tagsOfToken.add(tag);
+
+		writeNumber(tagsOfToken.size());
+		for (Object tag : tagsOfToken)
+			writeTag(tag);
+
+		replacements.clear();
+		for (Replaced r = t.getReplaced(); r != null; r = r.getContext())
+			replacements.add(r);
+
+		writeNumber(replacements.size());
+		for (Replaced r : replacements) {
+			writePosition(r.getStart());
+			writePosition(r.getEnd());
+		}
+	}
+
+	private void writePosition(Position p) throws IOException {
+		writeString(p.getResourceName());
+		writeNumber(p.getPositionInFile());
+		writeNumber(p.getLinenumber());
+		writeNumber(p.getPositionInLine());
+	}
+
+	private void writeTag(Object tag) throws IOException {
+		final Integer id = tags.get(tag);
+		if (id != null) {
+			writeNumber(id);
+			return;
+		}
+
+		tags.put(tag, tags.size() + 1);
+		writeNumber(tags.size());
+
+		if (tag instanceof Enum) {
+			final Enum<?> e = (Enum<?>) tag;
+			out.writeByte(ENUM_TAG);
+			writeString(e.getDeclaringClass().getName());
+			writeString(e.name());
+
+		} else if (tag instanceof String) {
+			out.writeByte(STRING_TAG);
+			writeString((String) tag);
+
+		} else
+			throw new CatastrophicError("Can't log tag " + tag + " of "
+					+ tag.getClass());
+	}
+
+	private <M> void writeMarker(Map<M, Integer> markers, M marker,
+			String namespace, String name) throws IOException {
+		final Integer id = markers.get(marker);
+		if (id != null) {
+			writeNumber(id);
+			return;
+		}
+
+		markers.put(marker, markers.size() + 1);
+		writeNumber(markers.size());
+		writeString(namespace);
+		writeString(name);
+	}
+
+	/**
+	 * Strings are numbered from one. Zero stands for <code>null</code>.
+	 */
+	private void writeString(String s) throws IOException {
+		if (s == null) {
+			writeNumber(0);
+			return;
+		}
+
+		final Integer id = strings.get(s);
+		if (id != null) {
+			writeNumber(id);
+			return;
+		}
+
+		strings.put(s, strings.size() + 1);
+		writeNumber(strings.size());
+		out.writeUTF(s);
+	}
+
+	/**
+	 * Zigzag encoded, so that small negative numbers stay small too.
+	 */
+	private void writeNumber(int n) throws IOException {
+		int v = (n << 1) ^ (n >> 31);
+		while ((v & ~0x7F) != 0) {
+			out.writeByte((v & 0x7F) | 0x80);
+			v >>>= 7;
+		}
+		out.writeByte(v);
+	}
+}
@@ -0,0 +1,98 @@
+package com.semmle.cobol.replay;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.semmle.cobol.extractor.StreamProcessingStep;
+import com.semmle.util.exception.Exceptions;
+import com.semmle.util.exception.ResourceError;
+
+import koopa.core.data.Data;
+
+/**
+ * A step which passes on all data as is, while also writing it to a
+ * {@link DataLog}. Placed right before the
+ * {@linkplain com.semmle.cobol.generator.GenerateTrapFile} step, this
+ * captures exactly what it needs for a {@linkplain Replay}.
+ */
+public class RecordDataLog extends StreamProcessingStep {
+
+	private static final Logger LOGGER = LoggerFactory
+			.getLogger(RecordDataLog.class);
+
+	private final File logFile;
+	private final DataLogWriter writer;
+
+	/**
+	 * Once {@linkplain #done()} is called there is nothing left to
+	 * {@linkplain #abandon()}.
+	 */
+	private boolean done = false;
+
+	public RecordDataLog(File directory, File source) {
+		logFile = DataLog.getLogFileFor(directory, source);
+		try {
+			writer = new DataLogWriter(logFile, source);
+		} catch (IOException e) {
+			throw new ResourceError("Failed to create " + logFile, e);
+		}
+	}
+
+	@Override
+	public void push(Data d) {
+		try {
+			writer.write(d);
+			pass(d);
+
+		} catch (IOException e) {
+			discard();
+			throw new ResourceError("Failed to write " + logFile, e);
+
+		} catch (RuntimeException e) {
+			// Don't leave a partial log behind.
+			discard();
+			throw e;
+		}
+	}
+
+	@Override
+	public void done() {
+		done = true;
+
+		try {
+			writer.finish();
+		} catch (IOException e) {
+			discard();
+			throw new ResourceError("Failed to write " + logFile, e);
+		}
+
+		super.done();
+	}
+
+	/**
+	 * A partial log is of no use for replaying, so it gets deleted.
+	 */
+	@Override
+	public void abandon() {
+		if (!done)
+			discard();
+
+		super.abandon();
+	}
+
+	private void discard() {
+		try {
+			writer.close();
+		} catch (IOException e) {
+			Exceptions.ignore(e, "We're deleting it anyway.");
+		}
+
+		// Should this fail, the partial log still gets rejected on replay, as
+		// it lacks its end.
+		if (logFile.exists() && !logFile.delete())
+			LOGGER.warn("Failed to delete " + logFile);
+	}
+}
@@ -0,0 +1,113 @@
+package com.semmle.cobol.replay;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.semmle.cobol.generator.GenerateTrapFile;
+import com.semmle.cobol.processing.Done;
+import com.semmle.cobol.timing.Timing;
+import com.semmle.util.exception.ResourceError;
+import com.semmle.util.exception.UserError;
+
+import koopa.core.data.Data;
+
+/**
+ * Generates trap files from {@link DataLog}s, as recorded by the extractor's
+ * <code>--record</code> option, rather than from the source files. This skips
+ * parsing and normalization altogether, which makes for a much quicker
+ * turnaround when working on the mapping rules.
+ * <p>
+ * Takes any number of log files, or directories holding them. The
+ * <code>--compiled-rules</code> and <code>--streaming</code> options do the
+ * same as for {@linkplain com.semmle.cobol.extractor.Main}.
+ */
+public class Replay {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(Replay.class);
+
+	private static final String USAGE = "Usage: Replay [--compiled-rules] [--streaming] <log file or directory> ...";
+
+	public static void main(String[] args) {
+		boolean compiledRules = false;
+		boolean streaming = false;
+
+		final List<File> logs = new ArrayList<>();
+		for (String arg : args) {
+			if ("--compiled-rules".equals(arg))
+				compiledRules = true;
+			else if ("--streaming".equals(arg))
+				streaming = true;
+			else if (arg.startsWith("--"))
+				throw new UserError("Unknown option " + arg + ". " + USAGE);
+			else
+				collect(new File(arg), logs);
+		}
+
+		if (logs.isEmpty())
+			throw new UserError(USAGE);
+
+		final long start = System.currentTimeMillis();
+		for (File log : logs)
+			replay(log, streaming, compiledRules);
+
+		LOGGER.info("Replayed " + logs.size() + " logs in "
+				+ (System.currentTimeMillis() - start) + "ms.");
+	}
+
+	private static void collect(File file, List<File> logs) {
+		if (file.isDirectory()) {
+			final File[] children = file.listFiles();
+			if (children != null)
+				for (File child : children)
+					collect(child, logs);
+
+		} else if (file.getName().endsWith(DataLog.SUFFIX))
+			logs.add(file);
+	}
+
+	/**
+	 * Feed the data stream in the given log to a {@link GenerateTrapFile}
+	 * step, for the source file it was recorded from.
+	 */
+	public static void replay(File log) {
+		replay(log, false, false);
+	}
+
+	/**
+	 * Same as {@linkplain #replay(File)}, but with the given settings for the
+	 * {@link GenerateTrapFile} step.
+	 */
+	public static void replay(File log, boolean streaming,
+			boolean compiledRules) {
+		LOGGER.info("Replaying " + log);
+
+		try (DataLogReader reader = new DataLogReader(log)) {
+			final GenerateTrapFile generate = new GenerateTrapFile(
+					reader.getSource(), streaming, compiledRules);
+			generate.then(new Done());
+
+			Timing.start("parse + generation");
+
+			try {
+				Data d;
+				while ((d = reader.read()) != null)
+					generate.push(d);
+
+			} catch (IOException | RuntimeException e) {
+				// Don't leave a partially streamed trap file behind.
+				generate.abandon();
+				throw e;
+			}
+
+			generate.done();
+
+		} catch (IOException e) {
+			throw new ResourceError("Failed to replay " + log, e);
+		}
+	}
+}
@@ -11,14 +11,23 @@ public class Timing {
 
 	private static final boolean ACTIVE = TIMING.isTraceEnabled();
 
-	private static Map<String, Long> running = new LinkedHashMap<>();
+	/**
+	 * Files may be processed on several threads at once, and they all use the
+	 * same process names. So each thread tracks its own running processes.
+	 */
+	private static final ThreadLocal<Map<String, Long>> RUNNING = new ThreadLocal<Map<String, Long>>() {
+		@Override
+		protected Map<String, Long> initialValue() {
+			return new LinkedHashMap<>();
+		}
+	};
 
 	public static void start(String process) {
 		if (!ACTIVE)
 			return;
 
 		final long start = System.currentTimeMillis();
-		running.put(process, start);
+		RUNNING.get().put(process, start);
 		TIMING.trace("(x) start of {} at {}", process, start);
 	}
 
@@ -29,8 +38,7 @@ public class Timing {
 		final long end = System.currentTimeMillis();
 		TIMING.trace("(x) end of {} at {}", process, end);
 
-		final long start = running.get(process);
-		running.remove(process);
+		final long start = RUNNING.get().remove(process);
 
 		TIMING.trace("(x) {} : {}ms", process, end - start);
 	}
@@ -85,10 +85,27 @@ def as_rule_path(namespace, ypath):
         
     return "/".join(selectors)
 
+p_child_step = re.compile(r"^<(([\w-]+):)?([\w-]+)>$")
+p_first_step = re.compile(r"^<(([\w-]+):)?([\w-]+)>(\[\d+\])?$")
+
+def as_node(match):
+    '''Returns the (namespace, name) for a matched path step.'''
+    return (match.group(2) or "cobol", match.group(3))
+
 class Trigger:
     def __init__(self):
         pass
 
+    def child_nodes(self):
+        '''Returns the list of (namespace, name) of the child nodes this fires
+           on, if it fires on nothing but child nodes. None otherwise.'''
+        return None
+
+    def first_nodes(self):
+        '''Returns the set of (namespace, name) of the child nodes the first
+           step of this fires on, or None if that might be anything.'''
+        return None
+
 class Child(Trigger):
     def __init__(self, trigger):
         self.trigger = trigger
@@ -141,6 +158,18 @@ class Path(Trigger):
     def write(self, out):
         out.write('path("%s")' % self.path)
 
+    def child_nodes(self):
+        m = p_child_step.match(self.path)
+        if m:
+            return [as_node(m)]
+        return None
+
+    def first_nodes(self):
+        m = p_first_step.match(self.path.split("/")[0])
+        if m:
+            return set([as_node(m)])
+        return None
+
 class Collect(Trigger):
     def __init__(self, trigger):
         self.trigger = trigger
@@ -165,6 +194,24 @@ class Or(Trigger):
     
     def add_all(self, triggers):
         self.triggers.extend(triggers)
+
+    def child_nodes(self):
+        nodes = []
+        for t in self.triggers:
+            n = t.child_nodes()
+            if n is None:
+                return None
+            nodes.extend(n)
+        return nodes
+
+    def first_nodes(self):
+        nodes = set()
+        for t in self.triggers:
+            n = t.first_nodes()
+            if n is None:
+                return None
+            nodes |= n
+        return nodes
     
     def write(self, out):
         if len(self.triggers) == 1:
@@ -186,6 +233,16 @@ class Effect:
     def __init__(self):
         pass
 
+    def child_nodes(self):
+        '''Returns the list of (namespace, name) of the child nodes this maps
+           to an attribute, if it maps nothing else. None otherwise.'''
+        return None
+
+    def first_nodes(self):
+        '''Returns the set of (namespace, name) of the child nodes on which
+           this starts triggering, or None if that might be anything.'''
+        return None
+
 class TODO(Effect):
     def __init__(self, msg):
         self.msg = msg
@@ -200,6 +257,9 @@ class Comment(Effect):
     def write(self, out):
         out.write('// %s' % (self.msg))
 
+    def first_nodes(self):
+        return set()
+
 class ApplyRule(Effect):
     def __init__(self, default):
         self.default = default
@@ -324,6 +384,12 @@ class SetAttribute(Effect):
             out.write('")')
         out.write(')')
 
+    def child_nodes(self):
+        return self.trigger.child_nodes()
+
+    def first_nodes(self):
+        return self.trigger.first_nodes()
+
 class SetAttributeAs(Effect):
     def __init__(self, name, trigger, rule_ns, rule):
         self.name = name
@@ -342,6 +408,12 @@ class SetAttributeAs(Effect):
         out.write(self.rule)
         out.write('"))')
 
+    def child_nodes(self):
+        return self.trigger.child_nodes()
+
+    def first_nodes(self):
+        return self.trigger.first_nodes()
+
 class SetAttributeToProgramText(Effect):
     def __init__(self, name, trigger):
         self.name = name
@@ -354,8 +426,15 @@ class SetAttributeToProgramText(Effect):
         self.trigger.write(out)
         out.write(')')
 
+    def child_nodes(self):
+        return self.trigger.child_nodes()
+
+    def first_nodes(self):
+        return self.trigger.first_nodes()
+
 class Sub(Effect):
-    def __init__(self):
+    def __init__(self, name=None):
+        self.name = name
         self.all = All()
     
     def add(self, effect):
@@ -373,6 +452,10 @@ class NumLines(Effect):
     def write(self, out):
         out.write('NUMLINES')
 
+    def first_nodes(self):
+        # This only triggers on tokens.
+        return set()
+
 
 p1 = re.compile(r"^\{(.*)\}$", re.IGNORECASE)
 p_indexed_word = re.compile(r"^(\w+)(\[(\d+)\])?$", re.IGNORECASE)
@@ -474,8 +557,9 @@ def convert_from_ypath(path, ns="cobol"):
         return trigger
 
 def print_usage():
-    print("Usage %s AST_FILE [OUTPUT]\n" % sys.argv[0])
+    print("Usage %s [--compiled] AST_FILE [OUTPUT]\n" % sys.argv[0])
     print("Generate a Java data model of the database scheme.")
+    print("--compiled: Generate the compiled rules instead.")
     print("AST_FILE: The Python file containing the AST definition.")
     
 
@@ -494,26 +578,43 @@ def write_java_data_model(out, spec):
     out.write(cobol_populator_close)
 
 
-def write_rules(out, ast_types):
+def build_rules(ast_types):
+    rules = []
     for ast_type in ast_types:
-        write_rule(out, ast_type)
+        rule = build_rule(ast_type)
+        if rule:
+            rules.append(rule)
+    return rules
+
+def write_rules(out, ast_types):
+    for rule in build_rules(ast_types):
+        write_rule(out, rule)
 
 p_default = re.compile(r"^(.*)\s+default\s+(\w+)$", re.IGNORECASE)
 p_as = re.compile(r"^(.*)\s+as\s+(\w+)$", re.IGNORECASE)
 
 
-def write_rule(out, ast_type):
-    if not isinstance(ast_type, NodeType): return
-    if not ast_type.is_case_type(): return
+class Rule:
+    '''A rule, as it will be defined in the rule set.'''
+    def __init__(self, node_name, selector, effects):
+        self.node_name = node_name
+        self.selector = selector
+        self.effects = effects
+
+
+def build_rule(ast_type):
+    '''Returns the Rule for the given AST type, if it needs one.'''
+    if not isinstance(ast_type, NodeType): return None
+    if not ast_type.is_case_type(): return None
 
     type_name = ast_type.name
     node_name = ast_type.node_name
     
     # We do these manually in the streamed version.
-    if node_name == "copybook" or node_name == "compilationGroup": return
+    if node_name == "copybook" or node_name == "compilationGroup": return None
     
     node_path = node_name
-    if node_path is None: return
+    if node_path is None: return None
     else: node_path = node_path.strip()
 
     namespace = ast_type.node_ns
@@ -611,7 +712,7 @@ def write_rule(out, ast_type):
                 continue
             
             effects.add(Comment('%s.%s <- %s' % (type_name, attribute_name, expr)))
-            sub = Sub()
+            sub = Sub(attribute_name)
 
             if primitive or primitive_list:
                 sub.add(Collect(ProgramText()))
@@ -638,11 +739,15 @@ def write_rule(out, ast_type):
         else:
             effects.add(TODO('ALSO %s : %s' % (type_name, also)))
 
-    out.write("// %s ...\n" % (node_name))
-    out.write('rules.define("%s", //\n' % (rule_selector))
+    return Rule(node_name, rule_selector, effects)
+
+
+def write_rule(out, rule):
+    out.write("// %s ...\n" % (rule.node_name))
+    out.write('rules.define("%s", //\n' % (rule.selector))
     out.indent()
 
-    effects.write(out)
+    rule.effects.write(out)
 
     out.write(' //\n')
     out.dedent()
@@ -650,6 +755,258 @@ def write_rule(out, ast_type):
 
 
 
+def camel(name, capitalize=True):
+    '''Turns a node or attribute name into camel case.'''
+    parts = [p for p in re.split(r"[^A-Za-z0-9]+", name) if p]
+    words = [p[0].upper() + p[1:] for p in parts]
+    s = "".join(words)
+    if not capitalize:
+        s = s[0].lower() + s[1:]
+    return s
+
+def constant_name(node):
+    '''The name of the Java constant holding the Start for the given node.'''
+    ns, name = node
+    s = re.sub(r"([a-z0-9])([A-Z])", r"\1_\2", name)
+    s = re.sub(r"[^A-Za-z0-9]+", "_", s).upper()
+    if ns != "cobol":
+        s = re.sub(r"[^A-Za-z0-9]+", "_", ns).upper() + "_" + s
+    return s
+
+def class_name(selector):
+    '''The name of the Java class for the rule with the given selector.'''
+    steps = re.findall(r"<(?:([^>:]*):)?([^>]*)>", selector)
+    # Only the first step gets its namespace, so "<sql:closeStatement>" does
+    # not clash with "<closeStatement>".
+    return camel(steps[0][0]) + "".join(camel(name) for (_, name) in steps)
+
+
+class CompiledRule:
+    '''A rule which gets compiled into a subclass of CompiledRule. The
+       attributes which get mapped from child nodes are matched in
+       straight-line code, and everything else is left to the combinators,
+       either before or after those.
+
+       Attributes get matched at the moment the first one of them would have
+       been, so others which came before them may only get left behind if they
+       can never trigger on the same child nodes.'''
+    def __init__(self, rule, type_name):
+        self.rule = rule
+        self.type_name = type_name
+        self.attributes = [] # (effect, nodes, comment)
+        self.before = []     # (effect, comment)
+        self.after = []      # (effect, comment)
+
+    def can_add(self, nodes):
+        for (effect, _) in self.after:
+            first = effect.first_nodes()
+            if first is None or not first.isdisjoint(nodes):
+                return False
+        return True
+
+    def add(self, effect, comment):
+        nodes = effect.child_nodes()
+        if nodes is not None and self.can_add(nodes):
+            self.attributes.append((effect, nodes, comment))
+        elif self.attributes:
+            self.after.append((effect, comment))
+        else:
+            self.before.append((effect, comment))
+
+    def nodes(self):
+        nodes = []
+        for (_, ns, _) in self.attributes:
+            for n in ns:
+                if n not in nodes:
+                    nodes.append(n)
+        return nodes
+
+    def rules(self):
+        '''The rules applied by compiled attributes, as (field, expression).'''
+        rules = []
+        for (effect, _, _) in self.attributes:
+            r = rule_for(effect)
+            if r and r not in rules:
+                rules.append(r)
+        return rules
+
+
+def field_for(effect, index):
+    '''The name of the field holding an effect which is not compiled.'''
+    name = getattr(effect, "name", None)
+    if name:
+        return "set%s" % camel(name)
+    else:
+        return "effect%d" % index
+
+
+def rule_for(effect):
+    '''The (field, expression) for the rule a compiled attribute applies, if
+       any.'''
+    if isinstance(effect, SetAttributeAs):
+        return ('apply%s' % camel(effect.rule),
+                'rules.applyRule(Start.on("%s", "%s"))' % (effect.rule_ns, effect.rule))
+    elif isinstance(effect, SetAttribute) and effect.default:
+        return ('applyMatchingRuleOr%s' % camel(effect.default),
+                'rules.applyMatchingRule(Start.on("%s", "%s"))' % (effect.default_ns, effect.default))
+    elif isinstance(effect, SetAttribute):
+        return ('applyMatchingRule', 'rules.applyMatchingRule()')
+    else:
+        return None
+
+
+def compile_rule(rule):
+    '''Returns the CompiledRule for the given Rule, or None if it has no
+       attributes which can be compiled.'''
+    effects = rule.effects.effects if isinstance(rule.effects, All) else [rule.effects]
+    if not isinstance(effects[0], CreateTuple):
+        return None
+
+    compiled = CompiledRule(rule, effects[0].type_name)
+    comment = None
+    for effect in effects[1:]:
+        if isinstance(effect, Comment):
+            comment = effect
+        else:
+            compiled.add(effect, comment)
+            comment = None
+
+    if not compiled.attributes:
+        return None
+
+    return compiled
+
+
+def write_compiled_define(out, compiled):
+    out.write("// %s ...\n" % (compiled.rule.node_name))
+    out.write('rules.define("%s", new %s(rules));\n\n'
+              % (compiled.rule.selector, class_name(compiled.rule.selector)))
+
+
+def write_compiled_class(out, compiled):
+    name = class_name(compiled.rule.selector)
+    nodes = compiled.nodes()
+    rules = compiled.rules()
+    others = compiled.before + compiled.after
+
+    out.write("// %s ...\n" % (compiled.rule.node_name))
+    out.write("private static final class %s extends CompiledRule {\n" % name)
+    out.indent()
+
+    for node in nodes:
+        out.write('private static final Start %s = Start.on("%s", "%s");\n'
+                  % (constant_name(node), node[0], node[1]))
+    out.write("\n")
+
+    fields = [field for (field, _) in rules]
+    fields += [field_for(effect, index)
+               for index, (effect, _) in enumerate(others)
+               if not isinstance(effect, NumLines)]
+    for field in fields:
+        out.write("private final Effect %s;\n" % field)
+    if fields:
+        out.write("\n")
+
+    # Constructor.
+    out.write("%s(RuleSet rules) {\n" % name)
+    out.indent()
+    out.write('super("%s", //\n' % compiled.type_name)
+    out.indent(2)
+    out.write("new Start[] { %s }, //\n"
+              % ", ".join(constant_name(n) for n in nodes))
+    out.write("new String[] { %s });\n"
+              % ", ".join('"%s"' % e.name for (e, _, _) in compiled.attributes))
+    out.dedent(2)
+
+    for (field, expr) in rules:
+        out.write("%s = %s;\n" % (field, expr))
+    for index, (effect, comment) in enumerate(others):
+        if isinstance(effect, NumLines):
+            continue
+        if comment:
+            comment.write(out)
+            out.write("\n")
+        out.write("%s = " % field_for(effect, index))
+        effect.write(out)
+        out.write(";\n")
+    out.dedent()
+    out.write("}\n")
+
+    # Before and after.
+    for (method, offset, effects) in [("before", 0, compiled.before),
+                                      ("after", len(compiled.before), compiled.after)]:
+        if not effects:
+            continue
+        out.write("\n@Override\n")
+        out.write("protected void %s(Event event, Frame frame, RuleEngine engine) {\n" % method)
+        out.indent()
+        for index, (effect, comment) in enumerate(effects, offset):
+            if isinstance(effect, NumLines):
+                if comment:
+                    comment.write(out)
+                    out.write("\n")
+                out.write("NUMLINES.apply(event, frame, engine);\n")
+            else:
+                out.write("%s.apply(event, frame, engine);\n" % field_for(effect, index))
+        out.dedent()
+        out.write("}\n")
+
+    # Matching the child nodes.
+    out.write("\n@Override\n")
+    out.write("protected void map(Data child, Event event, Children children, RuleEngine engine) {\n")
+    out.indent()
+    for index, (effect, ns, comment) in enumerate(compiled.attributes):
+        if comment:
+            comment.write(out)
+            out.write("\n")
+        out.write("if (%s)\n"
+                  % " || ".join("%s.equals(child)" % constant_name(n) for n in ns))
+        out.indent()
+        if isinstance(effect, SetAttributeToProgramText):
+            out.write("assignProgramText(%d, event, children, engine);\n" % index)
+        else:
+            out.write("assign(%d, %s, event, children, engine);\n"
+                      % (index, rule_for(effect)[0]))
+        out.dedent()
+    out.dedent()
+    out.write("}\n")
+
+    out.dedent()
+    out.write("}\n")
+
+
+def write_java_compiled_rules(out, spec):
+    '''Write the code for the compiled rules to the given CodeWriter.'''
+    module = __import__(spec)
+    gen_name = '/'.join(__file__.split(os.path.sep)[-2:])
+    ast_types = wordnum_sorted(ast_types_from_module(module))
+
+    write_compiled_rules(out, build_rules(ast_types), gen_name)
+
+
+def write_compiled_rules(out, rules, gen_name):
+    compiled_rules = []
+
+    out.write(compiled_rules_preamble % gen_name)
+    out.indent(levels=2)
+
+    for rule in rules:
+        compiled = compile_rule(rule)
+        if compiled:
+            write_compiled_define(out, compiled)
+            compiled_rules.append(compiled)
+        else:
+            write_rule(out, rule)
+
+    out.dedent()
+    out.write("}\n")
+
+    for compiled in compiled_rules:
+        out.write("\n")
+        write_compiled_class(out, compiled)
+
+    out.dedent()
+    out.write("}\n")
 
 
 cobol_populator_preamble = """package com.semmle.cobol.population;
@@ -694,15 +1051,68 @@ cobol_populator_close="""    }
 }
 """
 
+compiled_rules_preamble = """package com.semmle.cobol.population;
+
+import com.semmle.cobol.generator.effects.CompiledRule;
+import com.semmle.cobol.generator.effects.Effect;
+import com.semmle.cobol.generator.engine.Frame;
+import com.semmle.cobol.generator.engine.RuleEngine;
+import com.semmle.cobol.generator.events.Event;
+import com.semmle.cobol.generator.rules.RuleSet;
+
+import static com.semmle.cobol.generator.effects.Effects.NUMLINES;
+import static com.semmle.cobol.generator.effects.Effects.all;
+import static com.semmle.cobol.generator.effects.Effects.assignTo;
+import static com.semmle.cobol.generator.effects.Effects.atEnd;
+import static com.semmle.cobol.generator.effects.Effects.collect;
+import static com.semmle.cobol.generator.effects.Effects.createTuple;
+import static com.semmle.cobol.generator.effects.Effects.nestedRecordStructure;
+import static com.semmle.cobol.generator.effects.Effects.on;
+import static com.semmle.cobol.generator.effects.Effects.print;
+import static com.semmle.cobol.generator.effects.Effects.sub;
+import static com.semmle.cobol.generator.effects.Effects.setAttribute;
+import static com.semmle.cobol.generator.effects.Effects.setAttributeAs;
+import static com.semmle.cobol.generator.effects.Effects.setAttributeToProgramText;
+
+import static com.semmle.cobol.generator.triggers.Triggers.child;
+import static com.semmle.cobol.generator.triggers.Triggers.end;
+import static com.semmle.cobol.generator.triggers.Triggers.first;
+import static com.semmle.cobol.generator.triggers.Triggers.isLast;
+import static com.semmle.cobol.generator.triggers.Triggers.isLastChild;
+import static com.semmle.cobol.generator.triggers.Triggers.PROGRAM_TEXT;
+import static com.semmle.cobol.generator.triggers.Triggers.or;
+import static com.semmle.cobol.generator.triggers.Triggers.path;
+import static com.semmle.cobol.generator.triggers.Triggers.start;
+
+import koopa.core.data.Data;
+import koopa.core.data.markers.Start;
+
+/**
+ * This class is auto-generated by '%s', from the same data
+ * definition as the Cobol database schema and QL wrapper classes.
+ * <p>
+ * It defines the same rules as {@link CobolRulesFromSpec}, but attributes which
+ * get mapped from child nodes are matched by a {@link CompiledRule} per node,
+ * rather than by combining effects.
+ */
+public class CompiledCobolRulesFromSpec {
+    public static void initialize(RuleSet rules) {
+"""
+
 
 def main(args):
     '''Write the code for the abstract extractor visitor.'''
+    write = write_java_data_model
+    if len(args) > 1 and args[1] == "--compiled":
+        write = write_java_compiled_rules
+        args = args[:1] + args[2:]
+
     if len(args) == 3:
         with CodeWriter.create(args[2], encoding='utf-8', newline='') as out:
-            write_java_data_model(out, args[1])
+            write(out, args[1])
     elif len(args) == 2:
         out = CodeWriter(sys.stdout)
-        write_java_data_model(out, args[1])
+        write(out, args[1])
     else:
         print_usage()
         sys.exit(-1)
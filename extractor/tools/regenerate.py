@@ -10,6 +10,7 @@ sys.path.append(os.path.abspath(os.path.join(SCRIPT_DIR, "..", "..", "..", "..",
 COBOL_POPULATOR       = SCRIPT_DIR + "/../src/com/semmle/cobol/population/CobolPopulator.java"
 COBOL_TYPES_FROM_SPEC = SCRIPT_DIR + "/../src/com/semmle/cobol/population/CobolTypesFromSpec.java"
 COBOL_RULES_FROM_SPEC = SCRIPT_DIR + "/../src/com/semmle/cobol/population/CobolRulesFromSpec.java"
+COMPILED_COBOL_RULES_FROM_SPEC = SCRIPT_DIR + "/../src/com/semmle/cobol/population/CompiledCobolRulesFromSpec.java"
 COBOL_DB_TEMPLATE     = SCRIPT_DIR + "/dbscheme.template"
 COBOL_DB_SCHEME       = SCRIPT_DIR + "/../../queries/semmlecode-cobol-queries/semmlecode.cobol.dbscheme"
 COBOL_QUERIES         = SCRIPT_DIR + "/../../queries/semmlecode-cobol-queries/semmle/cobol/"
@@ -36,6 +37,9 @@ gen_java_default_types(["", "spec", COBOL_TYPES_FROM_SPEC])
 print("Generating Cobol Java rules from spec ...")
 gen_java_rules(["", "spec", COBOL_RULES_FROM_SPEC])
 
+print("Generating compiled Cobol Java rules from spec ...")
+gen_java_rules(["", "--compiled", "spec", COMPILED_COBOL_RULES_FROM_SPEC])
+
 print("Generating Cobol querying library ...")
 gen_query(["", "--tostring-all", "cobol", "spec", COBOL_QUERIES])
 